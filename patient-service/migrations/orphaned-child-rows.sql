@@ -0,0 +1,61 @@
+-- One-off cleanup of child rows orphaned by releases that replaced a patient's children on update
+-- instead of reconciling them, and of emergency contacts written before they owned the patient
+-- foreign key.
+--
+-- Run once with psql in autocommit mode (the default), after every instance runs a release that
+-- reconciles children:
+--
+--   psql -v ON_ERROR_STOP=1 -f migrations/orphaned-child-rows.sql
+--
+-- Rows are deleted in id order, one short transaction per batch. Current releases write a child row
+-- and the row referencing it in the same transaction, so no committed child is ever waiting to be
+-- linked. The script may be repeated; a second run deletes nothing.
+
+\set batch_size 5000
+
+SELECT set_config('migration.batch_size', :'batch_size', false);
+
+-- Emergency contacts first, so the addresses only they referenced become orphans in turn
+DO $$
+DECLARE
+    batch_size integer := current_setting('migration.batch_size')::integer;
+    cleanup record;
+    last_id bigint;
+    max_id bigint;
+    batch_deleted bigint;
+    deleted bigint;
+BEGIN
+    FOR cleanup IN
+        SELECT * FROM (VALUES
+            (1, 'emergency_contacts', 'patient_id IS NULL'),
+            (2, 'contact_info',
+                'NOT EXISTS (SELECT 1 FROM patients p WHERE p.contact_info_id = t.id)'),
+            (3, 'insurance_info',
+                'NOT EXISTS (SELECT 1 FROM patients p WHERE p.insurance_info_id = t.id) ' ||
+                'AND NOT EXISTS (SELECT 1 FROM insurance_expiration_notices n WHERE n.insurance_info_id = t.id)'),
+            (4, 'addresses',
+                'NOT EXISTS (SELECT 1 FROM patients p WHERE p.address_id = t.id) ' ||
+                'AND NOT EXISTS (SELECT 1 FROM emergency_contacts e WHERE e.address_id = t.id)')
+        ) AS cleanups(step, table_name, orphaned)
+        ORDER BY step
+    LOOP
+        last_id := 0;
+        deleted := 0;
+        EXECUTE format('SELECT coalesce(max(id), 0) FROM %I', cleanup.table_name) INTO max_id;
+        WHILE last_id < max_id LOOP
+            EXECUTE format('DELETE FROM %I t WHERE t.id > $1 AND t.id <= $2 AND %s',
+                    cleanup.table_name, cleanup.orphaned)
+                USING last_id, last_id + batch_size;
+            GET DIAGNOSTICS batch_deleted = ROW_COUNT;
+            deleted := deleted + batch_deleted;
+            last_id := last_id + batch_size;
+            COMMIT;
+        END LOOP;
+        RAISE NOTICE 'Deleted % orphaned rows from %', deleted, cleanup.table_name;
+    END LOOP;
+END
+$$;
+
+-- Emergency contacts own the patient foreign key. The schema update does not tighten existing
+-- columns, and the statement fails while contacts without a patient remain.
+ALTER TABLE emergency_contacts ALTER COLUMN patient_id SET NOT NULL;
@@ -0,0 +1,41 @@
+-- One-off switch of the child tables from identity columns to the pooled sequences the entities
+-- draw their ids from.
+--
+-- Run once with psql, between stopping the last release that uses the identities and starting the
+-- first release that uses the sequences:
+--
+--   psql -v ON_ERROR_STOP=1 -f migrations/pooled-child-sequences.sql
+--
+-- Dropping an identity takes an ACCESS EXCLUSIVE lock on its table, which is why this does not run
+-- on every start. The script may be repeated; a sequence is only moved while its table holds ids at
+-- or beyond the next block it would hand out, so a second run changes nothing.
+
+BEGIN;
+
+-- The release using the sequences creates them on its first start, which has not happened yet
+CREATE SEQUENCE IF NOT EXISTS addresses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS contact_info_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS emergency_contacts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS insurance_info_seq START WITH 1 INCREMENT BY 50;
+
+-- Drop the identity defaults so no writer can fall back to them
+ALTER TABLE addresses ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE contact_info ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE emergency_contacts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE insurance_info ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Move each sequence past the ids the identities handed out
+SELECT setval('addresses_seq', ids.max_id + 1, false)
+    FROM (SELECT max(id) AS max_id FROM addresses) ids, addresses_seq s
+    WHERE ids.max_id >= s.last_value + CASE WHEN s.is_called THEN 50 ELSE 0 END;
+SELECT setval('contact_info_seq', ids.max_id + 1, false)
+    FROM (SELECT max(id) AS max_id FROM contact_info) ids, contact_info_seq s
+    WHERE ids.max_id >= s.last_value + CASE WHEN s.is_called THEN 50 ELSE 0 END;
+SELECT setval('emergency_contacts_seq', ids.max_id + 1, false)
+    FROM (SELECT max(id) AS max_id FROM emergency_contacts) ids, emergency_contacts_seq s
+    WHERE ids.max_id >= s.last_value + CASE WHEN s.is_called THEN 50 ELSE 0 END;
+SELECT setval('insurance_info_seq', ids.max_id + 1, false)
+    FROM (SELECT max(id) AS max_id FROM insurance_info) ids, insurance_info_seq s
+    WHERE ids.max_id >= s.last_value + CASE WHEN s.is_called THEN 50 ELSE 0 END;
+
+COMMIT;
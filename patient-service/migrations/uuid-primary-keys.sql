@@ -0,0 +1,165 @@
+-- Online migration of the patient keys from VARCHAR(36) to the native uuid type.
+--
+-- Run with psql in autocommit mode (the default), in two steps:
+--
+--   psql -v ON_ERROR_STOP=1 -f migrations/uuid-primary-keys.sql
+--   psql -v ON_ERROR_STOP=1 -v cutover=1 -f migrations/uuid-primary-keys.sql
+--
+-- The first run, phases 1 to 4, only takes brief locks and runs while the current release serves
+-- traffic; it copies every key into a shadow uuid column that triggers keep in sync, and may be
+-- repeated after a failure. The second run, phases 5 and 6, swaps the columns in one short
+-- transaction and goes with the deployment of the release that maps the keys as uuid: stop the old
+-- instances, run it, start the new ones.
+--
+-- insurance_expiration_notices.patient_id keeps its VARCHAR(36) column; it is a plain copy of the
+-- key for the outbound queue, not a foreign key.
+
+\set batch_size 5000
+
+\if :{?cutover}
+\else
+
+-- Phase 0: every key must be a UUID, otherwise the casts below fail. Expect 0.
+SELECT count(*) AS invalid_patient_ids
+FROM patients
+WHERE id !~ '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$';
+
+-- Phase 1: shadow columns, metadata only, and triggers copying keys of rows written from now on
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS id_uuid uuid;
+ALTER TABLE emergency_contacts ADD COLUMN IF NOT EXISTS patient_id_uuid uuid;
+
+CREATE OR REPLACE FUNCTION patients_sync_id_uuid() RETURNS trigger AS $$
+BEGIN
+    NEW.id_uuid := NEW.id::uuid;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION emergency_contacts_sync_patient_id_uuid() RETURNS trigger AS $$
+BEGIN
+    NEW.patient_id_uuid := NEW.patient_id::uuid;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS patients_sync_id_uuid ON patients;
+CREATE TRIGGER patients_sync_id_uuid
+    BEFORE INSERT OR UPDATE OF id ON patients
+    FOR EACH ROW EXECUTE FUNCTION patients_sync_id_uuid();
+
+DROP TRIGGER IF EXISTS emergency_contacts_sync_patient_id_uuid ON emergency_contacts;
+CREATE TRIGGER emergency_contacts_sync_patient_id_uuid
+    BEFORE INSERT OR UPDATE OF patient_id ON emergency_contacts
+    FOR EACH ROW EXECUTE FUNCTION emergency_contacts_sync_patient_id_uuid();
+
+-- Phase 2: backfill the existing rows in key order, one short transaction per batch, so row locks
+-- are held briefly and autovacuum can reclaim the old row versions while the backfill runs
+SELECT set_config('migration.batch_size', :'batch_size', false);
+
+DO $$
+DECLARE
+    batch_size integer := current_setting('migration.batch_size')::integer;
+    last_id varchar(36) := '';
+    next_id varchar(36);
+BEGIN
+    LOOP
+        SELECT max(id) INTO next_id
+        FROM (SELECT id FROM patients WHERE id > last_id ORDER BY id LIMIT batch_size) batch;
+        EXIT WHEN next_id IS NULL;
+
+        UPDATE patients SET id_uuid = id::uuid
+        WHERE id > last_id AND id <= next_id AND id_uuid IS NULL;
+        last_id := next_id;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+DO $$
+DECLARE
+    batch_size integer := current_setting('migration.batch_size')::integer;
+    last_id bigint := 0;
+    max_id bigint;
+BEGIN
+    SELECT coalesce(max(id), 0) INTO max_id FROM emergency_contacts;
+    WHILE last_id < max_id LOOP
+        UPDATE emergency_contacts SET patient_id_uuid = patient_id::uuid
+        WHERE id > last_id AND id <= last_id + batch_size AND patient_id_uuid IS NULL;
+        last_id := last_id + batch_size;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- Phase 3: indexes of the new keys, built without blocking writes. A failed concurrent build
+-- leaves an invalid index behind; drop it and run the statement again.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS patients_id_uuid_key ON patients (id_uuid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_emergency_contacts_patient_id_uuid
+    ON emergency_contacts (patient_id_uuid);
+-- Keyset paging indexes, which end in the key and are dropped with the old column at cutover.
+-- Built here so the schema update at startup finds them by name instead of rebuilding them with a
+-- blocking CREATE INDEX.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_last_name_id_uuid ON patients (last_name, id_uuid);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_created_at_id_uuid ON patients (created_at, id_uuid);
+
+-- Phase 4: prove the shadow columns complete. NOT VALID makes the constraints apply to new rows at
+-- once; validating scans the tables without blocking writes and lets SET NOT NULL in phase 5 skip
+-- its own full scan.
+ALTER TABLE patients DROP CONSTRAINT IF EXISTS patients_id_uuid_not_null;
+ALTER TABLE patients ADD CONSTRAINT patients_id_uuid_not_null CHECK (id_uuid IS NOT NULL) NOT VALID;
+ALTER TABLE patients VALIDATE CONSTRAINT patients_id_uuid_not_null;
+
+ALTER TABLE emergency_contacts DROP CONSTRAINT IF EXISTS emergency_contacts_patient_id_uuid_not_null;
+ALTER TABLE emergency_contacts
+    ADD CONSTRAINT emergency_contacts_patient_id_uuid_not_null CHECK (patient_id_uuid IS NOT NULL) NOT VALID;
+ALTER TABLE emergency_contacts VALIDATE CONSTRAINT emergency_contacts_patient_id_uuid_not_null;
+
+\echo 'Shadow columns are complete, run again with -v cutover=1 during the deployment'
+\endif
+
+\if :{?cutover}
+
+-- Phase 5: cutover, with the deployment. Every statement is a catalog change, so the exclusive
+-- locks are held for milliseconds; lock_timeout gives up instead of queueing behind long readers.
+BEGIN;
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE patients ALTER COLUMN id_uuid SET NOT NULL;
+ALTER TABLE emergency_contacts ALTER COLUMN patient_id_uuid SET NOT NULL;
+
+DROP TRIGGER emergency_contacts_sync_patient_id_uuid ON emergency_contacts;
+DROP TRIGGER patients_sync_id_uuid ON patients;
+
+-- Dropping the old columns drops the old primary key, foreign key and every index containing
+-- them, including the keyset paging indexes; the phase 3 indexes take their names below
+ALTER TABLE emergency_contacts DROP COLUMN patient_id;
+ALTER TABLE patients DROP COLUMN id;
+
+ALTER TABLE patients RENAME COLUMN id_uuid TO id;
+ALTER TABLE emergency_contacts RENAME COLUMN patient_id_uuid TO patient_id;
+
+ALTER TABLE patients ADD CONSTRAINT patients_pkey PRIMARY KEY USING INDEX patients_id_uuid_key;
+ALTER INDEX idx_emergency_contacts_patient_id_uuid RENAME TO idx_emergency_contacts_patient_id;
+ALTER INDEX idx_patients_last_name_id_uuid RENAME TO idx_patients_last_name_id;
+ALTER INDEX idx_patients_created_at_id_uuid RENAME TO idx_patients_created_at_id;
+ALTER TABLE emergency_contacts
+    ADD CONSTRAINT fk_emergency_contacts_patient FOREIGN KEY (patient_id) REFERENCES patients (id) NOT VALID;
+
+ALTER TABLE patients DROP CONSTRAINT patients_id_uuid_not_null;
+ALTER TABLE emergency_contacts DROP CONSTRAINT emergency_contacts_patient_id_uuid_not_null;
+
+-- Scan checkpoints hold bounds of the old key space
+DELETE FROM patient_scan_checkpoints;
+
+COMMIT;
+
+DROP FUNCTION IF EXISTS emergency_contacts_sync_patient_id_uuid();
+DROP FUNCTION IF EXISTS patients_sync_id_uuid();
+
+-- Phase 6: check the existing rows against the new foreign key without blocking writes, then
+-- refresh the planner statistics of the rewritten columns
+ALTER TABLE emergency_contacts VALIDATE CONSTRAINT fk_emergency_contacts_patient;
+ANALYZE patients;
+ANALYZE emergency_contacts;
+
+\endif
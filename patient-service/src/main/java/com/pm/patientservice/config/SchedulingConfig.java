@@ -0,0 +1,12 @@
+package com.pm.patientservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration class enabling scheduled background jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,84 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.InsuranceExpirationPageResponse;
+import com.pm.patientservice.service.InsuranceExpirationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+
+/**
+ * REST controller for insurance expiration queries
+ */
+@RestController
+@RequestMapping("/api/patients/insurance-expirations")
+@Tag(name = "Insurance Expirations", description = "Insurance expiration API")
+public class InsuranceExpirationController {
+
+    private static final Logger logger = LogManager.getLogger(InsuranceExpirationController.class);
+
+    private final InsuranceExpirationService insuranceExpirationService;
+
+    @Autowired
+    public InsuranceExpirationController(InsuranceExpirationService insuranceExpirationService) {
+        this.insuranceExpirationService = insuranceExpirationService;
+    }
+
+    /**
+     * Get a page of the patients whose insurance expires within a window
+     *
+     * @param from the first expiration date, inclusive
+     * @param to the last expiration date, inclusive
+     * @param size the page size
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of expiring policies, earliest expiration first
+     */
+    @Operation(
+        summary = "List expiring insurance policies",
+        description = "Returns the patients whose insurance expires within the window, ordered by expiration " +
+                "date, one page at a time. Pages are read from the expiration date index."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Expiring policies retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = InsuranceExpirationPageResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Inverted window or invalid cursor",
+            content = @Content
+        )
+    })
+    @GetMapping
+    public ResponseEntity<InsuranceExpirationPageResponse> getExpirations(
+            @Parameter(description = "First expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date from,
+            @Parameter(description = "Last expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date to,
+            @Parameter(description = "Number of policies per page (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Continuation token returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor) {
+        logger.debug("Retrieving insurance expirations between {} and {}, size={}", from, to, size);
+        InsuranceExpirationPageResponse page = insuranceExpirationService.getExpirations(from, to, size, cursor);
+        return ResponseEntity.ok(page);
+    }
+}
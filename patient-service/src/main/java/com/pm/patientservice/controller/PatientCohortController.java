@@ -0,0 +1,158 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.PatientCohortCountResponse;
+import com.pm.patientservice.dto.PatientCohortCriteria;
+import com.pm.patientservice.dto.PatientCohortPageResponse;
+import com.pm.patientservice.service.PatientCohortIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller for patient cohort queries
+ */
+@RestController
+@RequestMapping("/api/patients/cohort")
+@Tag(name = "Patient Cohort", description = "Patient cohort analytics API")
+public class PatientCohortController {
+
+    private static final Logger logger = LogManager.getLogger(PatientCohortController.class);
+
+    private final PatientCohortIndex patientCohortIndex;
+
+    @Autowired
+    public PatientCohortController(PatientCohortIndex patientCohortIndex) {
+        this.patientCohortIndex = patientCohortIndex;
+    }
+
+    /**
+     * Count the patients in a cohort
+     *
+     * @return the cohort size and the evaluation time
+     */
+    @Operation(
+        summary = "Count a patient cohort",
+        description = "Counts the patients matching all given filters. Repeat a parameter to match any of " +
+                "several values, e.g. state=MA&state=NH. Answered from in-memory bitmap indexes."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Cohort counted successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientCohortCountResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Inverted date range",
+            content = @Content
+        )
+    })
+    @GetMapping("/count")
+    public ResponseEntity<PatientCohortCountResponse> countCohort(
+            @Parameter(description = "Genders, case-insensitive")
+            @RequestParam(required = false) List<String> gender,
+            @Parameter(description = "States of the patient address, case-insensitive")
+            @RequestParam(required = false) List<String> state,
+            @Parameter(description = "Countries of the patient address, case-insensitive")
+            @RequestParam(required = false) List<String> country,
+            @Parameter(description = "Insurance providers, case-insensitive")
+            @RequestParam(required = false) List<String> insuranceProvider,
+            @Parameter(description = "Insurance coverage types, case-insensitive")
+            @RequestParam(required = false) List<String> coverageType,
+            @Parameter(description = "Earliest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthFrom,
+            @Parameter(description = "Latest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthTo,
+            @Parameter(description = "Earliest insurance expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date insuranceExpiresFrom,
+            @Parameter(description = "Latest insurance expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date insuranceExpiresTo) {
+        PatientCohortCriteria criteria = new PatientCohortCriteria(gender, state, country, insuranceProvider,
+                coverageType, dateOfBirthFrom, dateOfBirthTo, insuranceExpiresFrom, insuranceExpiresTo);
+        logger.debug("Counting patient cohort: {}", criteria);
+        long start = System.nanoTime();
+        long count = patientCohortIndex.count(criteria);
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        logger.debug("Cohort contains {} patients ({} µs)", count, elapsedMicros);
+        return ResponseEntity.ok(new PatientCohortCountResponse(count, elapsedMicros));
+    }
+
+    /**
+     * Get a page of the patients in a cohort
+     *
+     * @param size the page size
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of patient summaries with the cohort size
+     */
+    @Operation(
+        summary = "List a patient cohort",
+        description = "Returns the summaries of the patients matching all given filters, one page at a time, " +
+                "with the size of the whole cohort. Takes the same filters as the cohort count."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Cohort page retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientCohortPageResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Inverted date range or invalid cursor",
+            content = @Content
+        )
+    })
+    @GetMapping
+    public ResponseEntity<PatientCohortPageResponse> getCohort(
+            @Parameter(description = "Genders, case-insensitive")
+            @RequestParam(required = false) List<String> gender,
+            @Parameter(description = "States of the patient address, case-insensitive")
+            @RequestParam(required = false) List<String> state,
+            @Parameter(description = "Countries of the patient address, case-insensitive")
+            @RequestParam(required = false) List<String> country,
+            @Parameter(description = "Insurance providers, case-insensitive")
+            @RequestParam(required = false) List<String> insuranceProvider,
+            @Parameter(description = "Insurance coverage types, case-insensitive")
+            @RequestParam(required = false) List<String> coverageType,
+            @Parameter(description = "Earliest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthFrom,
+            @Parameter(description = "Latest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthTo,
+            @Parameter(description = "Earliest insurance expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date insuranceExpiresFrom,
+            @Parameter(description = "Latest insurance expiration date (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date insuranceExpiresTo,
+            @Parameter(description = "Number of patient summaries per page (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Continuation token returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor) {
+        PatientCohortCriteria criteria = new PatientCohortCriteria(gender, state, country, insuranceProvider,
+                coverageType, dateOfBirthFrom, dateOfBirthTo, insuranceExpiresFrom, insuranceExpiresTo);
+        logger.debug("Retrieving patient cohort page: {}, size={}", criteria, size);
+        PatientCohortPageResponse page = patientCohortIndex.page(criteria, size, cursor);
+        logger.debug("Retrieved {} of {} cohort patients", page.getSize(), page.getCount());
+        return ResponseEntity.ok(page);
+    }
+}
@@ -1,8 +1,19 @@
 package com.pm.patientservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pm.patientservice.dto.PatientBatchCreateRequest;
+import com.pm.patientservice.dto.PatientBatchCreateResponse;
 import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientPageResponse;
 import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.dto.PatientSummaryPageResponse;
 import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.repository.PatientSortField;
 import com.pm.patientservice.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,11 +26,18 @@ import jakarta.validation.Valid;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.util.Date;
+import java.util.function.Supplier;
 
 /**
  * REST controller for patient operations
@@ -29,13 +47,23 @@ import java.util.List;
 @Tag(name = "Patient", description = "Patient management API")
 public class PatientController {
 
+    /**
+     * Media type of JSON merge patches (RFC 7396)
+     */
+    public static final String APPLICATION_MERGE_PATCH_JSON = "application/merge-patch+json";
+
     private static final Logger logger = LogManager.getLogger(PatientController.class);
 
+    // Clients may keep patient data but must revalidate it, which conditional requests make cheap
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final PatientService patientService;
+    private final PatientJsonCache patientJsonCache;
 
     @Autowired
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, PatientJsonCache patientJsonCache) {
         this.patientService = patientService;
+        this.patientJsonCache = patientJsonCache;
     }
 
     /**
@@ -76,22 +104,81 @@ public class PatientController {
         try {
             PatientResponse response = patientService.createPatient(request);
             logger.info("Successfully created patient with ID: {}", response.getId());
-            return new ResponseEntity<>(response, HttpStatus.CREATED);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .headers(PatientETag.headers(response.getVersion(), response.getUpdatedAt()))
+                    .body(response);
         } catch (Exception e) {
             logger.error("Failed to create patient: {}", e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Create a batch of new patients
+     * 
+     * @param request the batch creation request
+     * @return the per-patient outcome of the batch
+     */
+    @Operation(
+        summary = "Create a batch of patients",
+        description = "Creates up to " + PatientBatchCreateRequest.MAX_BATCH_SIZE + " patient records in one " +
+                "transaction. Patients conflicting with existing records or with an earlier patient of the " +
+                "batch are reported per item and skipped."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201", 
+            description = "All patients created successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientBatchCreateResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "207", 
+            description = "Some patients were not created because they already exist",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientBatchCreateResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Invalid input data",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Concurrent requests kept creating patients with keys of the batch; nothing was created",
+            content = @Content
+        )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<PatientBatchCreateResponse> createPatients(
+            @Parameter(description = "Patients to create", required = true)
+            @Valid @RequestBody PatientBatchCreateRequest request) {
+        logger.info("Creating batch of {} patients", request.getPatients().size());
+        try {
+            PatientBatchCreateResponse response = patientService.createPatients(request.getPatients());
+            logger.info("Batch created {} patients with {} conflicts", response.getCreated(), response.getConflicts());
+            HttpStatus status = response.getConflicts() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+            return new ResponseEntity<>(response, status);
+        } catch (Exception e) {
+            logger.error("Failed to create batch of patients: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
     /**
      * Get a patient by ID
      * 
      * @param id the patient ID
-     * @return the patient
+     * @return the patient, or no content if the client's copy is current
      */
     @Operation(
         summary = "Get a patient by ID",
-        description = "Retrieves a patient record by their unique identifier"
+        description = "Retrieves a patient record by their unique identifier. Send a previously returned ETag " +
+                "as If-None-Match, or its Last-Modified date as If-Modified-Since, to revalidate a cached copy."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -102,6 +189,11 @@ public class PatientController {
                 schema = @Schema(implementation = PatientResponse.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304", 
+            description = "Patient not modified since the client's copy",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "404", 
             description = "Patient not found",
@@ -109,14 +201,20 @@ public class PatientController {
         )
     })
     @GetMapping("/{id}")
-    public ResponseEntity<PatientResponse> getPatientById(
+    public ResponseEntity<byte[]> getPatientById(
             @Parameter(description = "Unique identifier of the patient", required = true)
-            @PathVariable String id) {
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
         logger.info("Retrieving patient with ID: {}", id);
         try {
+            if (notModified(webRequest, () -> patientService.getPatientVersion(id))) {
+                logger.debug("Patient with ID {} not modified", id);
+                return null;
+            }
             PatientResponse response = patientService.getPatientById(id);
             logger.debug("Successfully retrieved patient: {}", response.getMedicalRecordNumber());
-            return ResponseEntity.ok(response);
+            return serializedResponse(response, acceptEncoding);
         } catch (Exception e) {
             logger.error("Failed to retrieve patient with ID {}: {}", id, e.getMessage(), e);
             throw e;
@@ -127,11 +225,12 @@ public class PatientController {
      * Get a patient by medical record number
      * 
      * @param medicalRecordNumber the medical record number
-     * @return the patient
+     * @return the patient, or no content if the client's copy is current
      */
     @Operation(
         summary = "Get a patient by medical record number",
-        description = "Retrieves a patient record by their medical record number (MRN)"
+        description = "Retrieves a patient record by their medical record number (MRN). Supports the same " +
+                "conditional requests as the read by ID."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -142,6 +241,11 @@ public class PatientController {
                 schema = @Schema(implementation = PatientResponse.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304", 
+            description = "Patient not modified since the client's copy",
+            content = @Content
+        ),
         @ApiResponse(
             responseCode = "404", 
             description = "Patient not found",
@@ -149,14 +253,21 @@ public class PatientController {
         )
     })
     @GetMapping("/mrn/{mrn}")
-    public ResponseEntity<PatientResponse> getPatientByMedicalRecordNumber(
+    public ResponseEntity<byte[]> getPatientByMedicalRecordNumber(
             @Parameter(description = "Medical record number of the patient", required = true)
-            @PathVariable("mrn") String medicalRecordNumber) {
+            @PathVariable("mrn") String medicalRecordNumber,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
         logger.info("Retrieving patient with medical record number: {}", medicalRecordNumber);
         try {
+            if (notModified(webRequest,
+                    () -> patientService.getPatientVersionByMedicalRecordNumber(medicalRecordNumber))) {
+                logger.debug("Patient with medical record number {} not modified", medicalRecordNumber);
+                return null;
+            }
             PatientResponse response = patientService.getPatientByMedicalRecordNumber(medicalRecordNumber);
             logger.debug("Successfully retrieved patient with medical record number: {}", medicalRecordNumber);
-            return ResponseEntity.ok(response);
+            return serializedResponse(response, acceptEncoding);
         } catch (Exception e) {
             logger.error("Failed to retrieve patient with medical record number {}: {}", medicalRecordNumber, e.getMessage(), e);
             throw e;
@@ -164,33 +275,182 @@ public class PatientController {
     }
 
     /**
-     * Get all patients
+     * Get a page of patients
      * 
-     * @return list of all patients
+     * @param size the page size
+     * @param sort the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of patients
      */
     @Operation(
-        summary = "Get all patients",
-        description = "Retrieves a list of all patient records in the system"
+        summary = "Get a page of patients",
+        description = "Retrieves patient records using keyset pagination. Pass the nextCursor of a page " +
+                "to fetch the following page with the same sort order."
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200", 
-            description = "List of patients retrieved successfully",
+            description = "Page of patients retrieved successfully",
             content = @Content(
                 mediaType = "application/json",
-                schema = @Schema(implementation = PatientResponse.class)
+                schema = @Schema(implementation = PatientPageResponse.class)
             )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Invalid sort parameters or cursor",
+            content = @Content
         )
     })
     @GetMapping
-    public ResponseEntity<List<PatientResponse>> getAllPatients() {
-        logger.info("Retrieving all patients");
+    public ResponseEntity<PatientPageResponse> getPatients(
+            @Parameter(description = "Number of patients per page (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort field: lastName or createdAt")
+            @RequestParam(defaultValue = "lastName") String sort,
+            @Parameter(description = "Sort direction: asc or desc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "Continuation token returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor) {
+        logger.info("Retrieving page of patients: size={}, sort={}, direction={}", size, sort, direction);
+        try {
+            PatientSortField sortField = PatientSortField.fromParameter(sort);
+            PatientPageResponse page = patientService.getPatients(size, sortField, parseDirection(direction), cursor);
+            logger.info("Successfully retrieved {} patients", page.getSize());
+            String eTag = PatientETag.ofPage(
+                    page.getItems().stream().map(item -> item.getId() + ":" + item.getVersion()), page.getNextCursor());
+            return pageResponse(page, eTag);
+        } catch (Exception e) {
+            logger.error("Failed to retrieve page of patients: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Get a page of patient summaries
+     * 
+     * @param size the page size
+     * @param sort the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of patient summaries
+     */
+    @Operation(
+        summary = "Get a page of patient summaries",
+        description = "Retrieves the ID, medical record number, name, date of birth and gender of patients " +
+                "for list screens, using the same keyset pagination as the full patient list."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Page of patient summaries retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientSummaryPageResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Invalid sort parameters or cursor",
+            content = @Content
+        )
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<PatientSummaryPageResponse> getPatientSummaries(
+            @Parameter(description = "Number of patient summaries per page (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort field: lastName or createdAt")
+            @RequestParam(defaultValue = "lastName") String sort,
+            @Parameter(description = "Sort direction: asc or desc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "Continuation token returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor) {
+        logger.info("Retrieving page of patient summaries: size={}, sort={}, direction={}", size, sort, direction);
+        try {
+            PatientSortField sortField = PatientSortField.fromParameter(sort);
+            PatientSummaryPageResponse page = patientService.getPatientSummaries(size, sortField,
+                    parseDirection(direction), cursor);
+            logger.info("Successfully retrieved {} patient summaries", page.getSize());
+            return pageResponse(page, summaryPageETag(page));
+        } catch (Exception e) {
+            logger.error("Failed to retrieve page of patient summaries: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Search patients
+     * 
+     * @param lastName the case-insensitive last name prefix
+     * @param firstName the case-insensitive first name prefix
+     * @param name the case-insensitive fragment of the first or last name
+     * @param dateOfBirthFrom the inclusive lower bound of the date of birth
+     * @param dateOfBirthTo the inclusive upper bound of the date of birth
+     * @param city the case-insensitive city of the address
+     * @param state the case-insensitive state of the address
+     * @param size the page size
+     * @param sort the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of matching patient summaries
+     */
+    @Operation(
+        summary = "Search patients",
+        description = "Searches patients by any combination of name prefix, name fragment, date of birth range, " +
+                "city and state. At least one filter is required. Results are patient summaries with the " +
+                "same keyset pagination as the patient list."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Matching patients retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientSummaryPageResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Missing or invalid search filters, sort parameters or cursor",
+            content = @Content
+        )
+    })
+    @GetMapping("/search")
+    public ResponseEntity<PatientSummaryPageResponse> searchPatients(
+            @Parameter(description = "Case-insensitive prefix of the last name")
+            @RequestParam(required = false) String lastName,
+            @Parameter(description = "Case-insensitive prefix of the first name")
+            @RequestParam(required = false) String firstName,
+            @Parameter(description = "Case-insensitive fragment of the first or last name, at least 3 characters")
+            @RequestParam(required = false) String name,
+            @Parameter(description = "Earliest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthFrom,
+            @Parameter(description = "Latest date of birth (yyyy-MM-dd), inclusive")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date dateOfBirthTo,
+            @Parameter(description = "Case-insensitive city of the patient address")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Case-insensitive state of the patient address")
+            @RequestParam(required = false) String state,
+            @Parameter(description = "Number of patient summaries per page (max 100)")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Sort field: lastName or createdAt")
+            @RequestParam(defaultValue = "lastName") String sort,
+            @Parameter(description = "Sort direction: asc or desc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "Continuation token returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor) {
+        PatientSearchCriteria criteria = new PatientSearchCriteria(lastName, firstName, name,
+                dateOfBirthFrom, dateOfBirthTo, city, state);
+        logger.info("Searching patients: size={}, sort={}, direction={}", size, sort, direction);
         try {
-            List<PatientResponse> patients = patientService.getAllPatients();
-            logger.info("Successfully retrieved {} patients", patients.size());
-            return ResponseEntity.ok(patients);
+            PatientSortField sortField = PatientSortField.fromParameter(sort);
+            PatientSummaryPageResponse page = patientService.searchPatients(criteria, size, sortField,
+                    parseDirection(direction), cursor);
+            logger.info("Search found {} patients", page.getSize());
+            return pageResponse(page, summaryPageETag(page));
         } catch (Exception e) {
-            logger.error("Failed to retrieve all patients: {}", e.getMessage(), e);
+            logger.error("Failed to search patients: {}", e.getMessage(), e);
             throw e;
         }
     }
@@ -199,12 +459,14 @@ public class PatientController {
      * Update a patient
      * 
      * @param id the patient ID
+     * @param ifMatch the ETag of the version the update is based on, if any
      * @param request the patient update request
      * @return the updated patient
      */
     @Operation(
         summary = "Update a patient",
-        description = "Updates an existing patient record with the provided information"
+        description = "Updates an existing patient record with the provided information. Send the ETag of " +
+                "the patient as If-Match to have the update rejected if the patient changed since it was read."
     )
     @ApiResponses(value = {
         @ApiResponse(
@@ -224,12 +486,24 @@ public class PatientController {
             responseCode = "404", 
             description = "Patient not found",
             content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409", 
+            description = "Patient was modified concurrently or the update conflicts with an existing patient",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "412", 
+            description = "Patient version does not match If-Match",
+            content = @Content
         )
     })
     @PutMapping("/{id}")
     public ResponseEntity<PatientResponse> updatePatient(
             @Parameter(description = "Unique identifier of the patient to update", required = true)
             @PathVariable String id, 
+            @Parameter(description = "ETag of the patient version the update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Updated patient information", required = true)
             @Valid @RequestBody PatientUpdateRequest request) {
 
@@ -242,15 +516,87 @@ public class PatientController {
         }
 
         try {
-            PatientResponse response = patientService.updatePatient(request);
+            Long expectedVersion = PatientETag.ifMatchVersion(ifMatch, id);
+            PatientResponse response = patientService.updatePatient(request, expectedVersion);
+            patientJsonCache.evict(id);
             logger.info("Successfully updated patient with ID: {}", id);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .headers(PatientETag.headers(response.getVersion(), response.getUpdatedAt()))
+                    .body(response);
         } catch (Exception e) {
             logger.error("Failed to update patient with ID {}: {}", id, e.getMessage(), e);
             throw e;
         }
     }
 
+    /**
+     * Partially update a patient with a JSON merge patch
+     * 
+     * @param id the patient ID
+     * @param ifMatch the ETag of the version the patch is based on, if any
+     * @param patch the merge patch
+     * @return the patched patient
+     */
+    @Operation(
+        summary = "Patch a patient",
+        description = "Applies a JSON merge patch (RFC 7396) to a patient: members set to null are removed, " +
+                "objects are merged and arrays replaced. Only the changed fields are written. Send the ETag of " +
+                "the patient as If-Match to have the patch rejected if the patient changed since it was read."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200", 
+            description = "Patient patched successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400", 
+            description = "Malformed patch or patched patient is invalid",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "404", 
+            description = "Patient not found",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "409", 
+            description = "Patient was modified concurrently or the patch conflicts with an existing patient",
+            content = @Content
+        ),
+        @ApiResponse(
+            responseCode = "412", 
+            description = "Patient version does not match If-Match",
+            content = @Content
+        )
+    })
+    @PatchMapping(value = "/{id}", consumes = {APPLICATION_MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<PatientResponse> patchPatient(
+            @Parameter(description = "Unique identifier of the patient to patch", required = true)
+            @PathVariable String id, 
+            @Parameter(description = "ETag of the patient version the patch is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "JSON merge patch of the patient", required = true)
+            @RequestBody JsonNode patch) {
+
+        logger.info("Patching patient with ID: {}", id);
+        try {
+            Long expectedVersion = PatientETag.ifMatchVersion(ifMatch, id);
+            PatientResponse response = patientService.patchPatient(id, patch, expectedVersion);
+            patientJsonCache.evict(id);
+            logger.info("Successfully patched patient with ID: {}", id);
+            return ResponseEntity.ok()
+                    .headers(PatientETag.headers(response.getVersion(), response.getUpdatedAt()))
+                    .body(response);
+        } catch (Exception e) {
+            logger.error("Failed to patch patient with ID {}: {}", id, e.getMessage(), e);
+            throw e;
+        }
+    }
+
     /**
      * Delete a patient
      * 
@@ -280,6 +626,7 @@ public class PatientController {
         logger.info("Deleting patient with ID: {}", id);
         try {
             patientService.deletePatient(id);
+            patientJsonCache.evict(id);
             logger.info("Successfully deleted patient with ID: {}", id);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
@@ -287,4 +634,75 @@ public class PatientController {
             throw e;
         }
     }
+
+    private static Sort.Direction parseDirection(String direction) {
+        return Sort.Direction.fromOptionalString(direction)
+                .orElseThrow(() -> new InvalidRequestException("Unsupported sort direction: " + direction,
+                        ErrorCode.INVALID_SORT));
+    }
+
+    /**
+     * Answer a conditional read from the patient's validators alone. The patient is looked up
+     * only if the request carries If-None-Match or If-Modified-Since.
+     *
+     * @return true if the client's copy is current, in which case the response is already 304
+     */
+    private static boolean notModified(WebRequest webRequest, Supplier<PatientVersion> versionLookup) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return false;
+        }
+        PatientVersion version = versionLookup.get();
+        return webRequest.checkNotModified(PatientETag.of(version.version()),
+                PatientETag.lastModified(version.updatedAt()));
+    }
+
+    /**
+     * Write a page with its collection ETag. A GET whose If-None-Match matches the tag is
+     * answered with 304 by the framework.
+     */
+    private static <T> ResponseEntity<T> pageResponse(T page, String eTag) {
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(eTag)
+                .body(page);
+    }
+
+    /**
+     * Summaries carry no version, so the tag digests their values, which are all they show
+     */
+    private static String summaryPageETag(PatientSummaryPageResponse page) {
+        return PatientETag.ofPage(page.getItems().stream().map(PatientSummary::toString), page.getNextCursor());
+    }
+
+    /**
+     * Write a patient from its cached serialized form, gzip-compressed if the client accepts it
+     * and a compressed copy is available
+     */
+    private ResponseEntity<byte[]> serializedResponse(PatientResponse response, String acceptEncoding) {
+        PatientJsonCache.SerializedPatient serialized = patientJsonCache.get(response);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(PatientETag.headers(response.getVersion(), response.getUpdatedAt()))
+                .cacheControl(REVALIDATE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (serialized.getGzip() != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.getGzip());
+        }
+        return builder.body(serialized.getJson());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // An explicit quality of zero means the coding is not acceptable
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,133 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.DuplicateCandidate;
+import com.pm.patientservice.dto.DuplicateScanResponse;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.service.PatientDuplicateIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for duplicate patient detection
+ */
+@RestController
+@RequestMapping("/api/patients/duplicates")
+@Tag(name = "Patient Duplicates", description = "Duplicate patient detection API")
+public class PatientDuplicateController {
+
+    private static final Logger logger = LogManager.getLogger(PatientDuplicateController.class);
+
+    private final PatientDuplicateIndex patientDuplicateIndex;
+
+    @Autowired
+    public PatientDuplicateController(PatientDuplicateIndex patientDuplicateIndex) {
+        this.patientDuplicateIndex = patientDuplicateIndex;
+    }
+
+    /**
+     * Check a patient for possible duplicates before creating it
+     *
+     * @param request the patient about to be created
+     * @return the possible duplicates, best match first
+     */
+    @Operation(
+        summary = "Check for duplicate patients",
+        description = "Scores the existing patients that share a phonetic name, date of birth or zip code block " +
+                "with the given patient and returns those above the duplicate threshold. Nothing is stored."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Possible duplicates retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = DuplicateCandidate.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid patient data",
+            content = @Content
+        )
+    })
+    @PostMapping("/check")
+    public ResponseEntity<List<DuplicateCandidate>> checkDuplicates(@Valid @RequestBody PatientCreateRequest request) {
+        logger.info("Checking for duplicates of patient with medical record number: {}", request.getMedicalRecordNumber());
+        PatientSnapshot probe = new PatientSnapshot(null, request.getMedicalRecordNumber(), request.getFirstName(),
+                request.getLastName(), request.getDateOfBirth(), request.getGender(),
+                request.getAddress() != null ? request.getAddress().getZipCode() : null,
+                null, null, null, null, null, null, null);
+        List<DuplicateCandidate> candidates = patientDuplicateIndex.findCandidates(probe);
+        logger.info("Found {} possible duplicates", candidates.size());
+        return ResponseEntity.ok(candidates);
+    }
+
+    /**
+     * Scan all patients for possible duplicates
+     *
+     * @param minScore the lowest score to report
+     * @param limit the maximum number of pairs
+     * @return the best scoring pairs and scan statistics
+     */
+    @Operation(
+        summary = "Scan all patients for duplicates",
+        description = "Compares every pair of patients sharing a blocking key, in parallel, and returns the " +
+                "best scoring pairs. Pairs are never compared across blocks, so the scan grows close to " +
+                "linearly with the number of patients."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Scan completed successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = DuplicateScanResponse.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Score outside 0 to 1",
+            content = @Content
+        )
+    })
+    @GetMapping
+    public ResponseEntity<DuplicateScanResponse> scanDuplicates(
+            @Parameter(description = "Lowest match score to report, from 0 to 1 (default: the configured threshold)")
+            @RequestParam(required = false) Double minScore,
+            @Parameter(description = "Maximum number of pairs (max " + PatientDuplicateIndex.MAX_SCAN_PAIRS + ")")
+            @RequestParam(defaultValue = "100") int limit) {
+        if (minScore != null && (minScore < 0.0 || minScore > 1.0)) {
+            throw new InvalidRequestException("Minimum score must be between 0 and 1: " + minScore);
+        }
+        logger.info("Scanning for duplicate patients: minScore={}, limit={}", minScore, limit);
+        try {
+            DuplicateScanResponse response = patientDuplicateIndex.scan(minScore, limit);
+            logger.info("Duplicate scan returned {} pairs", response.getPairs().size());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Failed to scan for duplicate patients: {}", e.getMessage(), e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Entity tags of patients and patient pages. A patient's strong tag is its optimistic lock
+ * version, which changes with every committed update, so it identifies the representation
+ * without hashing it. Pages get a weak tag digested from the tags of their items.
+ */
+final class PatientETag {
+
+    private static final String WILDCARD = "*";
+
+    private PatientETag() {
+    }
+
+    /**
+     * The ETag header value of a patient version, or null if the version is unknown
+     */
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Response headers carrying the ETag of a patient version and its Last-Modified date,
+     * each omitted if unknown
+     */
+    static HttpHeaders headers(Long version, Date updatedAt) {
+        HttpHeaders headers = new HttpHeaders();
+        if (version != null) {
+            headers.setETag(of(version));
+        }
+        if (updatedAt != null) {
+            headers.setLastModified(updatedAt.getTime());
+        }
+        return headers;
+    }
+
+    /**
+     * The Last-Modified timestamp of a patient, or -1 if unknown
+     */
+    static long lastModified(Date updatedAt) {
+        return updatedAt == null ? -1 : updatedAt.getTime();
+    }
+
+    /**
+     * Weak entity tag of a page, digesting a tag of every item and the continuation token.
+     * Equal tags mean equivalent pages, not byte-identical ones.
+     *
+     * @param itemTags the tags of the items, in page order
+     * @param nextCursor the continuation token of the page, possibly null
+     * @return the ETag header value
+     */
+    static String ofPage(Stream<String> itemTags, String nextCursor) {
+        StringBuilder content = new StringBuilder();
+        itemTags.forEach(tag -> content.append(tag).append('\n'));
+        content.append(nextCursor);
+        return "W/\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * The version an If-Match header requires. If-Match uses the strong comparison, so weak
+     * and malformed tags never match and fail the precondition.
+     *
+     * @param ifMatch the If-Match header value, possibly null
+     * @param id the patient ID, for the error message
+     * @return the required version, or null if the header is absent or matches any version
+     * @throws PatientVersionConflictException if no tag of the header can match
+     * @throws InvalidRequestException if the header lists several versions
+     */
+    static Long ifMatchVersion(String ifMatch, String id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(WILDCARD)) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String tag : ifMatch.split(",")) {
+            Long version = parseStrong(tag.trim());
+            if (version != null && !versions.contains(version)) {
+                versions.add(version);
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PatientVersionConflictException(
+                    String.format("If-Match for patient with id: %s names no strong version", id),
+                    ErrorCode.VERSION_MISMATCH);
+        }
+        if (versions.size() > 1) {
+            throw new InvalidRequestException("If-Match must name a single patient version");
+        }
+        return versions.get(0);
+    }
+
+    private static Long parseStrong(String tag) {
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
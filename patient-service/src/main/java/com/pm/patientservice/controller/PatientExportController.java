@@ -0,0 +1,87 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.service.PatientExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for bulk patient exports
+ */
+@RestController
+@RequestMapping("/api/patients/export")
+@Tag(name = "Patient Export", description = "Bulk patient export API")
+public class PatientExportController {
+
+    private static final Logger logger = LogManager.getLogger(PatientExportController.class);
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final PatientExportService patientExportService;
+
+    @Autowired
+    public PatientExportController(PatientExportService patientExportService) {
+        this.patientExportService = patientExportService;
+    }
+
+    /**
+     * Export all patients as NDJSON
+     *
+     * @param gzip whether to gzip-compress the response body
+     * @return the streaming response body
+     */
+    @Operation(
+        summary = "Export all patients",
+        description = "Streams every patient record as newline-delimited JSON, one patient per line. " +
+                "The export is read through a database cursor, so it can be used for full-table extracts."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Export streamed successfully",
+            content = @Content(mediaType = "application/x-ndjson")
+        )
+    })
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportPatients(
+            @Parameter(description = "Compress the response body with gzip")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("Starting patient export (gzip={})", gzip);
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE, true);
+                patientExportService.exportNdjson(gzipStream);
+                gzipStream.finish();
+            } else {
+                patientExportService.exportNdjson(outputStream);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"patients.ndjson" + (gzip ? ".gz" : "") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
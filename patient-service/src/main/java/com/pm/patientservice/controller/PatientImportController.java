@@ -0,0 +1,93 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.PatientImportResponse;
+import com.pm.patientservice.service.PatientImportReader;
+import com.pm.patientservice.service.PatientImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * REST controller for bulk patient imports
+ */
+@RestController
+@RequestMapping("/api/patients/import")
+@Tag(name = "Patient Import", description = "Bulk patient import API")
+public class PatientImportController {
+
+    private static final Logger logger = LogManager.getLogger(PatientImportController.class);
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final PatientImportService patientImportService;
+
+    @Autowired
+    public PatientImportController(PatientImportService patientImportService) {
+        this.patientImportService = patientImportService;
+    }
+
+    /**
+     * Import a file of patients
+     *
+     * @param contentType the file format, NDJSON or CSV
+     * @param contentEncoding gzip if the body is compressed
+     * @param body the file content
+     * @return the import report
+     */
+    @Operation(
+        summary = "Import patients from a file",
+        description = "Loads an NDJSON file with one create request per line, or a CSV file whose header names " +
+                "the create request property of each column as a dotted path such as address.city or " +
+                "emergencyContacts[0].name. Invalid records and duplicates of existing or earlier patients " +
+                "are skipped and reported; all other records are imported in one transaction. " +
+                "The body may be gzip-compressed with Content-Encoding: gzip."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "File imported, see the report for skipped records",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = PatientImportResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "File cannot be read, e.g. a CSV column names no patient property"
+        ),
+        @ApiResponse(
+            responseCode = "415",
+            description = "Content type is neither application/x-ndjson nor text/csv"
+        )
+    })
+    @PostMapping(consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<PatientImportResponse> importPatients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @Parameter(description = "gzip if the file is compressed")
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        PatientImportReader.Format format = PatientImportReader.Format.of(MediaType.parseMediaType(contentType));
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        logger.info("Received patient import (format={}, gzip={})", format, gzip);
+
+        InputStream input = gzip ? new GZIPInputStream(body, GZIP_BUFFER_SIZE) : body;
+        PatientImportResponse response = patientImportService.importPatients(format, input);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,131 @@
+package com.pm.patientservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.exception.PatientServiceException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of serialized patient responses. Each entry holds the JSON bytes of one version of a
+ * patient, identified by its version and update timestamp, and optionally a gzip-compressed copy, so that
+ * repeated reads are written to the response stream without running Jackson again.
+ */
+@Component
+public class PatientJsonCache {
+
+    public static final String PATIENT_JSON = "patient.json";
+
+    // Responses smaller than this are not worth compressing
+    private static final int GZIP_MIN_SIZE = 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean gzipEnabled;
+    private final Cache<String, SerializedPatient> serializedPatients;
+
+    @Autowired
+    public PatientJsonCache(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                            @Value("${patient.json-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${patient.json-cache.gzip:true}") boolean gzipEnabled) {
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+        this.serializedPatients = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, serializedPatients, PATIENT_JSON);
+    }
+
+    /**
+     * Get the serialized form of a patient response, serializing it only if the cached
+     * entry is missing or belongs to a different version of the patient
+     *
+     * @param response the patient response
+     * @return the serialized patient
+     */
+    public SerializedPatient get(PatientResponse response) {
+        String version = versionOf(response);
+        SerializedPatient cached = serializedPatients.getIfPresent(response.getId());
+        if (cached != null && cached.getVersion().equals(version)) {
+            return cached;
+        }
+        SerializedPatient serialized = serialize(response, version);
+        serializedPatients.put(response.getId(), serialized);
+        return serialized;
+    }
+
+    /**
+     * Remove the serialized form of a patient
+     *
+     * @param id the patient ID
+     */
+    public void evict(String id) {
+        serializedPatients.invalidate(id);
+    }
+
+    private SerializedPatient serialize(PatientResponse response, String version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            byte[] gzip = gzipEnabled && json.length >= GZIP_MIN_SIZE ? gzip(json) : null;
+            return new SerializedPatient(version, json, gzip);
+        } catch (JsonProcessingException e) {
+            throw new PatientServiceException("Failed to serialize patient " + response.getId(), e);
+        }
+    }
+
+    private static String versionOf(PatientResponse response) {
+        long updatedAt = response.getUpdatedAt() == null ? 0 : response.getUpdatedAt().getTime();
+        return response.getVersion() + ":" + updatedAt;
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(out)) {
+            gzipStream.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialized form of one version of a patient
+     */
+    public static final class SerializedPatient {
+        private final String version;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        SerializedPatient(String version, byte[] json, byte[] gzip) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * The gzip-compressed JSON, or null if the response was not compressed
+         */
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.PatientStatsResponse;
+import com.pm.patientservice.service.PatientAggregates;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for patient population statistics
+ */
+@RestController
+@RequestMapping("/api/patients/stats")
+@Tag(name = "Patient Stats", description = "Patient population statistics API")
+public class PatientStatsController {
+
+    private static final Logger logger = LogManager.getLogger(PatientStatsController.class);
+
+    private final PatientAggregates patientAggregates;
+
+    @Autowired
+    public PatientStatsController(PatientAggregates patientAggregates) {
+        this.patientAggregates = patientAggregates;
+    }
+
+    /**
+     * Get the population aggregates
+     *
+     * @return the patient counts by gender, state, insurance provider and age band
+     */
+    @Operation(
+        summary = "Get population statistics",
+        description = "Returns patient counts by gender, state, insurance provider and age band. Served from " +
+                "counters maintained on every change and periodically reconciled with the database."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Statistics retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = PatientStatsResponse.class)
+            )
+        )
+    })
+    @GetMapping
+    public ResponseEntity<PatientStatsResponse> getStats() {
+        logger.debug("Retrieving patient population statistics");
+        PatientStatsResponse stats = patientAggregates.getStats();
+        logger.debug("Population contains {} patients", stats.getTotal());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pm.patientservice.controller;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.service.PatientNameIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for patient name typeahead suggestions
+ */
+@RestController
+@RequestMapping("/api/patients/suggest")
+@Tag(name = "Patient Suggest", description = "Patient name typeahead API")
+public class PatientSuggestController {
+
+    private static final Logger logger = LogManager.getLogger(PatientSuggestController.class);
+
+    private final PatientNameIndex patientNameIndex;
+
+    @Autowired
+    public PatientSuggestController(PatientNameIndex patientNameIndex) {
+        this.patientNameIndex = patientNameIndex;
+    }
+
+    /**
+     * Suggest patients by name prefix
+     *
+     * @param q the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the summaries of the matching patients
+     */
+    @Operation(
+        summary = "Suggest patients by name",
+        description = "Returns patients whose first or last name starts with each word of the query, " +
+                "ignoring case and accents. Answered from an in-memory index without a database query."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Suggestions retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = PatientSummary.class))
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Missing or blank query",
+            content = @Content
+        )
+    })
+    @GetMapping
+    public ResponseEntity<List<PatientSummary>> suggestPatients(
+            @Parameter(description = "Name prefix typed so far, e.g. \"jo\" or \"john do\"")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (max " + PatientNameIndex.MAX_SUGGESTIONS + ")")
+            @RequestParam(defaultValue = "10") int limit) {
+        if (q.isBlank()) {
+            throw new InvalidRequestException("Suggest query must not be blank", ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+        logger.debug("Suggesting patients: limit={}", limit);
+        List<PatientSummary> suggestions = patientNameIndex.suggest(q, limit);
+        logger.debug("Suggested {} patients", suggestions.size());
+        return ResponseEntity.ok(suggestions);
+    }
+}
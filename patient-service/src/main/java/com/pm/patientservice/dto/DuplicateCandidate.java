@@ -0,0 +1,10 @@
+package com.pm.patientservice.dto;
+
+/**
+ * A patient that may be a duplicate of another patient or of a patient about to be created
+ *
+ * @param patient the summary of the possible duplicate
+ * @param score the match score, from 0.0 to 1.0
+ */
+public record DuplicateCandidate(PatientSummary patient, double score) {
+}
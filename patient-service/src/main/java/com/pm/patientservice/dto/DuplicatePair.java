@@ -0,0 +1,11 @@
+package com.pm.patientservice.dto;
+
+/**
+ * Two existing patients that may be duplicates of each other
+ *
+ * @param first the summary of one patient
+ * @param second the summary of the other patient
+ * @param score the match score, from 0.0 to 1.0
+ */
+public record DuplicatePair(PatientSummary first, PatientSummary second, double score) {
+}
@@ -0,0 +1,22 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the result of a duplicate scan over all patients
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateScanResponse {
+    private List<DuplicatePair> pairs;
+    private int patients;
+    private int blocks;
+    private long comparisons;
+    private int skippedBlocks;
+    private long durationMillis;
+}
@@ -0,0 +1,19 @@
+package com.pm.patientservice.dto;
+
+import java.util.Date;
+
+/**
+ * Projection of a patient whose insurance expires within a window. It is selected column by
+ * column through a constructor expression, so no entity enters the persistence context.
+ */
+public record InsuranceExpiration(
+        String patientId,
+        String medicalRecordNumber,
+        String firstName,
+        String lastName,
+        Long insuranceInfoId,
+        String provider,
+        String policyNumber,
+        String coverageType,
+        Date expirationDate) {
+}
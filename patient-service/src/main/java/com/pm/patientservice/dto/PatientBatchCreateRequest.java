@@ -0,0 +1,26 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO for creating a batch of new Patients
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBatchCreateRequest {
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @Valid
+    @NotEmpty(message = "At least one patient is required")
+    @Size(max = MAX_BATCH_SIZE, message = "A batch must contain at most " + MAX_BATCH_SIZE + " patients")
+    private List<PatientCreateRequest> patients;
+}
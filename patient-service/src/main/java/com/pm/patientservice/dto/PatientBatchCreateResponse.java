@@ -0,0 +1,19 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the response of a batch creation, with one result per requested patient
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBatchCreateResponse {
+    private int created;
+    private int conflicts;
+    private List<PatientBatchItemResult> results;
+}
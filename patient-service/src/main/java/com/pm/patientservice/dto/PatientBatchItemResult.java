@@ -0,0 +1,25 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of one patient of a batch creation
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientBatchItemResult {
+    public enum Status {
+        CREATED,
+        CONFLICT
+    }
+
+    private int index;
+    private Status status;
+    private String id;
+    private String medicalRecordNumber;
+    private String errorCode;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the size of a patient cohort
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientCohortCountResponse {
+    private long count;
+    private long elapsedMicros;
+}
@@ -0,0 +1,36 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * DTO for a patient cohort filter. Values of one attribute are combined with OR, attributes
+ * with AND. Filters left null or empty are not applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientCohortCriteria {
+    // Case-insensitive genders
+    private List<String> gender;
+    // Case-insensitive states of the patient address
+    private List<String> state;
+    // Case-insensitive countries of the patient address
+    private List<String> country;
+    // Case-insensitive insurance providers
+    private List<String> insuranceProvider;
+    // Case-insensitive insurance coverage types
+    private List<String> coverageType;
+    // Inclusive lower bound of the date of birth
+    private Date dateOfBirthFrom;
+    // Inclusive upper bound of the date of birth
+    private Date dateOfBirthTo;
+    // Inclusive lower bound of the insurance expiration date
+    private Date insuranceExpiresFrom;
+    // Inclusive upper bound of the insurance expiration date
+    private Date insuranceExpiresTo;
+}
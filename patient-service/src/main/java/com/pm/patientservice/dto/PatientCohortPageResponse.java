@@ -0,0 +1,21 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a page of the patients in a cohort
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientCohortPageResponse {
+    private List<PatientSummary> items;
+    private int size;
+    private long count;
+    private boolean hasMore;
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a record of an import file that was not imported
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportIssue {
+    public enum Type {
+        INVALID,
+        DUPLICATE
+    }
+
+    private long line;
+    private Type type;
+    private String medicalRecordNumber;
+    private String errorCode;
+    private String message;
+}
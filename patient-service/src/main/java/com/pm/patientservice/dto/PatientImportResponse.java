@@ -0,0 +1,25 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the report of a bulk import. The issues list the first rejected records in file order;
+ * the counts cover the whole file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientImportResponse {
+    private String importId;
+    private long received;
+    private long imported;
+    private long invalid;
+    private long duplicates;
+    private long durationMillis;
+    private List<PatientImportIssue> issues;
+    private boolean issuesTruncated;
+}
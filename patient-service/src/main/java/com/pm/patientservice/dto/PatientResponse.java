@@ -26,4 +26,5 @@ public class PatientResponse {
     private InsuranceInfoDTO insuranceInfo;
     private Date createdAt;
     private Date updatedAt;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * DTO for combinable patient search filters. Filters left null are not applied.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSearchCriteria {
+    // Case-insensitive prefix of the last name
+    private String lastName;
+    // Case-insensitive prefix of the first name
+    private String firstName;
+    // Case-insensitive fragment found anywhere in the first or last name
+    private String name;
+    // Inclusive lower bound of the date of birth
+    private Date dateOfBirthFrom;
+    // Inclusive upper bound of the date of birth
+    private Date dateOfBirthTo;
+    // Case-insensitive city of the patient address
+    private String city;
+    // Case-insensitive state of the patient address
+    private String state;
+
+    /**
+     * Whether no filter is set
+     */
+    public boolean isEmpty() {
+        return isBlank(lastName) && isBlank(firstName) && isBlank(name)
+                && dateOfBirthFrom == null && dateOfBirthTo == null
+                && isBlank(city) && isBlank(state);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
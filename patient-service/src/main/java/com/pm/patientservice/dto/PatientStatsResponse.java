@@ -0,0 +1,25 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * DTO for population aggregates of the patient table
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientStatsResponse {
+    private long total;
+    private Map<String, Long> byGender;
+    private Map<String, Long> byState;
+    private Map<String, Long> byInsuranceProvider;
+    // Age bands by the age patients reach in the current calendar year
+    private Map<String, Long> byAgeBand;
+    // When the counters were last reconciled against the database, null before the first reconciliation
+    private Date reconciledAt;
+}
@@ -0,0 +1,18 @@
+package com.pm.patientservice.dto;
+
+import java.util.Date;
+
+/**
+ * Lightweight projection of a patient for list screens. It is selected column by column
+ * through a constructor expression, so no entity or association is loaded and nothing
+ * enters the persistence context.
+ */
+public record PatientSummary(
+        String id,
+        String medicalRecordNumber,
+        String firstName,
+        String lastName,
+        Date dateOfBirth,
+        String gender,
+        Date createdAt) {
+}
@@ -0,0 +1,20 @@
+package com.pm.patientservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for a keyset-paginated page of patient summaries
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientSummaryPageResponse {
+    private List<PatientSummary> items;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+}
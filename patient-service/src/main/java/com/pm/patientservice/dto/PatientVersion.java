@@ -0,0 +1,18 @@
+package com.pm.patientservice.dto;
+
+import java.util.Date;
+
+/**
+ * Cache validators of a patient: the optimistic lock version behind its ETag and the update
+ * timestamp behind its Last-Modified date. It is selected through a constructor expression,
+ * so answering a conditional request neither loads the patient nor its associations.
+ */
+public record PatientVersion(String id, Long version, Date updatedAt) {
+
+    /**
+     * The validators of a patient response
+     */
+    public static PatientVersion of(PatientResponse response) {
+        return new PatientVersion(response.getId(), response.getVersion(), response.getUpdatedAt());
+    }
+}
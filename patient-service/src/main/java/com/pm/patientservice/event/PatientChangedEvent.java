@@ -0,0 +1,34 @@
+package com.pm.patientservice.event;
+
+/**
+ * Application event published by the patient service for every created, updated or deleted
+ * patient. Listeners maintaining in-memory indexes should consume it after the transaction
+ * commits, so that rolled back writes are never indexed.
+ */
+public record PatientChangedEvent(Type type, PatientSnapshot before, PatientSnapshot after) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static PatientChangedEvent created(PatientSnapshot after) {
+        return new PatientChangedEvent(Type.CREATED, null, after);
+    }
+
+    public static PatientChangedEvent updated(PatientSnapshot before, PatientSnapshot after) {
+        return new PatientChangedEvent(Type.UPDATED, before, after);
+    }
+
+    public static PatientChangedEvent deleted(PatientSnapshot before) {
+        return new PatientChangedEvent(Type.DELETED, before, null);
+    }
+
+    /**
+     * The ID of the changed patient
+     */
+    public String patientId() {
+        return after != null ? after.id() : before.id();
+    }
+}
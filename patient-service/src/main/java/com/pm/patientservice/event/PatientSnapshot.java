@@ -0,0 +1,59 @@
+package com.pm.patientservice.event;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.model.Address;
+import com.pm.patientservice.model.InsuranceInfo;
+import com.pm.patientservice.model.Patient;
+
+import java.util.Date;
+
+/**
+ * Immutable copy of the patient attributes maintained by in-memory indexes. It is taken inside
+ * the writing transaction, so listeners never touch a detached entity or its lazy associations.
+ */
+public record PatientSnapshot(
+        String id,
+        String medicalRecordNumber,
+        String firstName,
+        String lastName,
+        Date dateOfBirth,
+        String gender,
+        String zipCode,
+        String state,
+        String country,
+        String insuranceProvider,
+        String coverageType,
+        Date insuranceExpirationDate,
+        Date createdAt,
+        Date updatedAt) {
+
+    /**
+     * Take a snapshot of the current state of a patient
+     */
+    public static PatientSnapshot of(Patient patient) {
+        Address address = patient.getAddress();
+        InsuranceInfo insurance = patient.getInsuranceInfo();
+        return new PatientSnapshot(
+                patient.getId(),
+                patient.getMedicalRecordNumber(),
+                patient.getFirstName(),
+                patient.getLastName(),
+                patient.getDateOfBirth(),
+                patient.getGender(),
+                address != null ? address.getZipCode() : null,
+                address != null ? address.getState() : null,
+                address != null ? address.getCountry() : null,
+                insurance != null ? insurance.getProvider() : null,
+                insurance != null ? insurance.getCoverageType() : null,
+                insurance != null ? insurance.getExpirationDate() : null,
+                patient.getCreatedAt(),
+                patient.getUpdatedAt());
+    }
+
+    /**
+     * The summary of the patient as returned by list endpoints
+     */
+    public PatientSummary toSummary() {
+        return new PatientSummary(id, medicalRecordNumber, firstName, lastName, dateOfBirth, gender, createdAt);
+    }
+}
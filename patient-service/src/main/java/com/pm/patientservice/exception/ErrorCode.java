@@ -7,6 +7,11 @@ public enum ErrorCode {
     // General errors
     UNKNOWN_ERROR("UNKNOWN_ERROR", "An unknown error occurred"),
     VALIDATION_ERROR("VALIDATION_ERROR", "Validation error occurred"),
+    INVALID_CURSOR("INVALID_CURSOR", "Pagination cursor is invalid"),
+    INVALID_SORT("INVALID_SORT", "Sort parameter is invalid"),
+    INVALID_SEARCH_CRITERIA("INVALID_SEARCH_CRITERIA", "Search criteria are invalid"),
+    INVALID_PATCH("INVALID_PATCH", "Merge patch is invalid"),
+    INVALID_IMPORT("INVALID_IMPORT", "Import file is invalid"),
     
     // Patient-related errors
     PATIENT_NOT_FOUND("PATIENT_NOT_FOUND", "Patient not found"),
@@ -14,6 +19,8 @@ public enum ErrorCode {
     DUPLICATE_MEDICAL_RECORD_NUMBER("DUPLICATE_MEDICAL_RECORD_NUMBER", "Medical record number already exists"),
     DUPLICATE_EMAIL("DUPLICATE_EMAIL", "Email already exists"),
     DUPLICATE_PHONE_NUMBER("DUPLICATE_PHONE_NUMBER", "Phone number already exists"),
+    VERSION_MISMATCH("VERSION_MISMATCH", "Patient version does not match the request precondition"),
+    CONCURRENT_MODIFICATION("CONCURRENT_MODIFICATION", "Patient was modified concurrently"),
     
     // System errors
     DATABASE_ERROR("DATABASE_ERROR", "Database error occurred"),
@@ -47,6 +47,39 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(PatientVersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handlePatientVersionConflictException(
+            PatientVersionConflictException ex, WebRequest request) {
+
+        // A failed If-Match precondition is 412, a lost race without a precondition is 409
+        HttpStatus status = ex.getErrorCode() == ErrorCode.VERSION_MISMATCH
+                ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+        ErrorResponse errorResponse = new ErrorResponse(
+                status.value(),
+                status.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false),
+                ex.getErrorCode().getCode()
+        );
+
+        return new ResponseEntity<>(errorResponse, status);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestException(
+            InvalidRequestException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Bad Request",
+                ex.getMessage(),
+                request.getDescription(false),
+                ex.getErrorCode().getCode()
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(PatientServiceException.class)
     public ResponseEntity<ErrorResponse> handlePatientServiceException(
             PatientServiceException ex, WebRequest request) {
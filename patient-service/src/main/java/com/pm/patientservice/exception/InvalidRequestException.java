@@ -0,0 +1,16 @@
+package com.pm.patientservice.exception;
+
+/**
+ * Exception thrown when a request is syntactically valid but cannot be served,
+ * e.g. an unknown sort field or a tampered pagination cursor
+ */
+public class InvalidRequestException extends PatientServiceException {
+
+    public InvalidRequestException(String message) {
+        super(message, ErrorCode.VALIDATION_ERROR);
+    }
+
+    public InvalidRequestException(String message, ErrorCode errorCode) {
+        super(message, errorCode);
+    }
+}
@@ -0,0 +1,25 @@
+package com.pm.patientservice.exception;
+
+/**
+ * Exception thrown when a patient update is based on a version that is no longer current,
+ * either because the If-Match precondition names another version or because a concurrent
+ * update committed first
+ */
+public class PatientVersionConflictException extends PatientServiceException {
+
+    public PatientVersionConflictException(String message, ErrorCode errorCode) {
+        super(message, errorCode);
+    }
+
+    public static PatientVersionConflictException versionMismatch(String id, Long expectedVersion) {
+        return new PatientVersionConflictException(
+                String.format("Patient with id: %s is not at version %s", id, expectedVersion),
+                ErrorCode.VERSION_MISMATCH);
+    }
+
+    public static PatientVersionConflictException concurrentModification(String id) {
+        return new PatientVersionConflictException(
+                String.format("Patient with id: %s was modified concurrently", id),
+                ErrorCode.CONCURRENT_MODIFICATION);
+    }
+}
@@ -4,8 +4,13 @@ import com.pm.patientservice.dto.*;
 import com.pm.patientservice.model.*;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -34,7 +39,8 @@ public class PatientMapper {
                 toEmergencyContactDTOList(patient.getEmergencyContacts()),
                 toInsuranceInfoDTO(patient.getInsuranceInfo()),
                 patient.getCreatedAt(),
-                patient.getUpdatedAt()
+                patient.getUpdatedAt(),
+                patient.getVersion()
         );
     }
     
@@ -66,7 +72,10 @@ public class PatientMapper {
     }
     
     /**
-     * Update Patient entity from PatientUpdateRequest DTO
+     * Update a managed Patient entity from PatientUpdateRequest DTO. The address, contact
+     * information, insurance information and emergency contacts are reconciled with the
+     * existing child entities rather than replaced, so dirty checking writes only the rows and
+     * columns that changed and orphan removal deletes the children the request drops.
      */
     public void updatePatientFromDTO(PatientUpdateRequest request, Patient patient) {
         if (request == null || patient == null) {
@@ -78,16 +87,139 @@ public class PatientMapper {
         patient.setLastName(request.getLastName());
         patient.setDateOfBirth(request.getDateOfBirth());
         patient.setGender(request.getGender());
-        patient.setAddress(toAddress(request.getAddress()));
-        patient.setContactInfo(toContactInfo(request.getContactInfo()));
-        patient.setEmergencyContacts(toEmergencyContactList(request.getEmergencyContacts()));
-        patient.setInsuranceInfo(toInsuranceInfo(request.getInsuranceInfo()));
+        patient.setAddress(mergeAddress(request.getAddress(), patient.getAddress()));
+        patient.setContactInfo(mergeContactInfo(request.getContactInfo(), patient.getContactInfo()));
+        mergeEmergencyContacts(request.getEmergencyContacts(), patient);
+        patient.setInsuranceInfo(mergeInsuranceInfo(request.getInsuranceInfo(), patient.getInsuranceInfo()));
         
         // Update the update timestamp
         patient.setUpdatedAt(new Date());
     }
     
+    /**
+     * Convert Patient entity to the PatientUpdateRequest DTO describing its current state
+     */
+    public PatientUpdateRequest toPatientUpdateRequest(Patient patient) {
+        if (patient == null) {
+            return null;
+        }
+
+        InsuranceInfoDTO insuranceInfo = toInsuranceInfoDTO(patient.getInsuranceInfo());
+        if (insuranceInfo != null) {
+            insuranceInfo.setEffectiveDate(toUtilDate(insuranceInfo.getEffectiveDate()));
+            insuranceInfo.setExpirationDate(toUtilDate(insuranceInfo.getExpirationDate()));
+        }
+        return new PatientUpdateRequest(
+                patient.getId(),
+                patient.getMedicalRecordNumber(),
+                patient.getFirstName(),
+                patient.getLastName(),
+                toUtilDate(patient.getDateOfBirth()),
+                patient.getGender(),
+                toAddressDTO(patient.getAddress()),
+                toContactInfoDTO(patient.getContactInfo()),
+                toEmergencyContactDTOList(patient.getEmergencyContacts()),
+                insuranceInfo
+        );
+    }
+
     // Helper methods for converting between DTOs and entities
+
+    private Address mergeAddress(AddressDTO dto, Address address) {
+        if (dto == null || address == null) {
+            return toAddress(dto);
+        }
+        address.setStreet(dto.getStreet());
+        address.setCity(dto.getCity());
+        address.setState(dto.getState());
+        address.setZipCode(dto.getZipCode());
+        address.setCountry(dto.getCountry());
+        return address;
+    }
+
+    private ContactInfo mergeContactInfo(ContactInfoDTO dto, ContactInfo contactInfo) {
+        if (dto == null || contactInfo == null) {
+            return toContactInfo(dto);
+        }
+        contactInfo.setPhoneNumber(dto.getPhoneNumber());
+        contactInfo.setEmail(dto.getEmail());
+        contactInfo.setAlternativePhoneNumber(dto.getAlternativePhoneNumber());
+        return contactInfo;
+    }
+
+    private InsuranceInfo mergeInsuranceInfo(InsuranceInfoDTO dto, InsuranceInfo info) {
+        if (dto == null || info == null) {
+            return toInsuranceInfo(dto);
+        }
+        info.setProvider(dto.getProvider());
+        info.setPolicyNumber(dto.getPolicyNumber());
+        info.setGroupNumber(dto.getGroupNumber());
+        info.setPolicyHolderName(dto.getPolicyHolderName());
+        info.setEffectiveDate(dto.getEffectiveDate());
+        info.setExpirationDate(dto.getExpirationDate());
+        info.setCoverageType(dto.getCoverageType());
+        return info;
+    }
+
+    /**
+     * Reconcile the patient's emergency contacts with the requested ones. Contacts equal to a
+     * requested one are left untouched, the remaining contacts are updated in place with the
+     * remaining requested ones in list order, and only the surplus is inserted or, through
+     * orphan removal, deleted. The managed collection is modified rather than replaced.
+     */
+    private void mergeEmergencyContacts(List<EmergencyContactDTO> dtos, Patient patient) {
+        List<EmergencyContact> contacts = patient.getEmergencyContacts();
+        if (contacts == null) {
+            patient.setEmergencyContacts(dtos == null ? new ArrayList<>() : toEmergencyContactList(dtos));
+            return;
+        }
+
+        // Match unchanged contacts first so that they are not rewritten
+        List<EmergencyContact> unmatched = new ArrayList<>(contacts);
+        List<EmergencyContactDTO> unmatchedDTOs = toEmergencyContactDTOList(unmatched);
+        List<EmergencyContactDTO> changed = new ArrayList<>();
+        for (EmergencyContactDTO dto : dtos == null ? List.<EmergencyContactDTO>of() : dtos) {
+            int index = unmatchedDTOs.indexOf(dto);
+            if (index >= 0) {
+                unmatched.remove(index);
+                unmatchedDTOs.remove(index);
+            } else {
+                changed.add(dto);
+            }
+        }
+
+        Iterator<EmergencyContact> reusable = unmatched.iterator();
+        for (EmergencyContactDTO dto : changed) {
+            if (reusable.hasNext()) {
+                mergeEmergencyContact(dto, reusable.next());
+                reusable.remove();
+            } else {
+                patient.addEmergencyContact(toEmergencyContact(dto));
+            }
+        }
+
+        // Contacts neither kept nor reused are removed, entities compare by identity here
+        Set<EmergencyContact> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(unmatched);
+        contacts.removeIf(removed::contains);
+    }
+
+    private void mergeEmergencyContact(EmergencyContactDTO dto, EmergencyContact contact) {
+        contact.setName(dto.getName());
+        contact.setRelationship(dto.getRelationship());
+        contact.setPhoneNumber(dto.getPhoneNumber());
+        contact.setEmail(dto.getEmail());
+        contact.setAddress(mergeAddress(dto.getAddress(), contact.getAddress()));
+    }
+
+    /**
+     * A plain Date of the same instant. Dates loaded from DATE columns are java.sql.Date, which
+     * Jackson writes without the time of day.
+     */
+    private static Date toUtilDate(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
     
     private AddressDTO toAddressDTO(Address address) {
         if (address == null) {
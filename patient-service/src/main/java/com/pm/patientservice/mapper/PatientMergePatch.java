@@ -0,0 +1,106 @@
+package com.pm.patientservice.mapper;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies JSON merge patches (RFC 7396) to the update form of a patient. The patched form must
+ * pass the same validation as a full update, so a patch can only produce a patient that PUT
+ * would accept.
+ */
+@Component
+public class PatientMergePatch {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader updateRequestReader;
+    private final Validator validator;
+
+    @Autowired
+    public PatientMergePatch(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        // Unlike request bodies, a patch naming an unknown field is rejected rather than ignored
+        this.updateRequestReader = objectMapper.readerFor(PatientUpdateRequest.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.validator = validator;
+    }
+
+    /**
+     * Apply a merge patch to the current state of a patient
+     *
+     * @param current the current state of the patient
+     * @param patch the merge patch, a JSON object
+     * @return the patched state
+     * @throws InvalidRequestException if the patch is malformed, changes the ID or produces an
+     *                                 invalid patient
+     */
+    public PatientUpdateRequest apply(PatientUpdateRequest current, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidRequestException("Merge patch must be a JSON object", ErrorCode.INVALID_PATCH);
+        }
+
+        PatientUpdateRequest patched;
+        try {
+            patched = updateRequestReader.readValue(merge(objectMapper.valueToTree(current), patch));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidRequestException("Merge patch cannot be applied: " + e.getMessage(), ErrorCode.INVALID_PATCH);
+        }
+        if (!Objects.equals(current.getId(), patched.getId())) {
+            throw new InvalidRequestException("Merge patch must not change the patient ID", ErrorCode.INVALID_PATCH);
+        }
+
+        Set<ConstraintViolation<PatientUpdateRequest>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<PatientUpdateRequest> first = violations.stream()
+                    .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .orElseThrow();
+            throw new InvalidRequestException(String.format("Patched patient is invalid: %s %s",
+                    first.getPropertyPath(), first.getMessage()), ErrorCode.VALIDATION_ERROR);
+        }
+        return patched;
+    }
+
+    /**
+     * The MergePatch function of RFC 7396: members of an object patch are merged recursively,
+     * null members are removed and any other value, arrays included, replaces the target.
+     *
+     * @param target the document to patch, possibly null
+     * @param patch the patch
+     * @return the patched document; the target is not modified
+     */
+    public static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+                ? ((ObjectNode) target).deepCopy()
+                : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> members = patch.fields();
+        while (members.hasNext()) {
+            Map.Entry<String, JsonNode> member = members.next();
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        }
+        return result;
+    }
+}
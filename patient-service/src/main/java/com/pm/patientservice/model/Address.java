@@ -4,6 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 
@@ -12,12 +16,16 @@ import java.io.Serializable;
  */
 @Entity
 @Table(name = "addresses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "addresses")
+@DynamicUpdate
+@BatchSize(size = 50)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Address implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "addresses_seq")
+    @SequenceGenerator(name = "addresses_seq", sequenceName = "addresses_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "street", nullable = false, length = 100)
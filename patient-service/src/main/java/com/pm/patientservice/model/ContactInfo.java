@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 
@@ -11,19 +14,28 @@ import java.io.Serializable;
  * ContactInfo model representing contact information for a patient.
  */
 @Entity
-@Table(name = "contact_info")
+@Table(name = "contact_info", uniqueConstraints = {
+        @UniqueConstraint(name = ContactInfo.UK_PHONE_NUMBER, columnNames = "phone_number"),
+        @UniqueConstraint(name = ContactInfo.UK_EMAIL, columnNames = "email")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contact-info")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ContactInfo implements Serializable {
+    public static final String UK_PHONE_NUMBER = "uk_contact_info_phone_number";
+    public static final String UK_EMAIL = "uk_contact_info_email";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_info_seq")
+    @SequenceGenerator(name = "contact_info_seq", sequenceName = "contact_info_seq", allocationSize = 50)
     private Long id;
 
-    @Column(name = "phone_number", nullable = false, length = 20, unique = true)
+    @Column(name = "phone_number", nullable = false, length = 20)
     private String phoneNumber;
 
-    @Column(name = "email", nullable = false, length = 100, unique = true)
+    @Column(name = "email", nullable = false, length = 100)
     private String email;
 
     @Column(name = "alternative_phone_number", length = 20)
@@ -3,7 +3,12 @@ package com.pm.patientservice.model;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 
@@ -11,13 +16,18 @@ import java.io.Serializable;
  * EmergencyContact model representing emergency contact information for a patient.
  */
 @Entity
-@Table(name = "emergency_contacts")
+@Table(name = "emergency_contacts", indexes = {
+        @Index(name = "idx_emergency_contacts_patient_id", columnList = "patient_id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "emergency-contacts")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class EmergencyContact implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "emergency_contacts_seq")
+    @SequenceGenerator(name = "emergency_contacts_seq", sequenceName = "emergency_contacts_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", nullable = false, length = 100)
@@ -32,10 +42,25 @@ public class EmergencyContact implements Serializable {
     @Column(name = "email", nullable = false, length = 100)
     private String email;
 
-    @ManyToOne(cascade = CascadeType.ALL)
-    @JoinColumn(name = "address_id")
+    /**
+     * Each contact owns its address row, so an address replaced or dropped by an update is deleted
+     * with orphan removal instead of being left behind
+     */
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+    @JoinColumn(name = "address_id", referencedColumnName = "id")
     private Address address;
 
+    /**
+     * Owning side of Patient.emergencyContacts, so the foreign key is written with the INSERT
+     * rather than by a separate UPDATE per contact
+     */
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id", nullable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_emergency_contacts_patient"))
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Patient patient;
+
     // Constructor without id for easier creation
     public EmergencyContact(String name, String relationship, String phoneNumber, String email, Address address) {
         this.name = name;
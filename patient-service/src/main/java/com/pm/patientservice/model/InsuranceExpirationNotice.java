@@ -0,0 +1,71 @@
+package com.pm.patientservice.model;
+
+import com.pm.patientservice.dto.InsuranceExpiration;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Outbound queue entry telling billing that a patient's insurance policy expires soon.
+ * Entries are written by the insurance expiration job, at most once per policy and
+ * expiration date, and marked processed by the consumer.
+ */
+@Entity
+@Table(name = "insurance_expiration_notices", uniqueConstraints = {
+        @UniqueConstraint(name = InsuranceExpirationNotice.UK_INSURANCE_EXPIRATION,
+                columnNames = {"insurance_info_id", "expiration_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InsuranceExpirationNotice implements Serializable {
+
+    public static final String UK_INSURANCE_EXPIRATION = "uk_insurance_expiration_notices_insurance_expiration";
+
+    // Sequence ids with a pooled allocation keep the job's inserts in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "insurance_expiration_notices_seq")
+    @SequenceGenerator(name = "insurance_expiration_notices_seq", sequenceName = "insurance_expiration_notices_seq",
+            allocationSize = 50)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false, length = 36)
+    private String patientId;
+
+    @Column(name = "medical_record_number", nullable = false, length = 50)
+    private String medicalRecordNumber;
+
+    @Column(name = "insurance_info_id", nullable = false)
+    private Long insuranceInfoId;
+
+    @Column(name = "provider", nullable = false, length = 100)
+    private String provider;
+
+    @Column(name = "policy_number", nullable = false, length = 50)
+    private String policyNumber;
+
+    @Temporal(TemporalType.DATE)
+    @Column(name = "expiration_date", nullable = false)
+    private Date expirationDate;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "processed_at")
+    private Date processedAt;
+
+    /**
+     * Create the pending notice for an expiring policy
+     */
+    public static InsuranceExpirationNotice of(InsuranceExpiration expiration, Date createdAt) {
+        return new InsuranceExpirationNotice(null, expiration.patientId(), expiration.medicalRecordNumber(),
+                expiration.insuranceInfoId(), expiration.provider(), expiration.policyNumber(),
+                expiration.expirationDate(), createdAt, null);
+    }
+}
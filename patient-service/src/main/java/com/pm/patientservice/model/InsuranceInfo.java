@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.io.Serializable;
 import java.util.Date;
@@ -12,13 +15,19 @@ import java.util.Date;
  * InsuranceInfo model representing insurance information for a patient.
  */
 @Entity
-@Table(name = "insurance_info")
+@Table(name = "insurance_info", indexes = {
+        // Range scans over expiration windows, in keyset order
+        @Index(name = "idx_insurance_info_expiration_date_id", columnList = "expiration_date, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "insurance-info")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class InsuranceInfo implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "insurance_info_seq")
+    @SequenceGenerator(name = "insurance_info_seq", sequenceName = "insurance_info_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "provider", nullable = false, length = 100)
@@ -4,28 +4,93 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
 
 import java.io.Serializable;
 import java.util.Date;
 import java.util.List;
+import java.util.regex.Pattern;
 
 /**
  * Patient model representing a patient in the medical system.
  */
 @Entity
-@Table(name = "patients")
+@NamedEntityGraphs({
+        @NamedEntityGraph(
+                name = Patient.GRAPH_ALL_ASSOCIATIONS,
+                attributeNodes = {
+                        @NamedAttributeNode("address"),
+                        @NamedAttributeNode("contactInfo"),
+                        @NamedAttributeNode("insuranceInfo"),
+                        @NamedAttributeNode(value = "emergencyContacts", subgraph = "emergencyContacts")
+                },
+                subgraphs = @NamedSubgraph(name = "emergencyContacts", attributeNodes = @NamedAttributeNode("address"))
+        ),
+        @NamedEntityGraph(
+                name = Patient.GRAPH_SINGLE_ASSOCIATIONS,
+                attributeNodes = {
+                        @NamedAttributeNode("address"),
+                        @NamedAttributeNode("contactInfo"),
+                        @NamedAttributeNode("insuranceInfo")
+                }
+        )
+})
+@Table(name = "patients", uniqueConstraints = {
+        @UniqueConstraint(name = Patient.UK_MEDICAL_RECORD_NUMBER, columnNames = "medical_record_number")
+}, indexes = {
+        @Index(name = "idx_patients_last_name_id", columnList = "last_name, id"),
+        @Index(name = "idx_patients_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_patients_date_of_birth", columnList = "date_of_birth"),
+        @Index(name = "idx_patients_address_id", columnList = "address_id"),
+        @Index(name = "idx_patients_insurance_info_id", columnList = "insurance_info_id")
+})
+@NaturalIdCache(region = "patient-natural-ids")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Patient implements Serializable {
+
+    /**
+     * Entity graph fetching the whole patient aggregate in a single query, for reads of
+     * individual patients or an unpaginated set of IDs
+     */
+    public static final String GRAPH_ALL_ASSOCIATIONS = "Patient.allAssociations";
+
+    /**
+     * Entity graph fetching only the single-valued associations, for paginated reads where
+     * a collection fetch join would defeat the row limit. Emergency contacts are then
+     * initialized in batches.
+     */
+    public static final String GRAPH_SINGLE_ASSOCIATIONS = "Patient.singleAssociations";
+
+    public static final String UK_MEDICAL_RECORD_NUMBER = "uk_patients_medical_record_number";
+
+    private static final Pattern ID_PATTERN =
+            Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    /**
+     * Time-ordered UUID, handled as its canonical string and stored as a native uuid
+     */
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
-    @Column(name = "id", nullable = false, updatable = false, columnDefinition = "VARCHAR(36)")
+    @GeneratedValue(generator = "UUIDv7")
+    @GenericGenerator(name = "UUIDv7", strategy = "com.pm.patientservice.model.UuidV7Generator")
+    @JavaType(UuidStringJavaType.class)
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "id", nullable = false, updatable = false)
     private String id;
 
-    @Column(name = "medical_record_number", nullable = false, unique = true, length = 50)
+    @NaturalId(mutable = true)
+    @Column(name = "medical_record_number", nullable = false, length = 50)
     private String medicalRecordNumber;
 
     @Column(name = "first_name", nullable = false, length = 100)
@@ -41,19 +106,20 @@ public class Patient implements Serializable {
     @Column(name = "gender", nullable = false, length = 20)
     private String gender;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JoinColumn(name = "address_id", referencedColumnName = "id")
     private Address address;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JoinColumn(name = "contact_info_id", referencedColumnName = "id")
     private ContactInfo contactInfo;
 
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "patient_id")
+    @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patient-emergency-contacts")
     private List<EmergencyContact> emergencyContacts;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JoinColumn(name = "insurance_info_id", referencedColumnName = "id")
     private InsuranceInfo insuranceInfo;
 
@@ -64,4 +130,38 @@ public class Patient implements Serializable {
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "updated_at", nullable = false)
     private Date updatedAt;
+
+    /**
+     * Optimistic lock version, incremented by every update and exposed as the patient's ETag.
+     * The column default lets the schema update add it to existing rows.
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0 not null")
+    private Long version;
+
+    /**
+     * Whether the value has the form of a patient ID, a UUID in canonical lowercase form. Other
+     * values cannot be bound to the uuid column and never name a patient.
+     */
+    public static boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    /**
+     * Set the emergency contacts, linking each contact to this patient
+     */
+    public void setEmergencyContacts(List<EmergencyContact> emergencyContacts) {
+        if (emergencyContacts != null) {
+            emergencyContacts.forEach(contact -> contact.setPatient(this));
+        }
+        this.emergencyContacts = emergencyContacts;
+    }
+
+    /**
+     * Add an emergency contact, linking it to this patient
+     */
+    public void addEmergencyContact(EmergencyContact contact) {
+        contact.setPatient(this);
+        emergencyContacts.add(contact);
+    }
 }
@@ -0,0 +1,61 @@
+package com.pm.patientservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * Progress of a background scan job through one key range of the patient table. A job that is
+ * interrupted resumes every unfinished range after its last checkpointed ID; the checkpoints of
+ * a job are removed once all its ranges completed.
+ */
+@Entity
+@Table(name = "patient_scan_checkpoints")
+@IdClass(PatientScanCheckpoint.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientScanCheckpoint implements Serializable {
+
+    @Id
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    // Exclusive lower bound of the range
+    @Id
+    @Column(name = "range_start", nullable = false, length = 36)
+    private String rangeStart;
+
+    // Inclusive upper bound of the range
+    @Column(name = "range_end", nullable = false, length = 36)
+    private String rangeEnd;
+
+    // Last patient ID processed in the range, null before the first chunk
+    @Column(name = "last_id", length = 36)
+    private String lastId;
+
+    @Column(name = "rows_scanned", nullable = false)
+    private long rowsScanned;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "updated_at", nullable = false)
+    private Date updatedAt;
+
+    /**
+     * Composite primary key of a checkpoint
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String jobName;
+        private String rangeStart;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pm.patientservice.model;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.StringJavaType;
+
+import java.util.UUID;
+
+/**
+ * Maps a String attribute holding a canonical UUID to a native uuid column. The application
+ * keeps handling patient IDs as strings while the database stores them in 16 bytes.
+ */
+public class UuidStringJavaType extends StringJavaType {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value != null && UUID.class.isAssignableFrom(type)) {
+            return (X) UUID.fromString(value);
+        }
+        return super.unwrap(value, type, options);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        return super.wrap(value, options);
+    }
+}
@@ -0,0 +1,50 @@
+package com.pm.patientservice.model;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562): a 48-bit Unix timestamp in milliseconds
+ * followed by 74 random bits. New keys sort after existing ones, so inserts append to the right
+ * edge of the primary key index instead of splitting random pages, while the random bits keep
+ * the keys unguessable.
+ */
+public class UuidV7Generator implements IdentifierGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return next().toString();
+    }
+
+    /**
+     * Generate a version 7 UUID for the current time
+     */
+    public static UUID next() {
+        return of(System.currentTimeMillis());
+    }
+
+    /**
+     * Generate a version 7 UUID for the given Unix time in milliseconds
+     */
+    public static UUID of(long epochMillis) {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+
+        // unix_ts_ms (48 bits) | ver (4 bits) | rand_a (12 bits)
+        long mostSignificant = (epochMillis & 0xFFFF_FFFF_FFFFL) << 16
+                | 0x7000L
+                | (random[0] & 0x0FL) << 8
+                | (random[1] & 0xFFL);
+        // var (2 bits) | rand_b (62 bits)
+        long leastSignificant = 0x8000_0000_0000_0000L | (random[2] & 0x3FL) << 56;
+        for (int i = 3; i < 10; i++) {
+            leastSignificant |= (random[i] & 0xFFL) << (8 * (9 - i));
+        }
+        return new UUID(mostSignificant, leastSignificant);
+    }
+}
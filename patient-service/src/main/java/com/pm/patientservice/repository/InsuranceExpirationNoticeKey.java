@@ -0,0 +1,13 @@
+package com.pm.patientservice.repository;
+
+import java.util.Date;
+
+/**
+ * Projection of the policy and expiration date an insurance expiration notice was written for
+ */
+public interface InsuranceExpirationNoticeKey {
+
+    Long getInsuranceInfoId();
+
+    Date getExpirationDate();
+}
@@ -0,0 +1,27 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.model.InsuranceExpirationNotice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the outbound insurance expiration notices
+ */
+@Repository
+public interface InsuranceExpirationNoticeRepository extends JpaRepository<InsuranceExpirationNotice, Long> {
+
+    /**
+     * Find the notices already written for the given policies
+     * 
+     * @param insuranceInfoIds the insurance info IDs to check
+     * @return the policy and expiration date of every existing notice
+     */
+    @Query("select n.insuranceInfoId as insuranceInfoId, n.expirationDate as expirationDate " +
+            "from InsuranceExpirationNotice n where n.insuranceInfoId in :insuranceInfoIds")
+    List<InsuranceExpirationNoticeKey> findNoticeKeys(@Param("insuranceInfoIds") Collection<Long> insuranceInfoIds);
+}
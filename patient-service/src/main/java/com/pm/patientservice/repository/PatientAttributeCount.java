@@ -0,0 +1,11 @@
+package com.pm.patientservice.repository;
+
+/**
+ * Projection of the number of patients sharing an attribute value
+ */
+public interface PatientAttributeCount {
+
+    Object getValue();
+
+    long getCount();
+}
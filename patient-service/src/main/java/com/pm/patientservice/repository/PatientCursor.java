@@ -0,0 +1,96 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.model.Patient;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position of a patient page. The position is handed to clients as an
+ * opaque continuation token so that the next page can be read with an index seek
+ * instead of an OFFSET scan.
+ */
+public final class PatientCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final PatientSortField sortField;
+    private final Sort.Direction direction;
+    private final Comparable<?> sortValue;
+    private final String id;
+
+    private PatientCursor(PatientSortField sortField, Sort.Direction direction, Comparable<?> sortValue, String id) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Create the cursor positioned on the given patient
+     */
+    public static PatientCursor of(PatientSortField sortField, Sort.Direction direction, Patient patient) {
+        return new PatientCursor(sortField, direction, sortField.valueOf(patient), patient.getId());
+    }
+
+    /**
+     * Create the cursor positioned on the given patient summary
+     */
+    public static PatientCursor of(PatientSortField sortField, Sort.Direction direction, PatientSummary summary) {
+        return new PatientCursor(sortField, direction, sortField.valueOf(summary), summary.id());
+    }
+
+    /**
+     * Decode a continuation token, checking that it was issued for the requested ordering
+     *
+     * @param token the opaque token returned with a previous page
+     * @param sortField the requested sort field
+     * @param direction the requested sort direction
+     * @return the decoded cursor
+     */
+    public static PatientCursor decode(String token, PatientSortField sortField, Sort.Direction direction) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !Patient.isValidId(parts[2])) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            PatientSortField tokenField = PatientSortField.valueOf(parts[0]);
+            Sort.Direction tokenDirection = Sort.Direction.valueOf(parts[1]);
+            if (tokenField != sortField || tokenDirection != direction) {
+                throw new InvalidRequestException("Cursor was issued for a different sort order", ErrorCode.INVALID_CURSOR);
+            }
+            return new PatientCursor(tokenField, tokenDirection, tokenField.parse(parts[3]), parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid pagination cursor", ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Encode this cursor as an opaque, URL-safe continuation token
+     */
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + sortField.format(sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public PatientSortField getSortField() {
+        return sortField;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Comparable<?> getSortValue() {
+        return sortValue;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -1,24 +1,77 @@
 package com.pm.patientservice.repository;
 
+import com.pm.patientservice.dto.InsuranceExpiration;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.event.PatientSnapshot;
 import com.pm.patientservice.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Repository for Patient entity
  */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, String> {
+public interface PatientRepository extends JpaRepository<Patient, String>, PatientRepositoryCustom {
 
     /**
-     * Find a patient by medical record number
+     * JDBC fetch size used when streaming the patient table
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Find a patient by ID, fetching all associations in a single query
      * 
-     * @param medicalRecordNumber the medical record number
+     * @param id the patient ID
      * @return the patient if found
      */
-    Optional<Patient> findByMedicalRecordNumber(String medicalRecordNumber);
+    @Override
+    @EntityGraph(Patient.GRAPH_ALL_ASSOCIATIONS)
+    Optional<Patient> findById(String id);
+
+    /**
+     * Find a batch of patients by ID, fetching all associations in a single query
+     * 
+     * @param ids the patient IDs
+     * @return the patients found, in no particular order
+     */
+    @EntityGraph(Patient.GRAPH_ALL_ASSOCIATIONS)
+    List<Patient> findAllByIdIn(Collection<String> ids);
+
+    /**
+     * Find the version and update timestamp of a patient by ID, without loading the patient
+     * 
+     * @param id the patient ID
+     * @return the patient's validators if found
+     */
+    @Query("select new com.pm.patientservice.dto.PatientVersion(p.id, p.version, p.updatedAt) " +
+            "from Patient p where p.id = :id")
+    Optional<PatientVersion> findVersionById(@Param("id") String id);
+
+    /**
+     * Find the version and update timestamp of a patient by medical record number, without
+     * loading the patient
+     * 
+     * @param medicalRecordNumber the medical record number
+     * @return the patient's validators if found
+     */
+    @Query("select new com.pm.patientservice.dto.PatientVersion(p.id, p.version, p.updatedAt) " +
+            "from Patient p where p.medicalRecordNumber = :medicalRecordNumber")
+    Optional<PatientVersion> findVersionByMedicalRecordNumber(@Param("medicalRecordNumber") String medicalRecordNumber);
 
     /**
      * Check if a patient exists by medical record number
@@ -43,4 +96,200 @@ public interface PatientRepository extends JpaRepository<Patient, String> {
      * @return true if exists, false otherwise
      */
     boolean existsByContactInfoPhoneNumber(String phoneNumber);
+
+    /**
+     * Find which of the given medical record numbers are already in use
+     * 
+     * @param medicalRecordNumbers the medical record numbers to check
+     * @return the medical record numbers that exist
+     */
+    @Query("select p.medicalRecordNumber from Patient p where p.medicalRecordNumber in :medicalRecordNumbers")
+    Set<String> findExistingMedicalRecordNumbers(@Param("medicalRecordNumbers") Collection<String> medicalRecordNumbers);
+
+    /**
+     * Find which of the given emails are already in use
+     * 
+     * @param emails the emails to check
+     * @return the emails that exist
+     */
+    @Query("select c.email from ContactInfo c where c.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Find which of the given phone numbers are already in use
+     * 
+     * @param phoneNumbers the phone numbers to check
+     * @return the phone numbers that exist
+     */
+    @Query("select c.phoneNumber from ContactInfo c where c.phoneNumber in :phoneNumbers")
+    Set<String> findExistingPhoneNumbers(@Param("phoneNumbers") Collection<String> phoneNumbers);
+
+    /**
+     * Stream all patients through a forward-only, read-only database cursor.
+     * Rows are fetched from the driver in chunks of STREAM_FETCH_SIZE, so the caller
+     * must consume the stream inside a transaction and close it afterwards. Emergency
+     * contacts are not fetched; load them per chunk with {@link #fetchEmergencyContacts}.
+     * 
+     * @return a stream of all patients
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select p from Patient p " +
+            "left join fetch p.address " +
+            "left join fetch p.contactInfo " +
+            "left join fetch p.insuranceInfo")
+    Stream<Patient> streamAll();
+
+    /**
+     * Load the emergency contacts and their addresses of patients already in the persistence
+     * context, so that mapping a chunk of streamed patients reads them with one query instead of
+     * one per patient. The returned patients are the managed instances, with their contacts
+     * initialized.
+     *
+     * @param ids the patient IDs
+     * @return the patients, in no particular order
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("select distinct p from Patient p " +
+            "left join fetch p.emergencyContacts c " +
+            "left join fetch c.address " +
+            "where p.id in :ids")
+    List<Patient> fetchEmergencyContacts(@Param("ids") Collection<String> ids);
+
+    /**
+     * Stream the unique keys of all patients through a forward-only, read-only database cursor.
+     * The caller must consume the stream inside a transaction and close it afterwards.
+     * 
+     * @return a stream of the medical record number, email and phone number of every patient
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.medicalRecordNumber as medicalRecordNumber, c.email as email, c.phoneNumber as phoneNumber " +
+            "from Patient p join p.contactInfo c")
+    Stream<PatientUniqueKeys> streamUniqueKeys();
+
+    /**
+     * Stream the summaries of all patients through a forward-only, read-only database cursor.
+     * The caller must consume the stream inside a transaction and close it afterwards.
+     * 
+     * @return a stream of all patient summaries
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.pm.patientservice.dto.PatientSummary(p.id, p.medicalRecordNumber, p.firstName, " +
+            "p.lastName, p.dateOfBirth, p.gender, p.createdAt) from Patient p")
+    Stream<PatientSummary> streamSummaries();
+
+    /**
+     * Stream snapshots of all patients, including their address and insurance attributes, through
+     * a forward-only, read-only database cursor.
+     * The caller must consume the stream inside a transaction and close it afterwards.
+     * 
+     * @return a stream of all patient snapshots
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.pm.patientservice.event.PatientSnapshot(p.id, p.medicalRecordNumber, p.firstName, " +
+            "p.lastName, p.dateOfBirth, p.gender, a.zipCode, a.state, a.country, i.provider, i.coverageType, " +
+            "i.expirationDate, p.createdAt, p.updatedAt) " +
+            "from Patient p left join p.address a left join p.insuranceInfo i")
+    Stream<PatientSnapshot> streamSnapshots();
+
+    /**
+     * Find snapshots of the patients with IDs after the lower bound up to and including the
+     * upper bound, in ID order, for chunked scans of a key range. The range is read from the
+     * primary key index.
+     * 
+     * @param afterId the exclusive lower bound, the last ID already read or the range start
+     * @param lastId the inclusive upper bound, the range end
+     * @param pageable the number of rows to read
+     * @return the patient snapshots of the chunk
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select new com.pm.patientservice.event.PatientSnapshot(p.id, p.medicalRecordNumber, p.firstName, " +
+            "p.lastName, p.dateOfBirth, p.gender, a.zipCode, a.state, a.country, i.provider, i.coverageType, " +
+            "i.expirationDate, p.createdAt, p.updatedAt) " +
+            "from Patient p left join p.address a left join p.insuranceInfo i " +
+            "where p.id > :afterId and p.id <= :lastId order by p.id")
+    List<PatientSnapshot> findSnapshotsBetween(@Param("afterId") String afterId, @Param("lastId") String lastId,
+                                               Pageable pageable);
+
+    /**
+     * Find every step-th patient ID in ID order, which splits the table into ranges of step
+     * patients. One pass over the primary key index.
+     *
+     * @param step the number of patients per range
+     * @return the last ID of each full range
+     */
+    @Query(value = "select cast(id as varchar(36)) from (" +
+            "select id, row_number() over (order by id) as position from patients) ids " +
+            "where mod(position, :step) = 0 order by id", nativeQuery = true)
+    List<String> findIdsEvery(@Param("step") long step);
+
+    /**
+     * Count patients by gender
+     * 
+     * @return the number of patients per gender
+     */
+    @Query("select p.gender as value, count(p) as count from Patient p group by p.gender")
+    List<PatientAttributeCount> countByGender();
+
+    /**
+     * Count patients by the state of their address; patients without an address count under null
+     * 
+     * @return the number of patients per state
+     */
+    @Query("select a.state as value, count(p) as count from Patient p left join p.address a group by a.state")
+    List<PatientAttributeCount> countByState();
+
+    /**
+     * Count patients by insurance provider; uninsured patients count under null
+     * 
+     * @return the number of patients per insurance provider
+     */
+    @Query("select i.provider as value, count(p) as count from Patient p left join p.insuranceInfo i " +
+            "group by i.provider")
+    List<PatientAttributeCount> countByInsuranceProvider();
+
+    /**
+     * Count patients by year of birth, leaving out patients without a date of birth
+     * 
+     * @return the number of patients per year of birth
+     */
+    @Query("select year(p.dateOfBirth) as value, count(p) as count from Patient p " +
+            "where p.dateOfBirth is not null group by year(p.dateOfBirth)")
+    List<PatientAttributeCount> countByBirthYear();
+
+    /**
+     * Find the patients whose insurance expires after the given position and on or before the
+     * end of the window, ordered by expiration date and insurance ID. The range is read from
+     * the expiration date index and each policy is joined to its patient through the patient
+     * insurance index, so only the rows of the requested page are visited.
+     * 
+     * @param to the last expiration date of the window, inclusive
+     * @param afterDate the expiration date of the last row already read, or the start of the window
+     * @param afterId the insurance ID of the last row already read, or 0 to include afterDate itself
+     * @param pageable the number of rows to read
+     * @return the expiring policies with their patients
+     */
+    @Query("select new com.pm.patientservice.dto.InsuranceExpiration(p.id, p.medicalRecordNumber, p.firstName, " +
+            "p.lastName, i.id, i.provider, i.policyNumber, i.coverageType, i.expirationDate) " +
+            "from Patient p join p.insuranceInfo i " +
+            "where i.expirationDate >= :afterDate and i.expirationDate <= :to " +
+            "and (i.expirationDate > :afterDate or i.id > :afterId) " +
+            "order by i.expirationDate, i.id")
+    List<InsuranceExpiration> findInsuranceExpirationsAfter(@Param("to") Date to, @Param("afterDate") Date afterDate,
+                                                            @Param("afterId") long afterId, Pageable pageable);
 }
@@ -0,0 +1,65 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.model.Patient;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom query fragment for PatientRepository
+ */
+public interface PatientRepositoryCustom {
+
+    /**
+     * Find a patient by medical record number through its natural ID.
+     * The MRN to ID resolution is served from the natural-id cache and the child entities
+     * from the second-level cache, so a warm lookup only reads the patient row.
+     *
+     * @param medicalRecordNumber the medical record number
+     * @return the patient if found
+     */
+    Optional<Patient> findByMedicalRecordNumber(String medicalRecordNumber);
+
+    /**
+     * Read one keyset page of patients ordered by the given sort field and ID.
+     * The query seeks directly to the cursor position on the (sort field, id) index,
+     * so its cost does not depend on how deep the client has paged.
+     *
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param after the position of the last patient of the previous page, or null for the first page
+     * @param limit the maximum number of patients to return
+     * @return the patients of the page in sort order
+     */
+    List<Patient> findPageAfter(PatientSortField sortField, Sort.Direction direction, PatientCursor after, int limit);
+
+    /**
+     * Read one keyset page of patient summaries, with the same ordering and cursor semantics
+     * as findPageAfter. Only the summary columns of the patients table are selected.
+     *
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param after the position of the last summary of the previous page, or null for the first page
+     * @param limit the maximum number of summaries to return
+     * @return the summaries of the page in sort order
+     */
+    List<PatientSummary> findSummaryPageAfter(PatientSortField sortField, Sort.Direction direction,
+                                              PatientCursor after, int limit);
+
+    /**
+     * Read one keyset page of the summaries of the patients matching a specification,
+     * with the same ordering and cursor semantics as findPageAfter
+     *
+     * @param filter the specification the patients must match
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param after the position of the last summary of the previous page, or null for the first page
+     * @param limit the maximum number of summaries to return
+     * @return the summaries of the page in sort order
+     */
+    List<PatientSummary> findSummaryPageAfter(Specification<Patient> filter, PatientSortField sortField,
+                                              Sort.Direction direction, PatientCursor after, int limit);
+}
@@ -0,0 +1,114 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Criteria based implementation of PatientRepositoryCustom
+ */
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Patient> findByMedicalRecordNumber(String medicalRecordNumber) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Patient.class)
+                .loadOptional(medicalRecordNumber);
+    }
+
+    @Override
+    public List<Patient> findPageAfter(PatientSortField sortField, Sort.Direction direction, PatientCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Patient> query = cb.createQuery(Patient.class);
+        Root<Patient> root = query.from(Patient.class);
+        applyKeyset(cb, query, root, null, sortField, direction, after);
+
+        // Emergency contacts are left out of the fetch graph: a collection fetch join would force
+        // Hibernate to apply the row limit in memory. They are initialized in batches instead.
+        return entityManager.createQuery(query)
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Patient.GRAPH_SINGLE_ASSOCIATIONS))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<PatientSummary> findSummaryPageAfter(PatientSortField sortField, Sort.Direction direction,
+                                                     PatientCursor after, int limit) {
+        return findSummaryPageAfter(null, sortField, direction, after, limit);
+    }
+
+    @Override
+    public List<PatientSummary> findSummaryPageAfter(Specification<Patient> filter, PatientSortField sortField,
+                                                     Sort.Direction direction, PatientCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PatientSummary> query = cb.createQuery(PatientSummary.class);
+        Root<Patient> root = query.from(Patient.class);
+        query.select(cb.construct(PatientSummary.class,
+                root.get("id"),
+                root.get("medicalRecordNumber"),
+                root.get("firstName"),
+                root.get("lastName"),
+                root.get("dateOfBirth"),
+                root.get("gender"),
+                root.get("createdAt")));
+        Predicate filterPredicate = filter == null ? null : filter.toPredicate(root, query, cb);
+        applyKeyset(cb, query, root, filterPredicate, sortField, direction, after);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Restrict the query to the rows matching the filter after the cursor and order it by
+     * the sort field and ID
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void applyKeyset(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Patient> root, Predicate filter,
+                                    PatientSortField sortField, Sort.Direction direction, PatientCursor after) {
+        Expression sortPath = root.get(sortField.getProperty());
+        Expression<String> idPath = root.get("id");
+        boolean ascending = direction.isAscending();
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (after != null) {
+            Comparable value = after.getSortValue();
+            String id = after.getId();
+            // The leading range condition lets the planner start an index range scan at the
+            // cursor; the disjunction then skips rows sharing the sort value up to the last ID.
+            Predicate range = ascending
+                    ? cb.greaterThanOrEqualTo(sortPath, value)
+                    : cb.lessThanOrEqualTo(sortPath, value);
+            Predicate strictlyAfter = cb.or(
+                    ascending ? cb.greaterThan(sortPath, value) : cb.lessThan(sortPath, value),
+                    ascending ? cb.greaterThan(idPath, id) : cb.lessThan(idPath, id));
+            predicates.add(range);
+            predicates.add(strictlyAfter);
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        query.orderBy(
+                ascending ? cb.asc(sortPath) : cb.desc(sortPath),
+                ascending ? cb.asc(idPath) : cb.desc(idPath));
+    }
+}
@@ -0,0 +1,36 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.model.PatientScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the checkpoints of background patient scans
+ */
+@Repository
+public interface PatientScanCheckpointRepository
+        extends JpaRepository<PatientScanCheckpoint, PatientScanCheckpoint.Key> {
+
+    /**
+     * Find the checkpoints of a job, one per key range
+     * 
+     * @param jobName the job name
+     * @return the checkpoints ordered by range
+     */
+    List<PatientScanCheckpoint> findByJobNameOrderByRangeStart(String jobName);
+
+    /**
+     * Remove the checkpoints of a job
+     * 
+     * @param jobName the job name
+     * @return the number of checkpoints removed
+     */
+    @Modifying
+    @Query("delete from PatientScanCheckpoint c where c.jobName = :jobName")
+    int deleteByJobName(@Param("jobName") String jobName);
+}
@@ -0,0 +1,102 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.model.Patient;
+
+import java.util.Date;
+
+/**
+ * Index-backed sort keys supported by keyset pagination of patients.
+ * Every key is combined with the patient ID as a unique tie-breaker.
+ */
+public enum PatientSortField {
+    LAST_NAME("lastName", "lastName") {
+        @Override
+        public Comparable<?> valueOf(Patient patient) {
+            return patient.getLastName();
+        }
+
+        @Override
+        public Comparable<?> valueOf(PatientSummary summary) {
+            return summary.lastName();
+        }
+
+        @Override
+        String format(Comparable<?> value) {
+            return (String) value;
+        }
+
+        @Override
+        Comparable<?> parse(String value) {
+            return value;
+        }
+    },
+    CREATED_AT("createdAt", "createdAt") {
+        @Override
+        public Comparable<?> valueOf(Patient patient) {
+            return patient.getCreatedAt();
+        }
+
+        @Override
+        public Comparable<?> valueOf(PatientSummary summary) {
+            return summary.createdAt();
+        }
+
+        @Override
+        String format(Comparable<?> value) {
+            return Long.toString(((Date) value).getTime());
+        }
+
+        @Override
+        Comparable<?> parse(String value) {
+            return new Date(Long.parseLong(value));
+        }
+    };
+
+    private final String parameter;
+    private final String property;
+
+    PatientSortField(String parameter, String property) {
+        this.parameter = parameter;
+        this.property = property;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Extract the sort key value of the given patient
+     */
+    public abstract Comparable<?> valueOf(Patient patient);
+
+    /**
+     * Extract the sort key value of the given patient summary
+     */
+    public abstract Comparable<?> valueOf(PatientSummary summary);
+
+    abstract String format(Comparable<?> value);
+
+    abstract Comparable<?> parse(String value);
+
+    /**
+     * Resolve a sort field from its request parameter name
+     *
+     * @param parameter the request parameter value, e.g. "lastName"
+     * @return the matching sort field
+     */
+    public static PatientSortField fromParameter(String parameter) {
+        for (PatientSortField field : values()) {
+            if (field.parameter.equalsIgnoreCase(parameter) || field.name().equalsIgnoreCase(parameter)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestException("Unsupported sort field: " + parameter, ErrorCode.INVALID_SORT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.model.Address;
+import com.pm.patientservice.model.Patient;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Specifications for searching patients. Every filter compares a lower-cased column, so that
+ * the expression indexes created by schema-postgresql.sql can serve it: prefix filters use the
+ * text_pattern_ops btree indexes and name fragments the pg_trgm GIN indexes.
+ */
+public final class PatientSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private PatientSpecifications() {
+    }
+
+    /**
+     * Build a specification matching all filters set in the search criteria
+     *
+     * @param criteria the search criteria
+     * @return the specification
+     */
+    public static Specification<Patient> matching(PatientSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (hasText(criteria.getLastName())) {
+                predicates.add(startsWith(cb, root.get("lastName"), criteria.getLastName()));
+            }
+            if (hasText(criteria.getFirstName())) {
+                predicates.add(startsWith(cb, root.get("firstName"), criteria.getFirstName()));
+            }
+            if (hasText(criteria.getName())) {
+                String pattern = "%" + escape(normalize(criteria.getName())) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("lastName")), pattern, LIKE_ESCAPE),
+                        cb.like(cb.lower(root.get("firstName")), pattern, LIKE_ESCAPE)));
+            }
+            if (criteria.getDateOfBirthFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateOfBirth"), criteria.getDateOfBirthFrom()));
+            }
+            if (criteria.getDateOfBirthTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateOfBirth"), criteria.getDateOfBirthTo()));
+            }
+            if (hasText(criteria.getCity()) || hasText(criteria.getState())) {
+                Join<Patient, Address> address = root.join("address");
+                if (hasText(criteria.getCity())) {
+                    predicates.add(cb.equal(cb.lower(address.get("city")), normalize(criteria.getCity())));
+                }
+                if (hasText(criteria.getState())) {
+                    predicates.add(cb.equal(cb.lower(address.get("state")), normalize(criteria.getState())));
+                }
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Predicate startsWith(CriteriaBuilder cb, Expression<String> path, String prefix) {
+        return cb.like(cb.lower(path), escape(normalize(prefix)) + "%", LIKE_ESCAPE);
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Search input is matched literally, so LIKE wildcards typed by the user are escaped
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+}
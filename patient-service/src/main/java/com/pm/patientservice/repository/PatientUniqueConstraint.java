@@ -0,0 +1,86 @@
+package com.pm.patientservice.repository;
+
+import com.pm.patientservice.model.ContactInfo;
+import com.pm.patientservice.model.Patient;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Unique constraints guarding patient identity, used to translate a unique violation
+ * raised by the database back to the field that caused it
+ */
+public enum PatientUniqueConstraint {
+    MEDICAL_RECORD_NUMBER(Patient.UK_MEDICAL_RECORD_NUMBER, "medical_record_number", "medicalRecordNumber"),
+    EMAIL(ContactInfo.UK_EMAIL, "email", "email"),
+    PHONE_NUMBER(ContactInfo.UK_PHONE_NUMBER, "phone_number", "phoneNumber");
+
+    private final String constraintName;
+    private final String column;
+    private final String field;
+
+    PatientUniqueConstraint(String constraintName, String column, String field) {
+        this.constraintName = constraintName;
+        this.column = column;
+        this.field = field;
+    }
+
+    public String getConstraintName() {
+        return constraintName;
+    }
+
+    /**
+     * The request field guarded by this constraint, as used by PatientAlreadyExistsException
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Pick the value guarded by this constraint
+     */
+    public String select(String medicalRecordNumber, String email, String phoneNumber) {
+        switch (this) {
+            case MEDICAL_RECORD_NUMBER:
+                return medicalRecordNumber;
+            case EMAIL:
+                return email;
+            default:
+                return phoneNumber;
+        }
+    }
+
+    /**
+     * Find the constraint violated by a failed insert or update. The constraint name reported
+     * by the driver is matched first; databases created before the constraints were named
+     * are matched on the violated column in the error message instead.
+     *
+     * @param violation the exception raised by the failed statement
+     * @return the violated constraint, or empty if the failure is not a patient unique violation
+     */
+    public static Optional<PatientUniqueConstraint> fromViolation(Throwable violation) {
+        StringBuilder messages = new StringBuilder();
+        for (Throwable cause = violation; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException constraintViolation
+                    && constraintViolation.getConstraintName() != null) {
+                String name = constraintViolation.getConstraintName().toLowerCase(Locale.ROOT);
+                for (PatientUniqueConstraint constraint : values()) {
+                    if (name.contains(constraint.constraintName)) {
+                        return Optional.of(constraint);
+                    }
+                }
+            }
+            if (cause.getMessage() != null) {
+                messages.append(cause.getMessage().toLowerCase(Locale.ROOT)).append('\n');
+            }
+        }
+        String message = messages.toString();
+        for (PatientUniqueConstraint constraint : values()) {
+            if (message.contains("(" + constraint.column + ")") || message.contains("(" + constraint.column + " ")) {
+                return Optional.of(constraint);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,13 @@
+package com.pm.patientservice.repository;
+
+/**
+ * Projection of the unique keys of a patient
+ */
+public interface PatientUniqueKeys {
+
+    String getMedicalRecordNumber();
+
+    String getEmail();
+
+    String getPhoneNumber();
+}
@@ -0,0 +1,98 @@
+package com.pm.patientservice.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings. A negative answer is definite, a positive answer
+ * means the value may have been added. Values cannot be removed; the filter is rebuilt instead.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final AtomicLong setBits = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashFunctions) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = bitCount;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Create a filter sized for the expected number of values and false positive probability
+     *
+     * @param expectedInsertions the expected number of values
+     * @param falsePositiveProbability the target false positive probability, between 0 and 1
+     * @return an empty filter
+     */
+    static BloomFilter create(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        bits = Math.max(64, Math.min(bits, (long) Integer.MAX_VALUE * 64));
+        int hashes = (int) Math.max(1, Math.round((double) bits / n * LN2));
+        return new BloomFilter(bits, hashes);
+    }
+
+    void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The false positive probability expected from the current share of set bits
+     */
+    double expectedFalsePositiveProbability() {
+        return Math.pow((double) setBits.get() / bitCount, hashFunctions);
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        setBits.incrementAndGet();
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finalized with the MurmurHash3 mixer
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB93FE1A85EC5L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,172 @@
+package com.pm.patientservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pm.patientservice.dto.PatientBatchCreateResponse;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientPageResponse;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummaryPageResponse;
+import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.exception.PatientAlreadyExistsException;
+import com.pm.patientservice.exception.PatientNotFoundException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
+import com.pm.patientservice.repository.PatientSortField;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Read-through caching decorator of the PatientService. It wraps the transactional service,
+ * so a cache hit neither opens a transaction nor borrows a database connection, and every
+ * write has already committed when the cache is updated.
+ */
+@Service
+@Primary
+public class CachingPatientService implements PatientService {
+
+    private static final Logger logger = LogManager.getLogger(CachingPatientService.class);
+
+    private final PatientService delegate;
+    private final PatientCache patientCache;
+
+    @Autowired
+    public CachingPatientService(@Qualifier("patientServiceImpl") PatientService delegate, PatientCache patientCache) {
+        this.delegate = delegate;
+        this.patientCache = patientCache;
+    }
+
+    @Override
+    public PatientResponse createPatient(PatientCreateRequest request) {
+        PatientResponse response = delegate.createPatient(request);
+        patientCache.put(response);
+        return response;
+    }
+
+    @Override
+    public PatientBatchCreateResponse createPatients(List<PatientCreateRequest> requests) {
+        return delegate.createPatients(requests);
+    }
+
+    @Override
+    public PatientResponse getPatientById(String id) {
+        PatientResponse cached = patientCache.getById(id);
+        if (cached != null) {
+            logger.debug("Cache hit for patient with ID: {}", id);
+            return cached;
+        }
+        PatientResponse response = delegate.getPatientById(id);
+        patientCache.put(response);
+        return response;
+    }
+
+    @Override
+    public PatientResponse getPatientByMedicalRecordNumber(String medicalRecordNumber) {
+        PatientResponse cached = patientCache.getByMedicalRecordNumber(medicalRecordNumber);
+        if (cached != null) {
+            logger.debug("Cache hit for patient with medical record number: {}", medicalRecordNumber);
+            return cached;
+        }
+        PatientResponse response = delegate.getPatientByMedicalRecordNumber(medicalRecordNumber);
+        patientCache.put(response);
+        return response;
+    }
+
+    @Override
+    public PatientVersion getPatientVersion(String id) {
+        PatientResponse cached = patientCache.getById(id);
+        if (cached != null) {
+            logger.debug("Cache hit for version of patient with ID: {}", id);
+            return PatientVersion.of(cached);
+        }
+        return delegate.getPatientVersion(id);
+    }
+
+    @Override
+    public PatientVersion getPatientVersionByMedicalRecordNumber(String medicalRecordNumber) {
+        PatientResponse cached = patientCache.getByMedicalRecordNumber(medicalRecordNumber);
+        if (cached != null) {
+            logger.debug("Cache hit for version of patient with medical record number: {}", medicalRecordNumber);
+            return PatientVersion.of(cached);
+        }
+        return delegate.getPatientVersionByMedicalRecordNumber(medicalRecordNumber);
+    }
+
+    @Override
+    public PatientPageResponse getPatients(int size, PatientSortField sortField, Sort.Direction direction, String cursor) {
+        return delegate.getPatients(size, sortField, direction, cursor);
+    }
+
+    @Override
+    public PatientSummaryPageResponse getPatientSummaries(int size, PatientSortField sortField, Sort.Direction direction,
+                                                          String cursor) {
+        return delegate.getPatientSummaries(size, sortField, direction, cursor);
+    }
+
+    @Override
+    public PatientSummaryPageResponse searchPatients(PatientSearchCriteria criteria, int size, PatientSortField sortField,
+                                                     Sort.Direction direction, String cursor) {
+        return delegate.searchPatients(criteria, size, sortField, direction, cursor);
+    }
+
+    @Override
+    public PatientResponse updatePatient(PatientUpdateRequest request, Long expectedVersion) {
+        try {
+            PatientResponse response = delegate.updatePatient(request, expectedVersion);
+            // Write through the committed state; the MRN index entry of a changed medical
+            // record number is dropped lazily because it no longer matches the cached patient
+            patientCache.put(response);
+            return response;
+        } catch (RuntimeException e) {
+            if (!isRejected(e)) {
+                // The commit outcome is unknown, so the cached patient may be stale
+                patientCache.evict(request.getId());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public PatientResponse patchPatient(String id, JsonNode patch, Long expectedVersion) {
+        try {
+            PatientResponse response = delegate.patchPatient(id, patch, expectedVersion);
+            patientCache.put(response);
+            return response;
+        } catch (RuntimeException e) {
+            if (!isRejected(e)) {
+                patientCache.evict(id);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void deletePatient(String id) {
+        try {
+            delegate.deletePatient(id);
+        } catch (RuntimeException e) {
+            if (!isRejected(e)) {
+                patientCache.evict(id);
+            }
+            throw e;
+        }
+        patientCache.evictDeleted(id);
+    }
+
+    /**
+     * Whether a write was rejected before anything was committed, e.g. for a stale If-Match or a
+     * taken key, which leaves the cached patient current
+     */
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof PatientNotFoundException || e instanceof PatientAlreadyExistsException
+                || e instanceof PatientVersionConflictException || e instanceof InvalidRequestException;
+    }
+}
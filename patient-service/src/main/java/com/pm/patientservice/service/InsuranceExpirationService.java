@@ -0,0 +1,247 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.dto.InsuranceExpiration;
+import com.pm.patientservice.dto.InsuranceExpirationPageResponse;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.model.InsuranceExpirationNotice;
+import com.pm.patientservice.repository.InsuranceExpirationNoticeRepository;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the patients whose insurance expires within a date window. Pages are read with a keyset
+ * over the expiration date index, so neither the endpoint nor the daily job scans the table.
+ * <p>
+ * The daily job walks the window ahead of today in chunks, each read and written in its own short
+ * transaction, and writes one notice per policy and expiration date to the outbound queue table.
+ * Policies already notified are skipped, so overlapping windows of consecutive runs and re-runs
+ * after a failure do not notify billing twice.
+ */
+@Service
+public class InsuranceExpirationService {
+
+    private static final Logger logger = LogManager.getLogger(InsuranceExpirationService.class);
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final PatientRepository patientRepository;
+    private final InsuranceExpirationNoticeRepository noticeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int lookaheadDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter noticesCounter;
+
+    @Autowired
+    public InsuranceExpirationService(PatientRepository patientRepository,
+                                      InsuranceExpirationNoticeRepository noticeRepository,
+                                      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                      @Value("${patient.insurance-expiration.chunk-size:500}") int chunkSize,
+                                      @Value("${patient.insurance-expiration.lookahead-days:30}") int lookaheadDays) {
+        this.patientRepository = patientRepository;
+        this.noticeRepository = noticeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.lookaheadDays = lookaheadDays;
+
+        this.noticesCounter = Counter.builder("patient.insurance.expiration.notices")
+                .description("Number of insurance expiration notices written to the outbound queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get a page of the patients whose insurance expires within the window
+     *
+     * @param from the first expiration date, inclusive
+     * @param to the last expiration date, inclusive
+     * @param size the page size
+     * @param cursor the continuation token returned with the previous page
+     * @return the page of expiring policies, earliest expiration first
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "patient.insurance.expiration.page", description = "Time taken to get a page of expiring insurance")
+    public InsuranceExpirationPageResponse getExpirations(Date from, Date to, int size, String cursor) {
+        validateWindow(from, to);
+        int pageSize = Math.max(1, Math.min(size, PatientServiceImpl.MAX_PAGE_SIZE));
+        logger.info("Retrieving page of {} insurance expirations between {} and {}", pageSize, from, to);
+
+        Date afterDate = from;
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            Position position = decodeCursor(cursor);
+            afterDate = position.expirationDate();
+            afterId = position.insuranceInfoId();
+            // A cursor from an earlier window may point before this one
+            if (afterDate.before(from)) {
+                afterDate = from;
+                afterId = 0;
+            }
+        }
+
+        // Read one extra row to find out whether another page follows
+        List<InsuranceExpiration> rows = patientRepository.findInsuranceExpirationsAfter(to, afterDate, afterId,
+                PageRequest.of(0, pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<InsuranceExpiration> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+        logger.info("Successfully retrieved {} insurance expirations", page.size());
+        return new InsuranceExpirationPageResponse(page, page.size(), hasMore, nextCursor);
+    }
+
+    /**
+     * Queue notices for the policies expiring within the lookahead window, daily
+     */
+    @Scheduled(cron = "${patient.insurance-expiration.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        LocalDate today = LocalDate.now();
+        enqueueExpirations(toDate(today), toDate(today.plusDays(lookaheadDays)));
+    }
+
+    /**
+     * Write a notice for every policy expiring within the window that has not been notified yet.
+     * Runs are not concurrent; a run requested while another is in progress is skipped.
+     *
+     * @param from the first expiration date, inclusive
+     * @param to the last expiration date, inclusive
+     * @return the number of notices written, or -1 if another run was in progress
+     */
+    public long enqueueExpirations(Date from, Date to) {
+        validateWindow(from, to);
+        if (!running.compareAndSet(false, true)) {
+            logger.warn("Insurance expiration run already in progress, skipping");
+            return -1;
+        }
+        logger.info("Queueing insurance expiration notices for policies expiring between {} and {}", from, to);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            Date afterDate = from;
+            long afterId = 0;
+            long matched = 0;
+            long enqueued = 0;
+            while (true) {
+                Date chunkAfterDate = afterDate;
+                long chunkAfterId = afterId;
+                Chunk chunk = transactionTemplate.execute(status -> enqueueChunk(to, chunkAfterDate, chunkAfterId));
+                matched += chunk.matched();
+                enqueued += chunk.enqueued();
+                if (chunk.last() == null || chunk.matched() < chunkSize) {
+                    break;
+                }
+                afterDate = chunk.last().expirationDate();
+                afterId = chunk.last().insuranceInfoId();
+            }
+            logger.info("Queued {} insurance expiration notices for {} expiring policies", enqueued, matched);
+            return enqueued;
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("Error queueing insurance expiration notices: {}", e.getMessage(), e);
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("patient.insurance.expiration.run.time")
+                    .description("Time taken by a run of the insurance expiration job")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            running.set(false);
+        }
+    }
+
+    /**
+     * Read one chunk of expiring policies and queue notices for those not notified yet. Only
+     * projections are read, and the notices leave the persistence context when the chunk's
+     * transaction commits.
+     */
+    private Chunk enqueueChunk(Date to, Date afterDate, long afterId) {
+        List<InsuranceExpiration> rows = patientRepository.findInsuranceExpirationsAfter(to, afterDate, afterId,
+                PageRequest.of(0, chunkSize));
+        if (rows.isEmpty()) {
+            return new Chunk(null, 0, 0);
+        }
+
+        Set<String> notified = noticeRepository.findNoticeKeys(
+                        rows.stream().map(InsuranceExpiration::insuranceInfoId).toList())
+                .stream()
+                .map(key -> noticeKey(key.getInsuranceInfoId(), key.getExpirationDate()))
+                .collect(Collectors.toSet());
+        Date now = new Date();
+        List<InsuranceExpirationNotice> notices = rows.stream()
+                .filter(row -> !notified.contains(noticeKey(row.insuranceInfoId(), row.expirationDate())))
+                .map(row -> InsuranceExpirationNotice.of(row, now))
+                .toList();
+        noticeRepository.saveAll(notices);
+        noticesCounter.increment(notices.size());
+        logger.debug("Queued {} of {} expiring policies up to {}", notices.size(), rows.size(),
+                rows.get(rows.size() - 1).expirationDate());
+        return new Chunk(rows.get(rows.size() - 1), rows.size(), notices.size());
+    }
+
+    private static void validateWindow(Date from, Date to) {
+        if (from == null || to == null) {
+            throw new InvalidRequestException("Expiration window requires both a start and an end date",
+                    ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+        if (from.after(to)) {
+            throw new InvalidRequestException("Expiration window starts after it ends", ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+    }
+
+    private static String noticeKey(Long insuranceInfoId, Date expirationDate) {
+        return insuranceInfoId + CURSOR_SEPARATOR + expirationDate.getTime();
+    }
+
+    private static String encodeCursor(InsuranceExpiration last) {
+        String raw = last.expirationDate().getTime() + CURSOR_SEPARATOR + last.insuranceInfoId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + CURSOR_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new Position(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid pagination cursor", ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private record Position(Date expirationDate, long insuranceInfoId) {
+    }
+
+    private record Chunk(InsuranceExpiration last, int matched, int enqueued) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.pm.patientservice.service;
+
+/**
+ * Jaro-Winkler string similarity, which tolerates the transpositions and typos common in
+ * manually entered names and gives extra weight to a shared prefix
+ */
+final class JaroWinkler {
+
+    private static final double PREFIX_SCALE = 0.1;
+    private static final int MAX_PREFIX_LENGTH = 4;
+    // Winkler's boost is only applied to strings that are already similar
+    private static final double BOOST_THRESHOLD = 0.7;
+
+    private JaroWinkler() {
+    }
+
+    /**
+     * Similarity of two strings, from 0.0 (nothing in common) to 1.0 (identical)
+     */
+    static double similarity(String first, String second) {
+        if (first.equals(second)) {
+            return 1.0;
+        }
+        if (first.isEmpty() || second.isEmpty()) {
+            return 0.0;
+        }
+
+        int window = Math.max(0, Math.max(first.length(), second.length()) / 2 - 1);
+        boolean[] firstMatched = new boolean[first.length()];
+        boolean[] secondMatched = new boolean[second.length()];
+        int matches = 0;
+        for (int i = 0; i < first.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(second.length(), i + window + 1);
+            for (int j = from; j < to; j++) {
+                if (!secondMatched[j] && first.charAt(i) == second.charAt(j)) {
+                    firstMatched[i] = true;
+                    secondMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0.0;
+        }
+
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < first.length(); i++) {
+            if (firstMatched[i]) {
+                while (!secondMatched[j]) {
+                    j++;
+                }
+                if (first.charAt(i) != second.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+
+        double m = matches;
+        double jaro = (m / first.length() + m / second.length() + (m - transpositions / 2.0) / m) / 3.0;
+        if (jaro < BOOST_THRESHOLD) {
+            return jaro;
+        }
+        int prefix = 0;
+        int maxPrefix = Math.min(MAX_PREFIX_LENGTH, Math.min(first.length(), second.length()));
+        while (prefix < maxPrefix && first.charAt(prefix) == second.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * PREFIX_SCALE * (1.0 - jaro);
+    }
+}
@@ -0,0 +1,314 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.dto.PatientStatsResponse;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.repository.PatientAttributeCount;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.Year;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Population counters by gender, state, insurance provider and age band, kept current from the
+ * committed patient changes so that dashboards never scan the patient table.
+ * <p>
+ * The counters are striped LongAdders, so concurrent writers do not contend. They are reconciled
+ * against GROUP BY queries at startup and on a schedule, which corrects changes missed while the
+ * application was down and writes racing a reconciliation. Age bands are derived from counters by
+ * year of birth, using the age patients reach in the current calendar year.
+ */
+@Component
+public class PatientAggregates {
+
+    private static final Logger logger = LogManager.getLogger(PatientAggregates.class);
+
+    static final String UNKNOWN = "unknown";
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder total = new LongAdder();
+    private final Map<Dimension, Map<String, LongAdder>> dimensions = new EnumMap<>(Dimension.class);
+    private final Map<Integer, LongAdder> birthYears = new ConcurrentHashMap<>();
+
+    private final Object reconcileLock = new Object();
+    private volatile Date reconciledAt;
+    private final AtomicLong lastDrift = new AtomicLong();
+    private final Timer reconcileTimer;
+
+    @Autowired
+    public PatientAggregates(PatientRepository patientRepository, PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // All counts are read from the same snapshot
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.meterRegistry = meterRegistry;
+        for (Dimension dimension : Dimension.values()) {
+            dimensions.put(dimension, new ConcurrentHashMap<>());
+        }
+
+        Gauge.builder("patient.population", total, LongAdder::sum)
+                .description("Number of patients")
+                .tag("dimension", "total")
+                .tag("value", "all")
+                .register(meterRegistry);
+        for (AgeBand band : AgeBand.values()) {
+            Gauge.builder("patient.population", this, aggregates -> aggregates.ageBandCount(band, Year.now().getValue()))
+                    .description("Number of patients")
+                    .tag("dimension", "ageBand")
+                    .tag("value", band.label)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("patient.stats.drift", lastDrift, AtomicLong::get)
+                .description("Sum of the count corrections applied by the last reconciliation")
+                .register(meterRegistry);
+        this.reconcileTimer = Timer.builder("patient.stats.reconcile.time")
+                .description("Time taken to reconcile the population counters with the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Initialize the counters from the database once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    /**
+     * Reconcile the counters with the database periodically
+     */
+    @Scheduled(initialDelayString = "${patient.stats.reconcile-interval:PT1H}",
+            fixedDelayString = "${patient.stats.reconcile-interval:PT1H}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * Apply a committed patient change, moving the counts of changed attributes
+     *
+     * @param event the patient change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    /**
+     * Replace the counters with counts queried from the database, keeping the counter instances
+     * the gauges refer to
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            logger.info("Reconciling patient population counters");
+            try {
+                reconcileTimer.record(() -> {
+                    DatabaseCounts counts = transactionTemplate.execute(status -> new DatabaseCounts(
+                            patientRepository.count(),
+                            group(patientRepository.countByGender(), PatientAggregates::key),
+                            group(patientRepository.countByState(), PatientAggregates::key),
+                            group(patientRepository.countByInsuranceProvider(), PatientAggregates::key),
+                            group(patientRepository.countByBirthYear(), value -> ((Number) value).intValue())));
+
+                    long drift = Math.abs(counts.total() - total.sum());
+                    total.add(counts.total() - total.sum());
+                    drift += adjust(Dimension.GENDER, counts.byGender());
+                    drift += adjust(Dimension.STATE, counts.byState());
+                    drift += adjust(Dimension.INSURANCE_PROVIDER, counts.byInsuranceProvider());
+                    drift += adjust(birthYears, counts.byBirthYear(), this::birthYearCounter);
+
+                    lastDrift.set(drift);
+                    reconciledAt = new Date();
+                    logger.info("Reconciled population counters: {} patients, drift {}", counts.total(), drift);
+                });
+            } catch (Exception e) {
+                logger.error("Error reconciling patient population counters: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Current population aggregates. Reads only the counters, never the database.
+     */
+    public PatientStatsResponse getStats() {
+        int currentYear = Year.now().getValue();
+        Map<String, Long> byAgeBand = new LinkedHashMap<>();
+        for (AgeBand band : AgeBand.values()) {
+            byAgeBand.put(band.label, ageBandCount(band, currentYear));
+        }
+        return new PatientStatsResponse(
+                total.sum(),
+                snapshot(dimensions.get(Dimension.GENDER)),
+                snapshot(dimensions.get(Dimension.STATE)),
+                snapshot(dimensions.get(Dimension.INSURANCE_PROVIDER)),
+                byAgeBand,
+                reconciledAt);
+    }
+
+    private void apply(PatientSnapshot patient, int delta) {
+        total.add(delta);
+        for (Dimension dimension : Dimension.values()) {
+            counter(dimension, key(dimension.value.apply(patient))).add(delta);
+        }
+        if (patient.dateOfBirth() != null) {
+            int year = Instant.ofEpochMilli(patient.dateOfBirth().getTime()).atZone(ZoneId.systemDefault()).getYear();
+            birthYearCounter(year).add(delta);
+        }
+    }
+
+    private LongAdder birthYearCounter(Integer year) {
+        return birthYears.computeIfAbsent(year, y -> new LongAdder());
+    }
+
+    private LongAdder counter(Dimension dimension, String value) {
+        return dimensions.get(dimension).computeIfAbsent(value, v -> {
+            LongAdder counter = new LongAdder();
+            Gauge.builder("patient.population", counter, LongAdder::sum)
+                    .description("Number of patients")
+                    .tag("dimension", dimension.tag)
+                    .tag("value", v)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+
+    private long adjust(Dimension dimension, Map<String, Long> actual) {
+        return adjust(dimensions.get(dimension), actual, value -> counter(dimension, value));
+    }
+
+    /**
+     * Set every counter to its actual count, zeroing values no longer present. The counters are
+     * adjusted rather than replaced so that registered gauges keep reporting them.
+     *
+     * @return the sum of the absolute corrections
+     */
+    private static <K> long adjust(Map<K, LongAdder> counters, Map<K, Long> actual, Function<K, LongAdder> create) {
+        Set<K> keys = new HashSet<>(counters.keySet());
+        keys.addAll(actual.keySet());
+        long drift = 0;
+        for (K key : keys) {
+            LongAdder counter = create.apply(key);
+            long correction = actual.getOrDefault(key, 0L) - counter.sum();
+            counter.add(correction);
+            drift += Math.abs(correction);
+        }
+        return drift;
+    }
+
+    private long ageBandCount(AgeBand band, int currentYear) {
+        long count = 0;
+        for (Map.Entry<Integer, LongAdder> entry : birthYears.entrySet()) {
+            if (band.contains(currentYear - entry.getKey())) {
+                count += entry.getValue().sum();
+            }
+        }
+        return count;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> counts = new TreeMap<>();
+        counters.forEach((value, counter) -> {
+            long count = counter.sum();
+            if (count != 0) {
+                counts.put(value, count);
+            }
+        });
+        return counts;
+    }
+
+    private static <K> Map<K, Long> group(List<PatientAttributeCount> rows, Function<Object, K> key) {
+        Map<K, Long> counts = new HashMap<>();
+        for (PatientAttributeCount row : rows) {
+            counts.merge(key.apply(row.getValue()), row.getCount(), Long::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * The counter key of an attribute value; missing values are counted as "unknown"
+     */
+    private static String key(Object value) {
+        if (value == null || value.toString().isBlank()) {
+            return UNKNOWN;
+        }
+        return value.toString().trim();
+    }
+
+    private enum Dimension {
+        GENDER("gender", PatientSnapshot::gender),
+        STATE("state", PatientSnapshot::state),
+        INSURANCE_PROVIDER("insuranceProvider", PatientSnapshot::insuranceProvider);
+
+        private final String tag;
+        private final Function<PatientSnapshot, String> value;
+
+        Dimension(String tag, Function<PatientSnapshot, String> value) {
+            this.tag = tag;
+            this.value = value;
+        }
+    }
+
+    private enum AgeBand {
+        CHILD("0-17", 0, 17),
+        YOUNG_ADULT("18-34", 18, 34),
+        ADULT("35-49", 35, 49),
+        MIDDLE_AGED("50-64", 50, 64),
+        SENIOR("65+", 65, Integer.MAX_VALUE);
+
+        private final String label;
+        private final int minAge;
+        private final int maxAge;
+
+        AgeBand(String label, int minAge, int maxAge) {
+            this.label = label;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+
+        boolean contains(int age) {
+            // Patients born later this year or with a future date count as children
+            return age >= minAge && age <= maxAge || this == CHILD && age < 0;
+        }
+    }
+
+    private record DatabaseCounts(long total, Map<String, Long> byGender, Map<String, Long> byState,
+                                  Map<String, Long> byInsuranceProvider, Map<Integer, Long> byBirthYear) {
+    }
+}
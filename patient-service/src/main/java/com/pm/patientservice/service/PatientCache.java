@@ -0,0 +1,150 @@
+package com.pm.patientservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pm.patientservice.dto.PatientResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process cache of patient responses, addressable by ID and by medical record number.
+ * Responses are stored once, keyed by ID; the medical record number index only maps to the ID
+ * and is verified against the cached response, so a stale index entry left behind by a changed
+ * medical record number can never serve the wrong patient.
+ * <p>
+ * Evicting a deleted patient leaves a short-lived tombstone that refuses later puts of the same ID.
+ * A read that missed, loaded the patient and only then caches it would otherwise bring back a
+ * patient that was deleted while it was loading, and serve it until the entry expires.
+ */
+@Component
+public class PatientCache {
+
+    public static final String PATIENTS_BY_ID = "patients.by.id";
+    public static final String PATIENT_IDS_BY_MRN = "patient.ids.by.mrn";
+
+    private final Cache<String, PatientResponse> patientsById;
+    private final Cache<String, String> patientIdsByMedicalRecordNumber;
+    private final Cache<String, Boolean> tombstones;
+
+    @Autowired
+    public PatientCache(MeterRegistry meterRegistry,
+                        @Value("${patient.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${patient.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                        @Value("${patient.cache.tombstone-ttl:1m}") Duration tombstoneTtl) {
+        this.patientsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.patientIdsByMedicalRecordNumber = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.tombstones = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(tombstoneTtl)
+                .build();
+
+        // Export hit, miss, eviction and size metrics of both caches
+        CaffeineCacheMetrics.monitor(meterRegistry, patientsById, PATIENTS_BY_ID);
+        CaffeineCacheMetrics.monitor(meterRegistry, patientIdsByMedicalRecordNumber, PATIENT_IDS_BY_MRN);
+    }
+
+    /**
+     * Get a cached patient by ID
+     *
+     * @param id the patient ID
+     * @return the cached patient, or null on a miss
+     */
+    public PatientResponse getById(String id) {
+        return patientsById.getIfPresent(id);
+    }
+
+    /**
+     * Get a cached patient by medical record number
+     *
+     * @param medicalRecordNumber the medical record number
+     * @return the cached patient, or null on a miss
+     */
+    public PatientResponse getByMedicalRecordNumber(String medicalRecordNumber) {
+        String id = patientIdsByMedicalRecordNumber.getIfPresent(medicalRecordNumber);
+        if (id == null) {
+            return null;
+        }
+        PatientResponse response = patientsById.getIfPresent(id);
+        if (response == null || !medicalRecordNumber.equals(response.getMedicalRecordNumber())) {
+            patientIdsByMedicalRecordNumber.invalidate(medicalRecordNumber);
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Cache a patient under its ID and medical record number. A response is never replaced by
+     * one with a lower version, so a slow read racing with an update cannot overwrite the updated
+     * patient with the state it read before the update committed. A patient deleted within the
+     * tombstone TTL is not cached at all.
+     *
+     * @param response the patient to cache
+     */
+    public void put(PatientResponse response) {
+        String id = response.getId();
+        if (tombstones.getIfPresent(id) != null) {
+            return;
+        }
+        patientsById.asMap().merge(id, response,
+                (cached, candidate) -> isOlder(candidate, cached) ? cached : candidate);
+        // A delete between the check and the merge has written its tombstone before removing the
+        // entry, so either it removed this response or the tombstone is visible now
+        if (tombstones.getIfPresent(id) != null) {
+            patientsById.asMap().remove(id, response);
+            return;
+        }
+        patientIdsByMedicalRecordNumber.put(response.getMedicalRecordNumber(), id);
+    }
+
+    /**
+     * Remove a patient from the cache
+     *
+     * @param id the patient ID
+     */
+    public void evict(String id) {
+        PatientResponse removed = patientsById.asMap().remove(id);
+        if (removed != null) {
+            patientIdsByMedicalRecordNumber.asMap().remove(removed.getMedicalRecordNumber(), id);
+        }
+    }
+
+    /**
+     * Remove a deleted patient from the cache and refuse to cache it again for the tombstone TTL
+     *
+     * @param id the patient ID
+     */
+    public void evictDeleted(String id) {
+        tombstones.put(id, Boolean.TRUE);
+        evict(id);
+    }
+
+    /**
+     * Remove all patients from the cache
+     */
+    public void clear() {
+        patientsById.invalidateAll();
+        patientIdsByMedicalRecordNumber.invalidateAll();
+    }
+
+    /**
+     * Compare by version rather than update timestamp, which has millisecond resolution and can
+     * tie between two updates
+     */
+    private static boolean isOlder(PatientResponse candidate, PatientResponse cached) {
+        return candidate.getVersion() != null && cached.getVersion() != null
+                && candidate.getVersion() < cached.getVersion();
+    }
+}
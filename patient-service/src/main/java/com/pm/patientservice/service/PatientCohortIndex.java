@@ -0,0 +1,498 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.dto.PatientCohortCriteria;
+import com.pm.patientservice.dto.PatientCohortPageResponse;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * In-memory cohort engine answering multi-attribute patient filters without joining the
+ * patients, addresses and insurance_info tables.
+ * <p>
+ * Each patient gets a dense ordinal. Every value of a low-cardinality attribute (gender, state,
+ * country, insurance provider, coverage type) maps to a roaring bitmap of the ordinals having it,
+ * and the date of birth and insurance expiration date are bucketed by month and by day. A filter
+ * is the intersection of the per-attribute unions, so counting a cohort never touches a patient
+ * record. Ordinals of deleted patients are not reused; they only remain in the ordinal table.
+ */
+@Component
+public class PatientCohortIndex {
+
+    private static final Logger logger = LogManager.getLogger(PatientCohortIndex.class);
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<IndexedPatient> patients = new ArrayList<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Map<Attribute, Map<String, RoaringBitmap>> attributes = new EnumMap<>(Attribute.class);
+    private final DateBuckets datesOfBirth = new DateBuckets();
+    private final DateBuckets insuranceExpirationDates = new DateBuckets();
+    // IDs changed by events while the initial load runs; the load must not overwrite them
+    private Set<String> changedDuringLoad;
+
+    private final Timer queryTimer;
+
+    @Autowired
+    public PatientCohortIndex(PatientRepository patientRepository, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        for (Attribute attribute : Attribute.values()) {
+            attributes.put(attribute, new HashMap<>());
+        }
+
+        Gauge.builder("patient.cohort.index.patients", this, PatientCohortIndex::size)
+                .description("Number of patients in the cohort index")
+                .register(meterRegistry);
+        Gauge.builder("patient.cohort.index.bytes", this, PatientCohortIndex::sizeInBytes)
+                .description("Serialized size of the cohort index bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.queryTimer = Timer.builder("patient.cohort.query.time")
+                .description("Time taken to evaluate a cohort filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index from a streaming scan of the patient snapshots once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Loading patient cohort index");
+        lock.writeLock().lock();
+        try {
+            changedDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            LongAdder loaded = new LongAdder();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PatientSnapshot> snapshots = patientRepository.streamSnapshots()) {
+                    snapshots.forEach(snapshot -> {
+                        IndexedPatient patient = IndexedPatient.of(snapshot);
+                        lock.writeLock().lock();
+                        try {
+                            if (!changedDuringLoad.contains(snapshot.id())) {
+                                index(patient);
+                            }
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                        loaded.increment();
+                    });
+                }
+            });
+            lock.writeLock().lock();
+            try {
+                live.runOptimize();
+                attributes.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Loaded {} patients into the cohort index", loaded.sum());
+        } catch (Exception e) {
+            logger.error("Error loading patient cohort index: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Apply a committed patient change to the index
+     *
+     * @param event the patient change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        IndexedPatient patient = event.after() != null ? IndexedPatient.of(event.after()) : null;
+        lock.writeLock().lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.patientId());
+            }
+            if (patient == null) {
+                remove(event.patientId());
+            } else {
+                index(patient);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Count the patients matching a filter
+     *
+     * @param criteria the cohort filter
+     * @return the number of matching patients
+     */
+    public long count(PatientCohortCriteria criteria) {
+        validate(criteria);
+        return queryTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return evaluate(criteria).getLongCardinality();
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Get a page of the patients matching a filter, in index order
+     *
+     * @param criteria the cohort filter
+     * @param size the page size, clamped to PatientServiceImpl.MAX_PAGE_SIZE
+     * @param cursor the continuation token returned with the previous page, or null for the first page
+     * @return the page of matching patient summaries with the total count
+     */
+    public PatientCohortPageResponse page(PatientCohortCriteria criteria, int size, String cursor) {
+        validate(criteria);
+        int pageSize = Math.max(1, Math.min(size, PatientServiceImpl.MAX_PAGE_SIZE));
+        int after = parseCursor(cursor);
+        return queryTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                RoaringBitmap matches = evaluate(criteria);
+                PeekableIntIterator iterator = matches.getIntIterator();
+                iterator.advanceIfNeeded(after + 1);
+                List<PatientSummary> items = new ArrayList<>(pageSize);
+                int last = after;
+                while (iterator.hasNext() && items.size() < pageSize) {
+                    last = iterator.next();
+                    items.add(patients.get(last).summary());
+                }
+                boolean hasMore = iterator.hasNext();
+                return new PatientCohortPageResponse(items, items.size(), matches.getLongCardinality(), hasMore,
+                        hasMore ? Integer.toString(last) : null);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Number of patients in the index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = live.getLongSizeInBytes() + datesOfBirth.sizeInBytes() + insuranceExpirationDates.sizeInBytes();
+            for (Map<String, RoaringBitmap> values : attributes.values()) {
+                for (RoaringBitmap bitmap : values.values()) {
+                    bytes += bitmap.getLongSizeInBytes();
+                }
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the read lock
+    private RoaringBitmap evaluate(PatientCohortCriteria criteria) {
+        List<RoaringBitmap> filters = new ArrayList<>();
+        for (Attribute attribute : Attribute.values()) {
+            List<String> values = attribute.criterion.apply(criteria);
+            if (values != null && !values.isEmpty()) {
+                Map<String, RoaringBitmap> bitmaps = attributes.get(attribute);
+                filters.add(union(values.stream().map(value -> bitmaps.get(normalize(value))).toList()));
+            }
+        }
+        if (criteria.getDateOfBirthFrom() != null || criteria.getDateOfBirthTo() != null) {
+            filters.add(datesOfBirth.range(toLocalDate(criteria.getDateOfBirthFrom()),
+                    toLocalDate(criteria.getDateOfBirthTo())));
+        }
+        if (criteria.getInsuranceExpiresFrom() != null || criteria.getInsuranceExpiresTo() != null) {
+            filters.add(insuranceExpirationDates.range(toLocalDate(criteria.getInsuranceExpiresFrom()),
+                    toLocalDate(criteria.getInsuranceExpiresTo())));
+        }
+        if (filters.isEmpty()) {
+            return live.clone();
+        }
+
+        // Intersect starting from the smallest bitmap, so that each step works on the fewest values
+        filters.sort(Comparator.comparingLong(RoaringBitmap::getLongCardinality));
+        RoaringBitmap result = filters.get(0).clone();
+        for (int i = 1; i < filters.size() && !result.isEmpty(); i++) {
+            result.and(filters.get(i));
+        }
+        return result;
+    }
+
+    // Callers hold the write lock
+    private void index(IndexedPatient patient) {
+        Integer ordinal = ordinals.get(patient.summary().id());
+        if (ordinal == null) {
+            ordinal = patients.size();
+            ordinals.put(patient.summary().id(), ordinal);
+            patients.add(patient);
+        } else {
+            IndexedPatient existing = patients.get(ordinal);
+            if (existing.updatedAt() != null && patient.updatedAt() != null
+                    && patient.updatedAt().before(existing.updatedAt())) {
+                // A change committed later has already been applied
+                return;
+            }
+            if (live.contains(ordinal)) {
+                clearBits(existing, ordinal);
+            }
+            patients.set(ordinal, patient);
+        }
+        live.add(ordinal);
+        for (Attribute attribute : Attribute.values()) {
+            String value = patient.values().get(attribute);
+            if (value != null) {
+                attributes.get(attribute).computeIfAbsent(value, v -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+        datesOfBirth.add(patient.dateOfBirth(), ordinal);
+        insuranceExpirationDates.add(patient.insuranceExpirationDate(), ordinal);
+    }
+
+    // Callers hold the write lock
+    private void remove(String id) {
+        Integer ordinal = ordinals.get(id);
+        if (ordinal != null && live.contains(ordinal)) {
+            clearBits(patients.get(ordinal), ordinal);
+            live.remove(ordinal);
+        }
+    }
+
+    private void clearBits(IndexedPatient patient, int ordinal) {
+        for (Attribute attribute : Attribute.values()) {
+            String value = patient.values().get(attribute);
+            if (value != null) {
+                Map<String, RoaringBitmap> bitmaps = attributes.get(attribute);
+                RoaringBitmap bitmap = bitmaps.get(value);
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(value);
+                }
+            }
+        }
+        datesOfBirth.remove(patient.dateOfBirth(), ordinal);
+        insuranceExpirationDates.remove(patient.insuranceExpirationDate(), ordinal);
+    }
+
+    private static void validate(PatientCohortCriteria criteria) {
+        if (criteria.getDateOfBirthFrom() != null && criteria.getDateOfBirthTo() != null
+                && criteria.getDateOfBirthFrom().after(criteria.getDateOfBirthTo())) {
+            throw new InvalidRequestException("dateOfBirthFrom must not be after dateOfBirthTo",
+                    ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+        if (criteria.getInsuranceExpiresFrom() != null && criteria.getInsuranceExpiresTo() != null
+                && criteria.getInsuranceExpiresFrom().after(criteria.getInsuranceExpiresTo())) {
+            throw new InvalidRequestException("insuranceExpiresFrom must not be after insuranceExpiresTo",
+                    ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+    }
+
+    private static int parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return -1;
+        }
+        try {
+            int ordinal = Integer.parseInt(cursor);
+            if (ordinal < 0) {
+                throw new NumberFormatException();
+            }
+            return ordinal;
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cohort cursor", ErrorCode.INVALID_CURSOR);
+        }
+    }
+
+    private static RoaringBitmap union(Collection<RoaringBitmap> bitmaps) {
+        List<RoaringBitmap> present = bitmaps.stream().filter(Objects::nonNull).toList();
+        if (present.isEmpty()) {
+            return new RoaringBitmap();
+        }
+        return present.size() == 1 ? present.get(0) : FastAggregation.or(present.iterator());
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date == null ? null : Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Low-cardinality attributes indexed by value, with their snapshot and filter accessors
+     */
+    private enum Attribute {
+        GENDER(PatientSnapshot::gender, PatientCohortCriteria::getGender),
+        STATE(PatientSnapshot::state, PatientCohortCriteria::getState),
+        COUNTRY(PatientSnapshot::country, PatientCohortCriteria::getCountry),
+        INSURANCE_PROVIDER(PatientSnapshot::insuranceProvider, PatientCohortCriteria::getInsuranceProvider),
+        COVERAGE_TYPE(PatientSnapshot::coverageType, PatientCohortCriteria::getCoverageType);
+
+        private final Function<PatientSnapshot, String> value;
+        private final Function<PatientCohortCriteria, List<String>> criterion;
+
+        Attribute(Function<PatientSnapshot, String> value, Function<PatientCohortCriteria, List<String>> criterion) {
+            this.value = value;
+            this.criterion = criterion;
+        }
+    }
+
+    /**
+     * Normalized indexed values of one patient, kept to clear its bits when it changes
+     */
+    private record IndexedPatient(PatientSummary summary, Map<Attribute, String> values, LocalDate dateOfBirth,
+                                  LocalDate insuranceExpirationDate, Date updatedAt) {
+
+        static IndexedPatient of(PatientSnapshot snapshot) {
+            Map<Attribute, String> values = new EnumMap<>(Attribute.class);
+            for (Attribute attribute : Attribute.values()) {
+                String value = normalize(attribute.value.apply(snapshot));
+                if (value != null) {
+                    values.put(attribute, value);
+                }
+            }
+            return new IndexedPatient(snapshot.toSummary(), values, toLocalDate(snapshot.dateOfBirth()),
+                    toLocalDate(snapshot.insuranceExpirationDate()), snapshot.updatedAt());
+        }
+    }
+
+    /**
+     * Bitmaps of a date attribute bucketed by month and by day. A range is answered with the
+     * month buckets it covers completely and the day buckets of its partial first and last month.
+     */
+    private static final class DateBuckets {
+        private final NavigableMap<YearMonth, RoaringBitmap> months = new TreeMap<>();
+        private final NavigableMap<LocalDate, RoaringBitmap> days = new TreeMap<>();
+
+        void add(LocalDate date, int ordinal) {
+            if (date != null) {
+                months.computeIfAbsent(YearMonth.from(date), month -> new RoaringBitmap()).add(ordinal);
+                days.computeIfAbsent(date, day -> new RoaringBitmap()).add(ordinal);
+            }
+        }
+
+        void remove(LocalDate date, int ordinal) {
+            if (date != null) {
+                removeFrom(months, YearMonth.from(date), ordinal);
+                removeFrom(days, date, ordinal);
+            }
+        }
+
+        /**
+         * Ordinals with a date between the inclusive bounds; a null bound is open
+         */
+        RoaringBitmap range(LocalDate from, LocalDate to) {
+            List<RoaringBitmap> parts = new ArrayList<>();
+
+            YearMonth firstFullMonth = from == null ? null
+                    : from.getDayOfMonth() == 1 ? YearMonth.from(from) : YearMonth.from(from).plusMonths(1);
+            YearMonth lastFullMonth = to == null ? null
+                    : to.equals(YearMonth.from(to).atEndOfMonth()) ? YearMonth.from(to) : YearMonth.from(to).minusMonths(1);
+            if (firstFullMonth == null || lastFullMonth == null || !firstFullMonth.isAfter(lastFullMonth)) {
+                NavigableMap<YearMonth, RoaringBitmap> fullMonths = months;
+                if (firstFullMonth != null) {
+                    fullMonths = fullMonths.tailMap(firstFullMonth, true);
+                }
+                if (lastFullMonth != null) {
+                    fullMonths = fullMonths.headMap(lastFullMonth, true);
+                }
+                parts.addAll(fullMonths.values());
+            }
+
+            // Partial edge months; a range within one month yields the same days twice, which the union absorbs
+            if (from != null && from.getDayOfMonth() != 1) {
+                LocalDate end = YearMonth.from(from).atEndOfMonth();
+                parts.addAll(days.subMap(from, true, to != null && to.isBefore(end) ? to : end, true).values());
+            }
+            if (to != null && !to.equals(YearMonth.from(to).atEndOfMonth())) {
+                LocalDate start = YearMonth.from(to).atDay(1);
+                parts.addAll(days.subMap(from != null && from.isAfter(start) ? from : start, true, to, true).values());
+            }
+            return parts.isEmpty() ? new RoaringBitmap() : FastAggregation.or(parts.iterator());
+        }
+
+        long sizeInBytes() {
+            long bytes = 0;
+            for (RoaringBitmap bitmap : months.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : days.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            return bytes;
+        }
+
+        private static <K> void removeFrom(Map<K, RoaringBitmap> buckets, K key, int ordinal) {
+            RoaringBitmap bitmap = buckets.get(key);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+    }
+}
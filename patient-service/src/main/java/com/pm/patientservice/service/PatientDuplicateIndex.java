@@ -0,0 +1,526 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.dto.DuplicateCandidate;
+import com.pm.patientservice.dto.DuplicatePair;
+import com.pm.patientservice.dto.DuplicateScanResponse;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.commons.codec.language.Soundex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory duplicate-candidate engine. Every patient is filed under a handful of blocking keys
+ * built from phonetic codes of the names, the date of birth and the zip code, and only patients
+ * sharing a block are compared with a weighted Jaro-Winkler score. Blocking keeps a lookup
+ * proportional to the block sizes and a full scan close to linear in the number of patients.
+ * <p>
+ * Blocks larger than the configured maximum, e.g. a very common name born on the same day, are
+ * too unselective to compare pairwise and are skipped; the other keys of their members still
+ * apply.
+ */
+@Component
+public class PatientDuplicateIndex {
+
+    private static final Logger logger = LogManager.getLogger(PatientDuplicateIndex.class);
+
+    public static final int MAX_SCAN_PAIRS = 1000;
+
+    private static final double FIRST_NAME_WEIGHT = 0.30;
+    private static final double LAST_NAME_WEIGHT = 0.35;
+    private static final double DATE_OF_BIRTH_WEIGHT = 0.25;
+    private static final double ZIP_CODE_WEIGHT = 0.10;
+
+    // Number of blocks a scan task compares itself instead of splitting further
+    private static final int BLOCKS_PER_TASK = 256;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^A-Z]");
+    private static final Soundex SOUNDEX = Soundex.US_ENGLISH;
+    private static final DoubleMetaphone DOUBLE_METAPHONE = new DoubleMetaphone();
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double threshold;
+    private final int maxBlockSize;
+
+    private final Map<String, Set<String>> blocks = new ConcurrentHashMap<>();
+    private final Map<String, MatchRecord> patients = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    // IDs changed by events while the initial load runs; the load must not overwrite them
+    private Set<String> changedDuringLoad;
+
+    private final Counter flaggedCounter;
+    private final Counter comparisonCounter;
+    private final Timer scanTimer;
+
+    @Autowired
+    public PatientDuplicateIndex(PatientRepository patientRepository, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${patient.duplicates.threshold:0.88}") double threshold,
+                                 @Value("${patient.duplicates.max-block-size:500}") int maxBlockSize) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.threshold = threshold;
+        this.maxBlockSize = maxBlockSize;
+
+        Gauge.builder("patient.duplicate.index.patients", patients, Map::size)
+                .description("Number of patients in the duplicate index")
+                .register(meterRegistry);
+        Gauge.builder("patient.duplicate.index.blocks", blocks, Map::size)
+                .description("Number of blocking keys in the duplicate index")
+                .register(meterRegistry);
+        this.flaggedCounter = Counter.builder("patient.duplicates.flagged")
+                .description("Number of created patients with possible duplicates")
+                .register(meterRegistry);
+        this.comparisonCounter = Counter.builder("patient.duplicates.comparisons")
+                .description("Number of patient pairs scored by the duplicate engine")
+                .register(meterRegistry);
+        this.scanTimer = Timer.builder("patient.duplicates.scan.time")
+                .description("Time taken to scan all patients for duplicates")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index from a streaming scan of the patient snapshots once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Loading patient duplicate index");
+        synchronized (writeLock) {
+            changedDuringLoad = new HashSet<>();
+        }
+        try {
+            LongAdder loaded = new LongAdder();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PatientSnapshot> snapshots = patientRepository.streamSnapshots()) {
+                    snapshots.forEach(snapshot -> {
+                        MatchRecord record = MatchRecord.of(snapshot);
+                        synchronized (writeLock) {
+                            if (!changedDuringLoad.contains(snapshot.id())) {
+                                index(record);
+                            }
+                        }
+                        loaded.increment();
+                    });
+                }
+            });
+            logger.info("Loaded {} patients into the duplicate index with {} blocks", loaded.sum(), blocks.size());
+        } catch (Exception e) {
+            logger.error("Error loading patient duplicate index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (writeLock) {
+                changedDuringLoad = null;
+            }
+        }
+    }
+
+    /**
+     * Apply a committed patient change to the index. Created patients are scored against the
+     * patients in their blocks and flagged if a possible duplicate is found.
+     *
+     * @param event the patient change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        MatchRecord record = event.after() != null ? MatchRecord.of(event.after()) : null;
+        synchronized (writeLock) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.patientId());
+            }
+            if (record == null) {
+                remove(event.patientId());
+            } else {
+                index(record);
+            }
+        }
+
+        if (event.type() == PatientChangedEvent.Type.CREATED) {
+            List<DuplicateCandidate> candidates = findCandidates(record);
+            if (!candidates.isEmpty()) {
+                flaggedCounter.increment();
+                DuplicateCandidate best = candidates.get(0);
+                logger.warn("Patient {} may duplicate {} existing patient(s), best match {} with score {}",
+                        event.patientId(), candidates.size(), best.patient().id(), String.format("%.3f", best.score()));
+            }
+        }
+    }
+
+    /**
+     * Find the indexed patients that may be duplicates of the given patient, which need not
+     * exist yet. Only the patients sharing a block with it are scored.
+     *
+     * @param probe the patient to match; a patient with the same ID is never reported
+     * @return the possible duplicates scoring at least the configured threshold, best first
+     */
+    public List<DuplicateCandidate> findCandidates(PatientSnapshot probe) {
+        return findCandidates(MatchRecord.of(probe));
+    }
+
+    /**
+     * Score every pair of patients sharing a block, splitting the blocks across the fork/join pool.
+     * Each pair is scored once, in the first non-oversized block its patients share.
+     *
+     * @param minScore the lowest score to report, or null for the configured threshold
+     * @param limit the maximum number of pairs to return, clamped to MAX_SCAN_PAIRS
+     * @return the best scoring pairs and scan statistics
+     */
+    public DuplicateScanResponse scan(Double minScore, int limit) {
+        double scoreThreshold = minScore != null ? minScore : threshold;
+        int maxPairs = Math.max(1, Math.min(limit, MAX_SCAN_PAIRS));
+        List<String> blockKeys = new ArrayList<>(blocks.keySet());
+        logger.info("Scanning {} patients in {} blocks for duplicates", patients.size(), blockKeys.size());
+
+        long start = System.nanoTime();
+        ScanResult result = scanTimer.record(() ->
+                ForkJoinPool.commonPool().invoke(new BlockScanTask(blockKeys, 0, blockKeys.size(), scoreThreshold)));
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        comparisonCounter.increment(result.comparisons);
+
+        List<DuplicatePair> pairs = result.pairs.stream()
+                .sorted(Comparator.comparingDouble(DuplicatePair::score).reversed())
+                .limit(maxPairs)
+                .toList();
+        logger.info("Duplicate scan found {} pairs with {} comparisons in {} ms",
+                result.pairs.size(), result.comparisons, durationMillis);
+        return new DuplicateScanResponse(pairs, patients.size(), blockKeys.size(), result.comparisons,
+                result.skippedBlocks, durationMillis);
+    }
+
+    /**
+     * The configured minimum score of a possible duplicate
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Number of patients in the index
+     */
+    public int size() {
+        return patients.size();
+    }
+
+    private List<DuplicateCandidate> findCandidates(MatchRecord probe) {
+        Set<String> seen = new HashSet<>();
+        List<DuplicateCandidate> candidates = new ArrayList<>();
+        long comparisons = 0;
+        for (String key : probe.blockKeys()) {
+            Set<String> block = blocks.get(key);
+            if (block == null || block.size() > maxBlockSize) {
+                continue;
+            }
+            for (String id : block) {
+                if (id.equals(probe.summary().id()) || !seen.add(id)) {
+                    continue;
+                }
+                MatchRecord other = patients.get(id);
+                if (other == null) {
+                    continue;
+                }
+                comparisons++;
+                double score = score(probe, other);
+                if (score >= threshold) {
+                    candidates.add(new DuplicateCandidate(other.summary(), score));
+                }
+            }
+        }
+        comparisonCounter.increment(comparisons);
+        candidates.sort(Comparator.comparingDouble(DuplicateCandidate::score).reversed());
+        return candidates;
+    }
+
+    // Callers hold writeLock
+    private void index(MatchRecord record) {
+        String id = record.summary().id();
+        MatchRecord existing = patients.get(id);
+        if (existing != null && existing.updatedAt() != null && record.updatedAt() != null
+                && record.updatedAt().before(existing.updatedAt())) {
+            // A change committed later has already been applied
+            return;
+        }
+        if (existing != null) {
+            for (String key : existing.blockKeys()) {
+                if (!record.blockKeys().contains(key)) {
+                    removeFromBlock(key, id);
+                }
+            }
+        }
+        patients.put(id, record);
+        for (String key : record.blockKeys()) {
+            blocks.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    // Callers hold writeLock
+    private void remove(String id) {
+        MatchRecord removed = patients.remove(id);
+        if (removed != null) {
+            for (String key : removed.blockKeys()) {
+                removeFromBlock(key, id);
+            }
+        }
+    }
+
+    private void removeFromBlock(String key, String id) {
+        blocks.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private boolean isComparable(String blockKey) {
+        Set<String> block = blocks.get(blockKey);
+        return block != null && block.size() <= maxBlockSize;
+    }
+
+    /**
+     * Weighted similarity of two patients. Names are also compared swapped, since first and
+     * last name are often entered the wrong way round.
+     */
+    private static double score(MatchRecord first, MatchRecord second) {
+        double names = Math.max(
+                FIRST_NAME_WEIGHT * JaroWinkler.similarity(first.firstName(), second.firstName())
+                        + LAST_NAME_WEIGHT * JaroWinkler.similarity(first.lastName(), second.lastName()),
+                FIRST_NAME_WEIGHT * JaroWinkler.similarity(first.firstName(), second.lastName())
+                        + LAST_NAME_WEIGHT * JaroWinkler.similarity(first.lastName(), second.firstName()));
+        return names
+                + DATE_OF_BIRTH_WEIGHT * dateOfBirthSimilarity(first.dateOfBirth(), second.dateOfBirth())
+                + ZIP_CODE_WEIGHT * zipCodeSimilarity(first.zipCode(), second.zipCode());
+    }
+
+    /**
+     * 1.0 for the same date, 0.6 for a typo in one component or swapped day and month, 0.0 otherwise
+     */
+    private static double dateOfBirthSimilarity(LocalDate first, LocalDate second) {
+        if (first == null || second == null) {
+            return 0.0;
+        }
+        if (first.equals(second)) {
+            return 1.0;
+        }
+        int sameComponents = (first.getYear() == second.getYear() ? 1 : 0)
+                + (first.getMonthValue() == second.getMonthValue() ? 1 : 0)
+                + (first.getDayOfMonth() == second.getDayOfMonth() ? 1 : 0);
+        boolean swapped = first.getYear() == second.getYear()
+                && first.getMonthValue() == second.getDayOfMonth()
+                && first.getDayOfMonth() == second.getMonthValue();
+        return sameComponents == 2 || swapped ? 0.6 : 0.0;
+    }
+
+    /**
+     * 1.0 for the same zip code, 0.0 for different ones, and neutral if either is unknown
+     */
+    private static double zipCodeSimilarity(String first, String second) {
+        if (first == null || second == null) {
+            return 0.5;
+        }
+        return first.equals(second) ? 1.0 : 0.0;
+    }
+
+    /**
+     * Scores the pairs of a range of blocks, splitting the range in halves until it is small
+     */
+    private final class BlockScanTask extends RecursiveTask<ScanResult> {
+        private final List<String> blockKeys;
+        private final int from;
+        private final int to;
+        private final double minScore;
+
+        private BlockScanTask(List<String> blockKeys, int from, int to, double minScore) {
+            this.blockKeys = blockKeys;
+            this.from = from;
+            this.to = to;
+            this.minScore = minScore;
+        }
+
+        @Override
+        protected ScanResult compute() {
+            if (to - from <= BLOCKS_PER_TASK) {
+                ScanResult result = new ScanResult();
+                for (int i = from; i < to; i++) {
+                    scanBlock(blockKeys.get(i), result);
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            BlockScanTask left = new BlockScanTask(blockKeys, from, middle, minScore);
+            left.fork();
+            ScanResult right = new BlockScanTask(blockKeys, middle, to, minScore).compute();
+            return left.join().merge(right);
+        }
+
+        private void scanBlock(String key, ScanResult result) {
+            Set<String> block = blocks.get(key);
+            if (block == null || block.size() < 2) {
+                return;
+            }
+            if (block.size() > maxBlockSize) {
+                result.skippedBlocks++;
+                return;
+            }
+            List<MatchRecord> members = block.stream()
+                    .map(patients::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            for (int i = 0; i < members.size(); i++) {
+                MatchRecord first = members.get(i);
+                for (int j = i + 1; j < members.size(); j++) {
+                    MatchRecord second = members.get(j);
+                    if (!key.equals(owningBlock(first, second))) {
+                        continue;
+                    }
+                    result.comparisons++;
+                    double score = score(first, second);
+                    if (score >= minScore) {
+                        result.pairs.add(new DuplicatePair(first.summary(), second.summary(), score));
+                    }
+                }
+            }
+        }
+
+        // The first comparable block shared by both patients, in which alone the pair is scored
+        private String owningBlock(MatchRecord first, MatchRecord second) {
+            for (String key : first.blockKeys()) {
+                if (second.blockKeys().contains(key) && isComparable(key)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class ScanResult {
+        private final List<DuplicatePair> pairs = new ArrayList<>();
+        private long comparisons;
+        private int skippedBlocks;
+
+        private ScanResult merge(ScanResult other) {
+            pairs.addAll(other.pairs);
+            comparisons += other.comparisons;
+            skippedBlocks += other.skippedBlocks;
+            return this;
+        }
+    }
+
+    /**
+     * Normalized matching attributes and blocking keys of one patient
+     */
+    private record MatchRecord(PatientSummary summary, String firstName, String lastName, LocalDate dateOfBirth,
+                               String zipCode, Set<String> blockKeys, Date updatedAt) {
+
+        static MatchRecord of(PatientSnapshot snapshot) {
+            String firstName = normalizeName(snapshot.firstName());
+            String lastName = normalizeName(snapshot.lastName());
+            LocalDate dateOfBirth = snapshot.dateOfBirth() == null ? null
+                    : Instant.ofEpochMilli(snapshot.dateOfBirth().getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+            String zipCode = normalizeZipCode(snapshot.zipCode());
+            return new MatchRecord(snapshot.toSummary(), firstName, lastName, dateOfBirth, zipCode,
+                    blockKeys(firstName, lastName, dateOfBirth, zipCode), snapshot.updatedAt());
+        }
+
+        /**
+         * Phonetic last name with date of birth, phonetic full name with zip code, Soundex full
+         * name with birth year, and date of birth with zip code. Sorted, so that the first shared
+         * key of two patients is well defined.
+         */
+        private static Set<String> blockKeys(String firstName, String lastName, LocalDate dateOfBirth, String zipCode) {
+            Set<String> keys = new TreeSet<>();
+            Set<String> firstCodes = phoneticCodes(firstName);
+            for (String lastCode : phoneticCodes(lastName)) {
+                if (dateOfBirth != null) {
+                    keys.add("LD:" + lastCode + "|" + dateOfBirth);
+                }
+                if (zipCode != null) {
+                    for (String firstCode : firstCodes) {
+                        // Order independent, so that swapped first and last names share the key
+                        String names = firstCode.compareTo(lastCode) <= 0
+                                ? firstCode + "|" + lastCode : lastCode + "|" + firstCode;
+                        keys.add("NZ:" + names + "|" + zipCode);
+                    }
+                }
+            }
+            if (!firstName.isEmpty() && !lastName.isEmpty() && dateOfBirth != null) {
+                keys.add("SY:" + SOUNDEX.soundex(firstName) + SOUNDEX.soundex(lastName) + "|" + dateOfBirth.getYear());
+            }
+            if (dateOfBirth != null && zipCode != null) {
+                keys.add("DZ:" + dateOfBirth + "|" + zipCode);
+            }
+            return keys;
+        }
+
+        private static Set<String> phoneticCodes(String name) {
+            Set<String> codes = new TreeSet<>();
+            if (!name.isEmpty()) {
+                for (boolean alternate : new boolean[]{false, true}) {
+                    String code = DOUBLE_METAPHONE.doubleMetaphone(name, alternate);
+                    if (code != null && !code.isEmpty()) {
+                        codes.add(code);
+                    }
+                }
+            }
+            return codes;
+        }
+
+        /**
+         * Upper-case letters only, without diacritics, spaces or hyphens
+         */
+        private static String normalizeName(String name) {
+            if (name == null) {
+                return "";
+            }
+            String stripped = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+            return NON_LETTERS.matcher(stripped.toUpperCase(Locale.ROOT)).replaceAll("");
+        }
+
+        /**
+         * Upper-case zip code without whitespace, reduced to the five-digit ZIP for ZIP+4 codes
+         */
+        private static String normalizeZipCode(String zipCode) {
+            if (zipCode == null || zipCode.isBlank()) {
+                return null;
+            }
+            String normalized = zipCode.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+            return normalized.matches("\\d{5}-\\d{4}") ? normalized.substring(0, 5) : normalized;
+        }
+    }
+}
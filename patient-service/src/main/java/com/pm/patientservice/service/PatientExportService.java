@@ -0,0 +1,128 @@
+package com.pm.patientservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.model.Patient;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting the full patient table as newline-delimited JSON (NDJSON).
+ * Patients are read through a database cursor and written one by one, so memory use
+ * stays constant regardless of the table size.
+ */
+@Service
+public class PatientExportService {
+
+    private static final Logger logger = LogManager.getLogger(PatientExportService.class);
+
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    private final Counter patientExportedCounter;
+    private final Timer exportTimer;
+
+    @Autowired
+    public PatientExportService(PatientRepository patientRepository, PatientMapper patientMapper,
+                                ObjectMapper objectMapper, EntityManager entityManager, MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.patientMapper = patientMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+
+        this.patientExportedCounter = Counter.builder("patient.exported")
+                .description("Number of patients written by NDJSON exports")
+                .register(meterRegistry);
+        this.exportTimer = Timer.builder("patient.export.time")
+                .description("Time taken to export all patients")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Write every patient to the output stream as one JSON document per line.
+     * The output stream is flushed after every fetched chunk but not closed, so the
+     * caller can finish any wrapping compression stream. Writes block while the client
+     * is not reading, which in turn stops the cursor from fetching further rows.
+     *
+     * @param outputStream the stream to write to
+     * @return the number of patients exported
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream outputStream) {
+        logger.info("Starting NDJSON export of all patients");
+        Timer.Sample sample = Timer.start();
+        long exported = 0;
+        try (Stream<Patient> patients = patientRepository.streamAll();
+             SequenceWriter writer = objectMapper.writerFor(PatientResponse.class)
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+            Iterator<Patient> iterator = patients.iterator();
+            List<Patient> chunk = new ArrayList<>(PatientRepository.STREAM_FETCH_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                // hasNext() reads the next row, so it is only asked while the chunk is not full and
+                // never hands out a patient that writing the chunk would detach
+                if (chunk.size() == PatientRepository.STREAM_FETCH_SIZE || !iterator.hasNext()) {
+                    exported += writeChunk(chunk, writer);
+                    logger.debug("Exported {} patients so far", exported);
+                }
+            }
+            writer.flush();
+            if (exported > 0) {
+                // Terminate the last record, the separator is only written between values
+                outputStream.write('\n');
+            }
+            outputStream.flush();
+            logger.info("Successfully exported {} patients", exported);
+            return exported;
+        } catch (IOException e) {
+            logger.error("Patient export aborted after {} patients: {}", exported, e.getMessage());
+            throw new UncheckedIOException(e);
+        } finally {
+            sample.stop(exportTimer);
+        }
+    }
+
+    /**
+     * Write a chunk of streamed patients, loading the emergency contacts of the whole chunk with
+     * one query first. The cursor hands out one patient at a time, so batch fetching alone would
+     * still load the contacts patient by patient. The chunk is then dropped from the persistence
+     * context, so neither Hibernate nor the heap grows with the size of the table.
+     *
+     * @return the number of patients written
+     */
+    private int writeChunk(List<Patient> chunk, SequenceWriter writer) throws IOException {
+        patientRepository.fetchEmergencyContacts(chunk.stream().map(Patient::getId).toList());
+        for (Patient patient : chunk) {
+            writer.write(patientMapper.toPatientResponse(patient));
+        }
+        writer.flush();
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        patientExportedCounter.increment(written);
+        return written;
+    }
+}
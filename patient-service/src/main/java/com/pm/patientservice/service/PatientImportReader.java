@@ -0,0 +1,424 @@
+package com.pm.patientservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the records of a patient import file. Splitting the file into records is sequential and
+ * cheap; turning a record into a {@link PatientCreateRequest} is the expensive part and is
+ * thread-safe, so the import workers parse records in parallel.
+ * <p>
+ * NDJSON files hold one patient per line, shaped like the create request. CSV files start with a
+ * header row naming the request property of each column as a dotted path, with list elements
+ * indexed in brackets, e.g. {@code address.city} or {@code emergencyContacts[0].name}. Empty
+ * cells are absent values; an object whose cells are all empty is absent.
+ */
+public abstract class PatientImportReader implements Closeable {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    /**
+     * Supported file formats
+     */
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        /**
+         * The format of a request body with the given content type
+         *
+         * @throws InvalidRequestException if the content type is not supported
+         */
+        public static Format of(MediaType contentType) {
+            if (contentType != null && APPLICATION_NDJSON.includes(contentType)) {
+                return NDJSON;
+            }
+            if (contentType != null && TEXT_CSV.includes(contentType)) {
+                return CSV;
+            }
+            throw new InvalidRequestException("Unsupported import content type " + contentType + ", expected " +
+                    APPLICATION_NDJSON + " or " + TEXT_CSV, ErrorCode.INVALID_IMPORT);
+        }
+    }
+
+    /**
+     * A record of the file before parsing
+     *
+     * @param line the line of the file the record starts on
+     * @param values the JSON document of an NDJSON line, or the cells of a CSV row
+     */
+    public record Source(long line, String[] values) {
+    }
+
+    protected final ObjectReader requestReader;
+
+    protected PatientImportReader(ObjectMapper objectMapper) {
+        // Unknown properties are rejected so that misspelled fields do not silently drop data
+        this.requestReader = objectMapper.readerFor(PatientCreateRequest.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * Open a reader over a UTF-8 encoded import file
+     *
+     * @param format the file format
+     * @param inputStream the file content
+     * @param objectMapper the mapper converting records to create requests
+     * @return the reader, positioned at the first record
+     * @throws InvalidRequestException if the CSV header is missing or names unknown properties
+     */
+    public static PatientImportReader open(Format format, InputStream inputStream, ObjectMapper objectMapper)
+            throws IOException {
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        return switch (format) {
+            case NDJSON -> new Ndjson(reader, objectMapper);
+            case CSV -> new Csv(reader, objectMapper);
+        };
+    }
+
+    /**
+     * Read the next records of the file
+     *
+     * @param size the maximum number of records
+     * @return the records, empty at the end of the file
+     */
+    public abstract List<Source> nextChunk(int size) throws IOException;
+
+    /**
+     * Convert a record to a create request. Safe to call from several threads.
+     *
+     * @param source the record
+     * @return the create request, not yet validated
+     * @throws IOException if the record is not a well-formed patient
+     */
+    public abstract PatientCreateRequest parse(Source source) throws IOException;
+
+    /**
+     * Describe a parse failure of a record, naming the property it occurred at
+     */
+    public static String describe(IOException e) {
+        if (!(e instanceof JsonProcessingException processingException)) {
+            return e.getMessage();
+        }
+        if (e instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+            return path(mappingException) + ": " + processingException.getOriginalMessage();
+        }
+        return processingException.getOriginalMessage();
+    }
+
+    private static String path(JsonMappingException e) {
+        return e.getPath().stream()
+                .map(reference -> reference.getFieldName() != null
+                        ? reference.getFieldName() : "[" + reference.getIndex() + "]")
+                .collect(Collectors.joining("."))
+                .replace(".[", "[");
+    }
+
+    /**
+     * One JSON document per line
+     */
+    private static final class Ndjson extends PatientImportReader {
+
+        private final BufferedReader reader;
+        private long line;
+
+        private Ndjson(Reader reader, ObjectMapper objectMapper) {
+            super(objectMapper);
+            this.reader = new BufferedReader(reader, 64 * 1024);
+        }
+
+        @Override
+        public List<Source> nextChunk(int size) throws IOException {
+            List<Source> chunk = new ArrayList<>(size);
+            String text;
+            while (chunk.size() < size && (text = reader.readLine()) != null) {
+                line++;
+                if (line == 1 && text.startsWith("\uFEFF")) {
+                    text = text.substring(1);
+                }
+                if (!text.isBlank()) {
+                    chunk.add(new Source(line, new String[]{text}));
+                }
+            }
+            return chunk;
+        }
+
+        @Override
+        public PatientCreateRequest parse(Source source) throws IOException {
+            return requestReader.readValue(source.values()[0]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * RFC 4180 comma-separated values with a header row. Quoted cells may contain commas,
+     * doubled quotes and line breaks.
+     */
+    private static final class Csv extends PatientImportReader {
+
+        private static final Pattern SEGMENT = Pattern.compile("([A-Za-z][A-Za-z0-9]*)(?:\\[(\\d+)])?");
+
+        private final Reader reader;
+        private final char[] buffer = new char[64 * 1024];
+        private int position;
+        private int limit;
+        private long line = 1;
+
+        private final String[] header;
+        private final List<List<PathSegment>> columns = new ArrayList<>();
+
+        private record PathSegment(String name, int index) {
+        }
+
+        private Csv(Reader reader, ObjectMapper objectMapper) throws IOException {
+            super(objectMapper);
+            this.reader = reader;
+            if (peek() == '\uFEFF') {
+                read();
+            }
+            Source headerRecord = readRecord();
+            if (headerRecord == null) {
+                throw new InvalidRequestException("CSV import has no header row", ErrorCode.INVALID_IMPORT);
+            }
+            this.header = headerRecord.values();
+
+            Set<String> seen = new HashSet<>();
+            for (String column : header) {
+                String name = column == null ? "" : column.trim();
+                if (!seen.add(name)) {
+                    throw new InvalidRequestException("Duplicate CSV column: " + name, ErrorCode.INVALID_IMPORT);
+                }
+                columns.add(parseColumnPath(name));
+            }
+            checkColumns();
+        }
+
+        @Override
+        public List<Source> nextChunk(int size) throws IOException {
+            List<Source> chunk = new ArrayList<>(size);
+            Source source;
+            while (chunk.size() < size && (source = readRecord()) != null) {
+                String[] values = source.values();
+                if (values.length == 1 && values[0] == null) {
+                    continue;
+                }
+                chunk.add(source);
+            }
+            return chunk;
+        }
+
+        @Override
+        public PatientCreateRequest parse(Source source) throws IOException {
+            String[] values = source.values();
+            if (values.length != header.length) {
+                throw new JsonMappingException((Closeable) null, "Row has " + values.length + " cells, the header has " +
+                        header.length);
+            }
+            ObjectNode root = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    set(root, columns.get(i), JsonNodeFactory.instance.textNode(values[i]));
+                }
+            }
+            removeMissingElements(root);
+            return requestReader.readValue(root);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static List<PathSegment> parseColumnPath(String column) {
+            List<PathSegment> path = new ArrayList<>();
+            for (String segment : column.split("\\.", -1)) {
+                Matcher matcher = SEGMENT.matcher(segment);
+                if (!matcher.matches()) {
+                    throw new InvalidRequestException("Invalid CSV column: " + column, ErrorCode.INVALID_IMPORT);
+                }
+                path.add(new PathSegment(matcher.group(1), matcher.group(2) != null
+                        ? Integer.parseInt(matcher.group(2)) : -1));
+            }
+            return path;
+        }
+
+        /**
+         * Map a row with every column present to reject columns naming no request property once,
+         * rather than failing every row
+         */
+        private void checkColumns() {
+            ObjectNode root = JsonNodeFactory.instance.objectNode();
+            for (int i = 0; i < header.length; i++) {
+                set(root, columns.get(i), NullNode.getInstance());
+            }
+            try {
+                requestReader.readValue(root);
+            } catch (UnrecognizedPropertyException e) {
+                throw new InvalidRequestException("Unknown CSV column: " + path(e), ErrorCode.INVALID_IMPORT);
+            } catch (IOException e) {
+                // Null cells are valid input, value errors are reported per row
+            }
+        }
+
+        private static void set(ObjectNode root, List<PathSegment> path, JsonNode value) {
+            JsonNode node = root;
+            for (int i = 0; i < path.size(); i++) {
+                PathSegment segment = path.get(i);
+                boolean last = i == path.size() - 1;
+                if (!(node instanceof ObjectNode parent)) {
+                    throw new InvalidRequestException("Conflicting CSV columns at " + segment.name(),
+                            ErrorCode.INVALID_IMPORT);
+                }
+                if (segment.index() < 0) {
+                    if (last) {
+                        parent.set(segment.name(), value);
+                    } else {
+                        node = parent.has(segment.name())
+                                ? parent.get(segment.name()) : parent.putObject(segment.name());
+                    }
+                    continue;
+                }
+                JsonNode existing = parent.get(segment.name());
+                if (existing != null && !(existing instanceof ArrayNode)) {
+                    throw new InvalidRequestException("Conflicting CSV columns at " + segment.name(),
+                            ErrorCode.INVALID_IMPORT);
+                }
+                ArrayNode array = existing != null ? (ArrayNode) existing : parent.putArray(segment.name());
+                while (array.size() <= segment.index()) {
+                    array.add(NullNode.getInstance());
+                }
+                if (last) {
+                    array.set(segment.index(), value);
+                } else {
+                    if (array.get(segment.index()).isNull()) {
+                        array.set(segment.index(), JsonNodeFactory.instance.objectNode());
+                    }
+                    node = array.get(segment.index());
+                }
+            }
+        }
+
+        /**
+         * Drop list elements whose cells were all empty, e.g. the unused contact columns of a
+         * patient with fewer emergency contacts than the file has columns for
+         */
+        private static void removeMissingElements(JsonNode node) {
+            if (node instanceof ArrayNode array) {
+                for (int i = array.size() - 1; i >= 0; i--) {
+                    if (array.get(i).isNull()) {
+                        array.remove(i);
+                    }
+                }
+            }
+            node.forEach(PatientImportReader.Csv::removeMissingElements);
+        }
+
+        /**
+         * Read the cells of the next row, or null at the end of the file. Unquoted empty cells
+         * are null, quoted empty cells are empty strings.
+         */
+        private Source readRecord() throws IOException {
+            if (peek() == -1) {
+                return null;
+            }
+            long recordLine = line;
+            List<String> values = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            boolean inQuotes = false;
+            int c;
+            while ((c = read()) != -1) {
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            cell.append('"');
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        cell.append((char) c);
+                    }
+                } else if (c == '"' && cell.length() == 0 && !quoted) {
+                    inQuotes = true;
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(cell(cell, quoted));
+                    cell.setLength(0);
+                    quoted = false;
+                } else if (c == '\n') {
+                    line++;
+                    break;
+                } else if (c != '\r') {
+                    cell.append((char) c);
+                }
+            }
+            if (inQuotes) {
+                throw new InvalidRequestException("Unterminated quoted CSV cell in the row starting on line " +
+                        recordLine, ErrorCode.INVALID_IMPORT);
+            }
+            values.add(cell(cell, quoted));
+            return new Source(recordLine, values.toArray(String[]::new));
+        }
+
+        private static String cell(StringBuilder cell, boolean quoted) {
+            return cell.length() == 0 && !quoted ? null : cell.toString();
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            if (c != -1) {
+                position++;
+            }
+            return c;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position];
+        }
+    }
+}
@@ -0,0 +1,632 @@
+package com.pm.patientservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.AddressDTO;
+import com.pm.patientservice.dto.ContactInfoDTO;
+import com.pm.patientservice.dto.InsuranceInfoDTO;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientImportIssue;
+import com.pm.patientservice.dto.PatientImportResponse;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.PatientServiceException;
+import com.pm.patientservice.model.UuidV7Generator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Loads patient files in bulk, bypassing the per-patient REST path.
+ * <p>
+ * The request thread splits the file into chunks of records, and a worker pool parses, validates
+ * and encodes the chunks in parallel. Encoded chunks are streamed in file order through
+ * {@code COPY FROM STDIN} into an unlogged staging table private to the import. Duplicates are
+ * then flagged set-wise against the existing patients and within the file, and the remaining rows
+ * are inserted into the patient tables with one {@code INSERT ... SELECT} per table in a single
+ * transaction, so an import is applied completely or not at all. The unique inserts use
+ * {@code ON CONFLICT DO NOTHING}, so a key taken by a concurrent create after the checks turns the
+ * record into a reported duplicate rather than failing the import.
+ * <p>
+ * Child ids are drawn from the same pooled-lo sequences the entities use, one {@code nextval} per
+ * block of {@value #ID_BLOCK_SIZE} rows. Once committed, the imported patients are published as
+ * created events and added to the key filter, like patients created through the API.
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger logger = LogManager.getLogger(PatientImportService.class);
+
+    /**
+     * Allocation size of the child id sequences; a {@code nextval} value v reserves [v, v + 50)
+     */
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String STAGED_COLUMNS = "line, id, medical_record_number, first_name, last_name, " +
+            "date_of_birth, gender, street, city, state, zip_code, country, phone_number, email, " +
+            "alternative_phone_number, insured, provider, policy_number, group_number, policy_holder_name, " +
+            "effective_date, expiration_date, coverage_type, emergency_contacts";
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PatientKeyFilter patientKeyFilter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int chunkSize;
+    private final int maxIssues;
+
+    private final Counter importedCounter;
+    private final Counter invalidCounter;
+    private final Counter duplicateCounter;
+    private final Timer importTimer;
+
+    @Autowired
+    public PatientImportService(DataSource dataSource, ObjectMapper objectMapper, Validator validator,
+                                PatientKeyFilter patientKeyFilter, ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${patient.import.workers:4}") int workers,
+                                @Value("${patient.import.chunk-size:1000}") int chunkSize,
+                                @Value("${patient.import.max-issues:1000}") int maxIssues) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.patientKeyFilter = patientKeyFilter;
+        this.eventPublisher = eventPublisher;
+        this.workerCount = workers;
+        this.chunkSize = chunkSize;
+        this.maxIssues = maxIssues;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "patient-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.importedCounter = Counter.builder("patient.import.records")
+                .description("Number of import records by outcome")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.invalidCounter = Counter.builder("patient.import.records")
+                .description("Number of import records by outcome")
+                .tag("outcome", "invalid")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("patient.import.records")
+                .description("Number of import records by outcome")
+                .tag("outcome", "duplicate")
+                .register(meterRegistry);
+        this.importTimer = Timer.builder("patient.import.time")
+                .description("Time taken to import a patient file")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Import a patient file. Invalid records and duplicates are skipped and reported; everything
+     * else is inserted in one transaction.
+     *
+     * @param format the file format
+     * @param inputStream the file content, UTF-8 encoded
+     * @return the import report
+     * @throws com.pm.patientservice.exception.InvalidRequestException if the file cannot be read as
+     *         the given format
+     * @throws PatientServiceException if staging or merging fails, in which case nothing is imported
+     */
+    public PatientImportResponse importPatients(PatientImportReader.Format format, InputStream inputStream) {
+        String importId = UuidV7Generator.next().toString();
+        String table = "patient_import_" + importId.replace("-", "");
+        long start = System.nanoTime();
+        logger.info("Starting patient import {} ({})", importId, format);
+
+        try (PatientImportReader reader = PatientImportReader.open(format, inputStream, objectMapper);
+             Connection connection = dataSource.getConnection()) {
+            Report report = new Report(maxIssues);
+            try {
+                createStagingTable(connection, table);
+                stage(connection, table, reader, report);
+                Date importedAt = new Date();
+                merge(connection, table, importedAt, report);
+                publish(connection, table, importedAt);
+                addDuplicateIssues(connection, table, report);
+            } finally {
+                dropStagingTables(connection, table);
+            }
+
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            importedCounter.increment(report.imported);
+            invalidCounter.increment(report.invalid);
+            duplicateCounter.increment(report.duplicates);
+            logger.info("Completed patient import {}: {} received, {} imported, {} invalid, {} duplicates in {} ms",
+                    importId, report.received, report.imported, report.invalid, report.duplicates, durationMillis);
+            return report.toResponse(importId, durationMillis);
+        } catch (SQLException | IOException e) {
+            logger.error("Patient import {} failed: {}", importId, e.getMessage(), e);
+            throw new PatientServiceException("Patient import failed: " + e.getMessage(), e,
+                    ErrorCode.DATABASE_ERROR);
+        } catch (RuntimeException e) {
+            logger.error("Patient import {} failed: {}", importId, e.getMessage(), e);
+            throw e;
+        } finally {
+            importTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void createStagingTable(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // Text columns, so over-long values fail the row insert with a clear message instead of the COPY
+            statement.execute("CREATE UNLOGGED TABLE " + table + " (" +
+                    "line bigint NOT NULL, id uuid NOT NULL, " +
+                    "medical_record_number text, first_name text, last_name text, date_of_birth date, gender text, " +
+                    "street text, city text, state text, zip_code text, country text, " +
+                    "phone_number text, email text, alternative_phone_number text, " +
+                    "insured boolean NOT NULL, provider text, policy_number text, group_number text, " +
+                    "policy_holder_name text, effective_date date, expiration_date date, coverage_type text, " +
+                    "emergency_contacts jsonb, " +
+                    "address_id bigint, contact_info_id bigint, insurance_info_id bigint, " +
+                    "duplicate text, duplicate_of_patient uuid, duplicate_of_line bigint)");
+        }
+    }
+
+    private void dropStagingTables(Connection connection, String table) {
+        try (Statement statement = connection.createStatement()) {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            statement.execute("DROP TABLE IF EXISTS " + table + "_contacts, " + table);
+        } catch (SQLException e) {
+            logger.warn("Failed to drop import staging table {}: {}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * Stream the valid records into the staging table, keeping at most one chunk per worker plus
+     * one in flight so that memory stays bounded however large the file is
+     */
+    private void stage(Connection connection, String table, PatientImportReader reader, Report report)
+            throws SQLException, IOException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + STAGED_COLUMNS + ") FROM STDIN (FORMAT csv)");
+        Deque<Future<StagedChunk>> pending = new ArrayDeque<>();
+        try {
+            List<PatientImportReader.Source> chunk;
+            while (!(chunk = reader.nextChunk(chunkSize)).isEmpty()) {
+                List<PatientImportReader.Source> records = chunk;
+                pending.add(workers.submit(() -> stageChunk(reader, records)));
+                if (pending.size() > workerCount) {
+                    write(copyIn, await(pending.poll()), report);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(copyIn, await(pending.poll()), report);
+            }
+            copyIn.endCopy();
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE " + table);
+        }
+    }
+
+    private static void write(CopyIn copyIn, StagedChunk chunk, Report report) throws SQLException {
+        if (chunk.rows().length > 0) {
+            copyIn.writeToCopy(chunk.rows(), 0, chunk.rows().length);
+        }
+        report.received += chunk.received();
+        report.invalid += chunk.invalid().size();
+        chunk.invalid().forEach(report::addInvalid);
+    }
+
+    private static StagedChunk await(Future<StagedChunk> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PatientServiceException("Patient import interrupted", e, ErrorCode.UNKNOWN_ERROR);
+        } catch (ExecutionException e) {
+            throw new PatientServiceException("Failed to stage import records: " + e.getCause().getMessage(),
+                    e.getCause(), ErrorCode.UNKNOWN_ERROR);
+        }
+    }
+
+    /**
+     * Parse, validate and encode the records of one chunk as COPY rows. Runs on the workers.
+     */
+    private StagedChunk stageChunk(PatientImportReader reader, List<PatientImportReader.Source> records)
+            throws JsonProcessingException {
+        StringBuilder rows = new StringBuilder(records.size() * 512);
+        List<PatientImportIssue> invalid = new ArrayList<>();
+        for (PatientImportReader.Source source : records) {
+            PatientCreateRequest request;
+            try {
+                request = reader.parse(source);
+            } catch (IOException e) {
+                invalid.add(new PatientImportIssue(source.line(), PatientImportIssue.Type.INVALID, null,
+                        ErrorCode.INVALID_IMPORT.getCode(), PatientImportReader.describe(e)));
+                continue;
+            }
+            if (request == null) {
+                invalid.add(new PatientImportIssue(source.line(), PatientImportIssue.Type.INVALID, null,
+                        ErrorCode.INVALID_IMPORT.getCode(), "Record is empty"));
+                continue;
+            }
+            String violations = validator.validate(request).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            if (!violations.isEmpty()) {
+                invalid.add(new PatientImportIssue(source.line(), PatientImportIssue.Type.INVALID,
+                        request.getMedicalRecordNumber(), ErrorCode.VALIDATION_ERROR.getCode(), violations));
+                continue;
+            }
+            appendRow(rows, source.line(), request);
+        }
+        return new StagedChunk(rows.toString().getBytes(StandardCharsets.UTF_8), records.size(), invalid);
+    }
+
+    private void appendRow(StringBuilder rows, long line, PatientCreateRequest request)
+            throws JsonProcessingException {
+        AddressDTO address = request.getAddress();
+        ContactInfoDTO contactInfo = request.getContactInfo();
+        InsuranceInfoDTO insurance = request.getInsuranceInfo();
+        boolean insured = insurance != null;
+        boolean hasContacts = request.getEmergencyContacts() != null && !request.getEmergencyContacts().isEmpty();
+
+        rows.append(line).append(',').append(UuidV7Generator.next());
+        appendCell(rows, request.getMedicalRecordNumber());
+        appendCell(rows, request.getFirstName());
+        appendCell(rows, request.getLastName());
+        appendCell(rows, date(request.getDateOfBirth()));
+        appendCell(rows, request.getGender());
+        appendCell(rows, address.getStreet());
+        appendCell(rows, address.getCity());
+        appendCell(rows, address.getState());
+        appendCell(rows, address.getZipCode());
+        appendCell(rows, address.getCountry());
+        appendCell(rows, contactInfo.getPhoneNumber());
+        appendCell(rows, contactInfo.getEmail());
+        appendCell(rows, contactInfo.getAlternativePhoneNumber());
+        appendCell(rows, String.valueOf(insured));
+        appendCell(rows, insured ? insurance.getProvider() : null);
+        appendCell(rows, insured ? insurance.getPolicyNumber() : null);
+        appendCell(rows, insured ? insurance.getGroupNumber() : null);
+        appendCell(rows, insured ? insurance.getPolicyHolderName() : null);
+        appendCell(rows, insured ? date(insurance.getEffectiveDate()) : null);
+        appendCell(rows, insured ? date(insurance.getExpirationDate()) : null);
+        appendCell(rows, insured ? insurance.getCoverageType() : null);
+        appendCell(rows, hasContacts ? objectMapper.writeValueAsString(request.getEmergencyContacts()) : null);
+        rows.append('\n');
+    }
+
+    /**
+     * Append a CSV cell. Values are always quoted, since COPY reads an unquoted empty cell as null.
+     */
+    private static void appendCell(StringBuilder rows, String value) {
+        rows.append(',');
+        if (value != null) {
+            rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * Format a date the way Hibernate binds a DATE column, in the JVM time zone
+     */
+    private static String date(Date date) {
+        return date != null ? LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString() : null;
+    }
+
+    /**
+     * Flag duplicates, assign ids and insert the remaining staged rows, in one transaction
+     */
+    private void merge(Connection connection, String table, Date importedAt, Report report) throws SQLException {
+        String contacts = table + "_contacts";
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Against existing patients first, so a record repeating an existing key is reported as such
+            report.duplicates += statement.executeUpdate(existingPatientDuplicates(table));
+            report.duplicates += statement.executeUpdate(existingContactDuplicates(table, "email", "DUPLICATE_EMAIL"));
+            report.duplicates += statement.executeUpdate(
+                    existingContactDuplicates(table, "phone_number", "DUPLICATE_PHONE_NUMBER"));
+            // Then within the file, where the first occurrence of a key wins
+            report.duplicates += statement.executeUpdate(
+                    fileDuplicates(table, "medical_record_number", "DUPLICATE_MEDICAL_RECORD_NUMBER"));
+            report.duplicates += statement.executeUpdate(fileDuplicates(table, "email", "DUPLICATE_EMAIL"));
+            report.duplicates += statement.executeUpdate(
+                    fileDuplicates(table, "phone_number", "DUPLICATE_PHONE_NUMBER"));
+
+            statement.execute("CREATE UNLOGGED TABLE " + contacts + " AS " +
+                    "SELECT s.line, e.position, s.id AS patient_id, " +
+                    "e.contact ->> 'name' AS name, e.contact ->> 'relationship' AS relationship, " +
+                    "e.contact ->> 'phoneNumber' AS phone_number, e.contact ->> 'email' AS email, " +
+                    "jsonb_typeof(e.contact -> 'address') = 'object' AS has_address, " +
+                    "e.contact -> 'address' ->> 'street' AS street, e.contact -> 'address' ->> 'city' AS city, " +
+                    "e.contact -> 'address' ->> 'state' AS state, " +
+                    "e.contact -> 'address' ->> 'zipCode' AS zip_code, " +
+                    "e.contact -> 'address' ->> 'country' AS country, " +
+                    "CAST(NULL AS bigint) AS id, CAST(NULL AS bigint) AS address_id " +
+                    "FROM " + table + " s CROSS JOIN LATERAL " +
+                    "jsonb_array_elements(s.emergency_contacts) WITH ORDINALITY AS e(contact, position) " +
+                    "WHERE s.duplicate IS NULL");
+
+            assignIds(statement, table, "line", "address_id", "addresses_seq", "duplicate IS NULL");
+            assignIds(statement, table, "line", "contact_info_id", "contact_info_seq", "duplicate IS NULL");
+            assignIds(statement, table, "line", "insurance_info_id", "insurance_info_seq",
+                    "duplicate IS NULL AND insured");
+            assignIds(statement, contacts, "line, position", "id", "emergency_contacts_seq", "TRUE");
+            assignIds(statement, contacts, "line, position", "address_id", "addresses_seq", "has_address");
+
+            // The checks above do not lock anything, so a patient created concurrently may take a key
+            // before the rows below are inserted. The unique inserts skip such rows instead of failing
+            // the import, and the skipped records are flagged as duplicates of the new patient. The
+            // contact info goes first, so a record losing its email or phone number inserts nothing.
+            statement.executeUpdate("INSERT INTO contact_info (id, phone_number, email, alternative_phone_number) " +
+                    "SELECT contact_info_id, phone_number, email, alternative_phone_number FROM " + table +
+                    " WHERE duplicate IS NULL ON CONFLICT DO NOTHING");
+            report.duplicates += statement.executeUpdate(existingContactDuplicates(table, "email", "DUPLICATE_EMAIL"));
+            report.duplicates += statement.executeUpdate(
+                    existingContactDuplicates(table, "phone_number", "DUPLICATE_PHONE_NUMBER"));
+            report.duplicates += statement.executeUpdate(notInserted(table, "contact_info", "contact_info_id"));
+
+            statement.executeUpdate("INSERT INTO addresses (id, street, city, state, zip_code, country) " +
+                    "SELECT address_id, street, city, state, zip_code, country FROM " + table +
+                    " WHERE duplicate IS NULL");
+            statement.executeUpdate("INSERT INTO insurance_info (id, provider, policy_number, group_number, " +
+                    "policy_holder_name, effective_date, expiration_date, coverage_type) " +
+                    "SELECT insurance_info_id, provider, policy_number, group_number, policy_holder_name, " +
+                    "effective_date, expiration_date, coverage_type FROM " + table +
+                    " WHERE duplicate IS NULL AND insured");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement("WITH inserted AS (INSERT INTO patients (id, " +
+                "medical_record_number, first_name, last_name, date_of_birth, gender, address_id, contact_info_id, " +
+                "insurance_info_id, created_at, updated_at, version) " +
+                "SELECT id, medical_record_number, first_name, last_name, date_of_birth, gender, address_id, " +
+                "contact_info_id, insurance_info_id, ?, ?, 0 FROM " + table +
+                " WHERE duplicate IS NULL ORDER BY id ON CONFLICT DO NOTHING RETURNING id) " +
+                "SELECT count(*) FROM inserted")) {
+            Timestamp timestamp = new Timestamp(importedAt.getTime());
+            insert.setTimestamp(1, timestamp);
+            insert.setTimestamp(2, timestamp);
+            try (ResultSet rs = insert.executeQuery()) {
+                rs.next();
+                report.imported = rs.getLong(1);
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            // A new statement, so the patients that took a medical record number are visible
+            int lateDuplicates = statement.executeUpdate(existingPatientDuplicates(table));
+            lateDuplicates += statement.executeUpdate(notInserted(table, "patients", "id"));
+            if (lateDuplicates > 0) {
+                logger.warn("{} imported records lost their medical record number to concurrent creates",
+                        lateDuplicates);
+                report.duplicates += lateDuplicates;
+                // Their child rows were inserted before the patients that reference them
+                statement.executeUpdate(duplicateChildren(table, "addresses", "address_id"));
+                statement.executeUpdate(duplicateChildren(table, "contact_info", "contact_info_id"));
+                statement.executeUpdate(duplicateChildren(table, "insurance_info", "insurance_info_id"));
+            }
+
+            statement.executeUpdate("INSERT INTO addresses (id, street, city, state, zip_code, country) " +
+                    "SELECT e.address_id, e.street, e.city, e.state, e.zip_code, e.country FROM " + contacts + " e " +
+                    "JOIN " + table + " s ON s.line = e.line WHERE e.has_address AND s.duplicate IS NULL");
+            statement.executeUpdate("INSERT INTO emergency_contacts (id, name, relationship, phone_number, email, " +
+                    "address_id, patient_id) " +
+                    "SELECT e.id, e.name, e.relationship, e.phone_number, e.email, e.address_id, e.patient_id " +
+                    "FROM " + contacts + " e JOIN " + table + " s ON s.line = e.line " +
+                    "WHERE s.duplicate IS NULL ORDER BY e.line, e.position");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static String existingPatientDuplicates(String table) {
+        // Other than the row inserted for the record itself
+        return "UPDATE " + table + " s " +
+                "SET duplicate = 'DUPLICATE_MEDICAL_RECORD_NUMBER', duplicate_of_patient = p.id " +
+                "FROM patients p WHERE p.medical_record_number = s.medical_record_number " +
+                "AND p.id <> s.id AND s.duplicate IS NULL";
+    }
+
+    private static String existingContactDuplicates(String table, String column, String errorCode) {
+        // Left join, so a contact row left without a patient still blocks the key. The row inserted
+        // for the record itself does not.
+        return "UPDATE " + table + " s SET duplicate = '" + errorCode + "', duplicate_of_patient = p.id " +
+                "FROM contact_info c LEFT JOIN patients p ON p.contact_info_id = c.id " +
+                "WHERE c." + column + " = s." + column + " AND c.id IS DISTINCT FROM s.contact_info_id " +
+                "AND s.duplicate IS NULL";
+    }
+
+    /**
+     * Flag the records whose insert was skipped although no conflicting row is visible any more,
+     * because the concurrent patient was deleted again in the meantime
+     */
+    private static String notInserted(String table, String target, String idColumn) {
+        return "UPDATE " + table + " s SET duplicate = 'PATIENT_ALREADY_EXISTS' " +
+                "WHERE s.duplicate IS NULL AND NOT EXISTS (SELECT 1 FROM " + target + " t " +
+                "WHERE t.id = s." + idColumn + ")";
+    }
+
+    private static String duplicateChildren(String table, String target, String idColumn) {
+        // Records flagged before the ids were assigned have none and match nothing
+        return "DELETE FROM " + target + " t USING " + table + " s " +
+                "WHERE t.id = s." + idColumn + " AND s.duplicate IS NOT NULL";
+    }
+
+    private static String fileDuplicates(String table, String column, String errorCode) {
+        return "UPDATE " + table + " s SET duplicate = '" + errorCode + "', duplicate_of_line = f.first_line " +
+                "FROM (SELECT line, min(line) OVER (PARTITION BY " + column + ") AS first_line FROM " + table +
+                " WHERE duplicate IS NULL) f " +
+                "WHERE s.line = f.line AND f.first_line < f.line";
+    }
+
+    /**
+     * Give every matching row an id from the sequence. Rows are numbered in key order and each run
+     * of {@value #ID_BLOCK_SIZE} rows takes the block of one {@code nextval}, which is what the
+     * pooled-lo optimizer would have reserved for the same inserts through Hibernate.
+     */
+    private static void assignIds(Statement statement, String table, String key, String idColumn, String sequence,
+                                  String condition) throws SQLException {
+        String join = Arrays.stream(key.split(",\\s*"))
+                .map(column -> "t." + column + " = numbered." + column)
+                .collect(Collectors.joining(" AND "));
+        statement.executeUpdate("WITH numbered AS (" +
+                "SELECT " + key + ", row_number() OVER (ORDER BY " + key + ") - 1 AS number FROM " + table +
+                " WHERE " + condition + "), " +
+                "blocks AS (SELECT block, nextval('" + sequence + "') AS first_id " +
+                "FROM generate_series(0, (SELECT CAST(ceil(count(*) / " + ID_BLOCK_SIZE + ".0) AS bigint) - 1 " +
+                "FROM numbered)) AS block) " +
+                "UPDATE " + table + " t SET " + idColumn + " = blocks.first_id + numbered.number % " + ID_BLOCK_SIZE +
+                " FROM numbered JOIN blocks ON blocks.block = numbered.number / " + ID_BLOCK_SIZE +
+                " WHERE " + join);
+    }
+
+    /**
+     * Publish the committed patients to the in-memory indexes and the key filter
+     */
+    private void publish(Connection connection, String table, Date importedAt) throws SQLException {
+        // A cursor, so the staged rows are streamed rather than loaded at once
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.setFetchSize(chunkSize);
+            try (ResultSet rs = statement.executeQuery("SELECT id, medical_record_number, first_name, last_name, " +
+                    "date_of_birth, gender, zip_code, state, country, provider, coverage_type, expiration_date, " +
+                    "email, phone_number FROM " + table + " WHERE duplicate IS NULL ORDER BY line")) {
+                while (rs.next()) {
+                    patientKeyFilter.put(rs.getString("medical_record_number"), rs.getString("email"),
+                            rs.getString("phone_number"));
+                    eventPublisher.publishEvent(PatientChangedEvent.created(new PatientSnapshot(
+                            rs.getString("id"),
+                            rs.getString("medical_record_number"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name"),
+                            rs.getDate("date_of_birth"),
+                            rs.getString("gender"),
+                            rs.getString("zip_code"),
+                            rs.getString("state"),
+                            rs.getString("country"),
+                            rs.getString("provider"),
+                            rs.getString("coverage_type"),
+                            rs.getDate("expiration_date"),
+                            importedAt,
+                            importedAt)));
+                }
+            }
+        } finally {
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void addDuplicateIssues(Connection connection, String table, Report report) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT line, medical_record_number, duplicate, " +
+                "duplicate_of_patient, duplicate_of_line FROM " + table +
+                " WHERE duplicate IS NOT NULL ORDER BY line LIMIT ?")) {
+            query.setInt(1, maxIssues);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    ErrorCode errorCode = ErrorCode.valueOf(rs.getString("duplicate"));
+                    String patientId = rs.getString("duplicate_of_patient");
+                    long firstLine = rs.getLong("duplicate_of_line");
+                    String message = rs.wasNull()
+                            ? errorCode.getDescription() + (patientId != null ? " for patient " + patientId : "")
+                            : errorCode.getDescription() + " at line " + firstLine + " of the file";
+                    report.addDuplicate(new PatientImportIssue(rs.getLong("line"), PatientImportIssue.Type.DUPLICATE,
+                            rs.getString("medical_record_number"), errorCode.getCode(), message));
+                }
+            }
+        }
+    }
+
+    /**
+     * The encoded COPY rows of the valid records of a chunk, and the rejected records
+     */
+    private record StagedChunk(byte[] rows, int received, List<PatientImportIssue> invalid) {
+    }
+
+    /**
+     * Counts of an import and its first issues in file order
+     */
+    private static final class Report {
+        private final int maxIssues;
+        private final List<PatientImportIssue> invalidIssues = new ArrayList<>();
+        private final List<PatientImportIssue> duplicateIssues = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long invalid;
+        private long duplicates;
+
+        private Report(int maxIssues) {
+            this.maxIssues = maxIssues;
+        }
+
+        private void addInvalid(PatientImportIssue issue) {
+            if (invalidIssues.size() < maxIssues) {
+                invalidIssues.add(issue);
+            }
+        }
+
+        private void addDuplicate(PatientImportIssue issue) {
+            duplicateIssues.add(issue);
+        }
+
+        private PatientImportResponse toResponse(String importId, long durationMillis) {
+            // Both lists hold the first issues of their kind, so the first issues overall are among them
+            List<PatientImportIssue> issues = new ArrayList<>(invalidIssues);
+            issues.addAll(duplicateIssues);
+            issues.sort(Comparator.comparingLong(PatientImportIssue::getLine));
+            List<PatientImportIssue> first = issues.subList(0, Math.min(issues.size(), maxIssues));
+            return new PatientImportResponse(importId, received, imported, invalid, duplicates, durationMillis,
+                    new ArrayList<>(first), invalid + duplicates > first.size());
+        }
+    }
+}
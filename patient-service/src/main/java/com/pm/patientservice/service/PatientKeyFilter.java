@@ -0,0 +1,309 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientUniqueConstraint;
+import com.pm.patientservice.repository.PatientUniqueKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filters over the medical record numbers, emails and phone numbers in use, placed in front
+ * of the repository uniqueness checks. A value the filter has never seen is definitely free, so
+ * the index probe is only paid for values that may be taken.
+ * <p>
+ * The filters are built from a streaming scan at startup and rebuilt periodically, which also
+ * clears the bits of deleted and changed values. Until the first build completes every value is
+ * treated as possibly taken. The database unique constraints remain authoritative: a value missed
+ * by a filter during a concurrent rebuild only surfaces as a constraint violation.
+ */
+@Component
+public class PatientKeyFilter {
+
+    private static final Logger logger = LogManager.getLogger(PatientKeyFilter.class);
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+
+    private final Object rebuildLock = new Object();
+    private volatile Map<PatientUniqueConstraint, BloomFilter> filters;
+    private volatile Map<PatientUniqueConstraint, BloomFilter> pendingFilters;
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    private final Map<PatientUniqueConstraint, Stats> stats = new EnumMap<>(PatientUniqueConstraint.class);
+    private final Timer rebuildTimer;
+
+    @Autowired
+    public PatientKeyFilter(PatientRepository patientRepository, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${patient.key-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${patient.key-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+
+        for (PatientUniqueConstraint key : PatientUniqueConstraint.values()) {
+            Stats keyStats = new Stats(key, meterRegistry);
+            stats.put(key, keyStats);
+            Gauge.builder("patient.key.filter.false.positive.rate", keyStats, Stats::observedFalsePositiveRate)
+                    .description("Share of free values the filter reported as possibly taken since the last rebuild")
+                    .tag("key", key.getField())
+                    .register(meterRegistry);
+            Gauge.builder("patient.key.filter.expected.false.positive.rate", this, filter -> filter.expectedFalsePositiveRate(key))
+                    .description("False positive probability expected from the share of set filter bits")
+                    .tag("key", key.getField())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("patient.key.filter.entries", entries, AtomicLong::get)
+                .description("Number of patients recorded in the key filters")
+                .register(meterRegistry);
+        Gauge.builder("patient.key.filter.stale.entries", staleEntries, AtomicLong::get)
+                .description("Number of deleted or replaced keys still set in the key filters")
+                .register(meterRegistry);
+        this.rebuildTimer = Timer.builder("patient.key.filter.rebuild.time")
+                .description("Time taken to rebuild the patient key filters")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Build the filters once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the filters periodically to drop deleted values and resize them to the table
+     */
+    @Scheduled(initialDelayString = "${patient.key-filter.rebuild-interval:PT6H}",
+            fixedDelayString = "${patient.key-filter.rebuild-interval:PT6H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Rebuild the filters from a streaming scan of the patient keys. Values added while the scan
+     * runs are recorded in both the current and the new filters.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            logger.info("Rebuilding patient key filters");
+            try {
+                rebuildTimer.record(() -> {
+                    long capacity = Math.max(expectedInsertions, patientRepository.count() * 2);
+                    Map<PatientUniqueConstraint, BloomFilter> next = newFilters(capacity);
+                    pendingFilters = next;
+                    LongAdder scanned = new LongAdder();
+                    transactionTemplate.executeWithoutResult(status -> {
+                        try (Stream<PatientUniqueKeys> keys = patientRepository.streamUniqueKeys()) {
+                            keys.forEach(key -> {
+                                put(next, key.getMedicalRecordNumber(), key.getEmail(), key.getPhoneNumber());
+                                scanned.increment();
+                            });
+                        }
+                    });
+                    filters = next;
+                    entries.set(scanned.sum());
+                    staleEntries.set(0);
+                    stats.values().forEach(Stats::reset);
+                    logger.info("Rebuilt patient key filters from {} patients with capacity {}", scanned.sum(), capacity);
+                });
+            } catch (Exception e) {
+                logger.error("Error rebuilding patient key filters: {}", e.getMessage(), e);
+            } finally {
+                pendingFilters = null;
+            }
+        }
+    }
+
+    /**
+     * Check whether a value is in use, asking the repository only if the filter reports it as
+     * possibly taken
+     *
+     * @param key the unique key
+     * @param value the value to check
+     * @param lookup the repository check, called for values that may be taken
+     * @return true if the value is in use
+     */
+    public boolean exists(PatientUniqueConstraint key, String value, Predicate<String> lookup) {
+        if (!mightContain(key, value)) {
+            return false;
+        }
+        boolean exists = lookup.test(value);
+        if (!exists) {
+            stats.get(key).recordFalsePositives(1);
+        }
+        return exists;
+    }
+
+    /**
+     * Find which of the given values are in use, asking the repository only about the values
+     * the filter reports as possibly taken
+     *
+     * @param key the unique key
+     * @param values the values to check
+     * @param lookup the repository check, returning the values in use among those passed
+     * @return the values in use
+     */
+    public Set<String> existing(PatientUniqueConstraint key, Collection<String> values,
+                                Function<Collection<String>, Set<String>> lookup) {
+        Set<String> candidates = values.stream()
+                .filter(value -> mightContain(key, value))
+                .collect(Collectors.toSet());
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = lookup.apply(candidates);
+        stats.get(key).recordFalsePositives(candidates.size() - existing.size());
+        return existing;
+    }
+
+    /**
+     * Record the keys of a created or updated patient
+     */
+    public void put(String medicalRecordNumber, String email, String phoneNumber) {
+        Map<PatientUniqueConstraint, BloomFilter> current = filters;
+        if (current != null) {
+            put(current, medicalRecordNumber, email, phoneNumber);
+        }
+        Map<PatientUniqueConstraint, BloomFilter> pending = pendingFilters;
+        if (pending != null) {
+            put(pending, medicalRecordNumber, email, phoneNumber);
+        }
+        entries.incrementAndGet();
+    }
+
+    /**
+     * Record that the keys of a patient were deleted or replaced. Their bits stay set until
+     * the next rebuild.
+     */
+    public void markStale() {
+        staleEntries.incrementAndGet();
+    }
+
+    /**
+     * Whether the filters have been built and answer definitely-absent queries
+     */
+    public boolean isReady() {
+        return filters != null;
+    }
+
+    private boolean mightContain(PatientUniqueConstraint key, String value) {
+        Map<PatientUniqueConstraint, BloomFilter> current = filters;
+        if (current == null) {
+            return true;
+        }
+        Stats keyStats = stats.get(key);
+        if (!current.get(key).mightContain(value)) {
+            keyStats.recordAbsent();
+            return false;
+        }
+        keyStats.recordMightBePresent();
+        return true;
+    }
+
+    private double expectedFalsePositiveRate(PatientUniqueConstraint key) {
+        Map<PatientUniqueConstraint, BloomFilter> current = filters;
+        return current == null ? 1.0 : current.get(key).expectedFalsePositiveProbability();
+    }
+
+    private Map<PatientUniqueConstraint, BloomFilter> newFilters(long capacity) {
+        Map<PatientUniqueConstraint, BloomFilter> next = new EnumMap<>(PatientUniqueConstraint.class);
+        for (PatientUniqueConstraint key : PatientUniqueConstraint.values()) {
+            next.put(key, BloomFilter.create(capacity, falsePositiveProbability));
+        }
+        return next;
+    }
+
+    private static void put(Map<PatientUniqueConstraint, BloomFilter> target, String medicalRecordNumber,
+                            String email, String phoneNumber) {
+        for (PatientUniqueConstraint key : PatientUniqueConstraint.values()) {
+            String value = key.select(medicalRecordNumber, email, phoneNumber);
+            if (value != null) {
+                target.get(key).put(value);
+            }
+        }
+    }
+
+    /**
+     * Filter answers for one key. The meter counters are cumulative; the adders are reset on
+     * rebuild so that the observed false positive rate describes the current filter.
+     */
+    private static final class Stats {
+        private final Counter absentCounter;
+        private final Counter mightBePresentCounter;
+        private final Counter falsePositiveCounter;
+        private final LongAdder absent = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        private Stats(PatientUniqueConstraint key, MeterRegistry meterRegistry) {
+            this.absentCounter = Counter.builder("patient.key.filter.checks")
+                    .description("Number of key filter checks")
+                    .tag("key", key.getField())
+                    .tag("result", "absent")
+                    .register(meterRegistry);
+            this.mightBePresentCounter = Counter.builder("patient.key.filter.checks")
+                    .description("Number of key filter checks")
+                    .tag("key", key.getField())
+                    .tag("result", "maybe_present")
+                    .register(meterRegistry);
+            this.falsePositiveCounter = Counter.builder("patient.key.filter.false.positives")
+                    .description("Number of values reported as possibly taken that were free")
+                    .tag("key", key.getField())
+                    .register(meterRegistry);
+        }
+
+        private void recordAbsent() {
+            absentCounter.increment();
+            absent.increment();
+        }
+
+        private void recordMightBePresent() {
+            mightBePresentCounter.increment();
+        }
+
+        private void recordFalsePositives(long count) {
+            falsePositiveCounter.increment(count);
+            falsePositives.add(count);
+        }
+
+        private double observedFalsePositiveRate() {
+            long falsePositiveCount = falsePositives.sum();
+            long freeCount = falsePositiveCount + absent.sum();
+            return freeCount == 0 ? 0.0 : (double) falsePositiveCount / freeCount;
+        }
+
+        private void reset() {
+            absent.reset();
+            falsePositives.reset();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.repository.PatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory prefix index over the normalized first and last names of all patients, serving
+ * typeahead suggestions without a database query.
+ * <p>
+ * Every name token is stored once per patient in a sorted map under the key "token\0id", so the
+ * patients whose names start with a prefix form one contiguous key range. Reads are lock-free;
+ * writes are serialized and applied after the writing transaction commits.
+ */
+@Component
+public class PatientNameIndex {
+
+    private static final Logger logger = LogManager.getLogger(PatientNameIndex.class);
+
+    public static final int MAX_SUGGESTIONS = 50;
+
+    // Upper bound of index entries examined per query while further query tokens filter candidates
+    private static final int MAX_SCANNED_TERMS = 10_000;
+
+    private static final char TERM_SEPARATOR = '\u0000';
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final PatientRepository patientRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentSkipListMap<String, String> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, IndexedPatient> patients = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    // IDs changed by events while the initial load runs; the load must not overwrite them
+    private Set<String> changedDuringLoad;
+
+    private final Timer suggestTimer;
+
+    @Autowired
+    public PatientNameIndex(PatientRepository patientRepository, PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+
+        Gauge.builder("patient.name.index.patients", patients, Map::size)
+                .description("Number of patients in the name prefix index")
+                .register(meterRegistry);
+        Gauge.builder("patient.name.index.terms", terms, Map::size)
+                .description("Number of name tokens in the name prefix index")
+                .register(meterRegistry);
+        this.suggestTimer = Timer.builder("patient.suggest.time")
+                .description("Time taken to answer a name suggestion query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the index from a streaming scan of the patient summaries once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        logger.info("Loading patient name index");
+        synchronized (writeLock) {
+            changedDuringLoad = new HashSet<>();
+        }
+        try {
+            LongAdder loaded = new LongAdder();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<PatientSummary> summaries = patientRepository.streamSummaries()) {
+                    summaries.forEach(summary -> {
+                        synchronized (writeLock) {
+                            if (!changedDuringLoad.contains(summary.id())) {
+                                index(summary, null);
+                            }
+                        }
+                        loaded.increment();
+                    });
+                }
+            });
+            logger.info("Loaded {} patients into the name index", loaded.sum());
+        } catch (Exception e) {
+            logger.error("Error loading patient name index: {}", e.getMessage(), e);
+        } finally {
+            synchronized (writeLock) {
+                changedDuringLoad = null;
+            }
+        }
+    }
+
+    /**
+     * Apply a committed patient change to the index
+     *
+     * @param event the patient change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        synchronized (writeLock) {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(event.patientId());
+            }
+            if (event.after() == null) {
+                remove(event.patientId());
+            } else {
+                index(event.after().toSummary(), event.after().updatedAt());
+            }
+        }
+    }
+
+    /**
+     * Suggest patients whose first or last name tokens start with the tokens of the query.
+     * Exact token matches come first, followed by longer names in alphabetical order.
+     *
+     * @param query the text typed so far, e.g. "jo" or "john do"
+     * @param limit the maximum number of suggestions, clamped to MAX_SUGGESTIONS
+     * @return the summaries of the matching patients
+     */
+    public List<PatientSummary> suggest(String query, int limit) {
+        return suggestTimer.record(() -> {
+            List<String> queryTokens = new ArrayList<>(tokenize(query));
+            if (queryTokens.isEmpty()) {
+                return List.of();
+            }
+            int maxResults = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+
+            // Scan the range of the longest, most selective token and filter by the others
+            queryTokens.sort(Comparator.comparingInt(String::length).reversed());
+            String scanToken = queryTokens.get(0);
+            List<String> otherTokens = queryTokens.subList(1, queryTokens.size());
+
+            Map<String, PatientSummary> results = new LinkedHashMap<>();
+            int scanned = 0;
+            for (String id : terms.subMap(scanToken, scanToken + Character.MAX_VALUE).values()) {
+                if (results.size() >= maxResults || ++scanned > MAX_SCANNED_TERMS) {
+                    break;
+                }
+                if (results.containsKey(id)) {
+                    continue;
+                }
+                IndexedPatient patient = patients.get(id);
+                if (patient != null && patient.matchesAll(otherTokens)) {
+                    results.put(id, patient.summary());
+                }
+            }
+            return new ArrayList<>(results.values());
+        });
+    }
+
+    /**
+     * Number of patients in the index
+     */
+    public int size() {
+        return patients.size();
+    }
+
+    // Callers hold writeLock
+    private void index(PatientSummary summary, Date updatedAt) {
+        IndexedPatient existing = patients.get(summary.id());
+        if (existing != null && existing.updatedAt() != null && updatedAt != null
+                && updatedAt.before(existing.updatedAt())) {
+            // A change committed later has already been applied
+            return;
+        }
+        Set<String> tokens = tokenize(summary.firstName() + " " + summary.lastName());
+        if (existing != null) {
+            for (String token : existing.tokens()) {
+                if (!tokens.contains(token)) {
+                    terms.remove(term(token, summary.id()));
+                }
+            }
+        }
+        patients.put(summary.id(), new IndexedPatient(summary, tokens, updatedAt));
+        for (String token : tokens) {
+            terms.put(term(token, summary.id()), summary.id());
+        }
+    }
+
+    // Callers hold writeLock
+    private void remove(String id) {
+        IndexedPatient removed = patients.remove(id);
+        if (removed != null) {
+            for (String token : removed.tokens()) {
+                terms.remove(term(token, id));
+            }
+        }
+    }
+
+    private static String term(String token, String id) {
+        return token + TERM_SEPARATOR + id;
+    }
+
+    /**
+     * Split a name into lower-case tokens without diacritics, so that "José-María" is found by "jose" and "maria"
+     */
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : TOKEN_SEPARATOR.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private record IndexedPatient(PatientSummary summary, Set<String> tokens, Date updatedAt) {
+
+        boolean matchesAll(List<String> queryTokens) {
+            for (String queryToken : queryTokens) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(queryToken))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
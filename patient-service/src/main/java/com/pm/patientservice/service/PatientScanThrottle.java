@@ -0,0 +1,103 @@
+package com.pm.patientservice.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admission control for the database reads of background scans. Scans across all jobs hold at
+ * most max-connections pooled connections at once, and a scan chunk does not start while request
+ * threads are queued for a Hikari connection, so background work yields the pool to API traffic.
+ */
+@Component
+public class PatientScanThrottle {
+
+    private static final Logger logger = LogManager.getLogger(PatientScanThrottle.class);
+
+    private final DataSource dataSource;
+    private final Semaphore permits;
+    private final Duration backoff;
+
+    private volatile HikariPoolMXBean pool;
+
+    private final Timer waitTimer;
+    private final Counter backoffCounter;
+
+    @Autowired
+    public PatientScanThrottle(DataSource dataSource, MeterRegistry meterRegistry,
+                               @Value("${patient.scan.max-connections:2}") int maxConnections,
+                               @Value("${patient.scan.backoff:PT0.2S}") Duration backoff) {
+        this.dataSource = dataSource;
+        this.permits = new Semaphore(maxConnections, true);
+        this.backoff = backoff;
+
+        this.waitTimer = Timer.builder("patient.scan.throttle.wait")
+                .description("Time scan chunks waited for a connection permit")
+                .register(meterRegistry);
+        this.backoffCounter = Counter.builder("patient.scan.throttle.backoffs")
+                .description("Number of times a scan chunk backed off because requests were waiting for a connection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wait until a scan chunk may use a connection. Every successful call must be paired with
+     * a call to release.
+     *
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    public void acquire() throws InterruptedException {
+        long start = System.nanoTime();
+        permits.acquire();
+        try {
+            while (requestsWaiting()) {
+                backoffCounter.increment();
+                Thread.sleep(backoff.toMillis());
+            }
+        } catch (InterruptedException e) {
+            permits.release();
+            throw e;
+        }
+        waitTimer.record(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Return the permit taken by acquire
+     */
+    public void release() {
+        permits.release();
+    }
+
+    private boolean requestsWaiting() {
+        HikariPoolMXBean hikariPool = hikariPool();
+        return hikariPool != null && hikariPool.getThreadsAwaitingConnection() > 0;
+    }
+
+    /**
+     * The Hikari pool statistics, resolved on first use since the pool starts lazily. Without a
+     * Hikari pool only the permit limit applies.
+     */
+    private HikariPoolMXBean hikariPool() {
+        if (pool == null) {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not access the connection pool statistics: {}", e.getMessage());
+            }
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,297 @@
+package com.pm.patientservice.service;
+
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.PatientServiceException;
+import com.pm.patientservice.model.PatientScanCheckpoint;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientScanCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Walks the whole patient table for background jobs such as re-indexing, duplicate detection,
+ * reconciliation and exports.
+ * <p>
+ * The table is split into key ranges of about the same number of patients, with bounds sampled
+ * from the primary key index when a job starts. Time-ordered UUID keys crowd into the recent end
+ * of the key space, so a fixed split by leading hex digits would leave most ranges empty. Ranges
+ * are scanned concurrently on a bounded worker pool. Each range is read in
+ * ID order, one chunk per short read-only transaction, so a worker holds at most one connection
+ * and only while reading; the chunk is processed after the connection is returned. Chunk reads go
+ * through {@link PatientScanThrottle}, which keeps scans from starving request traffic.
+ * <p>
+ * Progress is checkpointed per range after every chunk. A job that fails or is interrupted
+ * resumes its unfinished ranges on the next call, so a processor may see the last chunk of a
+ * range twice and must be idempotent. Processors are called from several workers at once.
+ */
+@Component
+public class PatientScanner {
+
+    private static final Logger logger = LogManager.getLogger(PatientScanner.class);
+
+    /**
+     * Exclusive lower bound of the first range, the nil UUID which is never generated
+     */
+    static final String FIRST_KEY = "00000000-0000-0000-0000-000000000000";
+
+    /**
+     * Inclusive upper bound of the last range, the max UUID which sorts after every ID
+     */
+    static final String LAST_KEY = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+    private final PatientRepository patientRepository;
+    private final PatientScanCheckpointRepository checkpointRepository;
+    private final PatientScanThrottle throttle;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+    private final int chunkSize;
+    private final int ranges;
+
+    private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> remainingRanges = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PatientScanner(PatientRepository patientRepository, PatientScanCheckpointRepository checkpointRepository,
+                          PatientScanThrottle throttle, PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${patient.scan.workers:4}") int workers,
+                          @Value("${patient.scan.chunk-size:500}") int chunkSize,
+                          @Value("${patient.scan.ranges:16}") int ranges) {
+        if (ranges < 1) {
+            throw new IllegalArgumentException("Number of scan ranges must be at least 1: " + ranges);
+        }
+        this.patientRepository = patientRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.throttle = throttle;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.ranges = ranges;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "patient-scan-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Pass every patient to the processor, one chunk at a time, resuming the job's checkpoints
+     * if a previous run did not complete. Blocks until all ranges are scanned.
+     *
+     * @param jobName the name under which progress is checkpointed and reported
+     * @param processor the thread-safe, idempotent chunk processor
+     * @return the scan statistics
+     */
+    public ScanResult scan(String jobName, Consumer<List<PatientSnapshot>> processor) {
+        if (!runningJobs.add(jobName)) {
+            throw new IllegalStateException("Scan is already running: " + jobName);
+        }
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            List<PatientScanCheckpoint> checkpoints = writeTransaction.execute(status -> checkpoints(jobName));
+            List<PatientScanCheckpoint> pending = checkpoints.stream().filter(c -> !c.isCompleted()).toList();
+            int resumed = (int) checkpoints.stream().filter(c -> c.isCompleted() || c.getLastId() != null).count();
+            if (resumed > 0) {
+                logger.info("Resuming scan {}: {} of {} ranges unfinished", jobName, pending.size(), checkpoints.size());
+            } else {
+                logger.info("Starting scan {} over {} ranges", jobName, checkpoints.size());
+            }
+            remainingRanges(jobName).set(pending.size());
+
+            Counter rowsCounter = Counter.builder("patient.scan.rows")
+                    .description("Number of patients passed to scan processors")
+                    .tag("job", jobName)
+                    .register(meterRegistry);
+            Timer chunkTimer = Timer.builder("patient.scan.chunk.time")
+                    .description("Time taken to read and process one scan chunk")
+                    .tag("job", jobName)
+                    .register(meterRegistry);
+            List<Future<Long>> futures = new ArrayList<>();
+            for (PatientScanCheckpoint checkpoint : pending) {
+                futures.add(workers.submit(() -> scanRange(checkpoint, processor, rowsCounter, chunkTimer)));
+            }
+            long rows = awaitAll(jobName, futures);
+
+            writeTransaction.executeWithoutResult(status -> checkpointRepository.deleteByJobName(jobName));
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Completed scan {}: {} patients in {} ms", jobName, rows, durationMillis);
+            return new ScanResult(jobName, rows, checkpoints.size(), resumed, durationMillis);
+        } catch (Exception e) {
+            outcome = "failure";
+            logger.error("Scan {} failed, progress is kept for the next run: {}", jobName, e.getMessage(), e);
+            throw e;
+        } finally {
+            runningJobs.remove(jobName);
+            Timer.builder("patient.scan.duration")
+                    .description("Time taken by a full patient scan")
+                    .tag("job", jobName)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Scan one key range from its checkpoint to its end
+     *
+     * @return the number of patients processed
+     */
+    private long scanRange(PatientScanCheckpoint checkpoint, Consumer<List<PatientSnapshot>> processor,
+                           Counter rowsCounter, Timer chunkTimer) throws InterruptedException {
+        String afterId = checkpoint.getLastId() != null ? checkpoint.getLastId() : checkpoint.getRangeStart();
+        long rows = 0;
+        boolean completed = false;
+        while (!completed) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Scan interrupted in range " + checkpoint.getRangeStart());
+            }
+            long chunkStart = System.nanoTime();
+            String chunkAfterId = afterId;
+            List<PatientSnapshot> chunk = throttled(() -> readTransaction.execute(status ->
+                    patientRepository.findSnapshotsBetween(chunkAfterId, checkpoint.getRangeEnd(),
+                            PageRequest.of(0, chunkSize))));
+            if (!chunk.isEmpty()) {
+                processor.accept(chunk);
+                afterId = chunk.get(chunk.size() - 1).id();
+                rows += chunk.size();
+                rowsCounter.increment(chunk.size());
+            }
+            completed = chunk.size() < chunkSize;
+
+            checkpoint.setLastId(chunk.isEmpty() ? checkpoint.getLastId() : afterId);
+            checkpoint.setRowsScanned(checkpoint.getRowsScanned() + chunk.size());
+            checkpoint.setCompleted(completed);
+            checkpoint.setUpdatedAt(new Date());
+            throttled(() -> writeTransaction.execute(status -> checkpointRepository.save(checkpoint)));
+            chunkTimer.record(System.nanoTime() - chunkStart, TimeUnit.NANOSECONDS);
+        }
+        remainingRanges(checkpoint.getJobName()).decrementAndGet();
+        logger.debug("Scan {} completed range {} with {} patients", checkpoint.getJobName(),
+                checkpoint.getRangeStart(), rows);
+        return rows;
+    }
+
+    private <T> T throttled(Supplier<T> databaseCall) throws InterruptedException {
+        throttle.acquire();
+        try {
+            return databaseCall.get();
+        } finally {
+            throttle.release();
+        }
+    }
+
+    /**
+     * Wait for every range, cancelling the others as soon as one fails
+     */
+    private long awaitAll(String jobName, List<Future<Long>> futures) {
+        long rows = 0;
+        try {
+            for (Future<Long> future : futures) {
+                rows += future.get();
+            }
+            return rows;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PatientServiceException("Scan " + jobName + " was interrupted", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new PatientServiceException("Scan " + jobName + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * The job's checkpoints, created for a fresh split of the table if the job has none.
+     * Existing checkpoints keep the split they were created with, patients added since then
+     * fall into one of its ranges.
+     */
+    private List<PatientScanCheckpoint> checkpoints(String jobName) {
+        List<PatientScanCheckpoint> existing = checkpointRepository.findByJobNameOrderByRangeStart(jobName);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+        Date now = new Date();
+        List<PatientScanCheckpoint> created = new ArrayList<>();
+        List<String> bounds = rangeBounds();
+        for (int i = 0; i < bounds.size() - 1; i++) {
+            created.add(new PatientScanCheckpoint(jobName, bounds.get(i), bounds.get(i + 1), null, 0, false, now));
+        }
+        return checkpointRepository.saveAll(created);
+    }
+
+    /**
+     * Bounds of ranges with about the same number of patients, every step-th ID of the table.
+     * A table with fewer patients than ranges is split into fewer ranges.
+     */
+    private List<String> rangeBounds() {
+        long step = Math.max(1, patientRepository.count() / ranges);
+        List<String> bounds = new ArrayList<>();
+        bounds.add(FIRST_KEY);
+        patientRepository.findIdsEvery(step).stream()
+                .limit(ranges - 1)
+                .forEach(bounds::add);
+        bounds.add(LAST_KEY);
+        return bounds;
+    }
+
+    private AtomicInteger remainingRanges(String jobName) {
+        return remainingRanges.computeIfAbsent(jobName, name -> {
+            AtomicInteger remaining = new AtomicInteger();
+            Gauge.builder("patient.scan.ranges.remaining", remaining, AtomicInteger::get)
+                    .description("Number of key ranges the scan has not finished yet")
+                    .tag("job", name)
+                    .register(meterRegistry);
+            return remaining;
+        });
+    }
+
+    /**
+     * Statistics of a completed scan
+     *
+     * @param jobName the job name
+     * @param rows the number of patients processed by this run
+     * @param ranges the number of key ranges
+     * @param resumedRanges the number of ranges a previous run had started or finished
+     * @param durationMillis the duration of this run
+     */
+    public record ScanResult(String jobName, long rows, int ranges, int resumedRanges, long durationMillis) {
+    }
+}
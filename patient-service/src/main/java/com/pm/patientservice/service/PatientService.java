@@ -1,8 +1,16 @@
 package com.pm.patientservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pm.patientservice.dto.PatientBatchCreateResponse;
 import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientPageResponse;
 import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummaryPageResponse;
 import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.repository.PatientSortField;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 
@@ -19,6 +27,16 @@ public interface PatientService {
      */
     PatientResponse createPatient(PatientCreateRequest request);
     
+    /**
+     * Create a batch of new patients in one transaction. Patients that conflict with an
+     * existing patient or with an earlier patient of the same batch are skipped, including
+     * patients whose keys a concurrent request took while the batch was being inserted.
+     * 
+     * @param requests the patient creation requests
+     * @return the per-patient outcome of the batch
+     */
+    PatientBatchCreateResponse createPatients(List<PatientCreateRequest> requests);
+    
     /**
      * Get a patient by ID
      * 
@@ -36,19 +54,84 @@ public interface PatientService {
     PatientResponse getPatientByMedicalRecordNumber(String medicalRecordNumber);
     
     /**
-     * Get all patients
+     * Get the version and update timestamp of a patient by ID, without loading the patient,
+     * to answer conditional requests
+     * 
+     * @param id the patient ID
+     * @return the patient's validators
+     */
+    PatientVersion getPatientVersion(String id);
+    
+    /**
+     * Get the version and update timestamp of a patient by medical record number, without
+     * loading the patient, to answer conditional requests
+     * 
+     * @param medicalRecordNumber the medical record number
+     * @return the patient's validators
+     */
+    PatientVersion getPatientVersionByMedicalRecordNumber(String medicalRecordNumber);
+    
+    /**
+     * Get a page of patients using keyset pagination
      * 
-     * @return list of all patients
+     * @param size the requested page size, clamped to the supported maximum
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @return the page of patients with the token of the next page
      */
-    List<PatientResponse> getAllPatients();
+    PatientPageResponse getPatients(int size, PatientSortField sortField, Sort.Direction direction, String cursor);
     
     /**
-     * Update a patient
+     * Get a page of patient summaries using keyset pagination. Summaries carry only the
+     * identifying columns of a patient and none of its associations.
+     * 
+     * @param size the requested page size, clamped to the supported maximum
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @return the page of patient summaries with the token of the next page
+     */
+    PatientSummaryPageResponse getPatientSummaries(int size, PatientSortField sortField, Sort.Direction direction,
+                                                   String cursor);
+    
+    /**
+     * Search patients by combinable filters, returning a keyset-paginated page of summaries
+     * 
+     * @param criteria the search filters, at least one of which must be set
+     * @param size the requested page size, clamped to the supported maximum
+     * @param sortField the sort field
+     * @param direction the sort direction
+     * @param cursor the continuation token of the previous page, or null for the first page
+     * @return the page of matching patient summaries with the token of the next page
+     */
+    PatientSummaryPageResponse searchPatients(PatientSearchCriteria criteria, int size, PatientSortField sortField,
+                                              Sort.Direction direction, String cursor);
+    
+    /**
+     * Update a patient. The update is written with a single UPDATE conditional on the version
+     * that was read, so an update that lost a race with another one fails instead of
+     * overwriting it.
      * 
      * @param request the patient update request
+     * @param expectedVersion the version the client based the update on, or null to update
+     *                        whichever version is current
      * @return the updated patient
      */
-    PatientResponse updatePatient(PatientUpdateRequest request);
+    PatientResponse updatePatient(PatientUpdateRequest request, Long expectedVersion);
+    
+    /**
+     * Apply a JSON merge patch (RFC 7396) to a patient. Only the rows and columns the patch
+     * changes are written, only changed unique keys are checked, and a patch that changes
+     * nothing writes nothing. Concurrent updates are detected as for updatePatient.
+     * 
+     * @param id the patient ID
+     * @param patch the merge patch
+     * @param expectedVersion the version the client based the patch on, or null to patch
+     *                        whichever version is current
+     * @return the patched patient
+     */
+    PatientResponse patchPatient(String id, JsonNode patch, Long expectedVersion);
     
     /**
      * Delete a patient by ID
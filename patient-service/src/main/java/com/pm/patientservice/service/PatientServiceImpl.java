@@ -1,13 +1,31 @@
 package com.pm.patientservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pm.patientservice.dto.PatientBatchCreateResponse;
+import com.pm.patientservice.dto.PatientBatchItemResult;
 import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientPageResponse;
 import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.dto.PatientSummaryPageResponse;
 import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
 import com.pm.patientservice.exception.PatientAlreadyExistsException;
 import com.pm.patientservice.exception.PatientNotFoundException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
 import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.mapper.PatientMergePatch;
 import com.pm.patientservice.model.Patient;
+import com.pm.patientservice.repository.PatientCursor;
 import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientSortField;
+import com.pm.patientservice.repository.PatientSpecifications;
+import com.pm.patientservice.repository.PatientUniqueConstraint;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -15,12 +33,25 @@ import io.micrometer.core.instrument.Timer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -31,8 +62,18 @@ public class PatientServiceImpl implements PatientService {
 
     private static final Logger logger = LogManager.getLogger(PatientServiceImpl.class);
 
+    // Upper bound for the page size of keyset pagination
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Shortest name fragment that the trigram index can serve
+    public static final int MIN_NAME_FRAGMENT_LENGTH = 3;
+
     private final PatientRepository patientRepository;
     private final PatientMapper patientMapper;
+    private final PatientKeyFilter patientKeyFilter;
+    private final PatientMergePatch patientMergePatch;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     private final MeterRegistry meterRegistry;
 
     // Counters for tracking operations
@@ -43,13 +84,21 @@ public class PatientServiceImpl implements PatientService {
 
     // Timers for measuring operation duration
     private final Timer createPatientTimer;
+    private final Timer createPatientBatchTimer;
     private final Timer updatePatientTimer;
     private final Timer getPatientTimer;
 
     @Autowired
-    public PatientServiceImpl(PatientRepository patientRepository, PatientMapper patientMapper, MeterRegistry meterRegistry) {
+    public PatientServiceImpl(PatientRepository patientRepository, PatientMapper patientMapper,
+                              PatientKeyFilter patientKeyFilter, PatientMergePatch patientMergePatch,
+                              ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
         this.patientRepository = patientRepository;
         this.patientMapper = patientMapper;
+        this.patientKeyFilter = patientKeyFilter;
+        this.patientMergePatch = patientMergePatch;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.meterRegistry = meterRegistry;
 
         // Initialize counters
@@ -70,6 +119,9 @@ public class PatientServiceImpl implements PatientService {
         this.createPatientTimer = Timer.builder("patient.create.time")
                 .description("Time taken to create a patient")
                 .register(meterRegistry);
+        this.createPatientBatchTimer = Timer.builder("patient.create.batch.time")
+                .description("Time taken to create a batch of patients")
+                .register(meterRegistry);
         this.updatePatientTimer = Timer.builder("patient.update.time")
                 .description("Time taken to update a patient")
                 .register(meterRegistry);
@@ -85,31 +137,24 @@ public class PatientServiceImpl implements PatientService {
         logger.info("Creating new patient with medical record number: {}", request.getMedicalRecordNumber());
         return createPatientTimer.record(() -> {
             try {
-                // Check if patient with the same medical record number already exists
-                if (patientRepository.existsByMedicalRecordNumber(request.getMedicalRecordNumber())) {
-                    logger.warn("Patient with medical record number {} already exists", request.getMedicalRecordNumber());
-                    throw new PatientAlreadyExistsException(request.getMedicalRecordNumber(), "medicalRecordNumber");
-                }
-
-                // Check if patient with the same email already exists
-                if (patientRepository.existsByContactInfoEmail(request.getContactInfo().getEmail())) {
-                    logger.warn("Patient with email {} already exists", request.getContactInfo().getEmail());
-                    throw new PatientAlreadyExistsException(request.getContactInfo().getEmail(), "email");
-                }
-
-                // Check if patient with the same phone number already exists
-                if (patientRepository.existsByContactInfoPhoneNumber(request.getContactInfo().getPhoneNumber())) {
-                    logger.warn("Patient with phone number {} already exists", request.getContactInfo().getPhoneNumber());
-                    throw new PatientAlreadyExistsException(request.getContactInfo().getPhoneNumber(), "phoneNumber");
-                }
-
                 // Convert request to entity
                 logger.debug("Converting patient request to entity");
                 Patient patient = patientMapper.toPatient(request);
 
-                // Save the patient (ID will be automatically generated)
+                // Save the patient (ID will be automatically generated). Uniqueness of the medical
+                // record number, email and phone number is enforced by the database constraints,
+                // which saves the pre-check queries and cannot be raced by concurrent creates.
                 logger.debug("Saving patient to database");
-                Patient savedPatient = patientRepository.save(patient);
+                Patient savedPatient;
+                try {
+                    savedPatient = patientRepository.saveAndFlush(patient);
+                } catch (DataIntegrityViolationException e) {
+                    throw toPatientAlreadyExists(e, request.getMedicalRecordNumber(),
+                            request.getContactInfo().getEmail(), request.getContactInfo().getPhoneNumber());
+                }
+                patientKeyFilter.put(request.getMedicalRecordNumber(), request.getContactInfo().getEmail(),
+                        request.getContactInfo().getPhoneNumber());
+                eventPublisher.publishEvent(PatientChangedEvent.created(PatientSnapshot.of(savedPatient)));
 
                 // Increment the counter for patient creation
                 patientCreatedCounter.increment();
@@ -127,6 +172,147 @@ public class PatientServiceImpl implements PatientService {
         });
     }
 
+    @Override
+    @Timed(value = "patient.create.batch", description = "Time taken to create a batch of patients")
+    public PatientBatchCreateResponse createPatients(List<PatientCreateRequest> requests) {
+        logger.info("Creating batch of {} patients", requests.size());
+        return createPatientBatchTimer.record(() -> {
+            try {
+                try {
+                    return transactionTemplate.execute(status -> insertPatients(requests, false));
+                } catch (DataIntegrityViolationException e) {
+                    Optional<PatientUniqueConstraint> constraint = PatientUniqueConstraint.fromViolation(e);
+                    if (constraint.isEmpty()) {
+                        throw e;
+                    }
+                    // A concurrent create took one of the keys between the check and the flush. The
+                    // batch has been rolled back; checking it again against the database, bypassing the
+                    // key filter that may not know the other instance's keys, reports that item as a
+                    // conflict and creates the rest
+                    logger.warn("Batch create raced with a concurrent create on {}, checking the batch again",
+                            constraint.get().getField());
+                }
+                try {
+                    return transactionTemplate.execute(status -> insertPatients(requests, true));
+                } catch (DataIntegrityViolationException e) {
+                    throw PatientUniqueConstraint.fromViolation(e)
+                            .<RuntimeException>map(constraint -> new PatientAlreadyExistsException(String.format(
+                                    "Patient with one of the %s values in the batch was created concurrently",
+                                    constraint.getField())))
+                            .orElse(e);
+                }
+            } catch (Exception e) {
+                if (!(e instanceof PatientAlreadyExistsException)) {
+                    logger.error("Error creating batch of patients: {}", e.getMessage(), e);
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Check the unique keys of a batch and insert the patients whose keys are free, reporting the
+     * others as conflicts. Runs in the caller's transaction; a key taken after the check fails the
+     * flush with a DataIntegrityViolationException.
+     *
+     * @param requests the patients to create
+     * @param bypassKeyFilter whether to check every key against the database
+     * @return the result of each request
+     */
+    private PatientBatchCreateResponse insertPatients(List<PatientCreateRequest> requests, boolean bypassKeyFilter) {
+        // Check the unique keys of the whole batch with at most one query per key, asking the
+        // database only about the values the key filter reports as possibly taken
+        Set<String> takenMedicalRecordNumbers = new HashSet<>(existingKeys(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER,
+                collectKeys(requests, PatientCreateRequest::getMedicalRecordNumber),
+                patientRepository::findExistingMedicalRecordNumbers, bypassKeyFilter));
+        Set<String> takenEmails = new HashSet<>(existingKeys(PatientUniqueConstraint.EMAIL,
+                collectKeys(requests, r -> r.getContactInfo().getEmail()),
+                patientRepository::findExistingEmails, bypassKeyFilter));
+        Set<String> takenPhoneNumbers = new HashSet<>(existingKeys(PatientUniqueConstraint.PHONE_NUMBER,
+                collectKeys(requests, r -> r.getContactInfo().getPhoneNumber()),
+                patientRepository::findExistingPhoneNumbers, bypassKeyFilter));
+
+        List<PatientBatchItemResult> results = new ArrayList<>(requests.size());
+        List<PatientBatchItemResult> createdResults = new ArrayList<>();
+        List<Patient> patients = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            PatientCreateRequest request = requests.get(index);
+            String medicalRecordNumber = request.getMedicalRecordNumber();
+            String email = request.getContactInfo().getEmail();
+            String phoneNumber = request.getContactInfo().getPhoneNumber();
+
+            PatientBatchItemResult result;
+            if (takenMedicalRecordNumbers.contains(medicalRecordNumber)) {
+                result = conflict(index, medicalRecordNumber, "medicalRecordNumber", medicalRecordNumber,
+                        ErrorCode.DUPLICATE_MEDICAL_RECORD_NUMBER);
+            } else if (takenEmails.contains(email)) {
+                result = conflict(index, medicalRecordNumber, "email", email, ErrorCode.DUPLICATE_EMAIL);
+            } else if (takenPhoneNumbers.contains(phoneNumber)) {
+                result = conflict(index, medicalRecordNumber, "phoneNumber", phoneNumber,
+                        ErrorCode.DUPLICATE_PHONE_NUMBER);
+            } else {
+                // Reserve the keys so that later duplicates within the batch conflict as well
+                takenMedicalRecordNumbers.add(medicalRecordNumber);
+                takenEmails.add(email);
+                takenPhoneNumbers.add(phoneNumber);
+
+                patients.add(patientMapper.toPatient(request));
+                result = new PatientBatchItemResult(index, PatientBatchItemResult.Status.CREATED,
+                        null, medicalRecordNumber, null, null);
+                createdResults.add(result);
+            }
+            results.add(result);
+        }
+
+        // The inserts are queued in the persistence context and sent as ordered JDBC
+        // batches when the context is flushed
+        logger.debug("Saving {} patients to database", patients.size());
+        List<Patient> savedPatients = patientRepository.saveAll(patients);
+        patientRepository.flush();
+        for (int i = 0; i < savedPatients.size(); i++) {
+            Patient savedPatient = savedPatients.get(i);
+            createdResults.get(i).setId(savedPatient.getId());
+            patientKeyFilter.put(savedPatient.getMedicalRecordNumber(),
+                    savedPatient.getContactInfo().getEmail(), savedPatient.getContactInfo().getPhoneNumber());
+            eventPublisher.publishEvent(PatientChangedEvent.created(PatientSnapshot.of(savedPatient)));
+        }
+
+        patientCreatedCounter.increment(savedPatients.size());
+        int conflicts = requests.size() - savedPatients.size();
+        logger.info("Successfully created {} patients in batch, {} conflicts", savedPatients.size(), conflicts);
+        return new PatientBatchCreateResponse(savedPatients.size(), conflicts, results);
+    }
+
+    private Set<String> existingKeys(PatientUniqueConstraint key, Set<String> values,
+                                     Function<Collection<String>, Set<String>> lookup, boolean bypassKeyFilter) {
+        return bypassKeyFilter ? lookup.apply(values) : patientKeyFilter.existing(key, values, lookup);
+    }
+
+    /**
+     * Translate a unique violation raised by the database into PatientAlreadyExistsException
+     * for the violated field. Other integrity violations are rethrown unchanged.
+     */
+    private static RuntimeException toPatientAlreadyExists(DataIntegrityViolationException e, String medicalRecordNumber,
+                                                           String email, String phoneNumber) {
+        return PatientUniqueConstraint.fromViolation(e)
+                .<RuntimeException>map(constraint -> {
+                    String value = constraint.select(medicalRecordNumber, email, phoneNumber);
+                    logger.warn("Patient with {} {} already exists", constraint.getField(), value);
+                    return new PatientAlreadyExistsException(value, constraint.getField());
+                })
+                .orElse(e);
+    }
+
+    private static Set<String> collectKeys(List<PatientCreateRequest> requests, Function<PatientCreateRequest, String> key) {
+        return requests.stream().map(key).collect(Collectors.toSet());
+    }
+
+    private static PatientBatchItemResult conflict(int index, String medicalRecordNumber, String field, String value,
+                                                   ErrorCode errorCode) {
+        return new PatientBatchItemResult(index, PatientBatchItemResult.Status.CONFLICT, null, medicalRecordNumber,
+                errorCode.getCode(), String.format("Patient with %s: %s already exists", field, value));
+    }
+
     @Override
     @Transactional(readOnly = true)
     @Timed(value = "patient.get.by.id", description = "Time taken to get a patient by ID")
@@ -134,7 +320,7 @@ public class PatientServiceImpl implements PatientService {
         logger.info("Retrieving patient with ID: {}", id);
         return getPatientTimer.record(() -> {
             try {
-                Patient patient = patientRepository.findById(id)
+                Patient patient = findPatient(id)
                         .orElseThrow(() -> {
                             logger.warn("Patient with ID {} not found", id);
                             return new PatientNotFoundException(id, "id");
@@ -181,95 +367,325 @@ public class PatientServiceImpl implements PatientService {
 
     @Override
     @Transactional(readOnly = true)
-    @Timed(value = "patient.get.all", description = "Time taken to get all patients")
-    public List<PatientResponse> getAllPatients() {
-        logger.info("Retrieving all patients");
+    @Timed(value = "patient.get.version", description = "Time taken to get the version of a patient")
+    public PatientVersion getPatientVersion(String id) {
+        logger.debug("Retrieving version of patient with ID: {}", id);
+        Optional<PatientVersion> version = Patient.isValidId(id)
+                ? patientRepository.findVersionById(id)
+                : Optional.empty();
+        return version
+                .orElseThrow(() -> {
+                    logger.warn("Patient with ID {} not found", id);
+                    return new PatientNotFoundException(id, "id");
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "patient.get.version", description = "Time taken to get the version of a patient")
+    public PatientVersion getPatientVersionByMedicalRecordNumber(String medicalRecordNumber) {
+        logger.debug("Retrieving version of patient with medical record number: {}", medicalRecordNumber);
+        return patientRepository.findVersionByMedicalRecordNumber(medicalRecordNumber)
+                .orElseThrow(() -> {
+                    logger.warn("Patient with medical record number {} not found", medicalRecordNumber);
+                    return new PatientNotFoundException(medicalRecordNumber, "medicalRecordNumber");
+                });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "patient.get.page", description = "Time taken to get a page of patients")
+    public PatientPageResponse getPatients(int size, PatientSortField sortField, Sort.Direction direction, String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        logger.info("Retrieving page of {} patients ordered by {} {}", pageSize, sortField.getParameter(), direction);
         try {
+            PatientCursor after = (cursor == null || cursor.isBlank())
+                    ? null
+                    : PatientCursor.decode(cursor, sortField, direction);
+
+            // Read one extra row to find out whether another page follows
+            List<Patient> rows = patientRepository.findPageAfter(sortField, direction, after, pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            List<Patient> page = hasMore ? rows.subList(0, pageSize) : rows;
+
             patientRetrievedCounter.increment();
-            List<PatientResponse> patients = patientRepository.findAll().stream()
+            List<PatientResponse> items = page.stream()
                     .map(patientMapper::toPatientResponse)
                     .collect(Collectors.toList());
-            logger.info("Successfully retrieved {} patients", patients.size());
-            return patients;
+            String nextCursor = hasMore
+                    ? PatientCursor.of(sortField, direction, page.get(page.size() - 1)).encode()
+                    : null;
+            logger.info("Successfully retrieved {} patients", items.size());
+            return new PatientPageResponse(items, items.size(), hasMore, nextCursor);
         } catch (Exception e) {
-            logger.error("Error retrieving all patients: {}", e.getMessage(), e);
+            if (!(e instanceof InvalidRequestException)) {
+                logger.error("Error retrieving page of patients: {}", e.getMessage(), e);
+            }
             throw e;
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "patient.get.summary.page", description = "Time taken to get a page of patient summaries")
+    public PatientSummaryPageResponse getPatientSummaries(int size, PatientSortField sortField, Sort.Direction direction,
+                                                          String cursor) {
+        logger.info("Retrieving page of patient summaries ordered by {} {}", sortField.getParameter(), direction);
+        try {
+            PatientSummaryPageResponse page = summaryPage(null, size, sortField, direction, cursor);
+            logger.info("Successfully retrieved {} patient summaries", page.getSize());
+            return page;
+        } catch (Exception e) {
+            if (!(e instanceof InvalidRequestException)) {
+                logger.error("Error retrieving page of patient summaries: {}", e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = "patient.search", description = "Time taken to search patients")
+    public PatientSummaryPageResponse searchPatients(PatientSearchCriteria criteria, int size, PatientSortField sortField,
+                                                     Sort.Direction direction, String cursor) {
+        logger.info("Searching patients ordered by {} {}", sortField.getParameter(), direction);
+        logger.debug("Search criteria: {}", criteria);
+        try {
+            validateSearchCriteria(criteria);
+            PatientSummaryPageResponse page = summaryPage(PatientSpecifications.matching(criteria), size, sortField,
+                    direction, cursor);
+            logger.info("Search found {} patients", page.getSize());
+            return page;
+        } catch (Exception e) {
+            if (!(e instanceof InvalidRequestException)) {
+                logger.error("Error searching patients: {}", e.getMessage(), e);
+            }
+            throw e;
+        }
+    }
+
+    private PatientSummaryPageResponse summaryPage(Specification<Patient> filter, int size, PatientSortField sortField,
+                                                   Sort.Direction direction, String cursor) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        PatientCursor after = (cursor == null || cursor.isBlank())
+                ? null
+                : PatientCursor.decode(cursor, sortField, direction);
+
+        // Read one extra row to find out whether another page follows
+        List<PatientSummary> rows = filter == null
+                ? patientRepository.findSummaryPageAfter(sortField, direction, after, pageSize + 1)
+                : patientRepository.findSummaryPageAfter(filter, sortField, direction, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<PatientSummary> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+
+        patientRetrievedCounter.increment();
+        String nextCursor = hasMore
+                ? PatientCursor.of(sortField, direction, page.get(page.size() - 1)).encode()
+                : null;
+        return new PatientSummaryPageResponse(page, page.size(), hasMore, nextCursor);
+    }
+
+    /**
+     * Reject searches that would scan the whole table instead of using an index
+     */
+    private static void validateSearchCriteria(PatientSearchCriteria criteria) {
+        if (criteria.isEmpty()) {
+            throw new InvalidRequestException("At least one search filter is required", ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+        if (criteria.getName() != null && !criteria.getName().isBlank()
+                && criteria.getName().trim().length() < MIN_NAME_FRAGMENT_LENGTH) {
+            throw new InvalidRequestException("Name fragment must have at least " + MIN_NAME_FRAGMENT_LENGTH
+                    + " characters", ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+        if (criteria.getDateOfBirthFrom() != null && criteria.getDateOfBirthTo() != null
+                && criteria.getDateOfBirthFrom().after(criteria.getDateOfBirthTo())) {
+            throw new InvalidRequestException("dateOfBirthFrom must not be after dateOfBirthTo",
+                    ErrorCode.INVALID_SEARCH_CRITERIA);
+        }
+    }
+
     @Override
     @Transactional
     @Timed(value = "patient.update", description = "Time taken to update a patient")
-    public PatientResponse updatePatient(PatientUpdateRequest request) {
+    public PatientResponse updatePatient(PatientUpdateRequest request, Long expectedVersion) {
         logger.info("Updating patient with ID: {}", request.getId());
         return updatePatientTimer.record(() -> {
             try {
-                // Check if patient exists
-                Patient patient = patientRepository.findById(request.getId())
-                        .orElseThrow(() -> {
-                            logger.warn("Patient with ID {} not found for update", request.getId());
-                            return new PatientNotFoundException(request.getId(), "id");
-                        });
+                Patient patient = findForUpdate(request.getId(), expectedVersion);
+                checkChangedKeysAreFree(patient, request);
 
-                // Check if the new medical record number is already used by another patient
-                if (!patient.getMedicalRecordNumber().equals(request.getMedicalRecordNumber()) &&
-                        patientRepository.existsByMedicalRecordNumber(request.getMedicalRecordNumber())) {
-                    logger.warn("Medical record number {} is already in use by another patient", request.getMedicalRecordNumber());
-                    throw new PatientAlreadyExistsException(request.getMedicalRecordNumber(), "medicalRecordNumber");
-                }
+                PatientSnapshot before = PatientSnapshot.of(patient);
+                boolean keysChanged = keysChanged(patient, request);
 
-                // Check if the new email is already used by another patient
-                if (!patient.getContactInfo().getEmail().equals(request.getContactInfo().getEmail()) &&
-                        patientRepository.existsByContactInfoEmail(request.getContactInfo().getEmail())) {
-                    logger.warn("Email {} is already in use by another patient", request.getContactInfo().getEmail());
-                    throw new PatientAlreadyExistsException(request.getContactInfo().getEmail(), "email");
-                }
+                // Update patient from request, reconciling the existing child entities
+                logger.debug("Updating patient data from request");
+                patientMapper.updatePatientFromDTO(request, patient);
 
-                // Check if the new phone number is already used by another patient
-                if (!patient.getContactInfo().getPhoneNumber().equals(request.getContactInfo().getPhoneNumber()) &&
-                        patientRepository.existsByContactInfoPhoneNumber(request.getContactInfo().getPhoneNumber())) {
-                    logger.warn("Phone number {} is already in use by another patient", request.getContactInfo().getPhoneNumber());
-                    throw new PatientAlreadyExistsException(request.getContactInfo().getPhoneNumber(), "phoneNumber");
+                return saveUpdated(patient, request, expectedVersion, before, keysChanged);
+            } catch (Exception e) {
+                logUpdateError(request.getId(), e);
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    @Timed(value = "patient.patch", description = "Time taken to patch a patient")
+    public PatientResponse patchPatient(String id, JsonNode patch, Long expectedVersion) {
+        logger.info("Patching patient with ID: {}", id);
+        return updatePatientTimer.record(() -> {
+            try {
+                Patient patient = findForUpdate(id, expectedVersion);
+                PatientUpdateRequest current = patientMapper.toPatientUpdateRequest(patient);
+                PatientUpdateRequest request = patientMergePatch.apply(current, patch);
+                if (request.equals(current)) {
+                    // Nothing to write, and the version stays the same
+                    logger.debug("Patch leaves patient with ID {} unchanged", id);
+                    return patientMapper.toPatientResponse(patient);
                 }
 
-                // Update patient from request
-                logger.debug("Updating patient data from request");
-                patientMapper.updatePatientFromDTO(request, patient);
+                // Only keys the patch changes are checked
+                checkChangedKeysAreFree(patient, request);
 
-                // Save the updated patient
-                logger.debug("Saving updated patient to database");
-                Patient updatedPatient = patientRepository.save(patient);
+                PatientSnapshot before = PatientSnapshot.of(patient);
+                boolean keysChanged = keysChanged(patient, request);
 
-                // Increment the counter for patient updates
-                patientUpdatedCounter.increment();
+                // Update the managed entities in place so that only changed rows are written
+                logger.debug("Merging patched patient data");
+                patientMapper.updatePatientFromDTO(request, patient);
 
-                // Convert entity to response
-                PatientResponse response = patientMapper.toPatientResponse(updatedPatient);
-                logger.info("Successfully updated patient with ID: {}", response.getId());
-                return response;
+                return saveUpdated(patient, request, expectedVersion, before, keysChanged);
             } catch (Exception e) {
-                if (!(e instanceof PatientNotFoundException) && !(e instanceof PatientAlreadyExistsException)) {
-                    logger.error("Error updating patient with ID {}: {}", request.getId(), e.getMessage(), e);
-                }
+                logUpdateError(id, e);
                 throw e;
             }
         });
     }
 
+    /**
+     * Load a patient by ID. Values that are not UUIDs cannot name a patient and are not queried.
+     */
+    private Optional<Patient> findPatient(String id) {
+        return Patient.isValidId(id) ? patientRepository.findById(id) : Optional.empty();
+    }
+
+    /**
+     * Load a patient to update, failing fast if the client's copy is already stale
+     */
+    private Patient findForUpdate(String id, Long expectedVersion) {
+        Patient patient = findPatient(id)
+                .orElseThrow(() -> {
+                    logger.warn("Patient with ID {} not found for update", id);
+                    return new PatientNotFoundException(id, "id");
+                });
+
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            logger.warn("Patient with ID {} is at version {}, not {}", id, patient.getVersion(), expectedVersion);
+            throw PatientVersionConflictException.versionMismatch(id, expectedVersion);
+        }
+        return patient;
+    }
+
+    /**
+     * Check that the unique keys the request changes are not used by another patient. The key
+     * filter answers most checks for free values without a query.
+     */
+    private void checkChangedKeysAreFree(Patient patient, PatientUpdateRequest request) {
+        // Check if the new medical record number is already used by another patient
+        if (!patient.getMedicalRecordNumber().equals(request.getMedicalRecordNumber()) &&
+                patientKeyFilter.exists(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER,
+                        request.getMedicalRecordNumber(), patientRepository::existsByMedicalRecordNumber)) {
+            logger.warn("Medical record number {} is already in use by another patient", request.getMedicalRecordNumber());
+            throw new PatientAlreadyExistsException(request.getMedicalRecordNumber(), "medicalRecordNumber");
+        }
+
+        // Check if the new email is already used by another patient
+        if (!patient.getContactInfo().getEmail().equals(request.getContactInfo().getEmail()) &&
+                patientKeyFilter.exists(PatientUniqueConstraint.EMAIL,
+                        request.getContactInfo().getEmail(), patientRepository::existsByContactInfoEmail)) {
+            logger.warn("Email {} is already in use by another patient", request.getContactInfo().getEmail());
+            throw new PatientAlreadyExistsException(request.getContactInfo().getEmail(), "email");
+        }
+
+        // Check if the new phone number is already used by another patient
+        if (!patient.getContactInfo().getPhoneNumber().equals(request.getContactInfo().getPhoneNumber()) &&
+                patientKeyFilter.exists(PatientUniqueConstraint.PHONE_NUMBER,
+                        request.getContactInfo().getPhoneNumber(), patientRepository::existsByContactInfoPhoneNumber)) {
+            logger.warn("Phone number {} is already in use by another patient", request.getContactInfo().getPhoneNumber());
+            throw new PatientAlreadyExistsException(request.getContactInfo().getPhoneNumber(), "phoneNumber");
+        }
+    }
+
+    private static boolean keysChanged(Patient patient, PatientUpdateRequest request) {
+        return !patient.getMedicalRecordNumber().equals(request.getMedicalRecordNumber())
+                || !patient.getContactInfo().getEmail().equals(request.getContactInfo().getEmail())
+                || !patient.getContactInfo().getPhoneNumber().equals(request.getContactInfo().getPhoneNumber());
+    }
+
+    /**
+     * Write an updated patient and publish the change
+     */
+    private PatientResponse saveUpdated(Patient patient, PatientUpdateRequest request, Long expectedVersion,
+                                        PatientSnapshot before, boolean keysChanged) {
+        // Save the updated patient. The flush issues UPDATE ... WHERE id = ? AND version = ?
+        // for the version read above, so an update committed in between is detected by
+        // the write itself without a locking read, and the response carries the new version.
+        logger.debug("Saving updated patient to database");
+        Patient updatedPatient;
+        try {
+            updatedPatient = patientRepository.saveAndFlush(patient);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Patient with ID {} was modified concurrently", patient.getId());
+            throw expectedVersion != null
+                    ? PatientVersionConflictException.versionMismatch(patient.getId(), expectedVersion)
+                    : PatientVersionConflictException.concurrentModification(patient.getId());
+        } catch (DataIntegrityViolationException e) {
+            throw toPatientAlreadyExists(e, request.getMedicalRecordNumber(),
+                    request.getContactInfo().getEmail(), request.getContactInfo().getPhoneNumber());
+        }
+        if (keysChanged) {
+            patientKeyFilter.put(request.getMedicalRecordNumber(), request.getContactInfo().getEmail(),
+                    request.getContactInfo().getPhoneNumber());
+            patientKeyFilter.markStale();
+        }
+        eventPublisher.publishEvent(PatientChangedEvent.updated(before, PatientSnapshot.of(updatedPatient)));
+
+        // Increment the counter for patient updates
+        patientUpdatedCounter.increment();
+
+        // Convert entity to response
+        PatientResponse response = patientMapper.toPatientResponse(updatedPatient);
+        logger.info("Successfully updated patient with ID: {}", response.getId());
+        return response;
+    }
+
+    private static void logUpdateError(String id, Exception e) {
+        if (!(e instanceof PatientNotFoundException) && !(e instanceof PatientAlreadyExistsException)
+                && !(e instanceof PatientVersionConflictException) && !(e instanceof InvalidRequestException)) {
+            logger.error("Error updating patient with ID {}: {}", id, e.getMessage(), e);
+        }
+    }
+
     @Override
     @Transactional
     @Timed(value = "patient.delete", description = "Time taken to delete a patient")
     public void deletePatient(String id) {
         logger.info("Deleting patient with ID: {}", id);
         try {
-            // Check if patient exists
-            if (!patientRepository.existsById(id)) {
-                logger.warn("Patient with ID {} not found for deletion", id);
-                throw new PatientNotFoundException(id, "id");
-            }
+            // Load the patient, which deleteById would do as well, to publish its last state
+            Patient patient = findPatient(id)
+                    .orElseThrow(() -> {
+                        logger.warn("Patient with ID {} not found for deletion", id);
+                        return new PatientNotFoundException(id, "id");
+                    });
+
+            PatientSnapshot before = PatientSnapshot.of(patient);
 
             logger.debug("Deleting patient from database");
-            patientRepository.deleteById(id);
+            patientRepository.delete(patient);
+            patientKeyFilter.markStale();
+            eventPublisher.publishEvent(PatientChangedEvent.deleted(before));
 
             // Increment the counter for patient deletions
             patientDeletedCounter.increment();
@@ -0,0 +1,35 @@
+-- PostgreSQL-specific indexes that cannot be expressed with JPA annotations and key migrations.
+-- Runs after Hibernate has created or updated the tables on every start; every statement is
+-- idempotent and cheap once applied. One-off data fixes belong in migrations/.
+
+-- Trigram matching for name searches anywhere in the name
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_patients_last_name_trgm
+    ON patients USING gin (lower(last_name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_patients_first_name_trgm
+    ON patients USING gin (lower(first_name) gin_trgm_ops);
+
+-- Case-insensitive last name prefix combined with the date of birth, the front-desk lookup
+CREATE INDEX IF NOT EXISTS idx_patients_lower_last_name_dob
+    ON patients (lower(last_name) text_pattern_ops, date_of_birth);
+CREATE INDEX IF NOT EXISTS idx_patients_lower_first_name
+    ON patients (lower(first_name) text_pattern_ops);
+
+-- Case-insensitive city and state filters on the joined address
+CREATE INDEX IF NOT EXISTS idx_addresses_lower_state_city
+    ON addresses (lower(state), lower(city));
+CREATE INDEX IF NOT EXISTS idx_addresses_lower_city
+    ON addresses (lower(city));
+
+-- Pending insurance expiration notices, in the order the outbound queue is consumed
+CREATE INDEX IF NOT EXISTS idx_insurance_expiration_notices_pending
+    ON insurance_expiration_notices (created_at, id) WHERE processed_at IS NULL;
+
+-- Pooled sequences of the child ids, also drawn from by the bulk import. Hibernate creates them as
+-- well; an existing sequence is left untouched. Switching a table from its identity column is a
+-- one-off step in migrations/pooled-child-sequences.sql.
+CREATE SEQUENCE IF NOT EXISTS addresses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS contact_info_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS emergency_contacts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS insurance_info_seq START WITH 1 INCREMENT BY 50;
@@ -134,11 +134,21 @@ public class PatientControllerIntegrationTest extends AbstractIntegrationTest {
                 .andExpect(status().isCreated());
 
         // Then get all patients
-        mockMvc.perform(get("/api/patients"))
+        MvcResult firstPage = mockMvc.perform(get("/api/patients").param("size", "1"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].medicalRecordNumber", notNullValue()))
-                .andExpect(jsonPath("$[1].medicalRecordNumber", notNullValue()));
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].medicalRecordNumber", notNullValue()))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andReturn();
+
+        // Then follow the cursor to the second page
+        PatientPageResponse page = objectMapper.readValue(
+                firstPage.getResponse().getContentAsString(), PatientPageResponse.class);
+        mockMvc.perform(get("/api/patients").param("size", "1").param("cursor", page.getNextCursor()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].medicalRecordNumber", notNullValue()))
+                .andExpect(jsonPath("$.hasMore", is(false)));
     }
 
     @Test
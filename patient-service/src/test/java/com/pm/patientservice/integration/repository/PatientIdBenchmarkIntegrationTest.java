@@ -0,0 +1,78 @@
+package com.pm.patientservice.integration.repository;
+
+import com.pm.patientservice.integration.config.AbstractIntegrationTest;
+import com.pm.patientservice.model.UuidV7Generator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark of the patient key formats: random version 4 UUIDs in a VARCHAR(36) column as before,
+ * random UUIDs in a native uuid column, and time-ordered version 7 UUIDs in a native uuid column.
+ * Each format is inserted into a scratch table keyed like patients, and the insert throughput and
+ * primary key index size are logged. Run with -Dpatient.id-benchmark.rows=N for larger tables.
+ */
+public class PatientIdBenchmarkIntegrationTest extends AbstractIntegrationTest {
+
+    private static final Logger logger = LogManager.getLogger(PatientIdBenchmarkIntegrationTest.class);
+
+    private static final int ROWS = Integer.getInteger("patient.id-benchmark.rows", 50_000);
+    private static final int BATCH_SIZE = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute(
+                "DROP TABLE IF EXISTS id_benchmark_varchar_v4, id_benchmark_uuid_v4, id_benchmark_uuid_v7");
+    }
+
+    @Test
+    void testTimeOrderedUuidKeysKeepTheIndexSmall() {
+        long varcharV4 = benchmark("id_benchmark_varchar_v4", "varchar(36)", () -> UUID.randomUUID().toString());
+        long uuidV4 = benchmark("id_benchmark_uuid_v4", "uuid", UUID::randomUUID);
+        long uuidV7 = benchmark("id_benchmark_uuid_v7", "uuid", UuidV7Generator::next);
+
+        // 16-byte keys appended at the right edge leave full index pages behind, random keys split them
+        assertTrue(uuidV7 < uuidV4, "uuid v7 index " + uuidV7 + " bytes, uuid v4 index " + uuidV4 + " bytes");
+        assertTrue(uuidV7 < varcharV4, "uuid v7 index " + uuidV7 + " bytes, varchar v4 index " + varcharV4 + " bytes");
+    }
+
+    /**
+     * Insert the rows in batches and log the throughput and the size of the primary key index
+     *
+     * @return the size of the primary key index in bytes
+     */
+    private long benchmark(String table, String keyType, Supplier<Object> keys) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id " + keyType + " PRIMARY KEY, payload varchar(100))");
+        String insert = "INSERT INTO " + table + " (id, payload) VALUES (" +
+                ("uuid".equals(keyType) ? "?::uuid" : "?") + ", ?)";
+
+        long start = System.nanoTime();
+        for (int inserted = 0; inserted < ROWS; inserted += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = inserted; i < Math.min(ROWS, inserted + BATCH_SIZE); i++) {
+                batch.add(new Object[]{keys.get().toString(), "patient " + i});
+            }
+            jdbcTemplate.batchUpdate(insert, batch);
+        }
+        long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class,
+                table + "_pkey");
+        logger.info("{} keys: {} rows in {} ms ({} rows/s), primary key index {} kB", table, ROWS, durationMillis,
+                ROWS * 1000L / durationMillis, indexBytes / 1024);
+        return indexBytes;
+    }
+}
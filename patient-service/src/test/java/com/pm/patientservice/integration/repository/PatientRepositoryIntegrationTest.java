@@ -0,0 +1,328 @@
+package com.pm.patientservice.integration.repository;
+
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.integration.config.AbstractIntegrationTest;
+import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.model.*;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientSortField;
+import com.pm.patientservice.repository.PatientSpecifications;
+import com.pm.patientservice.service.PatientExportService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests asserting the number of SQL statements issued by patient reads.
+ * The second-level cache is emptied before each test so that cold reads are measured
+ * unless a test warms it explicitly.
+ */
+public class PatientRepositoryIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientMapper patientMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PatientExportService patientExportService;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        entityManagerFactory.getCache().evictAll();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData();
+    }
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void testSaveBatchesInsertsPerTable() {
+        statistics.clear();
+
+        Patient saved = patientRepository.save(createTestPatient(1));
+
+        // The patient with its address, contact and insurance information, and two emergency
+        // contacts with their addresses. The contacts own the foreign key, so no UPDATE follows.
+        // One INSERT per table, the three addresses in one batch, and at most one sequence call
+        // per child table to allocate a block of ids.
+        assertEquals(8, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 9,
+                "Expected at most 9 statements but was " + statistics.getPrepareStatementCount());
+        transactionTemplate.executeWithoutResult(status -> assertEquals(2,
+                patientRepository.findById(saved.getId()).orElseThrow().getEmergencyContacts().size()));
+    }
+
+    @Test
+    void testSaveAllBatchesInsertsAcrossPatients() {
+        List<Patient> patients = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            patients.add(createTestPatient(i));
+        }
+        statistics.clear();
+
+        patientRepository.saveAll(patients);
+
+        // 160 rows in batches of 50 per table instead of one statement per row, and at most two
+        // sequence calls per child table for blocks of 50 ids
+        assertEquals(160, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 13,
+                "Expected at most 13 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindByIdLoadsWholeAggregateInOneStatement() {
+        Patient saved = patientRepository.save(createTestPatient(1));
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status ->
+                patientMapper.toPatientResponse(patientRepository.findById(saved.getId()).orElseThrow()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindByMedicalRecordNumberServesWarmLookupFromSecondLevelCache() {
+        patientRepository.save(createTestPatient(1));
+        transactionTemplate.executeWithoutResult(status ->
+                patientMapper.toPatientResponse(patientRepository.findByMedicalRecordNumber("MRN00001").orElseThrow()));
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status ->
+                patientMapper.toPatientResponse(patientRepository.findByMedicalRecordNumber("MRN00001").orElseThrow()));
+
+        // Only the patient row is read, the natural ID and the child entities come from the cache
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheMissCount());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void testFindByMedicalRecordNumberFollowsChangedNaturalId() {
+        Patient saved = patientRepository.save(createTestPatient(1));
+        transactionTemplate.executeWithoutResult(status ->
+                patientRepository.findByMedicalRecordNumber("MRN00001").orElseThrow());
+
+        saved.setMedicalRecordNumber("MRN99999");
+        patientRepository.save(saved);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(patientRepository.findByMedicalRecordNumber("MRN00001").isEmpty());
+            assertEquals(saved.getId(), patientRepository.findByMedicalRecordNumber("MRN99999").orElseThrow().getId());
+        });
+    }
+
+    @Test
+    void testPageReadUsesFixedNumberOfStatements() {
+        for (int i = 1; i <= 10; i++) {
+            patientRepository.save(createTestPatient(i));
+        }
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status ->
+                patientRepository.findPageAfter(PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 10)
+                        .forEach(patientMapper::toPatientResponse));
+
+        // Patients with their single-valued associations, one batch of emergency contacts
+        // and one batch of emergency contact addresses
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSummaryPageSelectsOnlyPatientColumnsWithoutLoadingEntities() {
+        for (int i = 1; i <= 5; i++) {
+            patientRepository.save(createTestPatient(i));
+        }
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<PatientSummary> summaries = patientRepository.findSummaryPageAfter(
+                    PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 10);
+            assertEquals(5, summaries.size());
+            assertEquals("Doe1", summaries.get(0).lastName());
+            assertEquals("MRN00001", summaries.get(0).medicalRecordNumber());
+        });
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testSearchCombinesNamePrefixDateOfBirthAndAddressFilters() {
+        for (int i = 1; i <= 12; i++) {
+            Patient patient = createTestPatient(i);
+            if (i == 12) {
+                patient.getAddress().setCity("Othertown");
+            }
+            patientRepository.save(patient);
+        }
+        statistics.clear();
+
+        PatientSearchCriteria criteria = new PatientSearchCriteria();
+        criteria.setLastName("doe1");
+        criteria.setDateOfBirthTo(new Date());
+        criteria.setCity("ANYTOWN");
+        criteria.setState("ca");
+        transactionTemplate.executeWithoutResult(status -> {
+            List<PatientSummary> summaries = patientRepository.findSummaryPageAfter(
+                    PatientSpecifications.matching(criteria), PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 10);
+            // Doe1, Doe10 and Doe11; Doe12 lives in another city
+            assertEquals(List.of("Doe1", "Doe10", "Doe11"),
+                    summaries.stream().map(PatientSummary::lastName).toList());
+        });
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearchTreatsLikeWildcardsLiterally() {
+        patientRepository.save(createTestPatient(1));
+
+        PatientSearchCriteria criteria = new PatientSearchCriteria();
+        criteria.setName("o%1");
+        transactionTemplate.executeWithoutResult(status ->
+                assertTrue(patientRepository.findSummaryPageAfter(PatientSpecifications.matching(criteria),
+                        PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 10).isEmpty()));
+    }
+
+    @Test
+    void testFindAllByIdInLoadsWholeAggregatesInOneStatement() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(patientRepository.save(createTestPatient(i)).getId());
+        }
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Patient> patients = patientRepository.findAllByIdIn(ids);
+            assertEquals(5, patients.size());
+            patients.forEach(patientMapper::toPatientResponse);
+        });
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testExportLoadsEmergencyContactsOncePerChunk() {
+        for (int i = 1; i <= 5; i++) {
+            patientRepository.save(createTestPatient(i));
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        statistics.clear();
+
+        long exported = patientExportService.exportNdjson(output);
+
+        // The patient cursor and one query for the contacts and their addresses of the whole chunk
+        assertEquals(5, exported);
+        assertEquals(2, statistics.getPrepareStatementCount());
+        String ndjson = output.toString(StandardCharsets.UTF_8);
+        assertEquals(5, ndjson.lines().count());
+        assertTrue(ndjson.contains("\"street\":\"456 Oak St\""), ndjson);
+    }
+
+    @Test
+    void testGeneratedIdsAreTimeOrderedUuids() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            ids.add(patientRepository.save(createTestPatient(i)).getId());
+        }
+
+        // Version 7 keys lead with their creation time and are stored in a native uuid column
+        long previousMillis = 0;
+        for (String id : ids) {
+            assertTrue(Patient.isValidId(id), id);
+            UUID uuid = UUID.fromString(id);
+            assertEquals(7, uuid.version());
+            assertTrue(uuid.getMostSignificantBits() >>> 16 >= previousMillis);
+            previousMillis = uuid.getMostSignificantBits() >>> 16;
+        }
+        assertEquals("uuid", jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns " +
+                "WHERE table_name = 'patients' AND column_name = 'id'", String.class));
+        assertTrue(patientRepository.findById(ids.get(0)).isPresent());
+    }
+
+    @Test
+    void testFindIdsEveryReturnsRangeBoundsInIdOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            ids.add(patientRepository.save(createTestPatient(i)).getId());
+        }
+        List<String> sorted = ids.stream().sorted().toList();
+
+        assertEquals(List.of(sorted.get(2), sorted.get(5)), patientRepository.findIdsEvery(3));
+        assertEquals(sorted, patientRepository.findIdsEvery(1));
+    }
+
+    /**
+     * Helper method to create a test patient with two emergency contacts
+     */
+    private Patient createTestPatient(int number) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -30);
+
+        Patient patient = new Patient();
+        patient.setMedicalRecordNumber(String.format("MRN%05d", number));
+        patient.setFirstName("John");
+        patient.setLastName("Doe" + number);
+        patient.setDateOfBirth(calendar.getTime());
+        patient.setGender("Male");
+        patient.setAddress(new Address("123 Main St", "Anytown", "CA", "12345", "USA"));
+        patient.setContactInfo(new ContactInfo(String.format("+1-555-100-%04d", number),
+                "patient" + number + "@example.com", null));
+
+        List<EmergencyContact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContact("Jane Doe", "Spouse", "+1-555-987-6543", "jane.doe@example.com",
+                new Address("123 Main St", "Anytown", "CA", "12345", "USA")));
+        contacts.add(new EmergencyContact("Jim Doe", "Sibling", "+1-555-987-6544", "jim.doe@example.com",
+                new Address("456 Oak St", "Anytown", "CA", "12345", "USA")));
+        patient.setEmergencyContacts(contacts);
+
+        patient.setInsuranceInfo(new InsuranceInfo("Health Insurance Co", "POL" + number, "GRP123456", "John Doe",
+                new Date(), null, "Full Coverage"));
+
+        Date now = new Date();
+        patient.setCreatedAt(now);
+        patient.setUpdatedAt(now);
+        return patient;
+    }
+}
@@ -0,0 +1,270 @@
+package com.pm.patientservice.integration.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.AddressDTO;
+import com.pm.patientservice.dto.ContactInfoDTO;
+import com.pm.patientservice.dto.EmergencyContactDTO;
+import com.pm.patientservice.dto.InsuranceInfoDTO;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientImportIssue;
+import com.pm.patientservice.dto.PatientImportResponse;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.integration.config.AbstractIntegrationTest;
+import com.pm.patientservice.model.Patient;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientImportReader;
+import com.pm.patientservice.service.PatientImportService;
+import com.pm.patientservice.service.PatientService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for bulk imports, asserting the rows merged into the patient tables and the
+ * records reported as invalid or duplicate
+ */
+public class PatientImportIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PatientImportService patientImportService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void testImportNdjsonSkipsInvalidRecordsAndDuplicates() throws IOException {
+        patientService.createPatient(createRequest(1, true));
+        PatientCreateRequest missingName = createRequest(3, false);
+        missingName.setFirstName(null);
+        PatientCreateRequest existingMrn = createRequest(4, false);
+        existingMrn.setMedicalRecordNumber("MRN00001");
+        PatientCreateRequest repeatedEmail = createRequest(5, false);
+        repeatedEmail.getContactInfo().setEmail("patient2@example.com");
+
+        String file = json(createRequest(2, true)) + "\n" +
+                json(missingName) + "\n" +
+                json(existingMrn) + "\n" +
+                json(repeatedEmail) + "\n" +
+                "{not json\n" +
+                json(createRequest(6, false)) + "\n";
+
+        PatientImportResponse response = patientImportService.importPatients(PatientImportReader.Format.NDJSON,
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(6, response.getReceived());
+        assertEquals(2, response.getImported());
+        assertEquals(2, response.getInvalid());
+        assertEquals(2, response.getDuplicates());
+        assertFalse(response.isIssuesTruncated());
+        assertEquals(List.of(2L, 3L, 4L, 5L), response.getIssues().stream().map(PatientImportIssue::getLine).toList());
+
+        PatientImportIssue invalid = response.getIssues().get(0);
+        assertEquals(PatientImportIssue.Type.INVALID, invalid.getType());
+        assertEquals("VALIDATION_ERROR", invalid.getErrorCode());
+        assertTrue(invalid.getMessage().startsWith("firstName: "), invalid.getMessage());
+
+        PatientImportIssue existing = response.getIssues().get(1);
+        assertEquals(PatientImportIssue.Type.DUPLICATE, existing.getType());
+        assertEquals("DUPLICATE_MEDICAL_RECORD_NUMBER", existing.getErrorCode());
+
+        PatientImportIssue inFile = response.getIssues().get(2);
+        assertEquals("DUPLICATE_EMAIL", inFile.getErrorCode());
+        assertTrue(inFile.getMessage().contains("line 1"), inFile.getMessage());
+
+        assertEquals(PatientImportIssue.Type.INVALID, response.getIssues().get(3).getType());
+        assertEquals("INVALID_IMPORT", response.getIssues().get(3).getErrorCode());
+
+        // The imported patients read back like patients created through the API
+        PatientResponse imported = patientService.getPatientByMedicalRecordNumber("MRN00002");
+        assertTrue(Patient.isValidId(imported.getId()), imported.getId());
+        assertEquals("Import2", imported.getLastName());
+        assertEquals("Anytown", imported.getAddress().getCity());
+        assertEquals(2, imported.getEmergencyContacts().size());
+        assertEquals("Health Insurance Co", imported.getInsuranceInfo().getProvider());
+        assertEquals(0L, imported.getVersion());
+        assertNull(patientService.getPatientByMedicalRecordNumber("MRN00006").getInsuranceInfo());
+
+        assertEquals(3, count("patients"));
+        assertEquals(4, count("emergency_contacts"));
+        assertEquals(5, count("addresses"));
+        assertEquals(3, count("contact_info"));
+        assertEquals(2, count("insurance_info"));
+        assertEquals(0, count("pg_tables WHERE tablename LIKE 'patient_import_%'"));
+    }
+
+    @Test
+    void testKeyTakenDuringMergeIsReportedAsDuplicate() throws Exception {
+        // Arrange: another transaction holds an uncommitted contact with the email of the second record,
+        // which the duplicate checks cannot see
+        String file = json(createRequest(1, true)) + "\n" + json(createRequest(2, true)) + "\n";
+        try (Connection concurrent = dataSource.getConnection()) {
+            concurrent.setAutoCommit(false);
+            try (Statement statement = concurrent.createStatement()) {
+                statement.executeUpdate("INSERT INTO contact_info (id, phone_number, email) " +
+                        "VALUES (nextval('contact_info_seq'), '+1-555-200-0002', 'patient2@example.com')");
+            }
+
+            // Act: the import blocks on the uncommitted key until the other transaction commits
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<PatientImportResponse> importing = executor.submit(() ->
+                    patientImportService.importPatients(PatientImportReader.Format.NDJSON,
+                            new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8))));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (count("pg_locks WHERE NOT granted") == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            concurrent.commit();
+            PatientImportResponse response = importing.get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+
+            // Assert: the second record is skipped, leaving none of its rows behind
+            assertEquals(1, response.getImported());
+            assertEquals(1, response.getDuplicates());
+            assertEquals(2L, response.getIssues().get(0).getLine());
+            assertEquals("DUPLICATE_EMAIL", response.getIssues().get(0).getErrorCode());
+            assertEquals(1, count("patients"));
+            assertEquals(2, count("emergency_contacts"));
+            assertEquals(2, count("addresses"));
+            assertEquals(2, count("contact_info"));
+            assertEquals(1, count("insurance_info"));
+        } finally {
+            jdbcTemplate.update("DELETE FROM contact_info WHERE email = 'patient2@example.com'");
+        }
+    }
+
+    @Test
+    void testImportedIdsDoNotCollideWithLaterInserts() throws IOException {
+        String file = json(createRequest(1, true)) + "\n" + json(createRequest(2, true)) + "\n";
+        patientImportService.importPatients(PatientImportReader.Format.NDJSON,
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+        // Hibernate continues from the sequences the import drew its id blocks from
+        patientService.createPatient(createRequest(3, true));
+
+        assertEquals(3, count("patients"));
+        assertEquals(6, count("emergency_contacts"));
+        assertEquals(6, count("addresses"));
+    }
+
+    @Test
+    void testImportGzipCsvThroughTheEndpoint() throws IOException {
+        String csv = "medicalRecordNumber,firstName,lastName,dateOfBirth,gender," +
+                "address.street,address.city,address.state,address.zipCode,address.country," +
+                "contactInfo.phoneNumber,contactInfo.email,emergencyContacts[0].name," +
+                "emergencyContacts[0].relationship,emergencyContacts[0].phoneNumber,emergencyContacts[0].email\n" +
+                "MRN00001,John,Doe,1980-01-15,Male,\"123 Main St, Apt 4\",Anytown,CA,12345,USA," +
+                "+1-555-100-0001,john.doe@example.com,Jane Doe,Spouse,+1-555-987-6543,jane.doe@example.com\n" +
+                "MRN00002,Jane,Roe,1985-06-01,Female,456 Oak St,Anytown,CA,12345,USA," +
+                "+1-555-100-0002,jane.roe@example.com,,,,\n";
+
+        ResponseEntity<PatientImportResponse> response = postImport(csv, "text/csv", true,
+                PatientImportResponse.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getImported());
+        assertEquals("123 Main St, Apt 4",
+                patientService.getPatientByMedicalRecordNumber("MRN00001").getAddress().getStreet());
+        assertEquals(1, count("emergency_contacts"));
+    }
+
+    @Test
+    void testImportWithUnknownCsvColumnImportsNothing() throws IOException {
+        String csv = "medicalRecordNumber,address.town\nMRN00001,Anytown\n";
+
+        ResponseEntity<String> response = postImport(csv, "text/csv", false, String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("INVALID_IMPORT"), response.getBody());
+        assertEquals(0, count("patients"));
+    }
+
+    private <T> ResponseEntity<T> postImport(String content, String contentType, boolean gzip, Class<T> type)
+            throws IOException {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(body);
+            }
+            body = compressed.toByteArray();
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return restTemplate.exchange("http://localhost:" + port + "/api/patients/import", HttpMethod.POST,
+                new HttpEntity<>(body, headers), type);
+    }
+
+    private String json(PatientCreateRequest request) throws IOException {
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private PatientCreateRequest createRequest(int number, boolean full) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -30);
+        Date dateOfBirth = calendar.getTime();
+        calendar.add(Calendar.YEAR, 31);
+        Date expirationDate = calendar.getTime();
+
+        return new PatientCreateRequest(String.format("MRN%05d", number), "Patient", "Import" + number, dateOfBirth,
+                "Female",
+                new AddressDTO("123 Main St", "Anytown", "CA", "12345", "USA"),
+                new ContactInfoDTO(String.format("+1-555-100-%04d", number), "patient" + number + "@example.com",
+                        null),
+                full ? List.of(
+                        new EmergencyContactDTO("Jane Doe", "Spouse", "+1-555-987-6543", "jane.doe@example.com",
+                                new AddressDTO("123 Main St", "Anytown", "CA", "12345", "USA")),
+                        new EmergencyContactDTO("Jim Doe", "Sibling", "+1-555-987-6544", "jim.doe@example.com",
+                                null))
+                        : null,
+                full ? new InsuranceInfoDTO("Health Insurance Co", "POL" + number, "GRP123456", "Patient Import",
+                        new Date(), expirationDate, "Full Coverage")
+                        : null);
+    }
+}
@@ -0,0 +1,197 @@
+package com.pm.patientservice.integration.service;
+
+import com.pm.patientservice.dto.AddressDTO;
+import com.pm.patientservice.dto.EmergencyContactDTO;
+import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.integration.config.AbstractIntegrationTest;
+import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.model.*;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests asserting the rows written by patient updates. Child entities are
+ * reconciled with the request, so an update writes only what changed and leaves no orphaned
+ * rows behind.
+ */
+public class PatientUpdateIntegrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientMapper patientMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void testUpdateOfOneFieldWritesOnlyItsRowAndThePatient() {
+        PatientUpdateRequest request = currentState(patientRepository.save(createTestPatient(1)));
+        request.getContactInfo().setPhoneNumber("+1-555-200-0001");
+        statistics.clear();
+
+        patientService.updatePatient(request, null);
+
+        // The contact information and the patient version, no child rows are replaced
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+        assertEquals(0, statistics.getCollectionUpdateCount());
+        assertRowCounts(2, 3, 1);
+    }
+
+    @Test
+    void testUpdateReusesChangedEmergencyContactRows() {
+        PatientUpdateRequest request = currentState(patientRepository.save(createTestPatient(1)));
+        request.getEmergencyContacts().remove(1);
+        request.getEmergencyContacts().add(new EmergencyContactDTO("Ann Doe", "Child", "+1-555-987-6546",
+                "ann.doe@example.com", new AddressDTO("789 Pine St", "Anytown", "CA", "12345", "USA")));
+        statistics.clear();
+
+        patientService.updatePatient(request, null);
+
+        // Jane is untouched, Jim's contact and address rows are rewritten for Ann
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(3, statistics.getEntityUpdateCount());
+        assertRowCounts(2, 3, 1);
+        assertEquals(request.getEmergencyContacts(), currentState(request.getId()).getEmergencyContacts());
+    }
+
+    @Test
+    void testUpdateDeletesDroppedChildren() {
+        PatientUpdateRequest request = currentState(patientRepository.save(createTestPatient(1)));
+        request.getEmergencyContacts().remove(1);
+        request.setInsuranceInfo(null);
+        statistics.clear();
+
+        patientService.updatePatient(request, null);
+
+        // Jim with his address and the insurance information are deleted rather than orphaned
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(3, statistics.getEntityDeleteCount());
+        assertRowCounts(1, 2, 0);
+    }
+
+    @Test
+    void testUpdateDeletesDroppedEmergencyContactAddress() {
+        PatientUpdateRequest request = currentState(patientRepository.save(createTestPatient(1)));
+        request.getEmergencyContacts().get(0).setAddress(null);
+        statistics.clear();
+
+        patientService.updatePatient(request, null);
+
+        // Jane keeps her contact row, her address row is deleted rather than orphaned
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityDeleteCount());
+        assertRowCounts(2, 2, 1);
+        assertNull(currentState(request.getId()).getEmergencyContacts().get(0).getAddress());
+    }
+
+    @Test
+    void testUpdateAddsOnlyNewEmergencyContacts() {
+        PatientUpdateRequest request = currentState(patientRepository.save(createTestPatient(1)));
+        request.getEmergencyContacts().add(new EmergencyContactDTO("Ann Doe", "Child", "+1-555-987-6546",
+                "ann.doe@example.com", null));
+        statistics.clear();
+
+        patientService.updatePatient(request, null);
+
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertRowCounts(3, 3, 1);
+    }
+
+    private PatientUpdateRequest currentState(Patient patient) {
+        return currentState(patient.getId());
+    }
+
+    private PatientUpdateRequest currentState(String id) {
+        return transactionTemplate.execute(status ->
+                patientMapper.toPatientUpdateRequest(patientRepository.findById(id).orElseThrow()));
+    }
+
+    private void assertRowCounts(int emergencyContacts, int addresses, int insuranceInfos) {
+        assertEquals(emergencyContacts, count("emergency_contacts"));
+        assertEquals(addresses, count("addresses"));
+        assertEquals(1, count("contact_info"));
+        assertEquals(insuranceInfos, count("insurance_info"));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private Patient createTestPatient(int number) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -30);
+
+        Patient patient = new Patient();
+        patient.setMedicalRecordNumber(String.format("MRN%05d", number));
+        patient.setFirstName("John");
+        patient.setLastName("Doe" + number);
+        patient.setDateOfBirth(calendar.getTime());
+        patient.setGender("Male");
+        patient.setAddress(new Address("123 Main St", "Anytown", "CA", "12345", "USA"));
+        patient.setContactInfo(new ContactInfo(String.format("+1-555-100-%04d", number),
+                "patient" + number + "@example.com", null));
+
+        List<EmergencyContact> contacts = new ArrayList<>();
+        contacts.add(new EmergencyContact("Jane Doe", "Spouse", "+1-555-987-6543", "jane.doe@example.com",
+                new Address("123 Main St", "Anytown", "CA", "12345", "USA")));
+        contacts.add(new EmergencyContact("Jim Doe", "Sibling", "+1-555-987-6544", "jim.doe@example.com",
+                new Address("456 Oak St", "Anytown", "CA", "12345", "USA")));
+        patient.setEmergencyContacts(contacts);
+
+        patient.setInsuranceInfo(new InsuranceInfo("Health Insurance Co", "POL" + number, "GRP123456", "John Doe",
+                new Date(), null, "Full Coverage"));
+
+        Date now = new Date();
+        patient.setCreatedAt(now);
+        patient.setUpdatedAt(now);
+        return patient;
+    }
+}
@@ -1,28 +1,47 @@
 package com.pm.patientservice.unit.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pm.patientservice.dto.*;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
 import com.pm.patientservice.exception.PatientAlreadyExistsException;
 import com.pm.patientservice.exception.PatientNotFoundException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
+import com.pm.patientservice.repository.PatientSortField;
 import com.pm.patientservice.service.PatientService;
 import com.pm.patientservice.controller.PatientController;
+import com.pm.patientservice.controller.PatientJsonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -39,6 +58,8 @@ public class PatientControllerTest {
 
     private PatientController patientController;
 
+    private PatientJsonCache patientJsonCache;
+
     private PatientCreateRequest createRequest;
     private PatientUpdateRequest updateRequest;
     private PatientResponse patientResponse;
@@ -59,7 +80,8 @@ public class PatientControllerTest {
         patientResponse = createTestPatientResponse();
 
         // Set up controller and mockMvc
-        patientController = new PatientController(patientService);
+        patientJsonCache = new PatientJsonCache(objectMapper, new SimpleMeterRegistry(), 100, true);
+        patientController = new PatientController(patientService, patientJsonCache);
         mockMvc = MockMvcBuilders.standaloneSetup(patientController)
                 .setControllerAdvice(new com.pm.patientservice.exception.GlobalExceptionHandler())
                 .build();
@@ -101,6 +123,43 @@ public class PatientControllerTest {
         verify(patientService).createPatient(any(PatientCreateRequest.class));
     }
 
+    @Test
+    void testCreatePatients() throws Exception {
+        // Arrange
+        PatientBatchCreateResponse response = new PatientBatchCreateResponse(1, 1, List.of(
+                new PatientBatchItemResult(0, PatientBatchItemResult.Status.CREATED, patientId, "MRN12345", null, null),
+                new PatientBatchItemResult(1, PatientBatchItemResult.Status.CONFLICT, null, "MRN12345",
+                        "DUPLICATE_MEDICAL_RECORD_NUMBER", "Patient with medicalRecordNumber: MRN12345 already exists")));
+        when(patientService.createPatients(anyList())).thenReturn(response);
+
+        PatientBatchCreateRequest batchRequest = new PatientBatchCreateRequest(List.of(createRequest, createRequest));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/patients/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.conflicts", is(1)))
+                .andExpect(jsonPath("$.results[0].id", is(patientId)))
+                .andExpect(jsonPath("$.results[1].errorCode", is("DUPLICATE_MEDICAL_RECORD_NUMBER")));
+
+        // Verify
+        verify(patientService).createPatients(anyList());
+    }
+
+    @Test
+    void testCreatePatients_EmptyBatch() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/patients/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new PatientBatchCreateRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        // Verify
+        verify(patientService, never()).createPatients(anyList());
+    }
+
     @Test
     void testGetPatientById() throws Exception {
         // Arrange
@@ -112,12 +171,101 @@ public class PatientControllerTest {
                 .andExpect(jsonPath("$.id", is(patientId)))
                 .andExpect(jsonPath("$.medicalRecordNumber", is(patientResponse.getMedicalRecordNumber())))
                 .andExpect(jsonPath("$.firstName", is(patientResponse.getFirstName())))
-                .andExpect(jsonPath("$.lastName", is(patientResponse.getLastName())));
+                .andExpect(jsonPath("$.lastName", is(patientResponse.getLastName())))
+                .andExpect(header().string("ETag", "\"3\""));
 
         // Verify
         verify(patientService).getPatientById(patientId);
     }
 
+    @Test
+    void testGetPatientById_NotModifiedFromVersionLookup() throws Exception {
+        // Arrange
+        when(patientService.getPatientVersion(patientId))
+                .thenReturn(new PatientVersion(patientId, 3L, patientResponse.getUpdatedAt()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/{id}", patientId).header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().bytes(new byte[0]));
+
+        // Verify: the patient itself is neither loaded nor serialized
+        verify(patientService, never()).getPatientById(anyString());
+    }
+
+    @Test
+    void testGetPatientById_StaleETagReturnsPatient() throws Exception {
+        // Arrange
+        when(patientService.getPatientVersion(patientId))
+                .thenReturn(new PatientVersion(patientId, 3L, patientResponse.getUpdatedAt()));
+        when(patientService.getPatientById(patientId)).thenReturn(patientResponse);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/{id}", patientId).header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.id", is(patientId)));
+    }
+
+    @Test
+    void testGetPatientByMedicalRecordNumber_NotModifiedSince() throws Exception {
+        // Arrange
+        when(patientService.getPatientVersionByMedicalRecordNumber("MRN12345"))
+                .thenReturn(new PatientVersion(patientId, 3L, new Date(1_000_000L)));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/mrn/{mrn}", "MRN12345")
+                        .header("If-Modified-Since", "Thu, 01 Jan 1970 00:16:40 GMT"))
+                .andExpect(status().isNotModified());
+
+        // Verify
+        verify(patientService, never()).getPatientByMedicalRecordNumber(anyString());
+    }
+
+    @Test
+    void testGetPatientById_ServesCachedJson() throws Exception {
+        // Arrange
+        when(patientService.getPatientById(patientId)).thenReturn(patientResponse);
+        byte[] cachedJson = patientJsonCache.get(patientResponse).getJson();
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/{id}", patientId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(cachedJson));
+
+        // The same bytes are served until the patient changes
+        assertSame(cachedJson, patientJsonCache.get(patientResponse).getJson());
+    }
+
+    @Test
+    void testGetPatientById_Gzip() throws Exception {
+        // Arrange: a response large enough to be precompressed
+        List<EmergencyContactDTO> contacts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            contacts.add(new EmergencyContactDTO("Contact " + i, "Friend", "+1-555-000-00" + (10 + i),
+                    "contact" + i + "@example.com", patientResponse.getAddress()));
+        }
+        patientResponse.setEmergencyContacts(contacts);
+        when(patientService.getPatientById(patientId)).thenReturn(patientResponse);
+
+        // Act
+        byte[] body = mockMvc.perform(get("/api/patients/{id}", patientId)
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            PatientResponse decoded = objectMapper.readValue(in, PatientResponse.class);
+            assertEquals(patientId, decoded.getId());
+            assertEquals(20, decoded.getEmergencyContacts().size());
+        }
+    }
+
     @Test
     void testGetPatientById_NotFound() throws Exception {
         // Arrange
@@ -168,7 +316,7 @@ public class PatientControllerTest {
     }
 
     @Test
-    void testGetAllPatients() throws Exception {
+    void testGetPatients() throws Exception {
         // Arrange
         List<PatientResponse> patients = new ArrayList<>();
         patients.add(patientResponse);
@@ -180,23 +328,135 @@ public class PatientControllerTest {
         patient2.setLastName("Doe");
         patients.add(patient2);
 
-        when(patientService.getAllPatients()).thenReturn(patients);
+        PatientPageResponse page = new PatientPageResponse(patients, 2, true, "next-cursor");
+        when(patientService.getPatients(2, PatientSortField.CREATED_AT, Sort.Direction.DESC, null)).thenReturn(page);
 
         // Act & Assert
-        mockMvc.perform(get("/api/patients"))
+        mockMvc.perform(get("/api/patients")
+                .param("size", "2")
+                .param("sort", "createdAt")
+                .param("direction", "desc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].id", is(patientId)))
-                .andExpect(jsonPath("$[1].id", is("test-uuid-2")));
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(patientId)))
+                .andExpect(jsonPath("$.items[1].id", is("test-uuid-2")))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")));
+
+        // Verify
+        verify(patientService).getPatients(2, PatientSortField.CREATED_AT, Sort.Direction.DESC, null);
+    }
+
+    @Test
+    void testGetPatients_InvalidSort() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/patients").param("sort", "ssn"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_SORT")));
 
         // Verify
-        verify(patientService).getAllPatients();
+        verify(patientService, never()).getPatients(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testGetPatientSummaries() throws Exception {
+        // Arrange
+        List<PatientSummary> summaries = List.of(
+                new PatientSummary(patientId, "MRN12345", "John", "Doe", new Date(), "Male", new Date()),
+                new PatientSummary("test-uuid-2", "MRN12346", "Jane", "Doe", new Date(), "Female", new Date()));
+        PatientSummaryPageResponse page = new PatientSummaryPageResponse(summaries, 2, false, null);
+        when(patientService.getPatientSummaries(20, PatientSortField.LAST_NAME, Sort.Direction.ASC, null)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(patientId)))
+                .andExpect(jsonPath("$.items[0].medicalRecordNumber", is("MRN12345")))
+                .andExpect(jsonPath("$.items[1].gender", is("Female")))
+                .andExpect(jsonPath("$.items[0].address").doesNotExist())
+                .andExpect(jsonPath("$.hasMore", is(false)));
+
+        // Verify
+        verify(patientService).getPatientSummaries(20, PatientSortField.LAST_NAME, Sort.Direction.ASC, null);
+    }
+
+    @Test
+    void testGetPatients_CollectionETag() throws Exception {
+        // Arrange
+        PatientPageResponse page = new PatientPageResponse(List.of(patientResponse), 1, false, null);
+        when(patientService.getPatients(20, PatientSortField.LAST_NAME, Sort.Direction.ASC, null)).thenReturn(page);
+        String eTag = mockMvc.perform(get("/api/patients"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Act & Assert: an unchanged page revalidates, a new patient version changes the tag
+        mockMvc.perform(get("/api/patients").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        patientResponse.setVersion(4L);
+        mockMvc.perform(get("/api/patients").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    void testGetPatientSummaries_InvalidDirection() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/summary").param("direction", "sideways"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_SORT")));
+
+        // Verify
+        verify(patientService, never()).getPatientSummaries(anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testSearchPatients() throws Exception {
+        // Arrange
+        PatientSummaryPageResponse page = new PatientSummaryPageResponse(List.of(
+                new PatientSummary(patientId, "MRN12345", "John", "Doe", new Date(), "Male", new Date())), 1, false, null);
+        when(patientService.searchPatients(any(PatientSearchCriteria.class), eq(10), eq(PatientSortField.LAST_NAME),
+                eq(Sort.Direction.ASC), isNull())).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/search")
+                .param("lastName", "Do")
+                .param("dateOfBirthFrom", "1990-01-01")
+                .param("dateOfBirthTo", "1990-12-31")
+                .param("city", "Anytown")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].lastName", is("Doe")));
+
+        // Verify the filters are passed on
+        ArgumentCaptor<PatientSearchCriteria> criteria = ArgumentCaptor.forClass(PatientSearchCriteria.class);
+        verify(patientService).searchPatients(criteria.capture(), eq(10), eq(PatientSortField.LAST_NAME),
+                eq(Sort.Direction.ASC), isNull());
+        assertEquals("Do", criteria.getValue().getLastName());
+        assertEquals("Anytown", criteria.getValue().getCity());
+        assertNotNull(criteria.getValue().getDateOfBirthFrom());
+        assertNotNull(criteria.getValue().getDateOfBirthTo());
+    }
+
+    @Test
+    void testSearchPatients_InvalidCriteria() throws Exception {
+        // Arrange
+        when(patientService.searchPatients(any(PatientSearchCriteria.class), anyInt(), any(), any(), any()))
+                .thenThrow(new InvalidRequestException("At least one search filter is required",
+                        ErrorCode.INVALID_SEARCH_CRITERIA));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/patients/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_SEARCH_CRITERIA")));
     }
 
     @Test
     void testUpdatePatient() throws Exception {
         // Arrange
-        when(patientService.updatePatient(any(PatientUpdateRequest.class))).thenReturn(patientResponse);
+        when(patientService.updatePatient(any(PatientUpdateRequest.class), isNull())).thenReturn(patientResponse);
 
         // Act & Assert
         mockMvc.perform(put("/api/patients/{id}", patientId)
@@ -206,10 +466,69 @@ public class PatientControllerTest {
                 .andExpect(jsonPath("$.id", is(patientId)))
                 .andExpect(jsonPath("$.medicalRecordNumber", is(patientResponse.getMedicalRecordNumber())))
                 .andExpect(jsonPath("$.firstName", is(patientResponse.getFirstName())))
-                .andExpect(jsonPath("$.lastName", is(patientResponse.getLastName())));
+                .andExpect(jsonPath("$.lastName", is(patientResponse.getLastName())))
+                .andExpect(jsonPath("$.version", is(3)))
+                .andExpect(header().string("ETag", "\"3\""));
 
         // Verify
-        verify(patientService).updatePatient(any(PatientUpdateRequest.class));
+        verify(patientService).updatePatient(any(PatientUpdateRequest.class), isNull());
+    }
+
+    @Test
+    void testUpdatePatient_IfMatchPassesVersion() throws Exception {
+        // Arrange
+        when(patientService.updatePatient(any(PatientUpdateRequest.class), eq(3L))).thenReturn(patientResponse);
+
+        // Act & Assert
+        mockMvc.perform(put("/api/patients/{id}", patientId)
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void testUpdatePatient_StaleIfMatch() throws Exception {
+        // Arrange
+        when(patientService.updatePatient(any(PatientUpdateRequest.class), eq(2L)))
+                .thenThrow(PatientVersionConflictException.versionMismatch(patientId, 2L));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/patients/{id}", patientId)
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode", is("VERSION_MISMATCH")));
+    }
+
+    @Test
+    void testUpdatePatient_WeakIfMatchNeverMatches() throws Exception {
+        // Act & Assert: If-Match uses the strong comparison
+        mockMvc.perform(put("/api/patients/{id}", patientId)
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode", is("VERSION_MISMATCH")));
+
+        // Verify
+        verifyNoInteractions(patientService);
+    }
+
+    @Test
+    void testUpdatePatient_ConcurrentModification() throws Exception {
+        // Arrange
+        when(patientService.updatePatient(any(PatientUpdateRequest.class), isNull()))
+                .thenThrow(PatientVersionConflictException.concurrentModification(patientId));
+
+        // Act & Assert
+        mockMvc.perform(put("/api/patients/{id}", patientId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorCode", is("CONCURRENT_MODIFICATION")));
     }
 
     @Test
@@ -224,13 +543,13 @@ public class PatientControllerTest {
                 .andExpect(status().isBadRequest());
 
         // Verify
-        verify(patientService, never()).updatePatient(any(PatientUpdateRequest.class));
+        verify(patientService, never()).updatePatient(any(PatientUpdateRequest.class), isNull());
     }
 
     @Test
     void testUpdatePatient_NotFound() throws Exception {
         // Arrange
-        when(patientService.updatePatient(any(PatientUpdateRequest.class)))
+        when(patientService.updatePatient(any(PatientUpdateRequest.class), isNull()))
                 .thenThrow(new PatientNotFoundException(patientId, "id"));
 
         // Act & Assert
@@ -241,7 +560,42 @@ public class PatientControllerTest {
                 .andExpect(jsonPath("$.errorCode", is("PATIENT_NOT_FOUND")));
 
         // Verify
-        verify(patientService).updatePatient(any(PatientUpdateRequest.class));
+        verify(patientService).updatePatient(any(PatientUpdateRequest.class), isNull());
+    }
+
+    @Test
+    void testPatchPatient() throws Exception {
+        // Arrange
+        when(patientService.patchPatient(eq(patientId), any(JsonNode.class), eq(3L))).thenReturn(patientResponse);
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/patients/{id}", patientId)
+                .header("If-Match", "\"3\"")
+                .contentType(PatientController.APPLICATION_MERGE_PATCH_JSON)
+                .content("{\"lastName\": \"Smith\", \"insuranceInfo\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.id", is(patientId)));
+
+        ArgumentCaptor<JsonNode> patch = ArgumentCaptor.forClass(JsonNode.class);
+        verify(patientService).patchPatient(eq(patientId), patch.capture(), eq(3L));
+        assertEquals("Smith", patch.getValue().get("lastName").asText());
+        assertTrue(patch.getValue().get("insuranceInfo").isNull());
+    }
+
+    @Test
+    void testPatchPatient_InvalidPatch() throws Exception {
+        // Arrange
+        when(patientService.patchPatient(eq(patientId), any(JsonNode.class), isNull()))
+                .thenThrow(new InvalidRequestException("Merge patch must not change the patient ID",
+                        ErrorCode.INVALID_PATCH));
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/patients/{id}", patientId)
+                .contentType(PatientController.APPLICATION_MERGE_PATCH_JSON)
+                .content("{\"id\": \"other-uuid\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode", is("INVALID_PATCH")));
     }
 
     @Test
@@ -359,6 +713,7 @@ public class PatientControllerTest {
 
         response.setCreatedAt(new Date());
         response.setUpdatedAt(new Date());
+        response.setVersion(3L);
 
         return response;
     }
@@ -124,6 +124,7 @@ public class PatientMapperTest {
         assertNotNull(result.getEmergencyContacts());
         assertEquals(1, result.getEmergencyContacts().size());
         assertEquals(createRequest.getEmergencyContacts().get(0).getName(), result.getEmergencyContacts().get(0).getName());
+        assertSame(result, result.getEmergencyContacts().get(0).getPatient());
 
         // Check insurance info mapping
         assertNotNull(result.getInsuranceInfo());
@@ -172,6 +173,118 @@ public class PatientMapperTest {
     }
 
 
+    @Test
+    void testToPatientUpdateRequest_RoundTripsPatient() {
+        // Act
+        PatientUpdateRequest request = patientMapper.toPatientUpdateRequest(patient);
+
+        // Assert
+        assertEquals(patient.getId(), request.getId());
+        assertEquals(patient.getMedicalRecordNumber(), request.getMedicalRecordNumber());
+        assertEquals(patient.getDateOfBirth(), request.getDateOfBirth());
+        assertEquals(patient.getAddress().getZipCode(), request.getAddress().getZipCode());
+        assertEquals(patient.getContactInfo().getPhoneNumber(), request.getContactInfo().getPhoneNumber());
+        assertEquals(1, request.getEmergencyContacts().size());
+        assertEquals(patient.getInsuranceInfo().getPolicyNumber(), request.getInsuranceInfo().getPolicyNumber());
+    }
+
+    @Test
+    void testUpdatePatientFromDTO_UpdatesChildrenInPlace() {
+        // Arrange
+        Patient patientToUpdate = createTestPatient();
+        Address address = patientToUpdate.getAddress();
+        ContactInfo contactInfo = patientToUpdate.getContactInfo();
+        InsuranceInfo insuranceInfo = patientToUpdate.getInsuranceInfo();
+        List<EmergencyContact> emergencyContacts = patientToUpdate.getEmergencyContacts();
+        PatientUpdateRequest request = patientMapper.toPatientUpdateRequest(patientToUpdate);
+        request.getContactInfo().setPhoneNumber("+1-555-000-0000");
+        request.getAddress().setCity("Othertown");
+
+        // Act
+        patientMapper.updatePatientFromDTO(request, patientToUpdate);
+
+        // Assert
+        assertSame(address, patientToUpdate.getAddress());
+        assertSame(contactInfo, patientToUpdate.getContactInfo());
+        assertSame(insuranceInfo, patientToUpdate.getInsuranceInfo());
+        assertSame(emergencyContacts, patientToUpdate.getEmergencyContacts());
+        assertEquals("Othertown", address.getCity());
+        assertEquals("+1-555-000-0000", contactInfo.getPhoneNumber());
+        assertEquals("john.doe@example.com", contactInfo.getEmail());
+    }
+
+    @Test
+    void testUpdatePatientFromDTO_ReconcilesEmergencyContacts() {
+        // Arrange
+        Patient patientToUpdate = createTestPatient();
+        EmergencyContact jane = patientToUpdate.getEmergencyContacts().get(0);
+        EmergencyContact jim = new EmergencyContact("Jim Doe", "Sibling", "+1-555-987-6544", "jim.doe@example.com",
+                new Address("456 Oak St", "Anytown", "CA", "12345", "USA"));
+        EmergencyContact joe = new EmergencyContact("Joe Doe", "Parent", "+1-555-987-6545", "joe.doe@example.com",
+                null);
+        patientToUpdate.getEmergencyContacts().add(jim);
+        patientToUpdate.getEmergencyContacts().add(joe);
+        Address jimAddress = jim.getAddress();
+        List<EmergencyContact> contacts = patientToUpdate.getEmergencyContacts();
+
+        // Jane is unchanged, Jim moved, Joe is dropped and Ann is new
+        PatientUpdateRequest request = patientMapper.toPatientUpdateRequest(patientToUpdate);
+        request.getEmergencyContacts().get(1).getAddress().setStreet("789 Pine St");
+        request.getEmergencyContacts().remove(2);
+        request.getEmergencyContacts().add(new EmergencyContactDTO("Ann Doe", "Child", "+1-555-987-6546",
+                "ann.doe@example.com", null));
+
+        // Act
+        patientMapper.updatePatientFromDTO(request, patientToUpdate);
+
+        // Assert: the changed contact and its address are updated in place, the dropped one reused
+        assertSame(contacts, patientToUpdate.getEmergencyContacts());
+        assertEquals(3, contacts.size());
+        assertSame(jane, contacts.get(0));
+        assertSame(jim, contacts.get(1));
+        assertSame(jimAddress, jim.getAddress());
+        assertEquals("789 Pine St", jimAddress.getStreet());
+        assertSame(joe, contacts.get(2));
+        assertEquals("Ann Doe", joe.getName());
+        assertEquals(request.getEmergencyContacts(), patientMapper.toPatientUpdateRequest(patientToUpdate)
+                .getEmergencyContacts());
+    }
+
+    @Test
+    void testUpdatePatientFromDTO_LinksAddedEmergencyContacts() {
+        // Arrange
+        Patient patientToUpdate = createTestPatient();
+        PatientUpdateRequest request = patientMapper.toPatientUpdateRequest(patientToUpdate);
+        request.getEmergencyContacts().add(new EmergencyContactDTO("Ann Doe", "Child", "+1-555-987-6546",
+                "ann.doe@example.com", null));
+
+        // Act
+        patientMapper.updatePatientFromDTO(request, patientToUpdate);
+
+        // Assert
+        assertEquals(2, patientToUpdate.getEmergencyContacts().size());
+        assertEquals("Ann Doe", patientToUpdate.getEmergencyContacts().get(1).getName());
+        assertSame(patientToUpdate, patientToUpdate.getEmergencyContacts().get(1).getPatient());
+    }
+
+    @Test
+    void testUpdatePatientFromDTO_RemovesDroppedChildren() {
+        // Arrange
+        Patient patientToUpdate = createTestPatient();
+        List<EmergencyContact> contacts = patientToUpdate.getEmergencyContacts();
+        PatientUpdateRequest request = patientMapper.toPatientUpdateRequest(patientToUpdate);
+        request.setEmergencyContacts(null);
+        request.setInsuranceInfo(null);
+
+        // Act
+        patientMapper.updatePatientFromDTO(request, patientToUpdate);
+
+        // Assert: the collection is emptied rather than replaced, so orphan removal applies
+        assertSame(contacts, patientToUpdate.getEmergencyContacts());
+        assertTrue(contacts.isEmpty());
+        assertNull(patientToUpdate.getInsuranceInfo());
+    }
+
     @Test
     void testNullInputs() {
         // Test null inputs for all mapper methods
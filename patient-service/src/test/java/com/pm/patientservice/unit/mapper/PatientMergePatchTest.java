@@ -0,0 +1,113 @@
+package com.pm.patientservice.unit.mapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.AddressDTO;
+import com.pm.patientservice.dto.ContactInfoDTO;
+import com.pm.patientservice.dto.EmergencyContactDTO;
+import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.mapper.PatientMergePatch;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatientMergePatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private PatientMergePatch patientMergePatch;
+    private PatientUpdateRequest current;
+
+    @BeforeEach
+    void setUp() {
+        patientMergePatch = new PatientMergePatch(objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.YEAR, -30);
+        Date dateOfBirth = calendar.getTime();
+
+        current = new PatientUpdateRequest("test-uuid", "MRN12345", "John", "Doe", dateOfBirth, "Male",
+                new AddressDTO("123 Main St", "Anytown", "CA", "12345", "USA"),
+                new ContactInfoDTO("+1-555-123-4567", "john.doe@example.com", "+1-555-987-6543"),
+                List.of(new EmergencyContactDTO("Jane Doe", "Spouse", "+1-555-987-6543", "jane.doe@example.com",
+                        null)),
+                null);
+    }
+
+    @Test
+    void testMerge_Rfc7396Semantics() throws Exception {
+        // Arrange
+        JsonNode target = objectMapper.readTree("{\"a\": \"b\", \"c\": {\"d\": \"e\", \"f\": \"g\"}, \"l\": [1, 2]}");
+        JsonNode patch = objectMapper.readTree("{\"a\": \"z\", \"c\": {\"f\": null}, \"l\": [3], \"n\": {\"m\": 1}}");
+
+        // Act
+        JsonNode merged = PatientMergePatch.merge(target, patch);
+
+        // Assert: members merge recursively, null removes, arrays are replaced and the target is untouched
+        assertEquals(objectMapper.readTree("{\"a\": \"z\", \"c\": {\"d\": \"e\"}, \"l\": [3], \"n\": {\"m\": 1}}"),
+                merged);
+        assertEquals("g", target.get("c").get("f").asText());
+    }
+
+    @Test
+    void testApply_ChangesOnlyPatchedFields() throws Exception {
+        // Act
+        PatientUpdateRequest patched = patientMergePatch.apply(current,
+                objectMapper.readTree("{\"lastName\": \"Smith\", \"contactInfo\": {\"alternativePhoneNumber\": null}}"));
+
+        // Assert
+        assertEquals("Smith", patched.getLastName());
+        assertNull(patched.getContactInfo().getAlternativePhoneNumber());
+        assertEquals(current.getContactInfo().getEmail(), patched.getContactInfo().getEmail());
+        assertEquals(current.getAddress(), patched.getAddress());
+        assertEquals(current.getEmergencyContacts(), patched.getEmergencyContacts());
+        assertEquals(current.getDateOfBirth(), patched.getDateOfBirth());
+        assertEquals("Doe", current.getLastName());
+    }
+
+    @Test
+    void testApply_EmptyPatchKeepsPatient() throws Exception {
+        // Act
+        PatientUpdateRequest patched = patientMergePatch.apply(current, objectMapper.readTree("{}"));
+
+        // Assert
+        assertEquals(current, patched);
+    }
+
+    @Test
+    void testApply_ReplacesEmergencyContacts() throws Exception {
+        // Act
+        PatientUpdateRequest patched = patientMergePatch.apply(current,
+                objectMapper.readTree("{\"emergencyContacts\": []}"));
+
+        // Assert
+        assertEquals(List.of(), patched.getEmergencyContacts());
+    }
+
+    @Test
+    void testApply_InvalidPatches() throws Exception {
+        // Act & Assert
+        assertInvalid("{\"middleName\": \"Q\"}", ErrorCode.INVALID_PATCH);
+        assertInvalid("{\"dateOfBirth\": \"yesterday\"}", ErrorCode.INVALID_PATCH);
+        assertInvalid("{\"id\": \"other-uuid\"}", ErrorCode.INVALID_PATCH);
+        assertInvalid("\"Smith\"", ErrorCode.INVALID_PATCH);
+        assertInvalid("{\"firstName\": null}", ErrorCode.VALIDATION_ERROR);
+        assertInvalid("{\"contactInfo\": {\"email\": \"not-an-email\"}}", ErrorCode.VALIDATION_ERROR);
+    }
+
+    private void assertInvalid(String patch, ErrorCode errorCode) throws Exception {
+        JsonNode patchNode = objectMapper.readTree(patch);
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> patientMergePatch.apply(current, patchNode));
+        assertEquals(errorCode, exception.getErrorCode(), patch);
+    }
+}
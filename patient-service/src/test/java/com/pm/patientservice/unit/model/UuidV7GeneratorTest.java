@@ -0,0 +1,62 @@
+package com.pm.patientservice.unit.model;
+
+import com.pm.patientservice.model.Patient;
+import com.pm.patientservice.model.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7GeneratorTest {
+
+    @Test
+    void testOf_EncodesTimestampVersionAndVariant() {
+        // Arrange
+        long epochMillis = 0x0190_A8E4_7C6FL;
+
+        // Act
+        UUID uuid = UuidV7Generator.of(epochMillis);
+
+        // Assert
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(epochMillis, uuid.getMostSignificantBits() >>> 16);
+        assertTrue(uuid.toString().startsWith("0190a8e4-7c6f-7"), uuid.toString());
+    }
+
+    @Test
+    void testOf_LaterTimestampsSortAfterEarlierOnes() {
+        // Act
+        String earlier = UuidV7Generator.of(1_700_000_000_000L).toString();
+        String later = UuidV7Generator.of(1_700_000_000_001L).toString();
+
+        // Assert: the canonical strings sort like the native uuid values
+        assertTrue(earlier.compareTo(later) < 0);
+        assertTrue(UUID.fromString(earlier).compareTo(UUID.fromString(later)) < 0);
+    }
+
+    @Test
+    void testGenerate_ReturnsDistinctValidIds() {
+        // Arrange
+        UuidV7Generator generator = new UuidV7Generator();
+
+        // Act
+        Object first = generator.generate(null, null);
+        Object second = generator.generate(null, null);
+
+        // Assert
+        assertTrue(Patient.isValidId((String) first), (String) first);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void testIsValidId() {
+        // Assert
+        assertTrue(Patient.isValidId("0190a8e4-7c6f-7b3e-9d2a-5f1c3e8b4a61"));
+        assertFalse(Patient.isValidId(null));
+        assertFalse(Patient.isValidId("test-uuid"));
+        assertFalse(Patient.isValidId("0190A8E4-7C6F-7B3E-9D2A-5F1C3E8B4A61"));
+        assertFalse(Patient.isValidId("0190a8e47c6f7b3e9d2a5f1c3e8b4a61"));
+    }
+}
@@ -0,0 +1,242 @@
+package com.pm.patientservice.unit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientUpdateRequest;
+import com.pm.patientservice.dto.PatientVersion;
+import com.pm.patientservice.exception.PatientNotFoundException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
+import com.pm.patientservice.service.CachingPatientService;
+import com.pm.patientservice.service.PatientCache;
+import com.pm.patientservice.service.PatientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingPatientServiceTest {
+
+    @Mock
+    private PatientService delegate;
+
+    private MeterRegistry meterRegistry;
+    private PatientCache patientCache;
+    private CachingPatientService cachingPatientService;
+
+    private PatientResponse patientResponse;
+    private String patientId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientCache = new PatientCache(meterRegistry, 100, Duration.ofMinutes(10), Duration.ofMinutes(1));
+        cachingPatientService = new CachingPatientService(delegate, patientCache);
+
+        patientId = "test-uuid";
+        patientResponse = createResponse("MRN12345", 0L);
+    }
+
+    @Test
+    void testGetPatientById_CacheHit() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+
+        // Act
+        PatientResponse first = cachingPatientService.getPatientById(patientId);
+        PatientResponse second = cachingPatientService.getPatientById(patientId);
+
+        // Assert
+        assertSame(patientResponse, first);
+        assertSame(patientResponse, second);
+        verify(delegate, times(1)).getPatientById(patientId);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PatientCache.PATIENTS_BY_ID)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void testGetPatientByMedicalRecordNumber_SharesEntryWithId() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        cachingPatientService.getPatientById(patientId);
+
+        // Act
+        PatientResponse result = cachingPatientService.getPatientByMedicalRecordNumber("MRN12345");
+
+        // Assert
+        assertSame(patientResponse, result);
+        verify(delegate, never()).getPatientByMedicalRecordNumber(any());
+    }
+
+    @Test
+    void testGetPatientVersion_FromCacheOrDelegate() {
+        // Arrange
+        PatientVersion uncached = new PatientVersion(patientId, 1L, new Date(1000));
+        when(delegate.getPatientVersion(patientId)).thenReturn(uncached);
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        patientResponse.setVersion(2L);
+
+        // Act
+        PatientVersion beforeRead = cachingPatientService.getPatientVersion(patientId);
+        cachingPatientService.getPatientById(patientId);
+        PatientVersion afterRead = cachingPatientService.getPatientVersion(patientId);
+
+        // Assert: a version lookup does not populate the cache, a cached patient answers it
+        assertSame(uncached, beforeRead);
+        assertEquals(new PatientVersion(patientId, 2L, new Date(1000)), afterRead);
+        verify(delegate, times(1)).getPatientVersion(patientId);
+    }
+
+    @Test
+    void testUpdatePatient_WritesThroughAndDropsOldMedicalRecordNumber() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        cachingPatientService.getPatientById(patientId);
+
+        PatientResponse updated = createResponse("MRN99999", 1L);
+        PatientUpdateRequest request = new PatientUpdateRequest();
+        request.setId(patientId);
+        when(delegate.updatePatient(request, null)).thenReturn(updated);
+        when(delegate.getPatientByMedicalRecordNumber("MRN12345"))
+                .thenThrow(new PatientNotFoundException("MRN12345", "medicalRecordNumber"));
+
+        // Act
+        cachingPatientService.updatePatient(request, null);
+
+        // Assert
+        assertSame(updated, cachingPatientService.getPatientById(patientId));
+        assertSame(updated, cachingPatientService.getPatientByMedicalRecordNumber("MRN99999"));
+        assertThrows(PatientNotFoundException.class,
+                () -> cachingPatientService.getPatientByMedicalRecordNumber("MRN12345"));
+        verify(delegate, times(1)).getPatientById(patientId);
+    }
+
+    @Test
+    void testPut_KeepsNewerResponse() {
+        // Arrange
+        PatientResponse newer = createResponse("MRN12345", 1L);
+        patientCache.put(newer);
+
+        // Act: a read that started before the update completes afterwards, within the same millisecond
+        patientCache.put(patientResponse);
+
+        // Assert
+        assertSame(newer, patientCache.getById(patientId));
+    }
+
+    @Test
+    void testPut_RefusesPatientEvictedWhileLoading() {
+        // Arrange: a read loads the patient, then the patient is deleted before the read caches it
+        when(delegate.getPatientById(patientId)).thenAnswer(invocation -> {
+            cachingPatientService.deletePatient(patientId);
+            return patientResponse;
+        });
+
+        // Act
+        cachingPatientService.getPatientById(patientId);
+
+        // Assert
+        assertNull(patientCache.getById(patientId));
+        assertNull(patientCache.getByMedicalRecordNumber("MRN12345"));
+        verify(delegate, times(1)).deletePatient(patientId);
+    }
+
+    @Test
+    void testPatchPatient_WritesThroughAndEvictsOnlyWhenOutcomeIsUnknown() {
+        // Arrange
+        JsonNode patch = JsonNodeFactory.instance.objectNode().put("lastName", "Smith");
+        PatientResponse patched = createResponse("MRN12345", 1L);
+        when(delegate.patchPatient(patientId, patch, null)).thenReturn(patched);
+        when(delegate.patchPatient(patientId, patch, 0L))
+                .thenThrow(PatientVersionConflictException.versionMismatch(patientId, 0L));
+        when(delegate.patchPatient(patientId, patch, 1L))
+                .thenThrow(new DataAccessResourceFailureException("connection lost during commit"));
+
+        // Act & Assert
+        cachingPatientService.patchPatient(patientId, patch, null);
+        assertSame(patched, patientCache.getById(patientId));
+
+        // A stale If-Match is rejected before anything is written
+        assertThrows(PatientVersionConflictException.class,
+                () -> cachingPatientService.patchPatient(patientId, patch, 0L));
+        assertSame(patched, patientCache.getById(patientId));
+
+        // The patch may have committed
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> cachingPatientService.patchPatient(patientId, patch, 1L));
+        assertNull(patientCache.getById(patientId));
+
+        // ... without keeping the patient out of the cache
+        patientCache.put(patched);
+        assertSame(patched, patientCache.getById(patientId));
+    }
+
+    @Test
+    void testDeletePatient_Evicts() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        cachingPatientService.getPatientById(patientId);
+
+        // Act
+        cachingPatientService.deletePatient(patientId);
+
+        // Assert
+        assertNull(patientCache.getById(patientId));
+        assertNull(patientCache.getByMedicalRecordNumber("MRN12345"));
+        verify(delegate).deletePatient(patientId);
+    }
+
+    @Test
+    void testDeletePatient_NotFoundLeavesCacheUntouched() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        cachingPatientService.getPatientById(patientId);
+        doThrow(new PatientNotFoundException(patientId, "id")).when(delegate).deletePatient(patientId);
+
+        // Act
+        assertThrows(PatientNotFoundException.class, () -> cachingPatientService.deletePatient(patientId));
+
+        // Assert
+        assertSame(patientResponse, patientCache.getById(patientId));
+    }
+
+    @Test
+    void testDeletePatient_FailureDoesNotTombstone() {
+        // Arrange
+        when(delegate.getPatientById(patientId)).thenReturn(patientResponse);
+        cachingPatientService.getPatientById(patientId);
+        doThrow(new DataAccessResourceFailureException("connection lost during commit"))
+                .when(delegate).deletePatient(patientId);
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, () -> cachingPatientService.deletePatient(patientId));
+        cachingPatientService.getPatientById(patientId);
+
+        // Assert: the patient may still exist, so it is evicted and loaded again
+        assertSame(patientResponse, patientCache.getById(patientId));
+        verify(delegate, times(2)).getPatientById(patientId);
+    }
+
+    private PatientResponse createResponse(String medicalRecordNumber, long version) {
+        PatientResponse response = new PatientResponse();
+        response.setId(patientId);
+        response.setMedicalRecordNumber(medicalRecordNumber);
+        response.setFirstName("John");
+        response.setLastName("Doe");
+        response.setVersion(version);
+        response.setUpdatedAt(new Date(1000));
+        return response;
+    }
+}
@@ -0,0 +1,173 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.dto.InsuranceExpiration;
+import com.pm.patientservice.dto.InsuranceExpirationPageResponse;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.model.InsuranceExpirationNotice;
+import com.pm.patientservice.repository.InsuranceExpirationNoticeKey;
+import com.pm.patientservice.repository.InsuranceExpirationNoticeRepository;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.InsuranceExpirationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InsuranceExpirationServiceTest {
+
+    private static final Date FROM = date(2025, 1, 1);
+    private static final Date TO = date(2025, 1, 31);
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private InsuranceExpirationNoticeRepository noticeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private InsuranceExpirationService insuranceExpirationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        insuranceExpirationService = new InsuranceExpirationService(patientRepository, noticeRepository,
+                transactionManager, meterRegistry, 2, 30);
+    }
+
+    @Test
+    void testGetExpirations_FollowsCursor() {
+        // Arrange
+        InsuranceExpiration first = expiration(10L, date(2025, 1, 5));
+        InsuranceExpiration second = expiration(11L, date(2025, 1, 5));
+        InsuranceExpiration third = expiration(7L, date(2025, 1, 20));
+        when(patientRepository.findInsuranceExpirationsAfter(TO, FROM, 0L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(first, second, third));
+        when(patientRepository.findInsuranceExpirationsAfter(TO, second.expirationDate(), 11L, PageRequest.of(0, 3)))
+                .thenReturn(List.of(third));
+
+        // Act
+        InsuranceExpirationPageResponse firstPage = insuranceExpirationService.getExpirations(FROM, TO, 2, null);
+        InsuranceExpirationPageResponse secondPage =
+                insuranceExpirationService.getExpirations(FROM, TO, 2, firstPage.getNextCursor());
+
+        // Assert
+        assertEquals(List.of(first, second), firstPage.getItems());
+        assertTrue(firstPage.isHasMore());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(List.of(third), secondPage.getItems());
+        assertFalse(secondPage.isHasMore());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testGetExpirations_InvalidWindow() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> insuranceExpirationService.getExpirations(TO, FROM, 20, null));
+        assertThrows(InvalidRequestException.class,
+                () -> insuranceExpirationService.getExpirations(FROM, TO, 20, "not-a-cursor"));
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testEnqueueExpirations_WritesChunksAndSkipsNotifiedPolicies() {
+        // Arrange: policy 10 was already notified for this expiration, policy 11 for an earlier one
+        InsuranceExpiration first = expiration(10L, date(2025, 1, 5));
+        InsuranceExpiration second = expiration(11L, date(2025, 1, 9));
+        InsuranceExpiration third = expiration(12L, date(2025, 1, 20));
+        when(patientRepository.findInsuranceExpirationsAfter(TO, FROM, 0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(first, second));
+        when(patientRepository.findInsuranceExpirationsAfter(TO, second.expirationDate(), 11L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(third));
+        when(noticeRepository.findNoticeKeys(List.of(10L, 11L)))
+                .thenReturn(List.of(noticeKey(10L, date(2025, 1, 5)), noticeKey(11L, date(2024, 1, 9))));
+        when(noticeRepository.findNoticeKeys(List.of(12L))).thenReturn(List.of());
+
+        // Act
+        long enqueued = insuranceExpirationService.enqueueExpirations(FROM, TO);
+
+        // Assert
+        assertEquals(2, enqueued);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InsuranceExpirationNotice>> captor = ArgumentCaptor.forClass(List.class);
+        verify(noticeRepository, times(2)).saveAll(captor.capture());
+        assertEquals(List.of(11L), captor.getAllValues().get(0).stream()
+                .map(InsuranceExpirationNotice::getInsuranceInfoId).toList());
+        assertEquals(List.of(12L), captor.getAllValues().get(1).stream()
+                .map(InsuranceExpirationNotice::getInsuranceInfoId).toList());
+        assertNull(captor.getAllValues().get(1).get(0).getProcessedAt());
+        assertEquals(2.0, meterRegistry.get("patient.insurance.expiration.notices").counter().count());
+        assertEquals(1, meterRegistry.get("patient.insurance.expiration.run.time").tag("outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void testEnqueueExpirations_EmptyWindow() {
+        // Arrange
+        when(patientRepository.findInsuranceExpirationsAfter(eq(TO), eq(FROM), eq(0L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        long enqueued = insuranceExpirationService.enqueueExpirations(FROM, TO);
+
+        // Assert
+        assertEquals(0, enqueued);
+        verifyNoInteractions(noticeRepository);
+    }
+
+    @Test
+    void testEnqueueExpirations_FailureIsTimed() {
+        // Arrange
+        when(patientRepository.findInsuranceExpirationsAfter(eq(TO), eq(FROM), eq(0L), any()))
+                .thenThrow(new RuntimeException("Database error"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> insuranceExpirationService.enqueueExpirations(FROM, TO));
+        assertEquals(1, meterRegistry.get("patient.insurance.expiration.run.time").tag("outcome", "failure")
+                .timer().count());
+    }
+
+    private static InsuranceExpiration expiration(Long insuranceInfoId, Date expirationDate) {
+        return new InsuranceExpiration("patient-" + insuranceInfoId, "MRN-" + insuranceInfoId, "First", "Last",
+                insuranceInfoId, "Blue Cross", "POL-" + insuranceInfoId, "PPO", expirationDate);
+    }
+
+    private static InsuranceExpirationNoticeKey noticeKey(Long insuranceInfoId, Date expirationDate) {
+        return new InsuranceExpirationNoticeKey() {
+            @Override
+            public Long getInsuranceInfoId() {
+                return insuranceInfoId;
+            }
+
+            @Override
+            public Date getExpirationDate() {
+                return expirationDate;
+            }
+        };
+    }
+
+    private static Date date(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month - 1, day);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,195 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.dto.PatientStatsResponse;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.repository.PatientAttributeCount;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientAggregates;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Year;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientAggregatesTest {
+
+    private static final int CURRENT_YEAR = Year.now().getValue();
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private PatientAggregates patientAggregates;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientAggregates = new PatientAggregates(patientRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void testReconcile_InitializesCountersFromDatabase() {
+        // Arrange
+        stubDatabaseCounts(4,
+                List.of(row("Female", 3), row("Male", 1)),
+                List.of(row("MA", 3), row(null, 1)),
+                List.of(row("Blue Cross", 2), row(" ", 1), row(null, 1)),
+                List.of(row(CURRENT_YEAR - 10, 1), row(CURRENT_YEAR - 40, 2), row(CURRENT_YEAR - 70, 1)));
+
+        // Act
+        patientAggregates.reconcile();
+        PatientStatsResponse stats = patientAggregates.getStats();
+
+        // Assert
+        assertEquals(4, stats.getTotal());
+        assertEquals(Map.of("Female", 3L, "Male", 1L), stats.getByGender());
+        assertEquals(Map.of("MA", 3L, "unknown", 1L), stats.getByState());
+        assertEquals(Map.of("Blue Cross", 2L, "unknown", 2L), stats.getByInsuranceProvider());
+        assertEquals(Map.of("0-17", 1L, "18-34", 0L, "35-49", 2L, "50-64", 0L, "65+", 1L), stats.getByAgeBand());
+        assertNotNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void testOnPatientChanged_MovesCounts() {
+        // Arrange
+        PatientSnapshot first = snapshot("1", "Female", "MA", "Blue Cross", CURRENT_YEAR - 40);
+        PatientSnapshot second = snapshot("2", "Male", "NH", null, CURRENT_YEAR - 20);
+        PatientSnapshot moved = snapshot("1", "Female", "NH", "Aetna", CURRENT_YEAR - 40);
+
+        // Act
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(first));
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(second));
+        patientAggregates.onPatientChanged(PatientChangedEvent.updated(first, moved));
+        patientAggregates.onPatientChanged(PatientChangedEvent.deleted(second));
+        PatientStatsResponse stats = patientAggregates.getStats();
+
+        // Assert
+        assertEquals(1, stats.getTotal());
+        assertEquals(Map.of("Female", 1L), stats.getByGender());
+        assertEquals(Map.of("NH", 1L), stats.getByState());
+        assertEquals(Map.of("Aetna", 1L), stats.getByInsuranceProvider());
+        assertEquals(1L, stats.getByAgeBand().get("35-49"));
+        assertEquals(0L, stats.getByAgeBand().get("18-34"));
+        assertNull(stats.getReconciledAt());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testReconcile_CorrectsDrift() {
+        // Arrange: the counters saw two patients but the database holds one patient in another state
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(
+                snapshot("1", "Female", "MA", "Blue Cross", CURRENT_YEAR - 40)));
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(
+                snapshot("2", "Female", "MA", "Blue Cross", CURRENT_YEAR - 40)));
+        stubDatabaseCounts(1,
+                List.of(row("Female", 1)),
+                List.of(row("NH", 1)),
+                List.of(row("Blue Cross", 1)),
+                List.of(row(CURRENT_YEAR - 40, 1)));
+
+        // Act
+        patientAggregates.reconcile();
+        PatientStatsResponse stats = patientAggregates.getStats();
+
+        // Assert: total 1, gender 1, state 2 + 1, provider 1 and birth year 1
+        assertEquals(1, stats.getTotal());
+        assertEquals(Map.of("NH", 1L), stats.getByState());
+        assertEquals(1L, stats.getByAgeBand().get("35-49"));
+        assertEquals(7.0, meterRegistry.get("patient.stats.drift").gauge().value());
+        assertEquals(1, meterRegistry.get("patient.stats.reconcile.time").timer().count());
+    }
+
+    @Test
+    void testReconcile_FailureKeepsCounters() {
+        // Arrange
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(
+                snapshot("1", "Female", "MA", "Blue Cross", CURRENT_YEAR - 40)));
+        when(patientRepository.count()).thenThrow(new RuntimeException("Database unavailable"));
+
+        // Act
+        patientAggregates.reconcile();
+
+        // Assert
+        assertEquals(1, patientAggregates.getStats().getTotal());
+        assertNull(patientAggregates.getStats().getReconciledAt());
+    }
+
+    @Test
+    void testGauges_ReportCounters() {
+        // Arrange
+        patientAggregates.onPatientChanged(PatientChangedEvent.created(
+                snapshot("1", "Female", "MA", null, CURRENT_YEAR - 70)));
+
+        // Act & Assert
+        assertEquals(1.0, population("total", "all"));
+        assertEquals(1.0, population("gender", "Female"));
+        assertEquals(1.0, population("state", "MA"));
+        assertEquals(1.0, population("insuranceProvider", "unknown"));
+        assertEquals(1.0, population("ageBand", "65+"));
+        assertEquals(0.0, population("ageBand", "0-17"));
+
+        // Act & Assert: gauges follow the counters after removal
+        patientAggregates.onPatientChanged(PatientChangedEvent.deleted(
+                snapshot("1", "Female", "MA", null, CURRENT_YEAR - 70)));
+        assertEquals(0.0, population("total", "all"));
+        assertEquals(0.0, population("state", "MA"));
+    }
+
+    /**
+     * Helper method to stub the GROUP BY queries used by reconciliation
+     */
+    private void stubDatabaseCounts(long total, List<PatientAttributeCount> byGender,
+                                    List<PatientAttributeCount> byState, List<PatientAttributeCount> byProvider,
+                                    List<PatientAttributeCount> byBirthYear) {
+        when(patientRepository.count()).thenReturn(total);
+        when(patientRepository.countByGender()).thenReturn(byGender);
+        when(patientRepository.countByState()).thenReturn(byState);
+        when(patientRepository.countByInsuranceProvider()).thenReturn(byProvider);
+        when(patientRepository.countByBirthYear()).thenReturn(byBirthYear);
+    }
+
+    private double population(String dimension, String value) {
+        return meterRegistry.get("patient.population").tag("dimension", dimension).tag("value", value)
+                .gauge().value();
+    }
+
+    private static PatientAttributeCount row(Object value, long count) {
+        return new PatientAttributeCount() {
+            @Override
+            public Object getValue() {
+                return value;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private static PatientSnapshot snapshot(String id, String gender, String state, String provider, int birthYear) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(birthYear, Calendar.JUNE, 15);
+        Date dateOfBirth = calendar.getTime();
+        return new PatientSnapshot(id, "MRN-" + id, "First", "Last", dateOfBirth, gender, "02139", state, "USA",
+                provider, "PPO", null, new Date(0), new Date(1000));
+    }
+}
@@ -0,0 +1,246 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.dto.PatientCohortCriteria;
+import com.pm.patientservice.dto.PatientCohortPageResponse;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientCohortIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientCohortIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private PatientCohortIndex patientCohortIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientCohortIndex = new PatientCohortIndex(patientRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void testCount_IntersectsAttributes() {
+        // Arrange
+        loadDefaultPatients();
+
+        // Act
+        long females = patientCohortIndex.count(criteria(c -> c.setGender(List.of("female"))));
+        long femalesInMa = patientCohortIndex.count(criteria(c -> {
+            c.setGender(List.of("Female"));
+            c.setState(List.of("MA"));
+        }));
+        long femalesInMaWithBlueCross = patientCohortIndex.count(criteria(c -> {
+            c.setGender(List.of("Female"));
+            c.setState(List.of("ma"));
+            c.setInsuranceProvider(List.of("Blue Cross"));
+        }));
+
+        // Assert
+        assertEquals(3, females);
+        assertEquals(2, femalesInMa);
+        assertEquals(1, femalesInMaWithBlueCross);
+    }
+
+    @Test
+    void testCount_UnitesValuesOfOneAttribute() {
+        // Arrange
+        loadDefaultPatients();
+
+        // Act
+        long count = patientCohortIndex.count(criteria(c -> c.setState(List.of("MA", "NH"))));
+        long unknownValue = patientCohortIndex.count(criteria(c -> c.setState(List.of("ZZ"))));
+
+        // Assert
+        assertEquals(4, count);
+        assertEquals(0, unknownValue);
+    }
+
+    @Test
+    void testCount_WithoutFiltersCountsAllPatients() {
+        // Arrange
+        loadDefaultPatients();
+
+        // Act & Assert
+        assertEquals(5, patientCohortIndex.count(new PatientCohortCriteria()));
+        assertEquals(5.0, meterRegistry.get("patient.cohort.index.patients").gauge().value());
+    }
+
+    @Test
+    void testCount_InsuranceExpirationRange() {
+        // Arrange
+        loadDefaultPatients();
+
+        // Act: a range covering a partial month, a full month and another partial month
+        long acrossMonths = patientCohortIndex.count(criteria(c -> {
+            c.setInsuranceExpiresFrom(date(2025, 1, 20));
+            c.setInsuranceExpiresTo(date(2025, 3, 10));
+        }));
+        long withinMonth = patientCohortIndex.count(criteria(c -> {
+            c.setInsuranceExpiresFrom(date(2025, 1, 1));
+            c.setInsuranceExpiresTo(date(2025, 1, 15));
+        }));
+        long openEnded = patientCohortIndex.count(criteria(c -> c.setInsuranceExpiresFrom(date(2025, 3, 1))));
+
+        // Assert: expirations are 2025-01-15, 2025-01-31, 2025-02-14, 2025-03-10 and 2025-03-11
+        assertEquals(3, acrossMonths);
+        assertEquals(1, withinMonth);
+        assertEquals(2, openEnded);
+    }
+
+    @Test
+    void testCount_DateOfBirthRange() {
+        // Arrange
+        loadDefaultPatients();
+
+        // Act
+        long count = patientCohortIndex.count(criteria(c -> {
+            c.setDateOfBirthFrom(date(1970, 1, 1));
+            c.setDateOfBirthTo(date(1985, 12, 31));
+        }));
+
+        // Assert
+        assertEquals(3, count);
+    }
+
+    @Test
+    void testCount_InvertedRange() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> patientCohortIndex.count(criteria(c -> {
+            c.setDateOfBirthFrom(date(1990, 1, 1));
+            c.setDateOfBirthTo(date(1980, 1, 1));
+        })));
+    }
+
+    @Test
+    void testPage_FollowsCursorToTheEnd() {
+        // Arrange
+        loadDefaultPatients();
+        PatientCohortCriteria females = criteria(c -> c.setGender(List.of("Female")));
+
+        // Act
+        PatientCohortPageResponse first = patientCohortIndex.page(females, 2, null);
+        PatientCohortPageResponse second = patientCohortIndex.page(females, 2, first.getNextCursor());
+
+        // Assert
+        assertEquals(List.of("1", "2"), ids(first.getItems()));
+        assertEquals(3, first.getCount());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of("4"), ids(second.getItems()));
+        assertFalse(second.isHasMore());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void testPage_MalformedCursor() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class,
+                () -> patientCohortIndex.page(new PatientCohortCriteria(), 10, "not-a-cursor"));
+    }
+
+    @Test
+    void testOnPatientChanged_MovesPatientBetweenBitmaps() {
+        // Arrange
+        loadDefaultPatients();
+        PatientSnapshot before = snapshot("1", "Female", "MA", "Blue Cross", "PPO", date(1980, 5, 1), date(2025, 1, 15));
+        PatientSnapshot after = new PatientSnapshot("1", "MRN-1", "First", "Last", date(1980, 5, 1), "Female",
+                "03101", "NH", "USA", "Aetna", "HMO", date(2026, 6, 30), new Date(0), new Date(5000));
+
+        // Act
+        patientCohortIndex.onPatientChanged(PatientChangedEvent.updated(before, after));
+
+        // Assert
+        assertEquals(2, patientCohortIndex.count(criteria(c -> c.setInsuranceProvider(List.of("Blue Cross")))));
+        assertEquals(2, patientCohortIndex.count(criteria(c -> c.setState(List.of("NH")))));
+        assertEquals(0, patientCohortIndex.count(criteria(c -> {
+            c.setState(List.of("MA"));
+            c.setCoverageType(List.of("PPO"));
+        })));
+        assertEquals(1, patientCohortIndex.count(criteria(c -> c.setInsuranceExpiresFrom(date(2026, 1, 1)))));
+        assertEquals(5, patientCohortIndex.size());
+    }
+
+    @Test
+    void testOnPatientChanged_CreateAndDelete() {
+        // Arrange
+        loadDefaultPatients();
+        PatientSnapshot created = snapshot("6", "Female", "MA", "Cigna", "EPO", date(2001, 2, 3), null);
+
+        // Act & Assert: create
+        patientCohortIndex.onPatientChanged(PatientChangedEvent.created(created));
+        assertEquals(4, patientCohortIndex.count(criteria(c -> c.setState(List.of("MA")))));
+        assertEquals(6, patientCohortIndex.size());
+
+        // Act & Assert: delete
+        patientCohortIndex.onPatientChanged(PatientChangedEvent.deleted(created));
+        patientCohortIndex.onPatientChanged(PatientChangedEvent.deleted(
+                snapshot("2", "Female", "MA", "Aetna", "HMO", date(1975, 8, 20), date(2025, 1, 31))));
+        assertEquals(2, patientCohortIndex.count(criteria(c -> c.setState(List.of("MA")))));
+        assertEquals(0, patientCohortIndex.count(criteria(c -> c.setCoverageType(List.of("EPO")))));
+        assertEquals(4, patientCohortIndex.size());
+        assertEquals(4, patientCohortIndex.count(new PatientCohortCriteria()));
+    }
+
+    /**
+     * Helper method to load five patients into the index
+     */
+    private void loadDefaultPatients() {
+        List<PatientSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(snapshot("1", "Female", "MA", "Blue Cross", "PPO", date(1980, 5, 1), date(2025, 1, 15)));
+        snapshots.add(snapshot("2", "Female", "MA", "Aetna", "HMO", date(1975, 8, 20), date(2025, 1, 31)));
+        snapshots.add(snapshot("3", "Male", "MA", "Blue Cross", "HMO", date(1990, 12, 31), date(2025, 2, 14)));
+        snapshots.add(snapshot("4", "Female", "NH", "Blue Cross", "PPO", date(1985, 12, 31), date(2025, 3, 10)));
+        snapshots.add(snapshot("5", "Male", "NY", null, null, date(1960, 1, 1), date(2025, 3, 11)));
+        when(patientRepository.streamSnapshots()).thenReturn(snapshots.stream());
+        patientCohortIndex.load();
+    }
+
+    private static PatientSnapshot snapshot(String id, String gender, String state, String provider,
+                                            String coverageType, Date dateOfBirth, Date expirationDate) {
+        return new PatientSnapshot(id, "MRN-" + id, "First", "Last", dateOfBirth, gender, "02139", state, "USA",
+                provider, coverageType, expirationDate, new Date(0), new Date(1000));
+    }
+
+    private static PatientCohortCriteria criteria(Consumer<PatientCohortCriteria> filters) {
+        PatientCohortCriteria criteria = new PatientCohortCriteria();
+        filters.accept(criteria);
+        return criteria;
+    }
+
+    private static Date date(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month - 1, day);
+        return calendar.getTime();
+    }
+
+    private static List<String> ids(List<PatientSummary> summaries) {
+        return summaries.stream().map(PatientSummary::id).toList();
+    }
+}
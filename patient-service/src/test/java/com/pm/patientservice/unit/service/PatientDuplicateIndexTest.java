@@ -0,0 +1,222 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.dto.DuplicateCandidate;
+import com.pm.patientservice.dto.DuplicatePair;
+import com.pm.patientservice.dto.DuplicateScanResponse;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientDuplicateIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientDuplicateIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private PatientDuplicateIndex patientDuplicateIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientDuplicateIndex = new PatientDuplicateIndex(patientRepository, transactionManager, meterRegistry, 0.88, 500);
+    }
+
+    @Test
+    void testFindCandidates_MatchesPhoneticVariant() {
+        // Arrange
+        when(patientRepository.streamSnapshots()).thenReturn(Stream.of(
+                snapshot("1", "John", "Smith", date(1980, 1, 15), "02139"),
+                snapshot("2", "Mary", "Johnson", date(1980, 1, 15), "02139")));
+        patientDuplicateIndex.load();
+
+        // Act
+        List<DuplicateCandidate> candidates = patientDuplicateIndex.findCandidates(
+                snapshot(null, "Jon", "Smyth", date(1980, 1, 15), "02139"));
+
+        // Assert
+        assertEquals(1, candidates.size());
+        assertEquals("1", candidates.get(0).patient().id());
+        assertTrue(candidates.get(0).score() >= 0.88 && candidates.get(0).score() < 1.0);
+    }
+
+    @Test
+    void testFindCandidates_ToleratesSwappedDayAndMonthAndNames() {
+        // Arrange
+        when(patientRepository.streamSnapshots()).thenReturn(Stream.of(
+                snapshot("1", "Maria", "Garcia", date(1975, 3, 4), "90210")));
+        patientDuplicateIndex.load();
+
+        // Act: names swapped, day and month swapped
+        List<DuplicateCandidate> candidates = patientDuplicateIndex.findCandidates(
+                snapshot(null, "Garcia", "Maria", date(1975, 4, 3), "90210"));
+
+        // Assert
+        assertEquals(1, candidates.size());
+        assertEquals("1", candidates.get(0).patient().id());
+    }
+
+    @Test
+    void testFindCandidates_IgnoresDifferentPerson() {
+        // Arrange
+        when(patientRepository.streamSnapshots()).thenReturn(Stream.of(
+                snapshot("1", "John", "Smith", date(1980, 1, 15), "02139")));
+        patientDuplicateIndex.load();
+
+        // Act
+        List<DuplicateCandidate> otherBirthday = patientDuplicateIndex.findCandidates(
+                snapshot(null, "John", "Smith", date(1992, 7, 30), "60601"));
+        List<DuplicateCandidate> otherName = patientDuplicateIndex.findCandidates(
+                snapshot(null, "Alice", "Brown", date(1980, 1, 15), "02139"));
+
+        // Assert
+        assertTrue(otherBirthday.isEmpty());
+        assertTrue(otherName.isEmpty());
+    }
+
+    @Test
+    void testFindCandidates_OnlyScoresPatientsInSharedBlocks() {
+        // Arrange
+        List<PatientSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            snapshots.add(snapshot("other-" + i, "Patient", "Number" + i, date(1950 + i % 50, 6, 1), "1" + i));
+        }
+        snapshots.add(snapshot("1", "John", "Smith", date(1980, 1, 15), "02139"));
+        when(patientRepository.streamSnapshots()).thenReturn(snapshots.stream());
+        patientDuplicateIndex.load();
+
+        // Act
+        patientDuplicateIndex.findCandidates(snapshot(null, "John", "Smith", date(1980, 1, 15), "02139"));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("patient.duplicates.comparisons").counter().count());
+    }
+
+    @Test
+    void testOnPatientChanged_FlagsCreatedDuplicate() {
+        // Arrange
+        when(patientRepository.streamSnapshots()).thenReturn(Stream.of(
+                snapshot("1", "Catherine", "O'Brien", date(1965, 11, 2), "10001")));
+        patientDuplicateIndex.load();
+
+        // Act
+        patientDuplicateIndex.onPatientChanged(PatientChangedEvent.created(
+                snapshot("2", "Katherine", "OBrien", date(1965, 11, 2), "10001")));
+        patientDuplicateIndex.onPatientChanged(PatientChangedEvent.created(
+                snapshot("3", "Peter", "Jones", date(1990, 5, 5), "10001")));
+
+        // Assert
+        assertEquals(3, patientDuplicateIndex.size());
+        assertEquals(1.0, meterRegistry.get("patient.duplicates.flagged").counter().count());
+    }
+
+    @Test
+    void testOnPatientChanged_UpdateAndDeleteMoveBlocks() {
+        // Arrange
+        PatientSnapshot original = snapshot("1", "John", "Smith", date(1980, 1, 15), "02139");
+        PatientSnapshot moved = snapshot("1", "John", "Smith", date(1980, 1, 15), "94105", new Date(2000));
+        patientDuplicateIndex.onPatientChanged(PatientChangedEvent.created(original));
+        PatientSnapshot probe = snapshot(null, "Jon", "Smith", date(1980, 1, 15), "94105");
+
+        // Act & Assert: update
+        patientDuplicateIndex.onPatientChanged(PatientChangedEvent.updated(original, moved));
+        assertEquals(1, patientDuplicateIndex.findCandidates(probe).size());
+
+        // Act & Assert: delete
+        patientDuplicateIndex.onPatientChanged(PatientChangedEvent.deleted(moved));
+        assertTrue(patientDuplicateIndex.findCandidates(probe).isEmpty());
+        assertEquals(0.0, meterRegistry.get("patient.duplicate.index.blocks").gauge().value());
+    }
+
+    @Test
+    void testScan_ReportsEachPairOnce() {
+        // Arrange: three records of the same person and an unrelated patient
+        when(patientRepository.streamSnapshots()).thenReturn(Stream.of(
+                snapshot("1", "John", "Smith", date(1980, 1, 15), "02139"),
+                snapshot("2", "Jon", "Smith", date(1980, 1, 15), "02139"),
+                snapshot("3", "John", "Smyth", date(1980, 1, 15), "02139"),
+                snapshot("4", "Mary", "Johnson", date(1980, 1, 15), "02139")));
+        patientDuplicateIndex.load();
+
+        // Act
+        DuplicateScanResponse response = patientDuplicateIndex.scan(null, 100);
+
+        // Assert
+        Set<String> pairs = new HashSet<>();
+        for (DuplicatePair pair : response.getPairs()) {
+            String first = pair.first().id();
+            String second = pair.second().id();
+            assertTrue(pairs.add(first.compareTo(second) < 0 ? first + "|" + second : second + "|" + first));
+        }
+        assertEquals(Set.of("1|2", "1|3", "2|3"), pairs);
+        assertEquals(4, response.getPatients());
+        // Each of the six possible pairs is scored exactly once although they share several blocks
+        assertEquals(6, response.getComparisons());
+        assertTrue(response.getPairs().get(0).score() >= response.getPairs().get(2).score());
+    }
+
+    @Test
+    void testScan_SkipsOversizedBlocks() {
+        // Arrange: 100 patients born on the same day in the same zip code, with a block limit of 50
+        patientDuplicateIndex = new PatientDuplicateIndex(patientRepository, transactionManager, meterRegistry, 0.88, 50);
+        List<PatientSnapshot> snapshots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String name = "" + (char) ('A' + i / 10) + (char) ('K' + i % 10);
+            snapshots.add(snapshot("p" + i, "Pat" + name, "Lee" + name, date(2000, 1, 1), "12345"));
+        }
+        when(patientRepository.streamSnapshots()).thenReturn(snapshots.stream());
+        patientDuplicateIndex.load();
+
+        // Act
+        DuplicateScanResponse response = patientDuplicateIndex.scan(0.0, 10);
+
+        // Assert: the shared date of birth and zip code block is not compared pairwise
+        assertTrue(response.getSkippedBlocks() >= 1);
+        assertTrue(response.getComparisons() < 100 * 99 / 2);
+        assertTrue(response.getPairs().size() <= 10);
+    }
+
+    /**
+     * Helper method to create a patient snapshot
+     */
+    private static PatientSnapshot snapshot(String id, String firstName, String lastName, Date dateOfBirth,
+                                            String zipCode) {
+        return snapshot(id, firstName, lastName, dateOfBirth, zipCode, new Date(1000));
+    }
+
+    private static PatientSnapshot snapshot(String id, String firstName, String lastName, Date dateOfBirth,
+                                            String zipCode, Date updatedAt) {
+        return new PatientSnapshot(id, "MRN-" + id, firstName, lastName, dateOfBirth, "Unknown", zipCode,
+                "MA", "USA", null, null, null, new Date(0), updatedAt);
+    }
+
+    private static Date date(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month - 1, day);
+        return calendar.getTime();
+    }
+}
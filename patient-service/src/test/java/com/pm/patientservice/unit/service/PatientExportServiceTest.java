@@ -0,0 +1,104 @@
+package com.pm.patientservice.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.model.Patient;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientExportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientExportServiceTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientMapper patientMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private PatientExportService patientExportService;
+
+    @BeforeEach
+    void setUp() {
+        patientExportService = new PatientExportService(patientRepository, patientMapper,
+                new ObjectMapper(), entityManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        // Arrange
+        Patient first = new Patient();
+        first.setId("test-uuid-1");
+        Patient second = new Patient();
+        second.setId("test-uuid-2");
+
+        when(patientRepository.streamAll()).thenReturn(Stream.of(first, second));
+        when(patientMapper.toPatientResponse(any(Patient.class))).thenAnswer(invocation -> {
+            PatientResponse response = new PatientResponse();
+            response.setId(((Patient) invocation.getArgument(0)).getId());
+            return response;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = patientExportService.exportNdjson(out);
+
+        // Assert
+        assertEquals(2, exported);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":\"test-uuid-1\""));
+        assertTrue(lines[1].contains("\"id\":\"test-uuid-2\""));
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    void testExportNdjson_ClearsPersistenceContextPerChunk() {
+        // Arrange
+        int total = PatientRepository.STREAM_FETCH_SIZE * 2 + 1;
+        when(patientRepository.streamAll()).thenReturn(IntStream.range(0, total).mapToObj(i -> new Patient()));
+        when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(new PatientResponse());
+
+        // Act
+        long exported = patientExportService.exportNdjson(new ByteArrayOutputStream());
+
+        // Assert: two full chunks and the last patient, each with one contact query
+        assertEquals(total, exported);
+        verify(patientRepository, times(3)).fetchEmergencyContacts(anyCollection());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testExportNdjson_Empty() {
+        // Arrange
+        when(patientRepository.streamAll()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = patientExportService.exportNdjson(out);
+
+        // Assert
+        assertEquals(0, exported);
+        assertEquals(0, out.size());
+        verify(patientMapper, never()).toPatientResponse(any(Patient.class));
+    }
+}
@@ -0,0 +1,212 @@
+package com.pm.patientservice.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
+import com.pm.patientservice.service.PatientImportReader;
+import com.pm.patientservice.service.PatientImportReader.Format;
+import com.pm.patientservice.service.PatientImportReader.Source;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatientImportReaderTest {
+
+    private static final String CSV_HEADER = "medicalRecordNumber,firstName,lastName,dateOfBirth,gender," +
+            "address.street,address.city,address.state,address.zipCode,address.country," +
+            "contactInfo.phoneNumber,contactInfo.email," +
+            "emergencyContacts[0].name,emergencyContacts[0].relationship," +
+            "emergencyContacts[1].name,emergencyContacts[1].relationship\n";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testFormatOf_MatchesContentTypes() {
+        // Assert
+        assertEquals(Format.NDJSON, Format.of(MediaType.parseMediaType("application/x-ndjson")));
+        assertEquals(Format.CSV, Format.of(MediaType.parseMediaType("text/csv;charset=UTF-8")));
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> Format.of(MediaType.APPLICATION_JSON));
+        assertEquals(ErrorCode.INVALID_IMPORT, exception.getErrorCode());
+    }
+
+    @Test
+    void testNdjson_SkipsBlankLinesAndKeepsLineNumbers() throws IOException {
+        // Arrange
+        String file = "\uFEFF{\"medicalRecordNumber\": \"MRN00001\", \"firstName\": \"John\"}\n" +
+                "\n" +
+                "{\"medicalRecordNumber\": \"MRN00002\", \"firstName\": \"Jane\"}\n";
+
+        // Act
+        List<Source> records;
+        PatientCreateRequest first;
+        try (PatientImportReader reader = open(Format.NDJSON, file)) {
+            records = readAll(reader);
+            first = reader.parse(records.get(0));
+        }
+
+        // Assert
+        assertEquals(2, records.size());
+        assertEquals(1, records.get(0).line());
+        assertEquals(3, records.get(1).line());
+        assertEquals("MRN00001", first.getMedicalRecordNumber());
+        assertEquals("John", first.getFirstName());
+    }
+
+    @Test
+    void testNdjson_ParseErrorNamesTheProperty() throws IOException {
+        // Arrange
+        String file = "{\"medicalRecordNumber\": \"MRN00001\", \"address\": {\"town\": \"Anytown\"}}\n";
+
+        // Act
+        IOException exception;
+        try (PatientImportReader reader = open(Format.NDJSON, file)) {
+            Source source = reader.nextChunk(10).get(0);
+            exception = assertThrows(IOException.class, () -> reader.parse(source));
+        }
+
+        // Assert: unknown properties are rejected rather than dropped
+        assertTrue(PatientImportReader.describe(exception).startsWith("address.town: "),
+                PatientImportReader.describe(exception));
+    }
+
+    @Test
+    void testCsv_MapsColumnPathsToTheRequest() throws IOException {
+        // Arrange
+        String file = CSV_HEADER +
+                "MRN00001,John,Doe,1980-01-15,Male,\"123 Main St, Apt 4\",Anytown,CA,12345,USA," +
+                "+1-555-123-4567,john.doe@example.com,Jane Doe,Spouse,,\n";
+
+        // Act
+        PatientCreateRequest request;
+        try (PatientImportReader reader = open(Format.CSV, file)) {
+            request = reader.parse(reader.nextChunk(10).get(0));
+        }
+
+        // Assert: the unused second contact is dropped and the absent insurance stays null
+        assertEquals("MRN00001", request.getMedicalRecordNumber());
+        assertEquals("123 Main St, Apt 4", request.getAddress().getStreet());
+        assertEquals("john.doe@example.com", request.getContactInfo().getEmail());
+        assertEquals(1, request.getEmergencyContacts().size());
+        assertEquals("Jane Doe", request.getEmergencyContacts().get(0).getName());
+        assertNull(request.getInsuranceInfo());
+        assertNotNull(request.getDateOfBirth());
+    }
+
+    @Test
+    void testCsv_QuotedCellsMaySpanLines() throws IOException {
+        // Arrange
+        String file = "medicalRecordNumber,address.street\r\n" +
+                "MRN00001,\"123 \"\"Main\"\"\r\nSt\"\r\n" +
+                "MRN00002,\"\"\r\n";
+
+        // Act
+        List<Source> records;
+        PatientCreateRequest first;
+        PatientCreateRequest second;
+        try (PatientImportReader reader = open(Format.CSV, file)) {
+            records = readAll(reader);
+            first = reader.parse(records.get(0));
+            second = reader.parse(records.get(1));
+        }
+
+        // Assert: records report the line they start on; a quoted empty cell is an empty string
+        assertEquals(2, records.size());
+        assertEquals(2, records.get(0).line());
+        assertEquals(4, records.get(1).line());
+        assertEquals("123 \"Main\"\r\nSt", first.getAddress().getStreet());
+        assertEquals("", second.getAddress().getStreet());
+    }
+
+    @Test
+    void testCsv_UnknownColumnIsRejectedOnce() {
+        // Arrange
+        String file = "medicalRecordNumber,address.town\nMRN00001,Anytown\n";
+
+        // Act
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> open(Format.CSV, file));
+
+        // Assert
+        assertEquals(ErrorCode.INVALID_IMPORT, exception.getErrorCode());
+        assertTrue(exception.getMessage().contains("address.town"), exception.getMessage());
+    }
+
+    @Test
+    void testCsv_DuplicateColumnIsRejected() {
+        // Act
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                () -> open(Format.CSV, "firstName,firstName\nJohn,John\n"));
+
+        // Assert
+        assertEquals(ErrorCode.INVALID_IMPORT, exception.getErrorCode());
+    }
+
+    @Test
+    void testCsv_RowWithWrongCellCountIsARecordError() throws IOException {
+        // Arrange
+        String file = "medicalRecordNumber,firstName\nMRN00001\nMRN00002,Jane\n";
+
+        // Act
+        try (PatientImportReader reader = open(Format.CSV, file)) {
+            List<Source> records = readAll(reader);
+            IOException exception = assertThrows(IOException.class, () -> reader.parse(records.get(0)));
+
+            // Assert: the short row fails alone, the next one still parses
+            assertTrue(PatientImportReader.describe(exception).contains("1 cells"));
+            assertEquals("Jane", reader.parse(records.get(1)).getFirstName());
+        }
+    }
+
+    @Test
+    void testCsv_UnterminatedQuoteIsRejected() throws IOException {
+        // Arrange
+        String file = "medicalRecordNumber,firstName\nMRN00001,\"John\n";
+
+        // Act & Assert
+        try (PatientImportReader reader = open(Format.CSV, file)) {
+            InvalidRequestException exception = assertThrows(InvalidRequestException.class,
+                    () -> reader.nextChunk(10));
+            assertEquals(ErrorCode.INVALID_IMPORT, exception.getErrorCode());
+        }
+    }
+
+    @Test
+    void testNextChunk_SplitsRecordsIntoChunks() throws IOException {
+        // Arrange
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            file.append("{\"firstName\": \"Patient").append(i).append("\"}\n");
+        }
+
+        // Act & Assert
+        try (PatientImportReader reader = open(Format.NDJSON, file.toString())) {
+            assertEquals(2, reader.nextChunk(2).size());
+            assertEquals(2, reader.nextChunk(2).size());
+            assertEquals(1, reader.nextChunk(2).size());
+            assertTrue(reader.nextChunk(2).isEmpty());
+        }
+    }
+
+    private PatientImportReader open(Format format, String content) throws IOException {
+        return PatientImportReader.open(format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+
+    private static List<Source> readAll(PatientImportReader reader) throws IOException {
+        List<Source> records = new ArrayList<>();
+        List<Source> chunk;
+        while (!(chunk = reader.nextChunk(100)).isEmpty()) {
+            records.addAll(chunk);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,207 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientUniqueConstraint;
+import com.pm.patientservice.repository.PatientUniqueKeys;
+import com.pm.patientservice.service.PatientKeyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientKeyFilterTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Predicate<String> lookup;
+
+    private MeterRegistry meterRegistry;
+    private PatientKeyFilter patientKeyFilter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientKeyFilter = new PatientKeyFilter(patientRepository, transactionManager, meterRegistry, 1000, 0.01);
+    }
+
+    @Test
+    void testExists_BeforeBuildAlwaysAsksRepository() {
+        // Arrange
+        when(lookup.test("MRN00001")).thenReturn(false);
+
+        // Act
+        boolean exists = patientKeyFilter.exists(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER, "MRN00001", lookup);
+
+        // Assert
+        assertFalse(exists);
+        assertFalse(patientKeyFilter.isReady());
+        verify(lookup).test("MRN00001");
+    }
+
+    @Test
+    void testExists_AfterBuildSkipsRepositoryForUnknownValue() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.of(keys(1), keys(2)));
+        patientKeyFilter.rebuild();
+
+        // Act
+        boolean exists = patientKeyFilter.exists(PatientUniqueConstraint.EMAIL, "unknown@example.com", lookup);
+
+        // Assert
+        assertTrue(patientKeyFilter.isReady());
+        assertFalse(exists);
+        verify(lookup, never()).test(anyString());
+        assertEquals(1.0, meterRegistry.get("patient.key.filter.checks")
+                .tag("key", "email").tag("result", "absent").counter().count());
+    }
+
+    @Test
+    void testExists_AfterBuildAsksRepositoryForKnownValue() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.of(keys(1)));
+        patientKeyFilter.rebuild();
+        when(lookup.test("+1-555-100-0001")).thenReturn(true);
+
+        // Act
+        boolean exists = patientKeyFilter.exists(PatientUniqueConstraint.PHONE_NUMBER, "+1-555-100-0001", lookup);
+
+        // Assert
+        assertTrue(exists);
+        verify(lookup).test("+1-555-100-0001");
+    }
+
+    @Test
+    void testPut_RecordsValuesAddedAfterBuild() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.empty());
+        patientKeyFilter.rebuild();
+        when(lookup.test("MRN00003")).thenReturn(true);
+
+        // Act
+        patientKeyFilter.put("MRN00003", "patient3@example.com", "+1-555-100-0003");
+        boolean exists = patientKeyFilter.exists(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER, "MRN00003", lookup);
+
+        // Assert
+        assertTrue(exists);
+        verify(lookup).test("MRN00003");
+    }
+
+    @Test
+    void testExisting_OnlyQueriesPossiblyTakenValues() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.of(keys(1)));
+        patientKeyFilter.rebuild();
+        List<Set<String>> queried = new ArrayList<>();
+
+        // Act
+        Set<String> existing = patientKeyFilter.existing(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER,
+                Set.of("MRN00001", "MRN00002"), values -> {
+                    queried.add(new HashSet<>(values));
+                    return Set.of("MRN00001");
+                });
+
+        // Assert
+        assertEquals(Set.of("MRN00001"), existing);
+        assertEquals(1, queried.size());
+        assertTrue(queried.get(0).contains("MRN00001"));
+    }
+
+    @Test
+    void testExisting_SkipsQueryWhenAllValuesAreFree() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.empty());
+        patientKeyFilter.rebuild();
+
+        // Act
+        Set<String> existing = patientKeyFilter.existing(PatientUniqueConstraint.EMAIL,
+                Set.of("a@example.com", "b@example.com"), values -> fail("Repository must not be queried"));
+
+        // Assert
+        assertTrue(existing.isEmpty());
+    }
+
+    @Test
+    void testFalsePositiveRate_StaysNearConfiguredProbability() {
+        // Arrange: fill the filter to its expected capacity
+        List<PatientUniqueKeys> patients = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            patients.add(keys(i));
+        }
+        when(patientRepository.streamUniqueKeys()).thenReturn(patients.stream());
+        patientKeyFilter.rebuild();
+
+        // Act: check values that were never added
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            candidates.add(String.format("MRN-FREE-%05d", i));
+        }
+        Set<String> existing = patientKeyFilter.existing(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER,
+                candidates, values -> Set.of());
+
+        // Assert
+        double observed = meterRegistry.get("patient.key.filter.false.positive.rate")
+                .tag("key", "medicalRecordNumber").gauge().value();
+        assertTrue(existing.isEmpty());
+        assertTrue(observed < 0.03, "Observed false positive rate " + observed);
+        assertEquals(0.0, meterRegistry.get("patient.key.filter.false.positive.rate")
+                .tag("key", "email").gauge().value());
+    }
+
+    @Test
+    void testRebuild_FailureKeepsAnsweringConservatively() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenThrow(new RuntimeException("Database unavailable"));
+        when(lookup.test("MRN00001")).thenReturn(true);
+
+        // Act
+        patientKeyFilter.rebuild();
+        boolean exists = patientKeyFilter.exists(PatientUniqueConstraint.MEDICAL_RECORD_NUMBER, "MRN00001", lookup);
+
+        // Assert
+        assertFalse(patientKeyFilter.isReady());
+        assertTrue(exists);
+    }
+
+    /**
+     * Helper method to create the unique keys of a test patient
+     */
+    private static PatientUniqueKeys keys(int number) {
+        return new PatientUniqueKeys() {
+            @Override
+            public String getMedicalRecordNumber() {
+                return String.format("MRN%05d", number);
+            }
+
+            @Override
+            public String getEmail() {
+                return "patient" + number + "@example.com";
+            }
+
+            @Override
+            public String getPhoneNumber() {
+                return String.format("+1-555-100-%04d", number);
+            }
+        };
+    }
+}
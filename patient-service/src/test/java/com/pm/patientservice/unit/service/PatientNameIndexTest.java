@@ -0,0 +1,199 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.service.PatientNameIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientNameIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private PatientNameIndex patientNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        patientNameIndex = new PatientNameIndex(patientRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void testLoad_IndexesAllPatients() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.of(
+                summary("1", "John", "Doe"), summary("2", "Jane", "Doerr"), summary("3", "Mary", "Smith")));
+
+        // Act
+        patientNameIndex.load();
+
+        // Assert
+        assertEquals(3, patientNameIndex.size());
+        assertEquals(3.0, meterRegistry.get("patient.name.index.patients").gauge().value());
+        assertEquals(6.0, meterRegistry.get("patient.name.index.terms").gauge().value());
+    }
+
+    @Test
+    void testSuggest_MatchesFirstAndLastNamePrefixes() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.of(
+                summary("1", "John", "Doe"), summary("2", "Jane", "Doerr"), summary("3", "Mary", "Johnson")));
+        patientNameIndex.load();
+
+        // Act & Assert
+        assertEquals(List.of("1", "2"), ids(patientNameIndex.suggest("do", 10)));
+        assertEquals(List.of("1", "3"), ids(patientNameIndex.suggest("JOH", 10)));
+        assertTrue(patientNameIndex.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void testSuggest_ExactTokenComesFirst() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.of(
+                summary("1", "Jane", "Doerr"), summary("2", "John", "Doe")));
+        patientNameIndex.load();
+
+        // Act
+        List<PatientSummary> suggestions = patientNameIndex.suggest("doe", 10);
+
+        // Assert
+        assertEquals(List.of("2", "1"), ids(suggestions));
+    }
+
+    @Test
+    void testSuggest_AllQueryTokensMustMatch() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.of(
+                summary("1", "John", "Doe"), summary("2", "Jane", "Doe"), summary("3", "John", "Smith")));
+        patientNameIndex.load();
+
+        // Act
+        List<PatientSummary> suggestions = patientNameIndex.suggest("j do", 10);
+        List<PatientSummary> narrowed = patientNameIndex.suggest("john d", 10);
+
+        // Assert
+        assertEquals(List.of("1", "2"), ids(suggestions));
+        assertEquals(List.of("1"), ids(narrowed));
+    }
+
+    @Test
+    void testSuggest_IgnoresCaseAndDiacritics() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.of(summary("1", "José-María", "Núñez")));
+        patientNameIndex.load();
+
+        // Act & Assert
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("jose", 10)));
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("Mari", 10)));
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("nunez", 10)));
+    }
+
+    @Test
+    void testSuggest_RespectsLimit() {
+        // Arrange
+        List<PatientSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            summaries.add(summary(String.format("%03d", i), "Patient" + i, "Doe"));
+        }
+        when(patientRepository.streamSummaries()).thenReturn(summaries.stream());
+        patientNameIndex.load();
+
+        // Act & Assert
+        assertEquals(5, patientNameIndex.suggest("doe", 5).size());
+        assertEquals(PatientNameIndex.MAX_SUGGESTIONS, patientNameIndex.suggest("doe", 1000).size());
+    }
+
+    @Test
+    void testOnPatientChanged_AppliesCreateUpdateAndDelete() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenReturn(Stream.empty());
+        patientNameIndex.load();
+        PatientSnapshot created = snapshot("1", "John", "Doe", new Date(1000));
+        PatientSnapshot renamed = snapshot("1", "John", "Smith", new Date(2000));
+
+        // Act & Assert: create
+        patientNameIndex.onPatientChanged(PatientChangedEvent.created(created));
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("doe", 10)));
+
+        // Act & Assert: update replaces the old last name
+        patientNameIndex.onPatientChanged(PatientChangedEvent.updated(created, renamed));
+        assertTrue(patientNameIndex.suggest("doe", 10).isEmpty());
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("smi", 10)));
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("john", 10)));
+
+        // Act & Assert: delete
+        patientNameIndex.onPatientChanged(PatientChangedEvent.deleted(renamed));
+        assertTrue(patientNameIndex.suggest("john", 10).isEmpty());
+        assertEquals(0, patientNameIndex.size());
+        assertEquals(0.0, meterRegistry.get("patient.name.index.terms").gauge().value());
+    }
+
+    @Test
+    void testOnPatientChanged_IgnoresOlderUpdate() {
+        // Arrange
+        PatientSnapshot older = snapshot("1", "John", "Doe", new Date(1000));
+        PatientSnapshot newer = snapshot("1", "John", "Smith", new Date(2000));
+        patientNameIndex.onPatientChanged(PatientChangedEvent.updated(older, newer));
+
+        // Act
+        patientNameIndex.onPatientChanged(PatientChangedEvent.updated(older, older));
+
+        // Assert
+        assertTrue(patientNameIndex.suggest("doe", 10).isEmpty());
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("smith", 10)));
+    }
+
+    @Test
+    void testLoad_FailureLeavesEventsApplied() {
+        // Arrange
+        when(patientRepository.streamSummaries()).thenThrow(new RuntimeException("Database unavailable"));
+        patientNameIndex.onPatientChanged(PatientChangedEvent.created(snapshot("1", "John", "Doe", new Date())));
+
+        // Act
+        patientNameIndex.load();
+
+        // Assert
+        assertEquals(List.of("1"), ids(patientNameIndex.suggest("doe", 10)));
+    }
+
+    /**
+     * Helper method to create a patient summary
+     */
+    private static PatientSummary summary(String id, String firstName, String lastName) {
+        return new PatientSummary(id, "MRN" + id, firstName, lastName, new Date(0), "Female", new Date(0));
+    }
+
+    /**
+     * Helper method to create a patient snapshot
+     */
+    private static PatientSnapshot snapshot(String id, String firstName, String lastName, Date updatedAt) {
+        return new PatientSnapshot(id, "MRN" + id, firstName, lastName, new Date(0), "Male", "12345", "MA", "USA",
+                null, null, null, new Date(0), updatedAt);
+    }
+
+    private static List<String> ids(List<PatientSummary> summaries) {
+        return summaries.stream().map(PatientSummary::id).toList();
+    }
+}
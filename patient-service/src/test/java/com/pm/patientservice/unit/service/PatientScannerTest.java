@@ -0,0 +1,162 @@
+package com.pm.patientservice.unit.service;
+
+import com.pm.patientservice.event.PatientSnapshot;
+import com.pm.patientservice.exception.PatientServiceException;
+import com.pm.patientservice.model.PatientScanCheckpoint;
+import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientScanCheckpointRepository;
+import com.pm.patientservice.service.PatientScanThrottle;
+import com.pm.patientservice.service.PatientScanner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientScannerTest {
+
+    private static final List<String> IDS = List.of("1a", "3b", "7c", "9d");
+    private static final String FIRST = "00000000-0000-0000-0000-000000000000";
+    private static final String LAST = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientScanCheckpointRepository checkpointRepository;
+
+    @Mock
+    private PatientScanThrottle throttle;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private PatientScanner patientScanner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Two workers, chunks of two patients and two ranges, split after "3b"
+        patientScanner = new PatientScanner(patientRepository, checkpointRepository, throttle, transactionManager,
+                meterRegistry, 2, 2, 2);
+        lenient().when(patientRepository.findSnapshotsBetween(anyString(), anyString(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    String afterId = invocation.getArgument(0);
+                    String lastId = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return IDS.stream()
+                            .filter(id -> id.compareTo(afterId) > 0 && id.compareTo(lastId) <= 0)
+                            .limit(pageable.getPageSize())
+                            .map(PatientScannerTest::snapshot)
+                            .toList();
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        patientScanner.shutdown();
+    }
+
+    @Test
+    void testScan_ProcessesEveryPatientAcrossRanges() throws InterruptedException {
+        // Arrange
+        when(checkpointRepository.findByJobNameOrderByRangeStart("reindex")).thenReturn(List.of());
+        when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(patientRepository.count()).thenReturn((long) IDS.size());
+        when(patientRepository.findIdsEvery(2)).thenReturn(List.of("3b", "9d"));
+        Queue<String> processed = new ConcurrentLinkedQueue<>();
+
+        // Act
+        PatientScanner.ScanResult result = patientScanner.scan("reindex",
+                chunk -> chunk.forEach(patient -> processed.add(patient.id())));
+
+        // Assert
+        assertEquals(IDS, processed.stream().sorted().toList());
+        assertEquals(4, result.rows());
+        assertEquals(2, result.ranges());
+        assertEquals(0, result.resumedRanges());
+        verify(patientRepository).findSnapshotsBetween(eq(FIRST), eq("3b"), any(Pageable.class));
+        verify(patientRepository).findSnapshotsBetween(eq("3b"), eq("3b"), any(Pageable.class));
+        verify(patientRepository).findSnapshotsBetween(eq("3b"), eq(LAST), any(Pageable.class));
+        verify(patientRepository).findSnapshotsBetween(eq("9d"), eq(LAST), any(Pageable.class));
+        verify(throttle, atLeast(3)).acquire();
+        verify(checkpointRepository).deleteByJobName("reindex");
+        assertEquals(4.0, meterRegistry.get("patient.scan.rows").tag("job", "reindex").counter().count());
+        assertEquals(0.0, meterRegistry.get("patient.scan.ranges.remaining").tag("job", "reindex").gauge().value());
+    }
+
+    @Test
+    void testScan_ResumesFromCheckpoints() {
+        // Arrange: the first range stopped after "3b", the second one completed
+        when(checkpointRepository.findByJobNameOrderByRangeStart("reindex")).thenReturn(List.of(
+                new PatientScanCheckpoint("reindex", FIRST, "7c", "3b", 2, false, new Date()),
+                new PatientScanCheckpoint("reindex", "7c", LAST, "9d", 1, true, new Date())));
+        Queue<String> processed = new ConcurrentLinkedQueue<>();
+
+        // Act
+        PatientScanner.ScanResult result = patientScanner.scan("reindex",
+                chunk -> chunk.forEach(patient -> processed.add(patient.id())));
+
+        // Assert
+        assertEquals(List.of("7c"), List.copyOf(processed));
+        assertEquals(1, result.rows());
+        assertEquals(2, result.resumedRanges());
+        verify(patientRepository, never()).findSnapshotsBetween(eq("7c"), anyString(), any(Pageable.class));
+        verify(patientRepository, never()).findSnapshotsBetween(eq("9d"), anyString(), any(Pageable.class));
+        verify(checkpointRepository, never()).saveAll(anyList());
+        verify(patientRepository, never()).findIdsEvery(anyLong());
+    }
+
+    @Test
+    void testScan_FailureKeepsCheckpoints() {
+        // Arrange
+        when(checkpointRepository.findByJobNameOrderByRangeStart("reindex")).thenReturn(List.of());
+        when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(patientRepository.count()).thenReturn((long) IDS.size());
+        when(patientRepository.findIdsEvery(2)).thenReturn(List.of("3b", "9d"));
+
+        // Act & Assert
+        assertThrows(PatientServiceException.class, () -> patientScanner.scan("reindex", chunk -> {
+            throw new IllegalStateException("Processor failed");
+        }));
+        verify(checkpointRepository, never()).deleteByJobName(anyString());
+        assertEquals(1, meterRegistry.get("patient.scan.duration").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void testScan_EmptyTableIsOneRange() {
+        // Arrange
+        when(checkpointRepository.findByJobNameOrderByRangeStart("reindex")).thenReturn(List.of());
+        when(checkpointRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(patientRepository.count()).thenReturn(0L);
+        when(patientRepository.findIdsEvery(1)).thenReturn(List.of());
+
+        // Act
+        PatientScanner.ScanResult result = patientScanner.scan("reindex", chunk -> { });
+
+        // Assert
+        assertEquals(1, result.ranges());
+        verify(patientRepository).findSnapshotsBetween(eq(FIRST), eq(LAST), any(Pageable.class));
+    }
+
+    private static PatientSnapshot snapshot(String id) {
+        return new PatientSnapshot(id, "MRN-" + id, "First", "Last", new Date(0), "Female", "02139", "MA", "USA",
+                "Aetna", "HMO", null, new Date(0), new Date(1000));
+    }
+}
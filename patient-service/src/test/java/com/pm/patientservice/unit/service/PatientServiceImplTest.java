@@ -1,37 +1,67 @@
 package com.pm.patientservice.unit.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pm.patientservice.dto.PatientBatchCreateResponse;
+import com.pm.patientservice.dto.PatientBatchItemResult;
 import com.pm.patientservice.dto.PatientCreateRequest;
+import com.pm.patientservice.dto.PatientPageResponse;
 import com.pm.patientservice.dto.PatientResponse;
+import com.pm.patientservice.dto.PatientSearchCriteria;
+import com.pm.patientservice.dto.PatientSummary;
+import com.pm.patientservice.dto.PatientSummaryPageResponse;
 import com.pm.patientservice.dto.PatientUpdateRequest;
 import com.pm.patientservice.dto.AddressDTO;
 import com.pm.patientservice.dto.ContactInfoDTO;
 import com.pm.patientservice.dto.EmergencyContactDTO;
 import com.pm.patientservice.dto.InsuranceInfoDTO;
+import com.pm.patientservice.event.PatientChangedEvent;
+import com.pm.patientservice.exception.ErrorCode;
+import com.pm.patientservice.exception.InvalidRequestException;
 import com.pm.patientservice.exception.PatientAlreadyExistsException;
 import com.pm.patientservice.exception.PatientNotFoundException;
+import com.pm.patientservice.exception.PatientVersionConflictException;
 import com.pm.patientservice.mapper.PatientMapper;
+import com.pm.patientservice.mapper.PatientMergePatch;
 import com.pm.patientservice.model.Patient;
 import com.pm.patientservice.model.Address;
 import com.pm.patientservice.model.ContactInfo;
+import com.pm.patientservice.repository.PatientCursor;
 import com.pm.patientservice.repository.PatientRepository;
+import com.pm.patientservice.repository.PatientSortField;
+import com.pm.patientservice.service.PatientKeyFilter;
 import com.pm.patientservice.service.PatientServiceImpl;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,7 +73,16 @@ public class PatientServiceImplTest {
     @Mock
     private PatientMapper patientMapper;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     private MeterRegistry meterRegistry;
+    private PatientKeyFilter patientKeyFilter;
     private PatientServiceImpl patientService;
 
     private PatientCreateRequest createRequest;
@@ -56,10 +95,15 @@ public class PatientServiceImplTest {
     void setUp() {
         // Initialize MeterRegistry and PatientServiceImpl
         meterRegistry = new SimpleMeterRegistry();
-        patientService = new PatientServiceImpl(patientRepository, patientMapper, meterRegistry);
+        // The key filter is not built, so every uniqueness check goes to the repository
+        patientKeyFilter = new PatientKeyFilter(patientRepository, transactionManager, meterRegistry, 1000, 0.01);
+        PatientMergePatch patientMergePatch = new PatientMergePatch(objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        patientService = new PatientServiceImpl(patientRepository, patientMapper, patientKeyFilter, patientMergePatch,
+                eventPublisher, transactionManager, meterRegistry);
 
         // Initialize test data
-        patientId = "test-uuid";
+        patientId = "0190a8e4-7c6f-7b3e-9d2a-5f1c3e8b4a61";
 
         // Create request
         createRequest = new PatientCreateRequest();
@@ -121,6 +165,7 @@ public class PatientServiceImplTest {
 
         patient.setCreatedAt(new Date());
         patient.setUpdatedAt(new Date());
+        patient.setVersion(3L);
 
         // Patient response
         patientResponse = new PatientResponse();
@@ -139,11 +184,8 @@ public class PatientServiceImplTest {
     @Test
     void testCreatePatient() {
         // Arrange
-        when(patientRepository.existsByMedicalRecordNumber(anyString())).thenReturn(false);
-        when(patientRepository.existsByContactInfoEmail(anyString())).thenReturn(false);
-        when(patientRepository.existsByContactInfoPhoneNumber(anyString())).thenReturn(false);
         when(patientMapper.toPatient(any(PatientCreateRequest.class))).thenReturn(patient);
-        when(patientRepository.save(any(Patient.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class))).thenReturn(patient);
         when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(patientResponse);
 
         // Act
@@ -156,64 +198,161 @@ public class PatientServiceImplTest {
         assertEquals("John", result.getFirstName());
         assertEquals("Doe", result.getLastName());
 
-        // Verify interactions
-        verify(patientRepository).existsByMedicalRecordNumber("MRN12345");
-        verify(patientRepository).existsByContactInfoEmail("john.doe@example.com");
-        verify(patientRepository).existsByContactInfoPhoneNumber("+1-555-123-4567");
+        // Verify interactions: uniqueness is left to the database constraints
+        verify(patientRepository, never()).existsByMedicalRecordNumber(anyString());
+        verify(patientRepository, never()).existsByContactInfoEmail(anyString());
+        verify(patientRepository, never()).existsByContactInfoPhoneNumber(anyString());
         verify(patientMapper).toPatient(createRequest);
-        verify(patientRepository).save(patient);
+        verify(patientRepository).saveAndFlush(patient);
         verify(patientMapper).toPatientResponse(patient);
+
+        ArgumentCaptor<PatientChangedEvent> event = ArgumentCaptor.forClass(PatientChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(PatientChangedEvent.Type.CREATED, event.getValue().type());
+        assertNull(event.getValue().before());
+        assertEquals("Doe", event.getValue().after().lastName());
     }
 
     @Test
     void testCreatePatient_DuplicateMedicalRecordNumber() {
         // Arrange
-        when(patientRepository.existsByMedicalRecordNumber(anyString())).thenReturn(true);
+        when(patientMapper.toPatient(any(PatientCreateRequest.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class)))
+                .thenThrow(uniqueViolation(Patient.UK_MEDICAL_RECORD_NUMBER));
 
         // Act & Assert
-        assertThrows(PatientAlreadyExistsException.class, () -> {
+        PatientAlreadyExistsException exception = assertThrows(PatientAlreadyExistsException.class, () -> {
             patientService.createPatient(createRequest);
         });
+        assertEquals(ErrorCode.DUPLICATE_MEDICAL_RECORD_NUMBER, exception.getErrorCode());
+        assertTrue(exception.getMessage().contains("MRN12345"));
 
         // Verify interactions
-        verify(patientRepository).existsByMedicalRecordNumber("MRN12345");
-        verify(patientRepository, never()).save(any(Patient.class));
+        verify(patientRepository).saveAndFlush(patient);
+        verify(patientMapper, never()).toPatientResponse(any(Patient.class));
     }
 
     @Test
     void testCreatePatient_DuplicateEmail() {
         // Arrange
-        when(patientRepository.existsByMedicalRecordNumber(anyString())).thenReturn(false);
-        when(patientRepository.existsByContactInfoEmail(anyString())).thenReturn(true);
+        when(patientMapper.toPatient(any(PatientCreateRequest.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class)))
+                .thenThrow(uniqueViolation(ContactInfo.UK_EMAIL));
 
         // Act & Assert
-        assertThrows(PatientAlreadyExistsException.class, () -> {
+        PatientAlreadyExistsException exception = assertThrows(PatientAlreadyExistsException.class, () -> {
             patientService.createPatient(createRequest);
         });
+        assertEquals(ErrorCode.DUPLICATE_EMAIL, exception.getErrorCode());
+        assertTrue(exception.getMessage().contains("john.doe@example.com"));
 
         // Verify interactions
-        verify(patientRepository).existsByMedicalRecordNumber("MRN12345");
-        verify(patientRepository).existsByContactInfoEmail("john.doe@example.com");
-        verify(patientRepository, never()).save(any(Patient.class));
+        verify(patientMapper, never()).toPatientResponse(any(Patient.class));
     }
 
     @Test
     void testCreatePatient_DuplicatePhoneNumber() {
+        // Arrange: an unnamed legacy constraint is recognized by the violated column
+        when(patientMapper.toPatient(any(PatientCreateRequest.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new org.hibernate.exception.ConstraintViolationException("could not execute statement",
+                        new SQLException("ERROR: duplicate key value violates unique constraint \"uk_2qy7w0l7\"\n" +
+                                "  Detail: Key (phone_number)=(+1-555-123-4567) already exists.", "23505"),
+                        "uk_2qy7w0l7")));
+
+        // Act & Assert
+        PatientAlreadyExistsException exception = assertThrows(PatientAlreadyExistsException.class, () -> {
+            patientService.createPatient(createRequest);
+        });
+        assertEquals(ErrorCode.DUPLICATE_PHONE_NUMBER, exception.getErrorCode());
+        assertTrue(exception.getMessage().contains("+1-555-123-4567"));
+    }
+
+    @Test
+    void testCreatePatient_OtherIntegrityViolation() {
         // Arrange
-        when(patientRepository.existsByMedicalRecordNumber(anyString())).thenReturn(false);
-        when(patientRepository.existsByContactInfoEmail(anyString())).thenReturn(false);
-        when(patientRepository.existsByContactInfoPhoneNumber(anyString())).thenReturn(true);
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("not-null violation");
+        when(patientMapper.toPatient(any(PatientCreateRequest.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class))).thenThrow(violation);
 
         // Act & Assert
-        assertThrows(PatientAlreadyExistsException.class, () -> {
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
             patientService.createPatient(createRequest);
         });
+        assertSame(violation, exception);
+    }
 
-        // Verify interactions
-        verify(patientRepository).existsByMedicalRecordNumber("MRN12345");
-        verify(patientRepository).existsByContactInfoEmail("john.doe@example.com");
-        verify(patientRepository).existsByContactInfoPhoneNumber("+1-555-123-4567");
-        verify(patientRepository, never()).save(any(Patient.class));
+    @Test
+    void testCreatePatients() {
+        // Arrange
+        PatientCreateRequest existing = copyOf(createRequest, "MRN00001", "existing@example.com", "+1-555-000-0001");
+        PatientCreateRequest first = copyOf(createRequest, "MRN00002", "first@example.com", "+1-555-000-0002");
+        PatientCreateRequest sameEmail = copyOf(createRequest, "MRN00003", "first@example.com", "+1-555-000-0003");
+
+        when(patientRepository.findExistingMedicalRecordNumbers(anyCollection())).thenReturn(Set.of("MRN00001"));
+        when(patientRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(patientRepository.findExistingPhoneNumbers(anyCollection())).thenReturn(Set.of());
+        when(patientMapper.toPatient(first)).thenReturn(patient);
+        when(patientRepository.saveAll(List.of(patient))).thenReturn(List.of(patient));
+
+        // Act
+        PatientBatchCreateResponse result = patientService.createPatients(List.of(existing, first, sameEmail));
+
+        // Assert
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getConflicts());
+        assertEquals(PatientBatchItemResult.Status.CONFLICT, result.getResults().get(0).getStatus());
+        assertEquals("DUPLICATE_MEDICAL_RECORD_NUMBER", result.getResults().get(0).getErrorCode());
+        assertEquals(PatientBatchItemResult.Status.CREATED, result.getResults().get(1).getStatus());
+        assertEquals(patientId, result.getResults().get(1).getId());
+        assertEquals(PatientBatchItemResult.Status.CONFLICT, result.getResults().get(2).getStatus());
+        assertEquals("DUPLICATE_EMAIL", result.getResults().get(2).getErrorCode());
+
+        // Verify interactions: uniqueness is checked once per key for the whole batch
+        verify(patientRepository).findExistingMedicalRecordNumbers(anyCollection());
+        verify(patientRepository).findExistingEmails(anyCollection());
+        verify(patientRepository).findExistingPhoneNumbers(anyCollection());
+        verify(patientRepository, never()).existsByMedicalRecordNumber(anyString());
+        verify(patientRepository).saveAll(List.of(patient));
+        verify(patientRepository).flush();
+    }
+
+    @Test
+    void testCreatePatients_ConcurrentCreateBecomesConflict() {
+        // Arrange: another request commits MRN00001 between the key check and the flush
+        PatientCreateRequest raced = copyOf(createRequest, "MRN00001", "raced@example.com", "+1-555-000-0001");
+        PatientCreateRequest first = copyOf(createRequest, "MRN00002", "first@example.com", "+1-555-000-0002");
+        Patient racedPatient = new Patient();
+
+        when(patientRepository.findExistingMedicalRecordNumbers(anyCollection()))
+                .thenReturn(Set.of())
+                .thenReturn(Set.of("MRN00001"));
+        when(patientRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(patientRepository.findExistingPhoneNumbers(anyCollection())).thenReturn(Set.of());
+        when(patientMapper.toPatient(raced)).thenReturn(racedPatient);
+        when(patientMapper.toPatient(first)).thenReturn(patient);
+        when(patientRepository.saveAll(List.of(racedPatient, patient))).thenReturn(List.of(racedPatient, patient));
+        when(patientRepository.saveAll(List.of(patient))).thenReturn(List.of(patient));
+        doThrow(new DataIntegrityViolationException("duplicate key",
+                new org.hibernate.exception.ConstraintViolationException("duplicate key", null,
+                        Patient.UK_MEDICAL_RECORD_NUMBER)))
+                .doNothing()
+                .when(patientRepository).flush();
+
+        // Act
+        PatientBatchCreateResponse result = patientService.createPatients(List.of(raced, first));
+
+        // Assert: the batch is checked again and the raced patient reported instead of failing the batch
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getConflicts());
+        assertEquals(PatientBatchItemResult.Status.CONFLICT, result.getResults().get(0).getStatus());
+        assertEquals("DUPLICATE_MEDICAL_RECORD_NUMBER", result.getResults().get(0).getErrorCode());
+        assertEquals(PatientBatchItemResult.Status.CREATED, result.getResults().get(1).getStatus());
+        assertEquals(patientId, result.getResults().get(1).getId());
+        verify(patientRepository, times(2)).flush();
+        verify(transactionManager).rollback(any());
+        verify(eventPublisher, times(1)).publishEvent(any());
     }
 
     @Test
@@ -249,6 +388,17 @@ public class PatientServiceImplTest {
         verify(patientMapper, never()).toPatientResponse(any(Patient.class));
     }
 
+    @Test
+    void testGetPatientById_MalformedIdIsNotQueried() {
+        // Act & Assert
+        assertThrows(PatientNotFoundException.class, () -> patientService.getPatientById("not-a-uuid"));
+        assertThrows(PatientNotFoundException.class,
+                () -> patientService.getPatientById("0190A8E4-7C6F-7B3E-9D2A-5F1C3E8B4A61"));
+
+        // Verify interactions
+        verifyNoInteractions(patientRepository);
+    }
+
     @Test
     void testGetPatientByMedicalRecordNumber() {
         // Arrange
@@ -286,7 +436,7 @@ public class PatientServiceImplTest {
     }
 
     @Test
-    void testGetAllPatients() {
+    void testGetPatients() {
         // Arrange
         List<Patient> patients = new ArrayList<>();
         patients.add(patient);
@@ -294,32 +444,173 @@ public class PatientServiceImplTest {
         Patient patient2 = new Patient();
         patient2.setId("test-uuid-2");
         patient2.setMedicalRecordNumber("MRN12346");
+        patient2.setLastName("Smith");
         patients.add(patient2);
 
-        when(patientRepository.findAll()).thenReturn(patients);
+        when(patientRepository.findPageAfter(PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 3))
+                .thenReturn(patients);
         when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(patientResponse);
 
         // Act
-        List<PatientResponse> results = patientService.getAllPatients();
+        PatientPageResponse result = patientService.getPatients(2, PatientSortField.LAST_NAME, Sort.Direction.ASC, null);
 
         // Assert
-        assertNotNull(results);
-        assertEquals(2, results.size());
+        assertNotNull(result);
+        assertEquals(2, result.getSize());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
 
         // Verify interactions
-        verify(patientRepository).findAll();
+        verify(patientRepository).findPageAfter(PatientSortField.LAST_NAME, Sort.Direction.ASC, null, 3);
         verify(patientMapper, times(2)).toPatientResponse(any(Patient.class));
     }
 
+    @Test
+    void testGetPatients_HasMore() {
+        // Arrange
+        Patient patient2 = new Patient();
+        patient2.setId("test-uuid-2");
+        patient2.setLastName("Smith");
+
+        when(patientRepository.findPageAfter(eq(PatientSortField.LAST_NAME), eq(Sort.Direction.ASC), any(), eq(2)))
+                .thenReturn(List.of(patient, patient2));
+        when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(patientResponse);
+
+        // Act
+        PatientPageResponse result = patientService.getPatients(1, PatientSortField.LAST_NAME, Sort.Direction.ASC, null);
+
+        // Assert
+        assertEquals(1, result.getSize());
+        assertTrue(result.isHasMore());
+        assertNotNull(result.getNextCursor());
+
+        // The next cursor resumes after the last patient of the page
+        PatientCursor cursor = PatientCursor.decode(result.getNextCursor(), PatientSortField.LAST_NAME, Sort.Direction.ASC);
+        assertEquals(patientId, cursor.getId());
+        assertEquals("Doe", cursor.getSortValue());
+    }
+
+    @Test
+    void testGetPatientSummaries_HasMore() {
+        // Arrange
+        Date createdAt = new Date();
+        PatientSummary first = new PatientSummary(patientId, "MRN12345", "John", "Doe", new Date(), "Male", createdAt);
+        PatientSummary second = new PatientSummary("test-uuid-2", "MRN12346", "Jane", "Smith", new Date(), "Female",
+                new Date(createdAt.getTime() + 1000));
+        when(patientRepository.findSummaryPageAfter(PatientSortField.CREATED_AT, Sort.Direction.ASC, null, 2))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        PatientSummaryPageResponse result = patientService.getPatientSummaries(1, PatientSortField.CREATED_AT,
+                Sort.Direction.ASC, null);
+
+        // Assert
+        assertEquals(1, result.getSize());
+        assertEquals(List.of(first), result.getItems());
+        assertTrue(result.isHasMore());
+
+        // The next cursor resumes after the last summary of the page
+        PatientCursor cursor = PatientCursor.decode(result.getNextCursor(), PatientSortField.CREATED_AT, Sort.Direction.ASC);
+        assertEquals(patientId, cursor.getId());
+        assertEquals(createdAt, cursor.getSortValue());
+
+        // Summaries never go through the entity mapper
+        verify(patientMapper, never()).toPatientResponse(any(Patient.class));
+        verify(patientRepository, never()).findPageAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testSearchPatients() {
+        // Arrange
+        PatientSearchCriteria criteria = new PatientSearchCriteria();
+        criteria.setLastName("Do");
+        criteria.setDateOfBirthFrom(new Date(0));
+        PatientSummary summary = new PatientSummary(patientId, "MRN12345", "John", "Doe", new Date(), "Male", new Date());
+        when(patientRepository.findSummaryPageAfter(any(Specification.class), eq(PatientSortField.LAST_NAME),
+                eq(Sort.Direction.ASC), isNull(), eq(21))).thenReturn(List.of(summary));
+
+        // Act
+        PatientSummaryPageResponse result = patientService.searchPatients(criteria, 20, PatientSortField.LAST_NAME,
+                Sort.Direction.ASC, null);
+
+        // Assert
+        assertEquals(List.of(summary), result.getItems());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void testSearchPatients_NoFilters() {
+        // Act & Assert
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> {
+            patientService.searchPatients(new PatientSearchCriteria(), 20, PatientSortField.LAST_NAME,
+                    Sort.Direction.ASC, null);
+        });
+        assertEquals(ErrorCode.INVALID_SEARCH_CRITERIA, exception.getErrorCode());
+
+        // Verify interactions
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testSearchPatients_NameFragmentTooShort() {
+        // Arrange
+        PatientSearchCriteria criteria = new PatientSearchCriteria();
+        criteria.setName("Do");
+
+        // Act & Assert
+        InvalidRequestException exception = assertThrows(InvalidRequestException.class, () -> {
+            patientService.searchPatients(criteria, 20, PatientSortField.LAST_NAME, Sort.Direction.ASC, null);
+        });
+        assertEquals(ErrorCode.INVALID_SEARCH_CRITERIA, exception.getErrorCode());
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testSearchPatients_InvertedDateOfBirthRange() {
+        // Arrange
+        PatientSearchCriteria criteria = new PatientSearchCriteria();
+        criteria.setDateOfBirthFrom(new Date(1000));
+        criteria.setDateOfBirthTo(new Date(0));
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> {
+            patientService.searchPatients(criteria, 20, PatientSortField.LAST_NAME, Sort.Direction.ASC, null);
+        });
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void testGetPatients_CursorForDifferentSort() {
+        // Arrange
+        String cursor = PatientCursor.of(PatientSortField.LAST_NAME, Sort.Direction.ASC, patient).encode();
+
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> {
+            patientService.getPatients(10, PatientSortField.CREATED_AT, Sort.Direction.ASC, cursor);
+        });
+
+        // Verify interactions
+        verify(patientRepository, never()).findPageAfter(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetPatients_MalformedCursor() {
+        // Act & Assert
+        assertThrows(InvalidRequestException.class, () -> {
+            patientService.getPatients(10, PatientSortField.LAST_NAME, Sort.Direction.ASC, "not-a-cursor");
+        });
+    }
+
     @Test
     void testUpdatePatient() {
         // Arrange
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(patientRepository.save(any(Patient.class))).thenReturn(patient);
+        when(patientRepository.saveAndFlush(any(Patient.class))).thenReturn(patient);
         when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(patientResponse);
 
         // Act
-        PatientResponse result = patientService.updatePatient(updateRequest);
+        PatientResponse result = patientService.updatePatient(updateRequest, 3L);
 
         // Assert
         assertNotNull(result);
@@ -328,8 +619,15 @@ public class PatientServiceImplTest {
         // Verify interactions
         verify(patientRepository).findById(patientId);
         verify(patientMapper).updatePatientFromDTO(updateRequest, patient);
-        verify(patientRepository).save(patient);
+        verify(patientRepository).saveAndFlush(patient);
         verify(patientMapper).toPatientResponse(patient);
+
+        ArgumentCaptor<PatientChangedEvent> event = ArgumentCaptor.forClass(PatientChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(PatientChangedEvent.Type.UPDATED, event.getValue().type());
+        assertEquals(patientId, event.getValue().patientId());
+        assertNotNull(event.getValue().before());
+        assertNotNull(event.getValue().after());
     }
 
     @Test
@@ -339,13 +637,46 @@ public class PatientServiceImplTest {
 
         // Act & Assert
         assertThrows(PatientNotFoundException.class, () -> {
-            patientService.updatePatient(updateRequest);
+            patientService.updatePatient(updateRequest, null);
         });
 
         // Verify interactions
         verify(patientRepository).findById(patientId);
         verify(patientMapper, never()).updatePatientFromDTO(any(), any());
-        verify(patientRepository, never()).save(any(Patient.class));
+        verify(patientRepository, never()).saveAndFlush(any(Patient.class));
+    }
+
+    @Test
+    void testUpdatePatient_VersionMismatch() {
+        // Arrange
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+
+        // Act & Assert
+        PatientVersionConflictException exception = assertThrows(PatientVersionConflictException.class,
+                () -> patientService.updatePatient(updateRequest, 2L));
+        assertEquals(ErrorCode.VERSION_MISMATCH, exception.getErrorCode());
+
+        // Verify interactions
+        verify(patientMapper, never()).updatePatientFromDTO(any(), any());
+        verify(patientRepository, never()).saveAndFlush(any(Patient.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testUpdatePatient_ConcurrentUpdateFailsConditionalWrite() {
+        // Arrange: another update commits between the read and the versioned UPDATE
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientRepository.saveAndFlush(patient))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Patient.class, patientId));
+
+        // Act & Assert: a client holding an ETag gets 412, a client without one gets 409
+        PatientVersionConflictException withIfMatch = assertThrows(PatientVersionConflictException.class,
+                () -> patientService.updatePatient(updateRequest, 3L));
+        PatientVersionConflictException withoutIfMatch = assertThrows(PatientVersionConflictException.class,
+                () -> patientService.updatePatient(updateRequest, null));
+        assertEquals(ErrorCode.VERSION_MISMATCH, withIfMatch.getErrorCode());
+        assertEquals(ErrorCode.CONCURRENT_MODIFICATION, withoutIfMatch.getErrorCode());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -358,33 +689,120 @@ public class PatientServiceImplTest {
 
         // Act & Assert
         assertThrows(PatientAlreadyExistsException.class, () -> {
-            patientService.updatePatient(updateRequest);
+            patientService.updatePatient(updateRequest, null);
         });
 
         // Verify interactions
         verify(patientRepository).findById(patientId);
         verify(patientRepository).existsByMedicalRecordNumber("MRN12346");
         verify(patientMapper, never()).updatePatientFromDTO(any(), any());
-        verify(patientRepository, never()).save(any(Patient.class));
+        verify(patientRepository, never()).saveAndFlush(any(Patient.class));
+    }
+
+    @Test
+    void testUpdatePatient_KeyFilterSkipsCheckForFreeMedicalRecordNumber() {
+        // Arrange
+        when(patientRepository.streamUniqueKeys()).thenReturn(Stream.empty());
+        patientKeyFilter.rebuild();
+        updateRequest.setMedicalRecordNumber("MRN12346"); // Different from original
+
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientRepository.saveAndFlush(any(Patient.class))).thenReturn(patient);
+        when(patientMapper.toPatientResponse(any(Patient.class))).thenReturn(patientResponse);
+
+        // Act
+        patientService.updatePatient(updateRequest, null);
+
+        // Assert: the filter has never seen the new value, so no query is needed
+        verify(patientRepository, never()).existsByMedicalRecordNumber(anyString());
+        verify(patientRepository).saveAndFlush(patient);
+    }
+
+    @Test
+    void testPatchPatient_ChecksAndWritesOnlyChangedFields() throws Exception {
+        // Arrange
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientMapper.toPatientUpdateRequest(patient)).thenReturn(updateRequest);
+        when(patientRepository.existsByContactInfoPhoneNumber("+1-555-000-0000")).thenReturn(false);
+        when(patientRepository.saveAndFlush(patient)).thenReturn(patient);
+        when(patientMapper.toPatientResponse(patient)).thenReturn(patientResponse);
+
+        // Act
+        patientService.patchPatient(patientId,
+                objectMapper.readTree("{\"contactInfo\": {\"phoneNumber\": \"+1-555-000-0000\"}}"), 3L);
+
+        // Assert: the merged request keeps every other field, and only the phone number is checked
+        ArgumentCaptor<PatientUpdateRequest> merged = ArgumentCaptor.forClass(PatientUpdateRequest.class);
+        verify(patientMapper).updatePatientFromDTO(merged.capture(), eq(patient));
+        assertEquals("+1-555-000-0000", merged.getValue().getContactInfo().getPhoneNumber());
+        assertEquals(updateRequest.getContactInfo().getEmail(), merged.getValue().getContactInfo().getEmail());
+        assertEquals(updateRequest.getLastName(), merged.getValue().getLastName());
+        verify(patientRepository, never()).existsByMedicalRecordNumber(anyString());
+        verify(patientRepository, never()).existsByContactInfoEmail(anyString());
+        verify(eventPublisher).publishEvent(any(PatientChangedEvent.class));
+    }
+
+    @Test
+    void testPatchPatient_UnchangedPatchWritesNothing() throws Exception {
+        // Arrange
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientMapper.toPatientUpdateRequest(patient)).thenReturn(updateRequest);
+        when(patientMapper.toPatientResponse(patient)).thenReturn(patientResponse);
+
+        // Act
+        PatientResponse result = patientService.patchPatient(patientId,
+                objectMapper.readTree("{\"firstName\": \"John\"}"), null);
+
+        // Assert
+        assertSame(patientResponse, result);
+        verify(patientMapper, never()).updatePatientFromDTO(any(), any());
+        verify(patientRepository, never()).saveAndFlush(any(Patient.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void testPatchPatient_InvalidPatch() throws Exception {
+        // Arrange
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(patientMapper.toPatientUpdateRequest(patient)).thenReturn(updateRequest);
+
+        // Act & Assert: the ID cannot change and required fields cannot be removed
+        InvalidRequestException idChange = assertThrows(InvalidRequestException.class,
+                () -> patientService.patchPatient(patientId, objectMapper.readTree("{\"id\": \"other\"}"), null));
+        InvalidRequestException removal = assertThrows(InvalidRequestException.class,
+                () -> patientService.patchPatient(patientId,
+                        objectMapper.readTree("{\"contactInfo\": {\"email\": null}}"), null));
+        InvalidRequestException notAnObject = assertThrows(InvalidRequestException.class,
+                () -> patientService.patchPatient(patientId, objectMapper.readTree("[]"), null));
+        assertEquals(ErrorCode.INVALID_PATCH, idChange.getErrorCode());
+        assertEquals(ErrorCode.VALIDATION_ERROR, removal.getErrorCode());
+        assertEquals(ErrorCode.INVALID_PATCH, notAnObject.getErrorCode());
+        verify(patientRepository, never()).saveAndFlush(any(Patient.class));
     }
 
     @Test
     void testDeletePatient() {
         // Arrange
-        when(patientRepository.existsById(patientId)).thenReturn(true);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
 
         // Act
         patientService.deletePatient(patientId);
 
         // Verify interactions
-        verify(patientRepository).existsById(patientId);
-        verify(patientRepository).deleteById(patientId);
+        verify(patientRepository).findById(patientId);
+        verify(patientRepository).delete(patient);
+
+        ArgumentCaptor<PatientChangedEvent> event = ArgumentCaptor.forClass(PatientChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(PatientChangedEvent.Type.DELETED, event.getValue().type());
+        assertEquals(patientId, event.getValue().patientId());
+        assertNull(event.getValue().after());
     }
 
     @Test
     void testDeletePatient_NotFound() {
         // Arrange
-        when(patientRepository.existsById(patientId)).thenReturn(false);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(PatientNotFoundException.class, () -> {
@@ -392,7 +810,27 @@ public class PatientServiceImplTest {
         });
 
         // Verify interactions
-        verify(patientRepository).existsById(patientId);
-        verify(patientRepository, never()).deleteById(anyString());
+        verify(patientRepository).findById(patientId);
+        verify(patientRepository, never()).delete(any(Patient.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * Helper method to copy the create request with different unique keys
+     */
+    private PatientCreateRequest copyOf(PatientCreateRequest source, String medicalRecordNumber,
+                                        String email, String phoneNumber) {
+        return new PatientCreateRequest(medicalRecordNumber, source.getFirstName(),
+                source.getLastName(), source.getDateOfBirth(), source.getGender(), source.getAddress(),
+                new ContactInfoDTO(phoneNumber, email, null), null, null);
+    }
+
+    /**
+     * Helper method to create the exception Spring raises for a violated unique constraint
+     */
+    private DataIntegrityViolationException uniqueViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new org.hibernate.exception.ConstraintViolationException("could not execute statement",
+                        new SQLException("duplicate key value violates unique constraint", "23505"), constraintName));
     }
 }